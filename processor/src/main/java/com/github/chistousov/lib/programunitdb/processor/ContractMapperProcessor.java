@@ -0,0 +1,755 @@
+package com.github.chistousov.lib.programunitdb.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * <p>
+ * Annotation processor that reads the OutParam and Column annotations of contract classes at compile time
+ * and generates for each contract class a plain Java implementation of ContractMapper (OutParamsContractMapper for several output parameters)
+ * with direct calls of fields and methods and typed {@link java.sql.ResultSet} getters by the column index. The row mappers
+ * extend ContractRowMapper, which resolves the column indexes once per cursor.
+ * (Обработчик аннотаций, который на этапе компиляции читает аннотации OutParam и Column классов-контрактов
+ * и генерирует для каждого класса-контракта обычную Java реализацию ContractMapper (OutParamsContractMapper для нескольких выходных параметров)
+ * с прямыми обращениями к полям и методам и типизированными геттерами {@link java.sql.ResultSet} по индексу колонки.
+ * Отображения строк наследуют ContractRowMapper, который определяет индексы колонок один раз на курсор.)
+ * </p>
+ *
+ * <p>
+ * Errors in the description of the contract class (not all method parameters are annotated, incorrect OutParam over the cursor class)
+ * are reported as compilation errors. If the contract class uses private fields, methods or constructors, the mapper is not
+ * generated and ProgramUnitDB works through reflection.
+ * (Ошибки описания класса-контракта (аннотированы не все параметры метода, неверный OutParam над классом курсора)
+ * выводятся как ошибки компиляции. Если класс-контракт использует private поля, методы или конструкторы, отображение
+ * не генерируется и ProgramUnitDB работает через рефлексию.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ */
+@SupportedAnnotationTypes("*")
+public class ContractMapperProcessor extends AbstractProcessor {
+
+    private static final String OUT_PARAM_ANNOTATION = "com.github.chistousov.lib.programunitdb.annotations.OutParam";
+    private static final String COLUMN_ANNOTATION = "com.github.chistousov.lib.programunitdb.annotations.Column";
+
+    // the same as ContractMapper.GENERATED_CLASS_SUFFIX
+    // то же, что ContractMapper.GENERATED_CLASS_SUFFIX
+    private static final String GENERATED_CLASS_SUFFIX = "_ContractMapper";
+
+    private static final String CONTRACT_MAPPER = "com.github.chistousov.lib.programunitdb.ContractMapper";
+    private static final String OUT_PARAMS_CONTRACT_MAPPER = "com.github.chistousov.lib.programunitdb.OutParamsContractMapper";
+    private static final String SUPPORT = "com.github.chistousov.lib.programunitdb.ContractMapperSupport";
+    private static final String ROW_MAPPER = "org.springframework.jdbc.core.RowMapper";
+    private static final String CONTRACT_ROW_MAPPER = "com.github.chistousov.lib.programunitdb.ContractRowMapper";
+    private static final String MAPPING_EXCEPTION = "com.github.chistousov.lib.programunitdb.ProgramUnitMappingException";
+
+    // name of the returned parameter of the stored function
+    // наименование возвращаемого параметра хранимой функции
+    private static final String DEFAULT_NAME_RETURN_PARAM_IN_FUNCTION = "";
+
+    // already generated classes
+    // уже сгенерированные классы
+    private final Set<String> generatedClasses = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getRootElements()) {
+            if (element instanceof TypeElement) {
+                processType((TypeElement) element);
+            }
+        }
+        // annotations are not claimed
+        // аннотации не забираются
+        return false;
+    }
+
+    /**
+     *
+     * The function processes the class and its nested classes
+     * (Функция обрабатывает класс и его вложенные классы)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param type class (класс)
+     */
+    private void processType(TypeElement type) {
+
+        boolean isSeveralOutParams = isSeveralOutParams(type);
+
+        try {
+            if (isSeveralOutParams) {
+                generateSeveralOutParams(type);
+            } else if (isOneCursor(type)) {
+                generateOneCursor(type);
+            }
+        } catch (ContractException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), e.element);
+        } catch (InaccessibleException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "ContractMapper is not generated, reflection is used: " + e.getMessage(), e.element);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "ContractMapper is not generated: " + e.getMessage(), type);
+        }
+
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            // cursor classes of several output parameters are processed together with the main class
+            // классы курсоров нескольких выходных параметров обрабатываются вместе с главным классом
+            if (!(isSeveralOutParams && annotation(nested, OUT_PARAM_ANNOTATION) != null)) {
+                processType(nested);
+            }
+        }
+    }
+
+    //------------------------------------------------------------------------
+    //  contract class analysis
+    //  анализ класса-контракта
+    //------------------------------------------------------------------------
+
+    private boolean isSeveralOutParams(TypeElement type) {
+        return ElementFilter.fieldsIn(type.getEnclosedElements()).stream()
+                .anyMatch(field -> annotation(field, OUT_PARAM_ANNOTATION) != null)
+                ||
+                ElementFilter.methodsIn(type.getEnclosedElements()).stream().anyMatch(method -> method.getParameters()
+                        .stream().anyMatch(parameter -> annotation(parameter, OUT_PARAM_ANNOTATION) != null));
+    }
+
+    private boolean isOneCursor(TypeElement type) {
+        return ElementFilter.fieldsIn(type.getEnclosedElements()).stream()
+                .anyMatch(field -> annotation(field, COLUMN_ANNOTATION) != null)
+                ||
+                ElementFilter.methodsIn(type.getEnclosedElements()).stream().anyMatch(method -> method.getParameters()
+                        .stream().anyMatch(parameter -> annotation(parameter, COLUMN_ANNOTATION) != null));
+    }
+
+    /**
+     *
+     * The function collects the fields and methods of the class marked with the annotation
+     * (Функция собирает поля и методы класса, помеченные аннотацией)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param type class (класс)
+     * @param annotationName annotation (аннотация)
+     * @return fields and methods (поля и методы)
+     * @throws ContractException not all method parameters are annotated (аннотированы не все параметры метода)
+     * @throws InaccessibleException field or method is private (поле или метод private)
+     */
+    private List<Target> targets(TypeElement type, String annotationName)
+            throws ContractException, InaccessibleException {
+        List<Target> targets = new ArrayList<>();
+
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            AnnotationMirror fieldAnnotation = annotation(field, annotationName);
+            if (fieldAnnotation != null) {
+                checkNotPrivate(field);
+                Target target = new Target(field.getSimpleName().toString(), false);
+                target.names.add(stringValue(fieldAnnotation, "name"));
+                target.types.add(field.asType());
+                targets.add(target);
+            }
+        }
+
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            List<? extends VariableElement> parameters = method.getParameters();
+            long annotatedParameters = parameters.stream()
+                    .filter(parameter -> annotation(parameter, annotationName) != null).count();
+            if (annotatedParameters == 0) {
+                continue;
+            }
+            if (annotatedParameters != parameters.size()) {
+                throw new ContractException("Either mark all parameters with the @"
+                        + annotationName.substring(annotationName.lastIndexOf('.') + 1)
+                        + " annotation or don't use this " + method.getSimpleName()
+                        + " method at all as receiving data from output parameters", method);
+            }
+            checkNotPrivate(method);
+            Target target = new Target(method.getSimpleName().toString(), true);
+            for (VariableElement parameter : parameters) {
+                target.names.add(stringValue(annotation(parameter, annotationName), "name"));
+                target.types.add(parameter.asType());
+            }
+            targets.add(target);
+        }
+
+        return targets;
+    }
+
+    /**
+     *
+     * The function returns an expression that creates an object of the class with the default constructor
+     * (Функция возвращает выражение, которое создает объект класса конструктором по умолчанию)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param type class (класс)
+     * @param mainType main class if the class is nested. May be null (главный класс, если класс вложенный. Может быть null)
+     * @return expression (выражение)
+     * @throws InaccessibleException the class or its default constructor is private (класс или его конструктор по умолчанию private)
+     */
+    private String instantiation(TypeElement type, TypeElement mainType) throws InaccessibleException {
+        for (Element enclosing = type; enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+            checkNotPrivate(enclosing);
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            throw new InaccessibleException("generic class " + type.getQualifiedName(), type);
+        }
+        checkDefaultConstructor(type);
+
+        boolean isInner = type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC);
+        if (!isInner) {
+            return "new " + type.getQualifiedName() + "()";
+        }
+        if (mainType == null) {
+            throw new InaccessibleException("inner class " + type.getQualifiedName() + " without main class", type);
+        }
+        checkDefaultConstructor(mainType);
+        return "new " + mainType.getQualifiedName() + "().new " + type.getSimpleName() + "()";
+    }
+
+    private void checkDefaultConstructor(TypeElement type) throws InaccessibleException {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()) {
+                checkNotPrivate(constructor);
+                return;
+            }
+        }
+        throw new InaccessibleException("no default constructor in " + type.getQualifiedName(), type);
+    }
+
+    private void checkNotPrivate(Element element) throws InaccessibleException {
+        if (element.getModifiers().contains(Modifier.PRIVATE)) {
+            throw new InaccessibleException("private " + element.getKind().toString().toLowerCase() + " "
+                    + element.getSimpleName(), element);
+        }
+    }
+
+    //------------------------------------------------------------------------
+    //  code generation
+    //  генерация кода
+    //------------------------------------------------------------------------
+
+    /**
+     *
+     * The function generates the mapper of the class describing several output parameters
+     * (Функция генерирует отображение класса, описывающего несколько выходных параметров)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param type contract class (класс-контракт)
+     */
+    private void generateSeveralOutParams(TypeElement type)
+            throws ContractException, InaccessibleException, IOException {
+
+        List<Target> targets = targets(type, OUT_PARAM_ANNOTATION);
+        String contractInstantiation = instantiation(type, null);
+
+        // cursors are nested classes annotated with @OutParam
+        // курсоры - вложенные классы, аннотированные @OutParam
+        List<String> cursorNames = new ArrayList<>();
+        List<String> cursorMappers = new ArrayList<>();
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            AnnotationMirror nestedAnnotation = annotation(nested, OUT_PARAM_ANNOTATION);
+            if (nestedAnnotation != null) {
+                String mapperName = "CursorRowMapper" + cursorMappers.size();
+                cursorNames.add(stringValue(nestedAnnotation, "name").toUpperCase());
+                cursorMappers.add(rowMapperClass(mapperName, nested, type));
+            }
+        }
+
+        StringBuilder mapOutParams = new StringBuilder();
+        mapOutParams.append("        java.util.Map<String, Object> values = ").append(SUPPORT)
+                .append(".upperCaseNames(outParams);\n");
+        mapOutParams.append("        ").append(type.getQualifiedName()).append(" contract = ")
+                .append(contractInstantiation).append(";\n");
+        for (Target target : targets) {
+            List<String> conditions = new ArrayList<>();
+            List<String> values = new ArrayList<>();
+            for (int i = 0; i < target.names.size(); i++) {
+                String name = literal(target.names.get(i).toUpperCase());
+                conditions.add("values.containsKey(" + name + ")");
+                values.add(SUPPORT + ".castOutParam(" + erasure(target.types.get(i)) + ".class, values.get(" + name
+                        + "))");
+            }
+            mapOutParams.append("        if (").append(String.join(" || ", conditions)).append(") {\n");
+            mapOutParams.append("            ").append(assignment("contract", target, values)).append("\n");
+            mapOutParams.append("        }\n");
+        }
+        mapOutParams.append("        return contract;\n");
+
+        // the values read by index: one slot per field and per method parameter, in the order of the targets
+        // значения, прочитанные по индексу: по одной позиции на поле и на параметр метода в порядке целей
+        List<String> outParamNames = new ArrayList<>();
+        List<String> outParamTypes = new ArrayList<>();
+        StringBuilder mapValues = new StringBuilder();
+        mapValues.append("        ").append(type.getQualifiedName()).append(" contract = ")
+                .append(contractInstantiation).append(";\n");
+        for (Target target : targets) {
+            List<String> conditions = new ArrayList<>();
+            List<String> values = new ArrayList<>();
+            for (int i = 0; i < target.names.size(); i++) {
+                int slot = outParamNames.size();
+                String erasure = erasure(target.types.get(i));
+                outParamNames.add(literal(target.names.get(i).toUpperCase()));
+                outParamTypes.add(erasure + ".class");
+                conditions.add("isInCall[" + slot + "]");
+                values.add("(" + erasure + ") values[" + slot + "]");
+            }
+            mapValues.append("        if (").append(String.join(" || ", conditions)).append(") {\n");
+            mapValues.append("            ").append(assignment("contract", target, values)).append("\n");
+            mapValues.append("        }\n");
+        }
+        mapValues.append("        return contract;\n");
+
+        String contractType = type.getQualifiedName().toString();
+        StringBuilder methods = new StringBuilder();
+        methods.append("    private static final String[] OUT_PARAM_NAMES = {").append(arrayElements(outParamNames))
+                .append("};\n\n");
+        methods.append("    private static final Class<?>[] OUT_PARAM_TYPES = {").append(arrayElements(outParamTypes))
+                .append("};\n\n");
+        methods.append("    @Override\n");
+        methods.append("    public ").append(contractType)
+                .append(" mapOutParams(java.util.Map<String, Object> outParams) throws Exception {\n");
+        methods.append(mapOutParams);
+        methods.append("    }\n\n");
+        methods.append("    @Override\n");
+        methods.append("    public String[] getOutParamNames() {\n");
+        methods.append("        return OUT_PARAM_NAMES.clone();\n");
+        methods.append("    }\n\n");
+        methods.append("    @Override\n");
+        methods.append("    public Class<?>[] getOutParamTypes() {\n");
+        methods.append("        return OUT_PARAM_TYPES.clone();\n");
+        methods.append("    }\n\n");
+        methods.append("    @Override\n");
+        methods.append("    public ").append(contractType)
+                .append(" mapOutParams(Object[] values, boolean[] isInCall) throws Exception {\n");
+        methods.append(mapValues);
+        methods.append("    }\n\n");
+
+        writeMapper(type, cursorNames, cursorMappers, methods.toString());
+    }
+
+    /**
+     *
+     * The function generates the mapper of the class describing one cursor
+     * (Функция генерирует отображение класса, описывающего один курсор)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param type contract class (класс-контракт)
+     */
+    private void generateOneCursor(TypeElement type) throws ContractException, InaccessibleException, IOException {
+
+        String returnCursorName = DEFAULT_NAME_RETURN_PARAM_IN_FUNCTION;
+
+        // the class is either not annotated (function), or annotated with isReturnFucntionParam = true (function),
+        // or annotated with the name of the output parameter (procedure)
+        // класс либо не аннотирован (функция), либо аннотирован с isReturnFucntionParam = true (функция),
+        // либо аннотирован именем выходного параметра (процедура)
+        AnnotationMirror outParamAnnotation = annotation(type, OUT_PARAM_ANNOTATION);
+        if (outParamAnnotation != null) {
+            String name = stringValue(outParamAnnotation, "name");
+            boolean isReturnFucntionParam = Boolean.TRUE
+                    .equals(value(outParamAnnotation, "isReturnFucntionParam").getValue());
+            if (isReturnFucntionParam == name.isEmpty()) {
+                returnCursorName = name.toUpperCase();
+            } else {
+                throw new ContractException("Unknown how to display the class " + type.getQualifiedName()
+                        + " to output cursor", type);
+            }
+        }
+
+        List<String> cursorNames = new ArrayList<>();
+        List<String> cursorMappers = new ArrayList<>();
+        cursorNames.add(returnCursorName);
+        cursorMappers.add(rowMapperClass("CursorRowMapper0", type, null));
+
+        // mapOutParams of one cursor is not generated: the default method of ContractMapper is used
+        // mapOutParams одного курсора не генерируется: используется метод ContractMapper по умолчанию
+        writeMapper(type, cursorNames, cursorMappers, null);
+    }
+
+    /**
+     *
+     * The function returns the source code of the nested {@code RowMapper} class of the cursor
+     * (Функция возвращает исходный код вложенного класса {@code RowMapper} курсора)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param mapperName name of the nested class (имя вложенного класса)
+     * @param cursorType cursor class (класс курсора)
+     * @param mainType main class if the cursor class is nested. May be null (главный класс, если класс курсора вложенный. Может быть null)
+     * @return source code (исходный код)
+     */
+    private String rowMapperClass(String mapperName, TypeElement cursorType, TypeElement mainType)
+            throws ContractException, InaccessibleException {
+
+        List<Target> targets = targets(cursorType, COLUMN_ANNOTATION);
+        String rowType = cursorType.getQualifiedName().toString();
+
+        // column names of the fields and of the parameters of each method, in the order of the targets
+        // имена колонок полей и параметров каждого метода в порядке целей
+        List<String> fieldColumnNames = new ArrayList<>();
+        List<String> methodColumnNames = new ArrayList<>();
+        for (Target target : targets) {
+            if (target.isMethod) {
+                List<String> names = new ArrayList<>();
+                for (String name : target.names) {
+                    names.add(literal(name));
+                }
+                methodColumnNames.add("{ " + String.join(", ", names) + " }");
+            } else {
+                fieldColumnNames.add(literal(target.names.get(0)));
+            }
+        }
+
+        StringBuilder source = new StringBuilder();
+        source.append("    private static final class ").append(mapperName).append(" extends ").append(CONTRACT_ROW_MAPPER)
+                .append("<").append(rowType).append("> {\n\n");
+        source.append("        ").append(mapperName).append("() {\n");
+        source.append("            super(new String[] {").append(arrayElements(fieldColumnNames))
+                .append("}, new String[][] {").append(arrayElements(methodColumnNames)).append("});\n");
+        source.append("        }\n\n");
+        source.append("        @Override\n");
+        source.append("        protected ").append(rowType)
+                .append(" mapRow(java.sql.ResultSet rs, int[] fieldColumns, int[][] methodColumns)\n");
+        source.append("                throws ").append(MAPPING_EXCEPTION).append(" {\n");
+        source.append("            ").append(rowType).append(" row;\n");
+        source.append("            try {\n");
+        source.append("                row = ").append(instantiation(cursorType, mainType)).append(";\n");
+        source.append("            } catch (Throwable e) {\n");
+        source.append("                ").append(mappingError("DEFAULT_CONSTRUCTOR_NOT_FOUND")).append("\n");
+        source.append("            }\n");
+
+        int field = 0;
+        int method = 0;
+        for (Target target : targets) {
+            if (!target.isMethod) {
+                // the field whose column is not in the cursor is skipped
+                // поле, колонки которого нет в курсоре, пропускается
+                String column = "fieldColumns[" + field++ + "]";
+                source.append("            if (").append(column).append(" != 0) {\n");
+                source.append("                try {\n");
+                source.append("                    ").append(assignment("row", target,
+                        Collections.singletonList(readColumn(target.types.get(0), column)))).append("\n");
+                source.append("                } catch (Throwable e) {\n");
+                source.append("                    ").append(mappingError("FIELD_NOT_FOUND")).append("\n");
+                source.append("                }\n");
+                source.append("            }\n");
+                continue;
+            }
+
+            // the method is invoked if its columns are in the cursor: the columns are read, then the method is invoked
+            // метод вызывается, если его колонки есть в курсоре: колонки читаются, затем вызывается метод
+            String columns = "methodColumns[" + method + "]";
+            source.append("            if (").append(columns).append(" != null) {\n");
+            List<String> values = new ArrayList<>();
+            for (int i = 0; i < target.names.size(); i++) {
+                String value = "value" + method + "_" + i;
+                values.add(value);
+                source.append("                ").append(erasure(target.types.get(i))).append(" ").append(value)
+                        .append(";\n");
+            }
+            source.append("                try {\n");
+            for (int i = 0; i < target.names.size(); i++) {
+                source.append("                    ").append(values.get(i)).append(" = ")
+                        .append(readColumn(target.types.get(i), columns + "[" + i + "]")).append(";\n");
+            }
+            source.append("                } catch (Throwable e) {\n");
+            source.append("                    ").append(mappingError("CAST_FROM_DB_TO_JAVA_WITH_ERROR")).append("\n");
+            source.append("                }\n");
+            source.append("                try {\n");
+            source.append("                    ").append(assignment("row", target, values)).append("\n");
+            source.append("                } catch (Throwable e) {\n");
+            source.append("                    ").append(mappingError("METHOD_INCCORECT")).append("\n");
+            source.append("                }\n");
+            source.append("            }\n");
+            method++;
+        }
+        source.append("            return row;\n");
+        source.append("        }\n");
+        source.append("    }\n");
+        return source.toString();
+    }
+
+    private static String arrayElements(List<String> elements) {
+        return elements.isEmpty() ? "" : " " + String.join(", ", elements) + " ";
+    }
+
+    private static String mappingError(String reason) {
+        return "throw new " + MAPPING_EXCEPTION + "(" + MAPPING_EXCEPTION + ".Reason." + reason + ", e);";
+    }
+
+    private void writeMapper(TypeElement type, List<String> cursorNames, List<String> cursorMappers,
+            String outParamsMethods) throws IOException {
+
+        String packageName = packageName(type);
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String mapperSimpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                .replace('$', '_') + GENERATED_CLASS_SUFFIX;
+        String mapperName = packageName.isEmpty() ? mapperSimpleName : packageName + "." + mapperSimpleName;
+
+        if (!generatedClasses.add(mapperName)) {
+            return;
+        }
+
+        String contractType = type.getQualifiedName().toString();
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("// Generated by ").append(getClass().getName()).append(" from ").append(contractType)
+                .append(". Do not edit.\n");
+        source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        source.append("public final class ").append(mapperSimpleName).append(" implements ")
+                .append(outParamsMethods != null ? OUT_PARAMS_CONTRACT_MAPPER : CONTRACT_MAPPER)
+                .append("<").append(contractType).append("> {\n\n");
+
+        source.append("    private final java.util.Map<String, ").append(ROW_MAPPER)
+                .append("<?>> cursorRowMappers;\n\n");
+
+        source.append("    public ").append(mapperSimpleName).append("() {\n");
+        source.append("        java.util.Map<String, ").append(ROW_MAPPER)
+                .append("<?>> rowMappers = new java.util.HashMap<>();\n");
+        for (int i = 0; i < cursorNames.size(); i++) {
+            source.append("        rowMappers.put(").append(literal(cursorNames.get(i))).append(", new CursorRowMapper")
+                    .append(i).append("());\n");
+        }
+        source.append("        this.cursorRowMappers = java.util.Collections.unmodifiableMap(rowMappers);\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public java.util.Map<String, ").append(ROW_MAPPER).append("<?>> getCursorRowMappers() {\n");
+        source.append("        return cursorRowMappers;\n");
+        source.append("    }\n\n");
+
+        if (outParamsMethods != null) {
+            source.append(outParamsMethods);
+        }
+
+        for (String cursorMapper : cursorMappers) {
+            source.append(cursorMapper).append("\n");
+        }
+        source.append("}\n");
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(mapperName, type).openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    /**
+     *
+     * The function returns an expression that reads the column of the current cursor row by index with a typed getter,
+     * as ColumnReaders of the library does
+     * (Функция возвращает выражение, которое читает колонку текущей строки курсора по индексу типизированным геттером,
+     * как это делает ColumnReaders библиотеки)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param type Java type (Java тип)
+     * @param index expression of the column index (выражение индекса колонки)
+     * @return expression (выражение)
+     */
+    private String readColumn(TypeMirror type, String index) {
+        String erasure = erasure(type);
+        switch (erasure) {
+            case "boolean":
+                return "rs.getBoolean(" + index + ")";
+            case "byte":
+                return "rs.getByte(" + index + ")";
+            case "short":
+                return "rs.getShort(" + index + ")";
+            case "int":
+                return "rs.getInt(" + index + ")";
+            case "long":
+                return "rs.getLong(" + index + ")";
+            case "float":
+                return "rs.getFloat(" + index + ")";
+            case "double":
+                return "rs.getDouble(" + index + ")";
+            // wrapper types get null for NULL
+            // типы-обертки получают null для NULL
+            case "java.lang.Boolean":
+                return SUPPORT + ".orNull(rs.getBoolean(" + index + "), rs.wasNull())";
+            case "java.lang.Byte":
+                return SUPPORT + ".orNull(rs.getByte(" + index + "), rs.wasNull())";
+            case "java.lang.Short":
+                return SUPPORT + ".orNull(rs.getShort(" + index + "), rs.wasNull())";
+            case "java.lang.Integer":
+                return SUPPORT + ".orNull(rs.getInt(" + index + "), rs.wasNull())";
+            case "java.lang.Long":
+                return SUPPORT + ".orNull(rs.getLong(" + index + "), rs.wasNull())";
+            case "java.lang.Float":
+                return SUPPORT + ".orNull(rs.getFloat(" + index + "), rs.wasNull())";
+            case "java.lang.Double":
+                return SUPPORT + ".orNull(rs.getDouble(" + index + "), rs.wasNull())";
+            case "java.lang.Character":
+                return SUPPORT + ".toCharacter(rs.getString(" + index + "))";
+            case "java.math.BigDecimal":
+                return "rs.getBigDecimal(" + index + ")";
+            case "byte[]":
+                return "rs.getBytes(" + index + ")";
+            case "java.util.UUID":
+                return SUPPORT + ".toUUID(rs.getObject(" + index + "))";
+            case "java.time.OffsetDateTime":
+                return "rs.getObject(" + index + ", java.time.OffsetDateTime.class)";
+            // a moment of time is read with its offset, the timestamp if the driver does not support it
+            // момент времени читается со своим смещением, timestamp, если драйвер его не поддерживает
+            case "java.time.Instant":
+                return SUPPORT + ".readTemporal(() -> " + SUPPORT + ".toInstant(rs.getObject(" + index
+                        + ", java.time.OffsetDateTime.class)), () -> " + SUPPORT + ".toInstant(rs.getTimestamp(" + index + ")))";
+            case "java.lang.String":
+                return "rs.getString(" + index + ")";
+            // JDBC 4.2 getObject(index, type) without the time zone of the JVM, the getter of the java.sql type if the driver
+            // does not support it
+            // JDBC 4.2 getObject(index, type) без часового пояса JVM, геттер java.sql типа, если драйвер его не поддерживает
+            case "java.time.LocalDate":
+                return readTemporal(erasure, index, SUPPORT + ".toLocalDate(rs.getDate(" + index + "))");
+            case "java.time.LocalTime":
+                return readTemporal(erasure, index, SUPPORT + ".toLocalTime(rs.getTime(" + index + "))");
+            case "java.time.LocalDateTime":
+                return readTemporal(erasure, index, SUPPORT + ".toLocalDateTime(rs.getTimestamp(" + index + "))");
+            default:
+                return "(" + erasure + ") rs.getObject(" + index + ")";
+        }
+    }
+
+    private static String readTemporal(String type, String index, String fallback) {
+        return SUPPORT + ".readTemporal(() -> rs.getObject(" + index + ", " + type + ".class), () -> " + fallback + ")";
+    }
+
+    private static String assignment(String object, Target target, List<String> values) {
+        if (target.isMethod) {
+            return object + "." + target.memberName + "(" + String.join(", ", values) + ");";
+        }
+        return object + "." + target.memberName + " = " + values.get(0) + ";";
+    }
+
+    //------------------------------------------------------------------------
+    // auxiliary function block
+    // блок вспомогательных функций
+    //------------------------------------------------------------------------
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private String literal(String value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    private String packageName(TypeElement type) {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        return packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+    }
+
+    private static AnnotationMirror annotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName()
+                    .contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private AnnotationValue value(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : processingEnv
+                .getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue();
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    private String stringValue(AnnotationMirror mirror, String name) {
+        return (String) value(mirror, name).getValue();
+    }
+
+    /**
+     * Field or method of the contract class (Поле или метод класса-контракта)
+     */
+    private static final class Target {
+
+        private final String memberName;
+        private final boolean isMethod;
+        // annotation names and types of the field or method parameters
+        // имена из аннотаций и типы поля или параметров метода
+        private final List<String> names = new ArrayList<>();
+        private final List<TypeMirror> types = new ArrayList<>();
+
+        Target(String memberName, boolean isMethod) {
+            this.memberName = memberName;
+            this.isMethod = isMethod;
+        }
+    }
+
+    /**
+     * Error in the description of the contract class (Ошибка описания класса-контракта)
+     */
+    private static final class ContractException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Element element;
+
+        ContractException(String message, Element element) {
+            super(message);
+            this.element = element;
+        }
+    }
+
+    /**
+     * The contract class cannot be mapped without reflection (Класс-контракт нельзя отобразить без рефлексии)
+     */
+    private static final class InaccessibleException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Element element;
+
+        InaccessibleException(String message, Element element) {
+            super(message);
+            this.element = element;
+        }
+    }
+
+}
@@ -0,0 +1,439 @@
+package com.github.chistousov.lib.programunitdb.processor;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import com.github.chistousov.lib.programunitdb.ContractMapper;
+import com.github.chistousov.lib.programunitdb.OutParamsContractMapper;
+import com.github.chistousov.lib.programunitdb.ProgramUnitMappingException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * <p>
+ * Tests of {@link ContractMapperProcessor}: contract classes are compiled with the processor by the system Java compiler,
+ * and the generated mappers are loaded and called.
+ * (Тесты {@link ContractMapperProcessor}: классы-контракты компилируются с процессором системным компилятором Java,
+ * а сгенерированные отображения загружаются и вызываются.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ */
+public class ContractMapperProcessorTest {
+
+    @TempDir
+    Path output;
+
+    @Test
+    @DisplayName("The mapper of several output parameters assembles the contract class")
+    public void theMapperOfSeveralOutputParametersAssemblesTheContractClass() throws Exception {
+
+        // given
+        String source = String.join("\n",
+                "package contracts;",
+                "import java.util.List;",
+                "import com.github.chistousov.lib.programunitdb.annotations.Column;",
+                "import com.github.chistousov.lib.programunitdb.annotations.OutParam;",
+                "public class Users {",
+                "    @OutParam(name = \"total\")",
+                "    public Long total;",
+                "    public List<User> users;",
+                "    public void setUsers(@OutParam(name = \"users\") List<User> users) {",
+                "        this.users = users;",
+                "    }",
+                "    @OutParam(name = \"users\")",
+                "    public static class User {",
+                "        @Column(name = \"id\")",
+                "        public Long id;",
+                "    }",
+                "}");
+
+        // when
+        Compilation compilation = compile("contracts.Users", source);
+        OutParamsContractMapper<?> mapper = (OutParamsContractMapper<?>) compilation.mapper("contracts.Users");
+        List<Object> users = new ArrayList<>();
+        Map<String, Object> outParams = new HashMap<>();
+        outParams.put("total", 2);
+        outParams.put("users", users);
+        Object contract = mapper.mapOutParams(outParams);
+
+        // then
+        assertAll(
+                () -> assertTrue(compilation.isSuccess, compilation::toString),
+                () -> assertEquals(Collections.singleton("USERS"), mapper.getCursorRowMappers().keySet()),
+                () -> assertEquals(2L, contract.getClass().getField("total").get(contract)),
+                () -> assertTrue(users == contract.getClass().getField("users").get(contract)));
+    }
+
+    @Test
+    @DisplayName("The mapper of one cursor maps rows and does not implement the mapping of output parameters")
+    public void theMapperOfOneCursorMapsRowsAndDoesNotImplementTheMappingOfOutputParameters() throws Exception {
+
+        // given
+        String source = String.join("\n",
+                "package contracts;",
+                "import com.github.chistousov.lib.programunitdb.annotations.Column;",
+                "import com.github.chistousov.lib.programunitdb.annotations.OutParam;",
+                "@OutParam(name = \"ref_cursor\")",
+                "public class User {",
+                "    @Column(name = \"id\")",
+                "    public Long id;",
+                "    public String name;",
+                "    public void setName(@Column(name = \"name\") String name) {",
+                "        this.name = name;",
+                "    }",
+                "}");
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1L);
+        row.put("name", "user");
+
+        // when
+        Compilation compilation = compile("contracts.User", source);
+        ContractMapper<?> mapper = compilation.mapper("contracts.User");
+        RowMapper<?> rowMapper = mapper.getCursorRowMappers().get("REF_CURSOR");
+        Object user = rowMapper.mapRow(resultSet(row), 0);
+
+        // then
+        assertAll(
+                () -> assertTrue(compilation.isSuccess, compilation::toString),
+                () -> assertFalse(compilation.generatedSource("contracts.User").contains("mapOutParams")),
+                () -> assertFalse(mapper instanceof OutParamsContractMapper),
+                () -> assertEquals(1L, user.getClass().getField("id").get(user)),
+                () -> assertEquals("user", user.getClass().getField("name").get(user)));
+    }
+
+    @Test
+    @DisplayName("The generated mapper reads NULL into null of a wrapper type and into 0 of a primitive type")
+    public void theGeneratedMapperReadsNullIntoNullOfAWrapperTypeAndInto0OfAPrimitiveType() throws Exception {
+
+        // given
+        String source = String.join("\n",
+                "package contracts;",
+                "import com.github.chistousov.lib.programunitdb.annotations.Column;",
+                "import com.github.chistousov.lib.programunitdb.annotations.OutParam;",
+                "@OutParam(name = \"ref_cursor\")",
+                "public class Amounts {",
+                "    @Column(name = \"wrapper\")",
+                "    public Long wrapper;",
+                "    @Column(name = \"primitive\")",
+                "    public long primitive;",
+                "    @Column(name = \"zero\")",
+                "    public Long zero;",
+                "}");
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("wrapper", null);
+        row.put("primitive", null);
+        row.put("zero", 0L);
+
+        // when
+        Compilation compilation = compile("contracts.Amounts", source);
+        RowMapper<?> rowMapper = compilation.mapper("contracts.Amounts").getCursorRowMappers().get("REF_CURSOR");
+        Object amounts = rowMapper.mapRow(resultSet(row), 0);
+
+        // then
+        assertAll(
+                () -> assertTrue(compilation.isSuccess, compilation::toString),
+                () -> assertNull(amounts.getClass().getField("wrapper").get(amounts)),
+                () -> assertEquals(0L, amounts.getClass().getField("primitive").get(amounts)),
+                () -> assertEquals(0L, amounts.getClass().getField("zero").get(amounts)));
+    }
+
+    @Test
+    @DisplayName("The generated mapper skips a field without a column and reports a column that cannot be read")
+    public void theGeneratedMapperSkipsAFieldWithoutAColumnAndReportsAColumnThatCannotBeRead() throws Exception {
+
+        // given
+        String source = String.join("\n",
+                "package contracts;",
+                "import com.github.chistousov.lib.programunitdb.annotations.Column;",
+                "import com.github.chistousov.lib.programunitdb.annotations.OutParam;",
+                "@OutParam(name = \"ref_cursor\")",
+                "public class Comment {",
+                "    @Column(name = \"id\")",
+                "    public Long id;",
+                "    @Column(name = \"comment\")",
+                "    public String comment = \"not read\";",
+                "    public String name;",
+                "    public void setName(@Column(name = \"name\") String name) {",
+                "        this.name = name;",
+                "    }",
+                "}");
+        // the columns are in another order than the fields, and there is no column of the comment
+        // колонки в другом порядке, чем поля, и колонки комментария нет
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("NAME", "user");
+        row.put("ID", 1L);
+        Map<String, Object> brokenRow = new LinkedHashMap<>();
+        brokenRow.put("NAME", new SQLException("broken value"));
+        brokenRow.put("ID", 1L);
+
+        // when
+        Compilation compilation = compile("contracts.Comment", source);
+        RowMapper<?> rowMapper = compilation.mapper("contracts.Comment").getCursorRowMappers().get("REF_CURSOR");
+        Object comment = rowMapper.mapRow(resultSet(row), 0);
+        ProgramUnitMappingException error = assertThrows(ProgramUnitMappingException.class,
+                () -> rowMapper.mapRow(resultSet(brokenRow), 0));
+
+        // then
+        assertAll(
+                () -> assertTrue(compilation.isSuccess, compilation::toString),
+                () -> assertEquals(1L, comment.getClass().getField("id").get(comment)),
+                () -> assertEquals("user", comment.getClass().getField("name").get(comment)),
+                () -> assertEquals("not read", comment.getClass().getField("comment").get(comment)),
+                () -> assertEquals(ProgramUnitMappingException.Reason.CAST_FROM_DB_TO_JAVA_WITH_ERROR, error.getReason()));
+    }
+
+    @Test
+    @DisplayName("The generated mapper reads local dates and times by JDBC 4.2 getObject")
+    public void theGeneratedMapperReadsLocalDatesAndTimesByJdbc42GetObject() throws Exception {
+
+        // given
+        String source = String.join("\n",
+                "package contracts;",
+                "import java.time.LocalDate;",
+                "import java.time.LocalDateTime;",
+                "import java.time.LocalTime;",
+                "import com.github.chistousov.lib.programunitdb.annotations.Column;",
+                "import com.github.chistousov.lib.programunitdb.annotations.OutParam;",
+                "@OutParam(name = \"ref_cursor\")",
+                "public class Dates {",
+                "    @Column(name = \"day\")",
+                "    public LocalDate day;",
+                "    @Column(name = \"time\")",
+                "    public LocalTime time;",
+                "    @Column(name = \"moment\")",
+                "    public LocalDateTime moment;",
+                "}");
+        // the row returns java.time values for any getter, so the getters of the java.sql types would fail
+        // строка возвращает значения java.time для любого геттера, поэтому геттеры java.sql типов завершились бы ошибкой
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("day", LocalDate.of(2020, 1, 1));
+        row.put("time", LocalTime.of(12, 30));
+        row.put("moment", LocalDateTime.of(2020, 1, 1, 12, 30));
+
+        // when
+        Compilation compilation = compile("contracts.Dates", source);
+        RowMapper<?> rowMapper = compilation.mapper("contracts.Dates").getCursorRowMappers().get("REF_CURSOR");
+        Object dates = rowMapper.mapRow(resultSet(row), 0);
+
+        // then
+        assertAll(
+                () -> assertTrue(compilation.isSuccess, compilation::toString),
+                () -> assertEquals(row.get("day"), dates.getClass().getField("day").get(dates)),
+                () -> assertEquals(row.get("time"), dates.getClass().getField("time").get(dates)),
+                () -> assertEquals(row.get("moment"), dates.getClass().getField("moment").get(dates)));
+    }
+
+    @Test
+    @DisplayName("Errors of the contract class are compilation errors")
+    public void errorsOfTheContractClassAreCompilationErrors() throws Exception {
+
+        // given
+        String notAllParametersAnnotated = String.join("\n",
+                "package contracts;",
+                "import com.github.chistousov.lib.programunitdb.annotations.Column;",
+                "import com.github.chistousov.lib.programunitdb.annotations.OutParam;",
+                "@OutParam(name = \"ref_cursor\")",
+                "public class NotAllParametersAnnotated {",
+                "    public void set(@Column(name = \"id\") Long id, String name) {",
+                "    }",
+                "}");
+        String unknownCursor = String.join("\n",
+                "package contracts;",
+                "import com.github.chistousov.lib.programunitdb.annotations.Column;",
+                "import com.github.chistousov.lib.programunitdb.annotations.OutParam;",
+                "@OutParam(name = \"ref_cursor\", isReturnFucntionParam = true)",
+                "public class UnknownCursor {",
+                "    @Column(name = \"id\")",
+                "    public Long id;",
+                "}");
+
+        // when
+        Compilation notAllParametersAnnotatedCompilation = compile("contracts.NotAllParametersAnnotated",
+                notAllParametersAnnotated);
+        Compilation unknownCursorCompilation = compile("contracts.UnknownCursor", unknownCursor);
+
+        // then
+        assertAll(
+                () -> assertFalse(notAllParametersAnnotatedCompilation.isSuccess),
+                () -> assertTrue(notAllParametersAnnotatedCompilation.messages(Diagnostic.Kind.ERROR).stream()
+                        .anyMatch(message -> message.startsWith("Either mark all parameters with the @Column annotation")),
+                        notAllParametersAnnotatedCompilation::toString),
+                () -> assertFalse(unknownCursorCompilation.isSuccess),
+                () -> assertTrue(unknownCursorCompilation.messages(Diagnostic.Kind.ERROR)
+                        .contains("Unknown how to display the class contracts.UnknownCursor to output cursor"),
+                        unknownCursorCompilation::toString));
+    }
+
+    @Test
+    @DisplayName("A contract class with private members falls back to reflection")
+    public void aContractClassWithPrivateMembersFallsBackToReflection() throws Exception {
+
+        // given
+        String source = String.join("\n",
+                "package contracts;",
+                "import com.github.chistousov.lib.programunitdb.annotations.Column;",
+                "import com.github.chistousov.lib.programunitdb.annotations.OutParam;",
+                "@OutParam(name = \"ref_cursor\")",
+                "public class PrivateField {",
+                "    @Column(name = \"id\")",
+                "    private Long id;",
+                "}");
+
+        // when
+        Compilation compilation = compile("contracts.PrivateField", source);
+
+        // then
+        assertAll(
+                () -> assertTrue(compilation.isSuccess, compilation::toString),
+                () -> assertTrue(compilation.messages(Diagnostic.Kind.NOTE)
+                        .contains("ContractMapper is not generated, reflection is used: private field id"),
+                        compilation::toString),
+                () -> assertFalse(Files.exists(compilation.generatedSourcePath("contracts.PrivateField"))));
+    }
+
+    private Compilation compile(String className, String source) throws IOException, URISyntaxException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaFileObject file = new SimpleJavaFileObject(
+                URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        // the generated code is compiled against the library and Spring JDBC
+        // сгенерированный код компилируется с библиотекой и Spring JDBC
+        String classpath = classpath(ContractMapper.class) + java.io.File.pathSeparator + classpath(RowMapper.class);
+        List<String> options = Arrays.asList("-d", output.toString(), "-s", output.toString(), "-classpath", classpath);
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null,
+                StandardCharsets.UTF_8)) {
+            CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    Collections.singletonList(file));
+            task.setProcessors(Collections.singletonList(new ContractMapperProcessor()));
+            boolean isSuccess = task.call();
+            return new Compilation(isSuccess, diagnostics.getDiagnostics(), output);
+        }
+    }
+
+    private static String classpath(Class<?> clazz) throws URISyntaxException {
+        return Paths.get(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+    // the cursor row of the generated mapper, read by column index; the columns are in the order of the row.
+    // A value that is an SQLException is thrown by its getter
+    // строка курсора сгенерированного отображения, читаемая по индексу колонки; колонки в порядке строки.
+    // Значение, которое является SQLException, выбрасывается его геттером
+    private static ResultSet resultSet(Map<String, Object> row) {
+        List<String> columnNames = new ArrayList<>(row.keySet());
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+                ContractMapperProcessorTest.class.getClassLoader(), new Class<?>[] { ResultSetMetaData.class },
+                (proxy, method, args) -> "getColumnCount".equals(method.getName()) ? (Object) columnNames.size()
+                        : columnNames.get((Integer) args[0] - 1));
+        Object[] lastValue = new Object[1];
+        return (ResultSet) Proxy.newProxyInstance(ContractMapperProcessorTest.class.getClassLoader(),
+                new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+                    if ("getMetaData".equals(method.getName())) {
+                        return metaData;
+                    }
+                    if ("wasNull".equals(method.getName())) {
+                        return lastValue[0] == null;
+                    }
+                    Object value = row.get(columnNames.get((Integer) args[0] - 1));
+                    if (value instanceof SQLException) {
+                        throw (SQLException) value;
+                    }
+                    lastValue[0] = value;
+                    if (method.getReturnType() == long.class) {
+                        return value == null ? 0L : ((Number) value).longValue();
+                    }
+                    return value;
+                });
+    }
+
+    /**
+     * Result of the compilation (Результат компиляции)
+     */
+    private static final class Compilation {
+
+        private final boolean isSuccess;
+        private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+        private final Path output;
+
+        Compilation(boolean isSuccess, List<Diagnostic<? extends JavaFileObject>> diagnostics, Path output) {
+            this.isSuccess = isSuccess;
+            this.diagnostics = diagnostics;
+            this.output = output;
+        }
+
+        List<String> messages(Diagnostic.Kind kind) {
+            return diagnostics.stream().filter(diagnostic -> diagnostic.getKind() == kind)
+                    .map(diagnostic -> diagnostic.getMessage(null)).collect(Collectors.toList());
+        }
+
+        Path generatedSourcePath(String contractName) {
+            return output.resolve(contractName.replace('.', '/') + "_ContractMapper.java");
+        }
+
+        String generatedSource(String contractName) throws IOException {
+            return new String(Files.readAllBytes(generatedSourcePath(contractName)), StandardCharsets.UTF_8);
+        }
+
+        ContractMapper<?> mapper(String contractName) throws Exception {
+            URLClassLoader classLoader = new URLClassLoader(new URL[] { output.toUri().toURL() },
+                    ContractMapperProcessorTest.class.getClassLoader());
+            return (ContractMapper<?>) classLoader.loadClass(contractName + "_ContractMapper").getConstructor()
+                    .newInstance();
+        }
+
+        @Override
+        public String toString() {
+            return diagnostics.stream().map(diagnostic -> diagnostic.getKind() + ": " + diagnostic.getMessage(null))
+                    .collect(Collectors.joining("\n"));
+        }
+    }
+
+}
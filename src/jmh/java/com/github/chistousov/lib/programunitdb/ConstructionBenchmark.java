@@ -0,0 +1,63 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.SqlParameter;
+
+/**
+ * <p>
+ * Benchmarks of the construction of {@link ProgramUnitDB} for the contracts {@link Get2FirstUser} and {@link GetSomeUser}.
+ * The description of the contract class is computed on the first construction, so the steady state is measured.
+ * (Бенчмарки создания {@link ProgramUnitDB} для контрактов {@link Get2FirstUser} и {@link GetSomeUser}.
+ * Описание класса-контракта вычисляется при первом создании, поэтому измеряется установившееся состояние.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConstructionBenchmark {
+
+    private DataSource dataSource;
+    private List<SqlParameter> get2FirstUserParameters;
+
+    @Setup
+    public void setUp() {
+        dataSource = StubJdbc.dataSource(index -> null);
+        get2FirstUserParameters = new ArrayList<>();
+        get2FirstUserParameters.add(new SqlParameter("create_date_more", Types.TIMESTAMP));
+    }
+
+    @Benchmark
+    public ProgramUnitDB<Get2FirstUser> get2FirstUser() throws Exception {
+        return new ProgramUnitDB<>(dataSource, "test_program_unit", null, "get_2_first_user", get2FirstUserParameters,
+                Get2FirstUser.class, false);
+    }
+
+    @Benchmark
+    public ProgramUnitDB<GetSomeUser> getSomeUser() throws Exception {
+        return new ProgramUnitDB<>(dataSource, "test_program_unit", null, "get_some_user", null, GetSomeUser.class,
+                false);
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.sql.CallableStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.github.chistousov.lib.programunitdb.ColumnReaders.ColumnReader;
+import com.github.chistousov.lib.programunitdb.OutParamReaders.OutParamReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.SqlOutParameter;
+import org.springframework.jdbc.core.SqlParameter;
+
+/**
+ * <p>
+ * Benchmarks of the mapping hot paths on in-memory JDBC objects ({@link StubJdbc}): mapping of cursor rows into
+ * {@link Get2FirstUser}, assembly of {@link GetSomeUser} from two output cursors, and reading of one column or output
+ * parameter by the per-type readers.
+ * (Бенчмарки горячих путей отображения на JDBC объектах в памяти ({@link StubJdbc}): отображение строк курсора
+ * в {@link Get2FirstUser}, сборка {@link GetSomeUser} из двух выходных курсоров и чтение одной колонки или выходного
+ * параметра чтениями по типу.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    // number of rows of each cursor
+    // количество строк каждого курсора
+    @Param({ "10", "1000" })
+    public int rows;
+
+    private ProgramUnitDB<Get2FirstUser> get2FirstUser;
+    private ProgramUnitDB<GetSomeUser> getSomeUser;
+
+    private ResultSet row;
+    private ColumnReader longReader;
+    private ColumnReader stringReader;
+    private ColumnReader localDateTimeReader;
+
+    private CallableStatement statement;
+    private OutParamReader longOutParamReader;
+    private OutParamReader stringOutParamReader;
+    private OutParamReader localDateTimeOutParamReader;
+
+    @Setup
+    public void setUp() throws Exception {
+        LocalDateTime createDate = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+        Object[][] users = new Object[rows][];
+        Object[][] someUsers = new Object[rows][];
+        for (int i = 0; i < rows; i++) {
+            users[i] = new Object[] { (long) i, "user " + i };
+            someUsers[i] = new Object[] { "user " + i, "comment " + i, createDate.plusDays(i) };
+        }
+        String[] usersColumns = { "id", "name" };
+        String[] someUsersColumns = { "name", "comment", "createdate" };
+
+        List<SqlParameter> get2FirstUserParameters = new ArrayList<>();
+        get2FirstUserParameters.add(new SqlParameter("create_date_more", Types.TIMESTAMP));
+        get2FirstUserParameters.add(new SqlOutParameter("ref_cursor", Types.REF_CURSOR));
+        get2FirstUser = new ProgramUnitDB<>(StubJdbc.dataSource(index -> StubJdbc.resultSet(usersColumns, users)),
+                "test_program_unit", null, "get_2_first_user", get2FirstUserParameters, Get2FirstUser.class, false);
+        get2FirstUser.setMetaDataMode(CallMetaDataCache.Mode.DECLARED_ONLY);
+        get2FirstUser.compile();
+
+        List<SqlParameter> getSomeUserParameters = new ArrayList<>();
+        getSomeUserParameters.add(new SqlOutParameter("admins", Types.REF_CURSOR));
+        getSomeUserParameters.add(new SqlOutParameter("users", Types.REF_CURSOR));
+        getSomeUser = new ProgramUnitDB<>(StubJdbc.dataSource(index -> StubJdbc.resultSet(someUsersColumns, someUsers)),
+                "test_program_unit", null, "get_some_user", getSomeUserParameters, GetSomeUser.class, false);
+        getSomeUser.setMetaDataMode(CallMetaDataCache.Mode.DECLARED_ONLY);
+        getSomeUser.compile();
+
+        row = StubJdbc.resultSet(new String[] { "id", "name", "createdate" },
+                new Object[][] { { 1L, "user", createDate } });
+        row.next();
+        longReader = ColumnReaders.forType(Long.class);
+        stringReader = ColumnReaders.forType(String.class);
+        localDateTimeReader = ColumnReaders.forType(LocalDateTime.class);
+
+        Object[] outParams = { null, 1L, "user", createDate };
+        statement = StubJdbc.callableStatement(index -> outParams[index]);
+        longOutParamReader = OutParamReaders.forType(Long.class);
+        stringOutParamReader = OutParamReaders.forType(String.class);
+        localDateTimeOutParamReader = OutParamReaders.forType(LocalDateTime.class);
+    }
+
+    @Benchmark
+    public void cursorRowMapping(Blackhole blackhole) throws Exception {
+        try (CursorIterator<Get2FirstUser> iterator = get2FirstUser.executeCursorAsIterator((Object) null)) {
+            while (iterator.hasNext()) {
+                blackhole.consume(iterator.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public GetSomeUser severalOutParamsAssembly() throws Exception {
+        return getSomeUser.executeReturnedSeveralOutParams();
+    }
+
+    @Benchmark
+    public void columnReaders(Blackhole blackhole) throws Exception {
+        blackhole.consume(longReader.read(row, 1));
+        blackhole.consume(stringReader.read(row, 2));
+        blackhole.consume(localDateTimeReader.read(row, 3));
+    }
+
+    @Benchmark
+    public void outParamReaders(Blackhole blackhole) throws Exception {
+        blackhole.consume(longOutParamReader.read(statement, 1));
+        blackhole.consume(stringOutParamReader.read(statement, 2));
+        blackhole.consume(localDateTimeOutParamReader.read(statement, 3));
+    }
+
+}
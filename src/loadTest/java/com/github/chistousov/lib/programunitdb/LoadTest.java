@@ -0,0 +1,301 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.springframework.jdbc.core.SqlOutParameter;
+import org.springframework.jdbc.core.SqlParameter;
+
+/**
+ * <p>
+ * Load test of {@link ProgramUnitDB} on the embedded database {@link EmbeddedDatabase}, without Docker and network. Each
+ * scenario is called by several threads in a closed loop: first during the warmup, then during the measurement. For each
+ * scenario the throughput and the percentiles p50, p99 and p99.9 of the latency are printed, and all results are written
+ * to a JSON summary to compare runs.
+ * (Нагрузочный тест {@link ProgramUnitDB} на встроенной БД {@link EmbeddedDatabase}, без Docker и сети. Каждый сценарий
+ * вызывается несколькими потоками в замкнутом цикле: сначала во время прогрева, затем во время измерения. Для каждого
+ * сценария печатаются пропускная способность и перцентили p50, p99 и p99.9 задержки, а все результаты записываются
+ * в JSON сводку для сравнения запусков.)
+ * </p>
+ *
+ * <p>
+ * Arguments are name=value: threads (8), duration in seconds (10), warmup in seconds (2), scenarios separated by commas
+ * (all), users - number of rows of the cursors (100), summary - path of the JSON summary.
+ * (Аргументы name=value: threads (8), duration в секундах (10), warmup в секундах (2), scenarios через запятую (все),
+ * users - количество строк курсоров (100), summary - путь JSON сводки.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see Histogram
+ */
+public final class LoadTest {
+
+    private static final List<String> SCENARIOS = Arrays.asList("scalar", "cursor", "severalOutParams", "noOut");
+
+    private LoadTest() {
+    }
+
+    /**
+     * One call of a scenario (Один вызов сценария)
+     */
+    @FunctionalInterface
+    interface Call {
+        Object call() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("threads", "8");
+        options.put("duration", "10");
+        options.put("warmup", "2");
+        options.put("scenarios", String.join(",", SCENARIOS));
+        options.put("users", "100");
+        options.put("summary", "build/reports/loadtest/summary.json");
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0 || !options.containsKey(arg.substring(0, separator))) {
+                throw new IllegalArgumentException("Unknown argument " + arg + ", expected one of " + options.keySet());
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        int threads = Integer.parseInt(options.get("threads"));
+        int durationSeconds = Integer.parseInt(options.get("duration"));
+        int warmupSeconds = Integer.parseInt(options.get("warmup"));
+        int userCount = Integer.parseInt(options.get("users"));
+        List<String> scenarioNames = Arrays.asList(options.get("scenarios").split(","));
+
+        JdbcConnectionPool dataSource = EmbeddedDatabase.create(threads, userCount);
+        try {
+            String database;
+            try (Connection connection = dataSource.getConnection()) {
+                DatabaseMetaData metaData = connection.getMetaData();
+                database = metaData.getDatabaseProductName() + " " + metaData.getDatabaseProductVersion();
+            }
+
+            Map<String, Call> scenarios = scenarios(dataSource, userCount);
+            List<Result> results = new ArrayList<>();
+            for (String name : scenarioNames) {
+                Call call = scenarios.get(name.trim());
+                if (call == null) {
+                    throw new IllegalArgumentException("Unknown scenario " + name + ", expected one of " + SCENARIOS);
+                }
+                // a wrong result fails the run before it is measured
+                // неверный результат прерывает запуск до измерения
+                if (call.call() == null) {
+                    throw new IllegalStateException("Scenario " + name + " returned null");
+                }
+                run(call, threads, warmupSeconds, new Histogram(), new LongAdder());
+                Histogram latencies = new Histogram();
+                LongAdder errors = new LongAdder();
+                long elapsedNanos = run(call, threads, durationSeconds, latencies, errors);
+                results.add(new Result(name.trim(), latencies, errors.sum(), elapsedNanos));
+            }
+
+            print(results, threads);
+            Path summary = Paths.get(options.get("summary"));
+            writeSummary(summary, database, threads, durationSeconds, warmupSeconds, userCount, results);
+            System.out.println("Summary: " + summary.toAbsolutePath());
+        } finally {
+            dataSource.dispose();
+        }
+    }
+
+    /**
+     *
+     * @param dataSource data source of the embedded database (источник данных встроенной БД)
+     * @param userCount number of users in the table (количество пользователей в таблице)
+     * @return calls of the scenarios by name (вызовы сценариев по имени)
+     * @throws Exception error of creation of the program units (ошибка создания программных юнитов)
+     */
+    private static Map<String, Call> scenarios(JdbcConnectionPool dataSource, int userCount) throws Exception {
+        String schemaName = EmbeddedDatabase.SCHEMA;
+
+        // without metadata of H2 the return value of the function is declared first
+        // без метаданных H2 возвращаемое значение функции объявляется первым
+        List<SqlParameter> getNameUserByIdParameters = new ArrayList<>();
+        getNameUserByIdParameters.add(new SqlOutParameter("return", Types.VARCHAR));
+        getNameUserByIdParameters.add(new SqlParameter("user_id", Types.BIGINT));
+        ProgramUnitDB<String> getNameUserById = new ProgramUnitDB<>(dataSource, schemaName, null,
+                "get_name_user_by_id", getNameUserByIdParameters, String.class, true);
+
+        List<SqlParameter> get2FirstUserParameters = new ArrayList<>();
+        get2FirstUserParameters.add(new SqlParameter("create_date_more", Types.TIMESTAMP));
+        ProgramUnitDB<Get2FirstUser> get2FirstUser = new ProgramUnitDB<>(dataSource, schemaName, null,
+                "get_2_first_user", get2FirstUserParameters, Get2FirstUser.class, false);
+        Timestamp createDateMore = Timestamp.valueOf("2000-01-01 00:00:00");
+
+        ProgramUnitDB<GetUsers> getUsers = new ProgramUnitDB<>(dataSource, schemaName, null, "get_users", null,
+                GetUsers.class, false);
+
+        ProgramUnitDB<Void> insertAndDelete = new ProgramUnitDB<>(dataSource, schemaName, null, "insert_and_delete",
+                null, null, false);
+
+        Map<String, Call> scenarios = new LinkedHashMap<>();
+        scenarios.put("scalar", () -> getNameUserById
+                .executeReturnedOnlyOneNonCursor(ThreadLocalRandom.current().nextLong(1, userCount + 1)));
+        scenarios.put("cursor", () -> get2FirstUser.executeReturnedOnlyOneCursor(createDateMore));
+        scenarios.put("severalOutParams", () -> getUsers.executeReturnedSeveralOutParams());
+        scenarios.put("noOut", () -> {
+            insertAndDelete.executeWithoutOutParameters();
+            return Boolean.TRUE;
+        });
+        return scenarios;
+    }
+
+    /**
+     *
+     * @param call call of the scenario (вызов сценария)
+     * @param threads number of calling threads (количество вызывающих потоков)
+     * @param seconds duration (длительность)
+     * @param latencies latencies of the successful calls in nanoseconds (задержки успешных вызовов в наносекундах)
+     * @param errors number of the calls that ended with an exception (количество вызовов, завершившихся исключением)
+     * @return actual duration in nanoseconds (фактическая длительность в наносекундах)
+     * @throws Exception the first error if all calls failed (первая ошибка, если все вызовы завершились ошибкой)
+     */
+    private static long run(Call call, int threads, int seconds, Histogram latencies, LongAdder errors)
+            throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean isRunning = new AtomicBoolean(true);
+        AtomicReference<Exception> firstError = new AtomicReference<>();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                while (isRunning.get()) {
+                    long startNanos = System.nanoTime();
+                    try {
+                        call.call();
+                        latencies.record(System.nanoTime() - startNanos);
+                    } catch (Exception e) {
+                        errors.increment();
+                        firstError.compareAndSet(null, e);
+                    }
+                }
+            }, "load-test-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+
+        long runStartNanos = System.nanoTime();
+        start.countDown();
+        Thread.sleep(seconds * 1000L);
+        isRunning.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsedNanos = System.nanoTime() - runStartNanos;
+
+        if (latencies.getTotalCount() == 0 && firstError.get() != null) {
+            throw firstError.get();
+        }
+        return elapsedNanos;
+    }
+
+    private static void print(Collection<Result> results, int threads) {
+        System.out.println();
+        System.out.println(String.format(Locale.ROOT, "%-18s %8s %10s %8s %12s %10s %10s %10s %10s", "scenario",
+                "threads", "calls", "errors", "ops/s", "p50 us", "p99 us", "p99.9 us", "max us"));
+        for (Result result : results) {
+            Histogram latencies = result.latencies;
+            System.out.println(String.format(Locale.ROOT, "%-18s %8d %10d %8d %12.1f %10.1f %10.1f %10.1f %10.1f",
+                    result.name, threads, latencies.getTotalCount(), result.errors, result.throughput(),
+                    micros(latencies.getValueAtPercentile(50)), micros(latencies.getValueAtPercentile(99)),
+                    micros(latencies.getValueAtPercentile(99.9)), micros(latencies.getMax())));
+        }
+        System.out.println();
+    }
+
+    private static void writeSummary(Path summary, String database, int threads, int durationSeconds,
+            int warmupSeconds, int userCount, List<Result> results) throws IOException {
+        if (summary.getParent() != null) {
+            Files.createDirectories(summary.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(summary, StandardCharsets.UTF_8)) {
+            writer.write("{\n");
+            writer.write("  \"database\": \"" + escape(database) + "\",\n");
+            writer.write("  \"javaVersion\": \"" + escape(System.getProperty("java.version")) + "\",\n");
+            writer.write("  \"threads\": " + threads + ",\n");
+            writer.write("  \"durationSeconds\": " + durationSeconds + ",\n");
+            writer.write("  \"warmupSeconds\": " + warmupSeconds + ",\n");
+            writer.write("  \"users\": " + userCount + ",\n");
+            writer.write("  \"scenarios\": [");
+            for (int i = 0; i < results.size(); i++) {
+                Result result = results.get(i);
+                Histogram latencies = result.latencies;
+                writer.write(i == 0 ? "\n" : ",\n");
+                writer.write(String.format(Locale.ROOT,
+                        "    {\"name\": \"%s\", \"calls\": %d, \"errors\": %d, \"throughput\": %.1f, "
+                                + "\"latencyMicros\": {\"mean\": %.1f, \"p50\": %.1f, \"p99\": %.1f, \"p999\": %.1f, "
+                                + "\"max\": %.1f}}",
+                        escape(result.name), latencies.getTotalCount(), result.errors, result.throughput(),
+                        latencies.getMean() / 1000, micros(latencies.getValueAtPercentile(50)),
+                        micros(latencies.getValueAtPercentile(99)), micros(latencies.getValueAtPercentile(99.9)),
+                        micros(latencies.getMax())));
+            }
+            writer.write("\n  ]\n}\n");
+        }
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Result of the measurement of one scenario (Результат измерения одного сценария)
+     */
+    private static final class Result {
+
+        private final String name;
+        private final Histogram latencies;
+        private final long errors;
+        private final long elapsedNanos;
+
+        Result(String name, Histogram latencies, long errors, long elapsedNanos) {
+            this.name = name;
+            this.latencies = latencies;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        // successful calls per second
+        // успешных вызовов в секунду
+        double throughput() {
+            return latencies.getTotalCount() * 1e9 / elapsedNanos;
+        }
+
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * <p>
+ * Factory of cached {@link MethodHandle} accessors for the fields, methods and constructors of contract classes.
+ * Accessors are created once and then called through {@link MethodHandle#invokeExact(Object...)} without
+ * reflection on every call.
+ * (Фабрика кэшируемых {@link MethodHandle} для полей, методов и конструкторов классов-контрактов.
+ * Создаются один раз и затем вызываются через {@link MethodHandle#invokeExact(Object...)} без
+ * рефлексии на каждый вызов.)
+ * </p>
+ *
+ * <p>
+ * All accessors are reduced to the same types (Все доступы приводятся к одинаковым типам):
+ * <ul>
+ * <li>field writer (запись в поле) - (Object target, Object value) void;</li>
+ * <li>field reader (чтение поля) - (Object target) Object;</li>
+ * <li>method invoker (вызов метода) - (Object target, Object[] args) void;</li>
+ * <li>instantiator (создание объекта) - () Object.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see java.lang.invoke.MethodHandle
+ */
+final class Accessors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    static final MethodType WRITER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    static final MethodType READER_TYPE = MethodType.methodType(Object.class, Object.class);
+    static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Object[].class);
+    static final MethodType INSTANTIATOR_TYPE = MethodType.methodType(Object.class);
+
+    private Accessors() {
+    }
+
+    /**
+     *
+     * The function returns the field writer (Object target, Object value) void
+     * (Функция возвращает запись в поле (Object target, Object value) void)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param field class field (поле класса)
+     * @return field writer (запись в поле)
+     * @throws IllegalAccessException no access to the field (нет доступа к полю)
+     */
+    static MethodHandle fieldWriter(Field field) throws IllegalAccessException {
+        // gives access even if the field is private
+        // дает доступ даже если поле private
+        field.setAccessible(true);
+        try {
+            return LOOKUP.unreflectSetter(field).asType(WRITER_TYPE);
+        } catch (IllegalAccessException e) {
+            // final fields are written only through reflection
+            // final поля записываются только через рефлексию
+            try {
+                return LOOKUP.findVirtual(Field.class, "set", WRITER_TYPE).bindTo(field);
+            } catch (NoSuchMethodException ex) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     *
+     * The function returns the field reader (Object target) Object
+     * (Функция возвращает чтение поля (Object target) Object)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param field class field (поле класса)
+     * @return field reader (чтение поля)
+     * @throws IllegalAccessException no access to the field (нет доступа к полю)
+     */
+    static MethodHandle fieldReader(Field field) throws IllegalAccessException {
+        // gives access even if the field is private
+        // дает доступ даже если поле private
+        field.setAccessible(true);
+        return LOOKUP.unreflectGetter(field).asType(READER_TYPE);
+    }
+
+    /**
+     *
+     * The function returns the method invoker (Object target, Object[] args) void
+     * (Функция возвращает вызов метода (Object target, Object[] args) void)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param method class method (метод класса)
+     * @return method invoker (вызов метода)
+     * @throws IllegalAccessException no access to the method (нет доступа к методу)
+     */
+    static MethodHandle methodInvoker(Method method) throws IllegalAccessException {
+        // gives access even if the method is private
+        // дает доступ даже если метод private
+        method.setAccessible(true);
+        return LOOKUP.unreflect(method)
+                .asSpreader(Object[].class, method.getParameterCount())
+                .asType(INVOKER_TYPE);
+    }
+
+    /**
+     *
+     * The function returns the instantiator () Object calling the default constructor. For a nested class, the main class is
+     * also created with the default constructor.
+     * (Функция возвращает создание объекта () Object через конструктор по умолчанию. Для вложенного класса главный класс
+     * также создается конструктором по умолчанию.)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param clazz the class whose object is being created (класс, объект которого создается)
+     * @param mainClazz main class if clazz is nested. May be null (главный класс, если clazz является вложенным. Может быть null)
+     * @return instantiator (создание объекта)
+     * @throws NoSuchMethodException no default constructor (нет конструктора по умолчанию)
+     * @throws IllegalAccessException no access to the constructor (нет доступа к конструктору)
+     */
+    static MethodHandle instantiator(Class<?> clazz, Class<?> mainClazz)
+            throws NoSuchMethodException, IllegalAccessException {
+        if (mainClazz == null) {
+            Constructor<?> defaultConstructor = clazz.getDeclaredConstructor();
+            defaultConstructor.setAccessible(true);
+            return LOOKUP.unreflectConstructor(defaultConstructor).asType(INSTANTIATOR_TYPE);
+        }
+
+        // nested class
+        // класс вложенный
+        Constructor<?> defaultConstructorInnerClass = clazz.getDeclaredConstructor(mainClazz);
+        Constructor<?> defaultConstructorOuterClass = mainClazz.getDeclaredConstructor();
+        defaultConstructorInnerClass.setAccessible(true);
+        defaultConstructorOuterClass.setAccessible(true);
+        return MethodHandles.collectArguments(LOOKUP.unreflectConstructor(defaultConstructorInnerClass), 0,
+                LOOKUP.unreflectConstructor(defaultConstructorOuterClass)).asType(INSTANTIATOR_TYPE);
+    }
+
+}
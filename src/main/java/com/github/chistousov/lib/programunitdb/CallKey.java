@@ -0,0 +1,46 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Key of a call of the program unit: the call method and the values of input parameters. Arrays among the parameters are
+ * compared by content.
+ * (Ключ вызова программного юнита: метод вызова и значения входных параметров. Массивы среди параметров сравниваются
+ * по содержимому.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see ResultCache
+ */
+final class CallKey {
+
+    private final String operation;
+    private final Object[] params;
+    private final int hash;
+
+    CallKey(String operation, Object[] params) {
+        this.operation = operation;
+        this.params = params == null ? new Object[0] : params.clone();
+        this.hash = 31 * operation.hashCode() + Arrays.deepHashCode(this.params);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CallKey)) {
+            return false;
+        }
+        CallKey other = (CallKey) obj;
+        return hash == other.hash && operation.equals(other.operation) && Arrays.deepEquals(params, other.params);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.SqlParameter;
+
+/**
+ * <p>
+ * Process-wide cache of the parameters of program units, read by {@link org.springframework.jdbc.core.simple.SimpleJdbcCall}
+ * from {@link java.sql.DatabaseMetaData#getProcedureColumns(String, String, String, String)}. The key is
+ * (DataSource, schema, catalog, name, function or procedure), so the metadata of a program unit is read from the database once
+ * for all {@link ProgramUnitDB} objects.
+ * (Общий для процесса кэш параметров программных юнитов, прочитанных {@link org.springframework.jdbc.core.simple.SimpleJdbcCall}
+ * из {@link java.sql.DatabaseMetaData#getProcedureColumns(String, String, String, String)}. Ключ - (DataSource, схема,
+ * каталог, имя, функция или процедура), поэтому метаданные программного юнита читаются из БД один раз для всех объектов
+ * {@link ProgramUnitDB}.)
+ * </p>
+ *
+ * <p>
+ * If the program unit is changed in the database, its metadata must be removed from the cache by {@link #evict(DataSource)} or
+ * {@link #clear()}.
+ * (Если программный юнит изменен в БД, его метаданные нужно удалить из кэша через {@link #evict(DataSource)} или
+ * {@link #clear()}.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see ProgramUnitDB#setMetaDataMode(CallMetaDataCache.Mode)
+ */
+public final class CallMetaDataCache {
+
+    /**
+     * Where the parameters of the program unit are taken from (Откуда берутся параметры программного юнита)
+     */
+    public enum Mode {
+        /**
+         * Metadata is read from the database by each object (Метаданные читаются из БД каждым объектом)
+         */
+        DATABASE,
+        /**
+         * Metadata is read from the database once and shared by all objects (Метаданные читаются из БД один раз и разделяются всеми объектами)
+         */
+        SHARED,
+        /**
+         * Metadata is not read, the parameters are taken only from the declared list, including {@link org.springframework.jdbc.core.SqlOutParameter}
+         * in the order of the signature (Метаданные не читаются, параметры берутся только из объявленного списка, включая
+         * {@link org.springframework.jdbc.core.SqlOutParameter} в порядке сигнатуры)
+         */
+        DECLARED_ONLY
+    }
+
+    private static final Map<Key, List<SqlParameter>> CACHE = new ConcurrentHashMap<>();
+
+    private CallMetaDataCache() {
+    }
+
+    /**
+     *
+     * @param key program unit (программный юнит)
+     * @return parameters of the compiled call or null (параметры скомпилированного вызова или null)
+     */
+    static List<SqlParameter> get(Key key) {
+        return CACHE.get(key);
+    }
+
+    /**
+     *
+     * @param key program unit (программный юнит)
+     * @param callParameters parameters of the compiled call (параметры скомпилированного вызова)
+     */
+    static void put(Key key, List<SqlParameter> callParameters) {
+        CACHE.putIfAbsent(key, Collections.unmodifiableList(new ArrayList<>(callParameters)));
+    }
+
+    /**
+     * Removes the metadata of all program units of the data source (Удаляет метаданные всех программных юнитов источника данных)
+     *
+     * @param dataSource data source (источник данных)
+     */
+    public static void evict(DataSource dataSource) {
+        CACHE.keySet().removeIf(key -> key.dataSource == dataSource);
+    }
+
+    /**
+     * Removes all metadata (Удаляет все метаданные)
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    /**
+     *
+     * @return number of cached program units (количество закэшированных программных юнитов)
+     */
+    public static int size() {
+        return CACHE.size();
+    }
+
+    /**
+     * Program unit key (Ключ программного юнита)
+     */
+    static final class Key {
+
+        private final DataSource dataSource;
+        private final String schemaName;
+        private final String catalogName;
+        private final String procedureName;
+        private final boolean isFunction;
+
+        Key(DataSource dataSource, String schemaName, String catalogName, String procedureName, boolean isFunction) {
+            // the data source of the program unit is shared by all its objects
+            // источник данных программного юнита разделяется всеми его объектами
+            this.dataSource = ObservedDataSource.unwrap(Objects.requireNonNull(dataSource, "dataSource"));
+            this.schemaName = upperCase(schemaName);
+            this.catalogName = upperCase(catalogName);
+            this.procedureName = upperCase(procedureName);
+            this.isFunction = isFunction;
+        }
+
+        private static String upperCase(String name) {
+            return name == null ? null : name.toUpperCase(Locale.ROOT);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return dataSource == other.dataSource && isFunction == other.isFunction
+                    && Objects.equals(schemaName, other.schemaName) && Objects.equals(catalogName, other.catalogName)
+                    && Objects.equals(procedureName, other.procedureName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(dataSource), schemaName, catalogName, procedureName, isFunction);
+        }
+
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.github.chistousov.lib.programunitdb;
+
+/**
+ * <p>
+ * Time of the phases of the current call of a program unit in the calling thread. The timer is installed only while a
+ * {@link MetricsRegistry} is set or a JFR recording enables {@link ProgramUnitEvent}, so otherwise the phases are not measured.
+ * (Время фаз текущего вызова программного юнита в вызывающем потоке. Таймер устанавливается только пока задан
+ * {@link MetricsRegistry} или запись JFR включает {@link ProgramUnitEvent}, поэтому иначе фазы не измеряются.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see ObservedDataSource
+ */
+final class CallTimer {
+
+    private static final ThreadLocal<CallTimer> CURRENT = new ThreadLocal<>();
+
+    // timer of the enclosing call of the thread
+    // таймер объемлющего вызова потока
+    private final CallTimer previous;
+    // the sizes of the read values are estimated for the JFR event
+    // размеры прочитанных значений оцениваются для события JFR
+    private final boolean isSizing;
+    private final long startNanos = System.nanoTime();
+    private long totalNanos;
+
+    private long acquireNanos;
+    private long mappingNanos;
+    private long rows;
+    private long bytes;
+
+    private CallTimer(CallTimer previous, boolean isSizing) {
+        this.previous = previous;
+        this.isSizing = isSizing;
+    }
+
+    /**
+     *
+     * @param isSizing the sizes of the read values are estimated (размеры прочитанных значений оцениваются)
+     * @return timer installed in the thread (таймер, установленный в потоке)
+     */
+    static CallTimer start(boolean isSizing) {
+        CallTimer timer = new CallTimer(CURRENT.get(), isSizing);
+        CURRENT.set(timer);
+        return timer;
+    }
+
+    /**
+     *
+     * @return timer of the current call of the thread or null (таймер текущего вызова потока или null)
+     */
+    static CallTimer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * The timer is removed from the thread (Таймер удаляется из потока)
+     */
+    void stop() {
+        totalNanos = System.nanoTime() - startNanos;
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    void addAcquireNanos(long nanos) {
+        acquireNanos += nanos;
+    }
+
+    void addMapping(long nanos, long rows) {
+        this.mappingNanos += nanos;
+        this.rows += rows;
+    }
+
+    long getAcquireNanos() {
+        return acquireNanos;
+    }
+
+    long getMappingNanos() {
+        return mappingNanos;
+    }
+
+    // the rest of the call: execution in the database and reading by the driver
+    // остаток вызова: выполнение в БД и чтение драйвером
+    long getExecuteNanos() {
+        return Math.max(0, totalNanos - acquireNanos - mappingNanos);
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    boolean isSizing() {
+        return isSizing;
+    }
+
+    /**
+     *
+     * @param values values read from the database (значения, прочитанные из БД)
+     */
+    void addBytes(Object[] values) {
+        if (isSizing) {
+            for (Object value : values) {
+                bytes += estimateBytes(value);
+            }
+        }
+    }
+
+    /**
+     *
+     * @param value value read from the database (значение, прочитанное из БД)
+     */
+    void addBytes(Object value) {
+        if (isSizing) {
+            bytes += estimateBytes(value);
+        }
+    }
+
+    long getBytes() {
+        return bytes;
+    }
+
+    // size of the data of the value without the headers of the objects
+    // размер данных значения без заголовков объектов
+    private static long estimateBytes(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence) {
+            return 2L * ((CharSequence) value).length();
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        if (value instanceof Boolean || value instanceof Byte) {
+            return 1;
+        }
+        if (value instanceof Short || value instanceof Character) {
+            return 2;
+        }
+        if (value instanceof Integer || value instanceof Float) {
+            return 4;
+        }
+        return 8;
+    }
+
+}
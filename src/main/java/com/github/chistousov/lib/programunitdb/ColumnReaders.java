@@ -0,0 +1,172 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * Table of readers of cursor columns by the Java type of the field or method parameter. The reader is resolved once per type
+ * ({@link ClassValue}) and reads the column by index with a typed getter: wrapper types get null for NULL
+ * ({@link ResultSet#wasNull()}), primitive types get the default value, temporal types are read by JDBC 4.2
+ * {@link ResultSet#getObject(int, Class)}. Types without a reader are read by {@link ResultSet#getObject(int)}. The table
+ * is built from the same {@link ValueReaders} as {@link OutParamReaders}.
+ * (Таблица чтения колонок курсора по Java типу поля или параметра метода. Чтение определяется один раз на тип
+ * ({@link ClassValue}) и читает колонку по индексу типизированным геттером: типы-обертки получают null для NULL
+ * ({@link ResultSet#wasNull()}), примитивные типы - значение по умолчанию, типы даты и времени читаются JDBC 4.2
+ * {@link ResultSet#getObject(int, Class)}. Типы без чтения читаются {@link ResultSet#getObject(int)}. Таблица
+ * строится по тем же {@link ValueReaders}, что и {@link OutParamReaders}.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see java.sql.ResultSet
+ */
+final class ColumnReaders {
+
+    /**
+     * Reading of one column of the current cursor record (Чтение одной колонки текущей записи курсора)
+     */
+    @FunctionalInterface
+    interface ColumnReader {
+
+        /**
+         *
+         * @param rs current cursor entry (текущая запись курсора)
+         * @param columnIndex column index, starting from 1 (индекс колонки, начиная с 1)
+         * @return value of the column (значение колонки)
+         * @throws SQLException error when converting from JDBC type to JAVA type
+         */
+        Object read(ResultSet rs, int columnIndex) throws SQLException;
+    }
+
+    // reading of a column of a type without a reader
+    // чтение колонки типа без чтения
+    private static final ColumnReader OBJECT = ResultSet::getObject;
+
+    // typed getters of the ResultSet
+    // типизированные геттеры ResultSet
+    private static final ValueReaders.Getters<ResultSet> GETTERS = new ValueReaders.Getters<ResultSet>() {
+
+        @Override
+        public boolean getBoolean(ResultSet rs, int index) throws SQLException {
+            return rs.getBoolean(index);
+        }
+
+        @Override
+        public byte getByte(ResultSet rs, int index) throws SQLException {
+            return rs.getByte(index);
+        }
+
+        @Override
+        public short getShort(ResultSet rs, int index) throws SQLException {
+            return rs.getShort(index);
+        }
+
+        @Override
+        public int getInt(ResultSet rs, int index) throws SQLException {
+            return rs.getInt(index);
+        }
+
+        @Override
+        public long getLong(ResultSet rs, int index) throws SQLException {
+            return rs.getLong(index);
+        }
+
+        @Override
+        public float getFloat(ResultSet rs, int index) throws SQLException {
+            return rs.getFloat(index);
+        }
+
+        @Override
+        public double getDouble(ResultSet rs, int index) throws SQLException {
+            return rs.getDouble(index);
+        }
+
+        @Override
+        public boolean wasNull(ResultSet rs) throws SQLException {
+            return rs.wasNull();
+        }
+
+        @Override
+        public String getString(ResultSet rs, int index) throws SQLException {
+            return rs.getString(index);
+        }
+
+        @Override
+        public BigDecimal getBigDecimal(ResultSet rs, int index) throws SQLException {
+            return rs.getBigDecimal(index);
+        }
+
+        @Override
+        public byte[] getBytes(ResultSet rs, int index) throws SQLException {
+            return rs.getBytes(index);
+        }
+
+        @Override
+        public Date getDate(ResultSet rs, int index) throws SQLException {
+            return rs.getDate(index);
+        }
+
+        @Override
+        public Time getTime(ResultSet rs, int index) throws SQLException {
+            return rs.getTime(index);
+        }
+
+        @Override
+        public Timestamp getTimestamp(ResultSet rs, int index) throws SQLException {
+            return rs.getTimestamp(index);
+        }
+
+        @Override
+        public Object getObject(ResultSet rs, int index) throws SQLException {
+            return rs.getObject(index);
+        }
+
+        @Override
+        public <V> V getObject(ResultSet rs, int index, Class<V> type) throws SQLException {
+            return rs.getObject(index, type);
+        }
+    };
+
+    private static final Map<Class<?>, ColumnReader> READERS = new HashMap<>();
+
+    static {
+        // the conversions are the same for columns and output parameters
+        // преобразования одинаковые для колонок и выходных параметров
+        ValueReaders.readers(GETTERS).forEach((type, reader) -> READERS.put(type, reader::read));
+    }
+
+    // type -> reader, resolved on the first access to the type
+    // тип -> чтение, определяемое при первом обращении к типу
+    private static final ClassValue<ColumnReader> BY_TYPE = new ClassValue<ColumnReader>() {
+        @Override
+        protected ColumnReader computeValue(Class<?> type) {
+            return READERS.getOrDefault(type, OBJECT);
+        }
+    };
+
+    private ColumnReaders() {
+    }
+
+    /**
+     *
+     * The function returns the reader of a column into the type
+     * (Функция возвращает чтение колонки в тип)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param type type of the field or method parameter (тип поля или параметра метода)
+     * @return reader of the column (чтение колонки)
+     */
+    static ColumnReader forType(Class<?> type) {
+        return BY_TYPE.get(type);
+    }
+
+}
@@ -0,0 +1,522 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * <p>
+ * Cursor read by columns into primitive arrays in one pass, without an object per record. Numeric columns are stored in
+ * int[], long[] or double[], date and time in long[] (days, milliseconds or nanoseconds since the epoch or midnight), strings
+ * in String[] or, while there are few distinct values, as int[] codes of a dictionary. NULL values are marked in the
+ * bitmap of the column. Columns are numbered from 0.
+ * (Курсор, прочитанный по колонкам в примитивные массивы за один проход, без объекта на запись. Числовые колонки хранятся
+ * в int[], long[] или double[], дата и время в long[] (дни, миллисекунды или наносекунды от эпохи или полуночи), строки -
+ * в String[] или, пока различных значений немного, как int[] коды словаря. Значения NULL отмечаются в битовой карте колонки.
+ * Колонки нумеруются с 0.)
+ * </p>
+ *
+ * <p>
+ * Arrays are returned without copying so that they can be scanned directly; they must not be changed.
+ * (Массивы возвращаются без копирования, чтобы их можно было сканировать напрямую; изменять их нельзя.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see ProgramUnitDB#executeCursorColumnar(Object...)
+ */
+public final class ColumnarResult {
+
+    /**
+     * Storage type of the column (Тип хранения колонки)
+     */
+    public enum Type {
+        /**
+         * int[]: TINYINT, SMALLINT, INTEGER
+         */
+        INT,
+        /**
+         * long[]: BIGINT, NUMERIC/DECIMAL without fractional part up to 18 digits (NUMERIC/DECIMAL без дробной части до 18 цифр)
+         */
+        LONG,
+        /**
+         * double[]: REAL, FLOAT, DOUBLE, other NUMERIC/DECIMAL (остальные NUMERIC/DECIMAL)
+         */
+        DOUBLE,
+        /**
+         * {@link BitSet}: BOOLEAN, BIT
+         */
+        BOOLEAN,
+        /**
+         * long[]: DATE as days since 1970-01-01 (DATE как дни с 1970-01-01)
+         */
+        EPOCH_DAY,
+        /**
+         * long[]: TIMESTAMP as milliseconds since the epoch (TIMESTAMP как миллисекунды от эпохи)
+         */
+        EPOCH_MILLI,
+        /**
+         * long[]: TIME as nanoseconds since midnight (TIME как наносекунды от полуночи)
+         */
+        NANO_OF_DAY,
+        /**
+         * String[] or dictionary codes: everything else (String[] или коды словаря: все остальное)
+         */
+        STRING
+    }
+
+    private final int rowCount;
+    private final String[] columnNames;
+    private final Type[] types;
+    private final BitSet[] nulls;
+    // int[], long[], double[], BitSet, String[] or int[] of dictionary codes by type of the column
+    // int[], long[], double[], BitSet, String[] или int[] кодов словаря по типу колонки
+    private final Object[] values;
+    // dictionary of the string column or null
+    // словарь строковой колонки или null
+    private final String[][] dictionaries;
+
+    private ColumnarResult(int rowCount, String[] columnNames, Type[] types, BitSet[] nulls, Object[] values,
+            String[][] dictionaries) {
+        this.rowCount = rowCount;
+        this.columnNames = columnNames;
+        this.types = types;
+        this.nulls = nulls;
+        this.values = values;
+        this.dictionaries = dictionaries;
+    }
+
+    /**
+     *
+     * @return number of records (количество записей)
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     *
+     * @return number of columns (количество колонок)
+     */
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    /**
+     *
+     * @param column column index, starting from 0 (индекс колонки, начиная с 0)
+     * @return column name (имя колонки)
+     */
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    /**
+     *
+     * @param columnName column name, case insensitive (имя колонки без учета регистра)
+     * @return column index, starting from 0 (индекс колонки, начиная с 0)
+     * @throws IllegalArgumentException there is no such column (такой колонки нет)
+     */
+    public int findColumn(String columnName) {
+        for (int i = 0; i < columnNames.length; i++) {
+            if (columnNames[i].equalsIgnoreCase(columnName)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Column " + columnName + " not found");
+    }
+
+    /**
+     *
+     * @param column column index, starting from 0 (индекс колонки, начиная с 0)
+     * @return storage type of the column (тип хранения колонки)
+     */
+    public Type getType(int column) {
+        return types[column];
+    }
+
+    /**
+     *
+     * @param column column index, starting from 0 (индекс колонки, начиная с 0)
+     * @param row record index, starting from 0 (индекс записи, начиная с 0)
+     * @return true if the value is NULL (true, если значение NULL)
+     */
+    public boolean isNull(int column, int row) {
+        return nulls[column].get(row);
+    }
+
+    /**
+     *
+     * @param column column index, starting from 0 (индекс колонки, начиная с 0)
+     * @return bitmap of NULL values of the column (битовая карта значений NULL колонки)
+     */
+    public BitSet getNulls(int column) {
+        return nulls[column];
+    }
+
+    /**
+     *
+     * @param column column of type {@link Type#INT} (колонка типа {@link Type#INT})
+     * @return values, 0 for NULL (значения, 0 для NULL)
+     */
+    public int[] getInts(int column) {
+        return (int[]) values(column, Type.INT);
+    }
+
+    /**
+     *
+     * @param column column of type {@link Type#LONG}, {@link Type#EPOCH_DAY}, {@link Type#EPOCH_MILLI} or {@link Type#NANO_OF_DAY}
+     *               (колонка типа {@link Type#LONG}, {@link Type#EPOCH_DAY}, {@link Type#EPOCH_MILLI} или {@link Type#NANO_OF_DAY})
+     * @return values, 0 for NULL (значения, 0 для NULL)
+     */
+    public long[] getLongs(int column) {
+        if (types[column] == Type.EPOCH_DAY || types[column] == Type.EPOCH_MILLI || types[column] == Type.NANO_OF_DAY) {
+            return (long[]) values[column];
+        }
+        return (long[]) values(column, Type.LONG);
+    }
+
+    /**
+     *
+     * @param column column of type {@link Type#DOUBLE} (колонка типа {@link Type#DOUBLE})
+     * @return values, 0 for NULL (значения, 0 для NULL)
+     */
+    public double[] getDoubles(int column) {
+        return (double[]) values(column, Type.DOUBLE);
+    }
+
+    /**
+     *
+     * @param column column of type {@link Type#BOOLEAN} (колонка типа {@link Type#BOOLEAN})
+     * @return records with the value true (записи со значением true)
+     */
+    public BitSet getBooleans(int column) {
+        return (BitSet) values(column, Type.BOOLEAN);
+    }
+
+    /**
+     *
+     * @param column column of type {@link Type#STRING} (колонка типа {@link Type#STRING})
+     * @return true if the column is stored as dictionary codes (true, если колонка хранится как коды словаря)
+     */
+    public boolean isDictionaryEncoded(int column) {
+        values(column, Type.STRING);
+        return dictionaries[column] != null;
+    }
+
+    /**
+     *
+     * @param column dictionary encoded column of type {@link Type#STRING} (колонка типа {@link Type#STRING}, закодированная словарем)
+     * @return distinct values of the column (различные значения колонки)
+     */
+    public String[] getDictionary(int column) {
+        if (!isDictionaryEncoded(column)) {
+            throw new IllegalStateException("Column " + columnNames[column] + " is not dictionary encoded");
+        }
+        return dictionaries[column];
+    }
+
+    /**
+     *
+     * @param column dictionary encoded column of type {@link Type#STRING} (колонка типа {@link Type#STRING}, закодированная словарем)
+     * @return indexes in the dictionary, -1 for NULL (индексы в словаре, -1 для NULL)
+     */
+    public int[] getDictionaryCodes(int column) {
+        getDictionary(column);
+        return (int[]) values[column];
+    }
+
+    /**
+     *
+     * @param column column of type {@link Type#STRING} (колонка типа {@link Type#STRING})
+     * @return values, null for NULL. A dictionary encoded column is decoded into a new array (значения, null для NULL. Колонка, закодированная словарем, декодируется в новый массив)
+     */
+    public String[] getStrings(int column) {
+        if (!isDictionaryEncoded(column)) {
+            return (String[]) values[column];
+        }
+        int[] codes = (int[]) values[column];
+        String[] dictionary = dictionaries[column];
+        String[] strings = new String[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            strings[i] = codes[i] < 0 ? null : dictionary[codes[i]];
+        }
+        return strings;
+    }
+
+    /**
+     *
+     * @param column column of type {@link Type#STRING} (колонка типа {@link Type#STRING})
+     * @param row record index, starting from 0 (индекс записи, начиная с 0)
+     * @return value or null (значение или null)
+     */
+    public String getString(int column, int row) {
+        if (!isDictionaryEncoded(column)) {
+            return ((String[]) values[column])[row];
+        }
+        int code = ((int[]) values[column])[row];
+        return code < 0 ? null : dictionaries[column][code];
+    }
+
+    private Object values(int column, Type type) {
+        if (types[column] != type) {
+            throw new IllegalArgumentException(
+                    "Column " + columnNames[column] + " has type " + types[column] + ", not " + type);
+        }
+        return values[column];
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarResult[rows=" + rowCount + ", columns=" + Arrays.toString(columnNames) + "]";
+    }
+
+    /**
+     * <p>
+     * Fills the column vectors from the records of the cursor. It is passed to the cursor as a {@link RowMapper}, the columns
+     * are described by {@link #init(ResultSetMetaData)} before the first record.
+     * (Заполняет векторы колонок из записей курсора. Передается курсору как {@link RowMapper}, колонки описываются
+     * {@link #init(ResultSetMetaData)} до первой записи.)
+     * </p>
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     */
+    static final class Builder implements RowMapper<Object> {
+
+        private static final int INITIAL_CAPACITY = 256;
+
+        // the dictionary of a string column is kept while it has no more distinct values
+        // словарь строковой колонки сохраняется, пока в нем не больше различных значений
+        private static final int DICTIONARY_LIMIT = 4096;
+
+        private String[] columnNames = new String[0];
+        private Type[] types = new Type[0];
+        private BitSet[] nulls = new BitSet[0];
+        private Object[] values = new Object[0];
+        private Map<String, Integer>[] dictionaryCodes;
+        private int capacity = INITIAL_CAPACITY;
+        private int rowCount;
+
+        /**
+         *
+         * Describes the columns by the metadata of the open cursor
+         * (Описывает колонки по метаданным открытого курсора)
+         *
+         * @param metaData metadata of the cursor (метаданные курсора)
+         * @throws SQLException metadata error (ошибка метаданных)
+         */
+        @SuppressWarnings("unchecked")
+        void init(ResultSetMetaData metaData) throws SQLException {
+            int columnCount = metaData.getColumnCount();
+            columnNames = new String[columnCount];
+            types = new Type[columnCount];
+            nulls = new BitSet[columnCount];
+            values = new Object[columnCount];
+            dictionaryCodes = new Map[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                columnNames[i] = metaData.getColumnLabel(i + 1);
+                types[i] = typeOf(metaData.getColumnType(i + 1), metaData.getPrecision(i + 1), metaData.getScale(i + 1));
+                nulls[i] = new BitSet();
+                switch (types[i]) {
+                    case INT:
+                        values[i] = new int[capacity];
+                        break;
+                    case LONG:
+                    case EPOCH_DAY:
+                    case EPOCH_MILLI:
+                    case NANO_OF_DAY:
+                        values[i] = new long[capacity];
+                        break;
+                    case DOUBLE:
+                        values[i] = new double[capacity];
+                        break;
+                    case BOOLEAN:
+                        values[i] = new BitSet();
+                        break;
+                    default:
+                        values[i] = new int[capacity];
+                        dictionaryCodes[i] = new HashMap<>();
+                }
+            }
+        }
+
+        private static Type typeOf(int sqlType, int precision, int scale) {
+            switch (sqlType) {
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                    return Type.INT;
+                case Types.BIGINT:
+                    return Type.LONG;
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                    return scale == 0 && precision > 0 && precision <= 18 ? Type.LONG : Type.DOUBLE;
+                case Types.REAL:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    return Type.DOUBLE;
+                case Types.BOOLEAN:
+                case Types.BIT:
+                    return Type.BOOLEAN;
+                case Types.DATE:
+                    return Type.EPOCH_DAY;
+                case Types.TIMESTAMP:
+                case Types.TIMESTAMP_WITH_TIMEZONE:
+                    return Type.EPOCH_MILLI;
+                case Types.TIME:
+                case Types.TIME_WITH_TIMEZONE:
+                    return Type.NANO_OF_DAY;
+                default:
+                    return Type.STRING;
+            }
+        }
+
+        @Override
+        public Object mapRow(ResultSet rs, int rowNumber) throws SQLException {
+            if (rowCount == capacity) {
+                grow();
+            }
+            int row = rowCount;
+            for (int i = 0; i < types.length; i++) {
+                int columnIndex = i + 1;
+                boolean isNull;
+                switch (types[i]) {
+                    case INT:
+                        ((int[]) values[i])[row] = rs.getInt(columnIndex);
+                        isNull = rs.wasNull();
+                        break;
+                    case LONG:
+                        ((long[]) values[i])[row] = rs.getLong(columnIndex);
+                        isNull = rs.wasNull();
+                        break;
+                    case DOUBLE:
+                        ((double[]) values[i])[row] = rs.getDouble(columnIndex);
+                        isNull = rs.wasNull();
+                        break;
+                    case BOOLEAN:
+                        if (rs.getBoolean(columnIndex)) {
+                            ((BitSet) values[i]).set(row);
+                        }
+                        isNull = rs.wasNull();
+                        break;
+                    case EPOCH_DAY:
+                        java.sql.Date date = rs.getDate(columnIndex);
+                        isNull = date == null;
+                        ((long[]) values[i])[row] = isNull ? 0 : date.toLocalDate().toEpochDay();
+                        break;
+                    case EPOCH_MILLI:
+                        java.sql.Timestamp timestamp = rs.getTimestamp(columnIndex);
+                        isNull = timestamp == null;
+                        ((long[]) values[i])[row] = isNull ? 0 : timestamp.getTime();
+                        break;
+                    case NANO_OF_DAY:
+                        java.sql.Time time = rs.getTime(columnIndex);
+                        isNull = time == null;
+                        ((long[]) values[i])[row] = isNull ? 0 : time.toLocalTime().toNanoOfDay();
+                        break;
+                    default:
+                        String string = rs.getString(columnIndex);
+                        isNull = string == null;
+                        addString(i, row, string);
+                }
+                if (isNull) {
+                    nulls[i].set(row);
+                }
+            }
+            rowCount++;
+            return null;
+        }
+
+        private void addString(int column, int row, String string) {
+            Map<String, Integer> codes = dictionaryCodes[column];
+            if (codes == null) {
+                ((String[]) values[column])[row] = string;
+                return;
+            }
+            if (string == null) {
+                ((int[]) values[column])[row] = -1;
+                return;
+            }
+            Integer code = codes.get(string);
+            if (code == null) {
+                if (codes.size() == DICTIONARY_LIMIT) {
+                    // too many distinct values: the column is stored as strings
+                    // слишком много различных значений: колонка хранится строками
+                    values[column] = decode(column, capacity);
+                    dictionaryCodes[column] = null;
+                    ((String[]) values[column])[row] = string;
+                    return;
+                }
+                code = codes.size();
+                codes.put(string, code);
+            }
+            ((int[]) values[column])[row] = code;
+        }
+
+        private String[] decode(int column, int length) {
+            String[] dictionary = dictionary(column);
+            int[] codes = (int[]) values[column];
+            String[] strings = new String[length];
+            for (int i = 0; i < rowCount; i++) {
+                strings[i] = codes[i] < 0 ? null : dictionary[codes[i]];
+            }
+            return strings;
+        }
+
+        private String[] dictionary(int column) {
+            String[] dictionary = new String[dictionaryCodes[column].size()];
+            dictionaryCodes[column].forEach((string, code) -> dictionary[code] = string);
+            return dictionary;
+        }
+
+        private void grow() {
+            capacity = capacity + (capacity >> 1);
+            for (int i = 0; i < values.length; i++) {
+                values[i] = resize(values[i], capacity);
+            }
+        }
+
+        private static Object resize(Object vector, int length) {
+            if (vector instanceof int[]) {
+                return Arrays.copyOf((int[]) vector, length);
+            }
+            if (vector instanceof long[]) {
+                return Arrays.copyOf((long[]) vector, length);
+            }
+            if (vector instanceof double[]) {
+                return Arrays.copyOf((double[]) vector, length);
+            }
+            if (vector instanceof String[]) {
+                return Arrays.copyOf((String[]) vector, length);
+            }
+            // BitSet grows by itself
+            // BitSet растет сам
+            return vector;
+        }
+
+        /**
+         *
+         * @return result with the vectors trimmed to the number of records (результат с векторами, обрезанными по количеству записей)
+         */
+        ColumnarResult build() {
+            String[][] dictionaries = new String[values.length][];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = resize(values[i], rowCount);
+                if (dictionaryCodes[i] != null) {
+                    dictionaries[i] = dictionary(i);
+                }
+            }
+            return new ColumnarResult(rowCount, columnNames, types, nulls, values, dictionaries);
+        }
+
+    }
+
+}
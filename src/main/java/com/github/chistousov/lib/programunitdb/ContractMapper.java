@@ -0,0 +1,59 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.util.Map;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import com.github.chistousov.lib.programunitdb.annotations.Column;
+import com.github.chistousov.lib.programunitdb.annotations.OutParam;
+
+/**
+ * <p>
+ * Mapper of the output parameters of a program unit into a contract class without reflection.
+ * Implementations are generated at compile time by the annotation processor of the processor module
+ * from the {@link OutParam} and {@link Column} annotations of the contract class.
+ * (Отображение выходных параметров программного юнита в класс-контракт без рефлексии.
+ * Реализации генерируются на этапе компиляции обработчиком аннотаций модуля processor
+ * по аннотациям {@link OutParam} и {@link Column} класса-контракта.)
+ * </p>
+ * 
+ * <p>
+ * The mapper of a class describing one cursor implements only this interface, the mapper of a class describing several
+ * output parameters implements {@link OutParamsContractMapper}.
+ * (Отображение класса, описывающего один курсор, реализует только этот интерфейс, отображение класса, описывающего
+ * несколько выходных параметров, реализует {@link OutParamsContractMapper}.)
+ * </p>
+ * 
+ * <p>
+ * The generated class lies in the package of the contract class and is named by the binary name of the contract class, in which
+ * '$' is replaced with '_', plus {@link #GENERATED_CLASS_SUFFIX} (for example GetSomeUser_ContractMapper).
+ * {@link ProgramUnitDB} uses it if it is present, otherwise it falls back to reflection.
+ * (Сгенерированный класс лежит в пакете класса-контракта и называется по бинарному имени класса-контракта, в котором
+ * '$' заменен на '_', плюс {@link #GENERATED_CLASS_SUFFIX} (например GetSomeUser_ContractMapper).
+ * {@link ProgramUnitDB} использует его, если он есть, иначе работает через рефлексию.)
+ * </p>
+ * 
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @param <T> contract class (класс-контракт)
+ */
+public interface ContractMapper<T> {
+
+    /**
+     * suffix of the name of the generated class (суффикс имени сгенерированного класса)
+     */
+    String GENERATED_CLASS_SUFFIX = "_ContractMapper";
+
+    /**
+     * 
+     * Cursor row mappers by output parameter name (upper case). For one cursor of a stored function, the name is "".
+     * (Отображения строк курсоров по имени выходного параметра (в верхнем регистре). Для одного курсора хранимой функции имя равно "".)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @return output parameter name -&gt; row mapper (имя выходного параметра -&gt; отображение строки)
+     */
+    Map<String, RowMapper<?>> getCursorRowMappers();
+
+}
@@ -0,0 +1,344 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * <p>
+ * Conversions of values from the database into Java types shared by {@link ProgramUnitDB} and the generated
+ * {@link ContractMapper} classes.
+ * (Преобразования значений из БД в Java типы, общие для {@link ProgramUnitDB} и сгенерированных
+ * классов {@link ContractMapper}.)
+ * </p>
+ * 
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see ContractMapper
+ */
+public final class ContractMapperSupport {
+
+    private ContractMapperSupport() {
+    }
+
+    /**
+     * The function converts the date from the database (Функция преобразует дату из БД)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param date date. May be null (дата. Может быть null)
+     * @return date or null (дата или null)
+     */
+    public static LocalDate toLocalDate(java.sql.Date date) {
+        return date == null ? null : date.toLocalDate();
+    }
+
+    /**
+     * The function converts the time from the database (Функция преобразует время из БД)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param time time. May be null (время. Может быть null)
+     * @return time or null (время или null)
+     */
+    public static LocalTime toLocalTime(java.sql.Time time) {
+        return time == null ? null : time.toLocalTime();
+    }
+
+    /**
+     * The function converts the date and time from the database (Функция преобразует дату и время из БД)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param datetime date and time. May be null (дата и время. Может быть null)
+     * @return date and time or null (дата и время или null)
+     */
+    public static LocalDateTime toLocalDateTime(java.sql.Timestamp datetime) {
+        return datetime == null ? null : datetime.toLocalDateTime();
+    }
+
+    /**
+     * The function converts the moment of time from the database (Функция преобразует момент времени из БД)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param timestamp moment of time. May be null (момент времени. Может быть null)
+     * @return moment of time or null (момент времени или null)
+     */
+    public static Instant toInstant(java.sql.Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
+    /**
+     * The function converts the moment of time with the offset from the database, without the time zone of the JVM
+     * (Функция преобразует момент времени со смещением из БД, без часового пояса JVM)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param dateTime date and time with the offset. May be null (дата и время со смещением. Может быть null)
+     * @return moment of time or null (момент времени или null)
+     */
+    public static Instant toInstant(OffsetDateTime dateTime) {
+        return dateTime == null ? null : dateTime.toInstant();
+    }
+
+    /**
+     * The function converts the UUID from the database. The driver returns it as UUID (PostgreSQL), 16 bytes (RAW/BINARY)
+     * or a string
+     * (Функция преобразует UUID из БД. Драйвер возвращает его как UUID (PostgreSQL), 16 байт (RAW/BINARY) или строку)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param value value of the column or output parameter. May be null
+     *              (значение колонки или выходного параметра. Может быть null)
+     * @return UUID or null (UUID или null)
+     */
+    public static UUID toUUID(Object value) {
+        if (value == null || value instanceof UUID) {
+            return (UUID) value;
+        }
+        if (value instanceof byte[] && ((byte[]) value).length == 16) {
+            ByteBuffer bytes = ByteBuffer.wrap((byte[]) value);
+            return new UUID(bytes.getLong(), bytes.getLong());
+        }
+        return UUID.fromString(value.toString());
+    }
+
+    /**
+     * The function converts the character from the database: the first character of the string
+     * (Функция преобразует символ из БД: первый символ строки)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param value string. May be null (строка. Может быть null)
+     * @return character or null for NULL and an empty string (символ или null для NULL и пустой строки)
+     */
+    public static Character toCharacter(String value) {
+        return value == null || value.isEmpty() ? null : value.charAt(0);
+    }
+
+    /**
+     * The function returns the value read by a typed getter of a primitive type, or null if the value was NULL. The
+     * arguments are evaluated in order, so wasNull is called after the getter:
+     * {@code orNull(rs.getLong(label), rs.wasNull())}
+     * (Функция возвращает значение, прочитанное типизированным геттером примитивного типа, или null, если значение было
+     * NULL. Аргументы вычисляются по порядку, поэтому wasNull вызывается после геттера:
+     * {@code orNull(rs.getLong(label), rs.wasNull())})
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see java.sql.ResultSet#wasNull()
+     * @see java.sql.CallableStatement#wasNull()
+     * 
+     * @param <V> wrapper type (тип-обертка)
+     * @param value value of the getter (значение геттера)
+     * @param wasNull whether the value was NULL (было ли значение NULL)
+     * @return value or null (значение или null)
+     */
+    public static <V> V orNull(V value, boolean wasNull) {
+        return wasNull ? null : value;
+    }
+
+    /**
+     * Reading of a value from the database (Чтение значения из БД)
+     * 
+     * @param <V> type of the value (тип значения)
+     */
+    @FunctionalInterface
+    public interface Reading<V> {
+        V read() throws SQLException;
+    }
+
+    /**
+     * The function reads the value of a temporal type by JDBC 4.2 getObject(index, type), and by the getter of the
+     * java.sql type if the driver does not support JDBC 4.2
+     * (Функция читает значение типа даты и времени JDBC 4.2 getObject(index, type), а геттером java.sql типа,
+     * если драйвер не поддерживает JDBC 4.2)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param <V> temporal type (тип даты и времени)
+     * @param jdbc42 reading by getObject(index, type) (чтение getObject(index, type))
+     * @param fallback reading by the getter of the java.sql type (чтение геттером java.sql типа)
+     * @return value or null (значение или null)
+     * @throws SQLException error when converting from JDBC type to JAVA type
+     */
+    public static <V> V readTemporal(Reading<V> jdbc42, Reading<V> fallback) throws SQLException {
+        try {
+            return jdbc42.read();
+        } catch (SQLFeatureNotSupportedException e) {
+            return fallback.read();
+        }
+    }
+
+    /**
+     * The function returns a copy of the output parameters with the names in upper case
+     * (Функция возвращает копию выходных параметров с именами в верхнем регистре)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param outParams output parameter name -&gt; value (имя выходного параметра -&gt; значение)
+     * @return output parameter name (upper case) -&gt; value (имя выходного параметра (в верхнем регистре) -&gt; значение)
+     */
+    public static Map<String, Object> upperCaseNames(Map<String, Object> outParams) {
+        Map<String, Object> upperCaseOutParams = new HashMap<>();
+        outParams.forEach((name, value) -> upperCaseOutParams.put(name.toUpperCase(), value));
+        return upperCaseOutParams;
+    }
+
+    /**
+     * The function converts the output parameter to the desired type. A number of the driver is converted to a numeric
+     * type by the methods of {@link Number} and must fit it, any other value - by its string
+     * (Функция преобразует выходной параметр к нужному типу. Число драйвера преобразуется к числовому типу методами
+     * {@link Number} и должно в него помещаться, любое другое значение - по его строке)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see <a href=
+     *      "https://docs.oracle.com/javase/8/docs/technotes/guides/jdbc/">JDBC</a>
+     * @see java.sql.ResultSet
+     * 
+     * @param <V> desired type (нужный тип)
+     * @param toCast what do we transform (к чему преобразуем)
+     * @param obj what we transform (что преобразуем)
+     * @return converted value (преобразованное значение)
+     * @throws ArithmeticException the number is fractional for an integer type or is out of the range of the type
+     *                             (число дробное для целого типа или вне диапазона типа)
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> V castOutParam(Class<V> toCast, Object obj) {
+        return (V) castFromDBOutParamToJava(toCast, obj);
+    }
+
+    private static Object castFromDBOutParamToJava(Class<?> toCast, Object obj) {
+        if (obj == null || toCast.isInstance(obj)) {
+            return obj;
+        } else if (obj instanceof Number && isNumber(toCast)) {
+            return castNumber(toCast, (Number) obj);
+        } else if (toCast.equals(byte.class) || toCast.equals(Byte.class)) {
+            return Byte.valueOf(obj.toString());
+        } else if (toCast.equals(short.class) || toCast.equals(Short.class)) {
+            return Short.valueOf(obj.toString());
+        } else if (toCast.equals(int.class) || toCast.equals(Integer.class)) {
+            return Integer.valueOf(obj.toString());
+        } else if (toCast.equals(long.class) || toCast.equals(Long.class)) {
+            return Long.valueOf(obj.toString());
+        } else if (toCast.equals(float.class) || toCast.equals(Float.class)) {
+            return Float.valueOf(obj.toString());
+        } else if (toCast.equals(double.class) || toCast.equals(Double.class)) {
+            return Double.valueOf(obj.toString());
+        } else if (toCast.equals(BigDecimal.class)) {
+            return new BigDecimal(obj.toString());
+        } else if (toCast.equals(char.class) || toCast.equals(Character.class)) {
+            return toCharacter(obj.toString());
+        } else if (toCast.equals(LocalDate.class)) {
+            return ((java.sql.Date) obj).toLocalDate();
+        } else if (toCast.equals(LocalTime.class)) {
+            return ((java.sql.Time) obj).toLocalTime();
+        } else if (toCast.equals(LocalDateTime.class)) {
+            return ((java.sql.Timestamp) obj).toLocalDateTime();
+        } else if (toCast.equals(Instant.class)) {
+            return obj instanceof OffsetDateTime ? ((OffsetDateTime) obj).toInstant() : ((java.sql.Timestamp) obj).toInstant();
+        } else if (toCast.equals(UUID.class)) {
+            return toUUID(obj);
+        } else if (toCast.equals(String.class)) {
+            return obj.toString();
+        } else if (toCast.equals(boolean.class) || toCast.equals(Boolean.class)) {
+            return Boolean.valueOf(obj.toString());
+        } else {
+            return obj;
+        }
+    }
+
+    private static boolean isNumber(Class<?> type) {
+        return type.equals(byte.class) || type.equals(Byte.class) || type.equals(short.class) || type.equals(Short.class)
+                || type.equals(int.class) || type.equals(Integer.class) || type.equals(long.class)
+                || type.equals(Long.class) || type.equals(float.class) || type.equals(Float.class)
+                || type.equals(double.class) || type.equals(Double.class) || type.equals(BigDecimal.class);
+    }
+
+    // the number of the driver (Integer, Long, BigDecimal and so on) is converted by its own methods, without a string.
+    // A fractional number or a number out of the range of the type is an error, not a truncated value
+    // число драйвера (Integer, Long, BigDecimal и так далее) преобразуется его собственными методами, без строки.
+    // Дробное число или число вне диапазона типа - ошибка, а не усеченное значение
+    private static Object castNumber(Class<?> toCast, Number number) {
+        if (toCast.equals(byte.class) || toCast.equals(Byte.class)) {
+            long value = longValueExact(number);
+            if (value != (byte) value) {
+                throw outOfRange(toCast, number);
+            }
+            return (byte) value;
+        } else if (toCast.equals(short.class) || toCast.equals(Short.class)) {
+            long value = longValueExact(number);
+            if (value != (short) value) {
+                throw outOfRange(toCast, number);
+            }
+            return (short) value;
+        } else if (toCast.equals(int.class) || toCast.equals(Integer.class)) {
+            long value = longValueExact(number);
+            if (value != (int) value) {
+                throw outOfRange(toCast, number);
+            }
+            return (int) value;
+        } else if (toCast.equals(long.class) || toCast.equals(Long.class)) {
+            return longValueExact(number);
+        } else if (toCast.equals(float.class) || toCast.equals(Float.class)) {
+            float value = number.floatValue();
+            if (Float.isInfinite(value) && !isInfinite(number)) {
+                throw outOfRange(toCast, number);
+            }
+            return value;
+        } else if (toCast.equals(double.class) || toCast.equals(Double.class)) {
+            double value = number.doubleValue();
+            if (Double.isInfinite(value) && !isInfinite(number)) {
+                throw outOfRange(toCast, number);
+            }
+            return value;
+        } else {
+            return new BigDecimal(number.toString());
+        }
+    }
+
+    // the whole value of the number: BigInteger and BigDecimal are converted by the exact methods
+    // целое значение числа: BigInteger и BigDecimal преобразуются точными методами
+    private static long longValueExact(Number number) {
+        if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            return number.longValue();
+        } else if (number instanceof BigInteger) {
+            return ((BigInteger) number).longValueExact();
+        } else if (number instanceof BigDecimal) {
+            return ((BigDecimal) number).longValueExact();
+        } else {
+            return new BigDecimal(number.toString()).longValueExact();
+        }
+    }
+
+    private static boolean isInfinite(Number number) {
+        return (number instanceof Double && ((Double) number).isInfinite())
+                || (number instanceof Float && ((Float) number).isInfinite());
+    }
+
+    private static ArithmeticException outOfRange(Class<?> toCast, Number number) {
+        return new ArithmeticException("The number " + number + " is out of the range of " + toCast.getName());
+    }
+
+}
@@ -0,0 +1,201 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import com.github.chistousov.lib.programunitdb.ProgramUnitMappingException.Reason;
+
+/**
+ * <p>
+ * Base class of the cursor row mappers generated by the annotation processor for {@link ContractMapper}. The column indexes
+ * are resolved once per cursor from {@link ResultSetMetaData} by the same rules as the reflection mapping: a field whose
+ * column is not in the cursor is skipped, a method is invoked if at least one of its columns is in the cursor and is not
+ * taken by a field, and then all of its columns must be in the cursor.
+ * (Базовый класс отображений строк курсора, генерируемых обработчиком аннотаций для {@link ContractMapper}. Индексы колонок
+ * определяются один раз на курсор по {@link ResultSetMetaData} по тем же правилам, что и при отображении через рефлексию:
+ * поле, колонки которого нет в курсоре, пропускается, метод вызывается, если хотя бы одна его колонка есть в курсоре и не
+ * занята полем, и тогда в курсоре должны быть все его колонки.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see ContractMapper
+ *
+ * @param <T> record type (тип записи)
+ */
+public abstract class ContractRowMapper<T> implements PerCursorRowMapper<T> {
+
+    // column names (upper case) of the fields and of the parameters of each method in the order of the generated code
+    // имена колонок (в верхнем регистре) полей и параметров каждого метода в порядке сгенерированного кода
+    private final String[] fieldColumnNames;
+    private final String[][] methodColumnNames;
+
+    /**
+     *
+     * @param fieldColumnNames column names of the fields (имена колонок полей)
+     * @param methodColumnNames column names of the parameters of each method (имена колонок параметров каждого метода)
+     */
+    protected ContractRowMapper(String[] fieldColumnNames, String[][] methodColumnNames) {
+        this.fieldColumnNames = upperCase(fieldColumnNames);
+        this.methodColumnNames = new String[methodColumnNames.length][];
+        for (int i = 0; i < methodColumnNames.length; i++) {
+            this.methodColumnNames[i] = upperCase(methodColumnNames[i]);
+        }
+    }
+
+    /**
+     *
+     * The function maps the current record by the resolved column indexes
+     * (Функция отображает текущую запись по определенным индексам колонок)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param rs cursor on the current record (курсор на текущей записи)
+     * @param fieldColumns column index of each field, 0 - the field is skipped
+     *                     (индекс колонки каждого поля, 0 - поле пропускается)
+     * @param methodColumns column indexes of the parameters of each method, null - the method is not invoked
+     *                      (индексы колонок параметров каждого метода, null - метод не вызывается)
+     * @return object of the class (объект класса)
+     * @throws ProgramUnitMappingException error of the constructor, the reading of a column, the field or the method
+     *                                     (ошибка конструктора, чтения колонки, поля или метода)
+     */
+    protected abstract T mapRow(ResultSet rs, int[] fieldColumns, int[][] methodColumns)
+            throws ProgramUnitMappingException;
+
+    /**
+     *
+     * The function maps one record, resolving the column indexes on it. The cursors are read by {@link #forCursor()}, which
+     * resolves them once per cursor
+     * (Функция отображает одну запись, определяя на ней индексы колонок. Курсоры читаются через {@link #forCursor()},
+     * которое определяет их один раз на курсор)
+     */
+    @Override
+    public final T mapRow(ResultSet rs, int rowNumber) throws SQLException {
+        Columns columns = resolve(rs);
+        return mapRow(rs, columns.fieldColumns, columns.methodColumns);
+    }
+
+    @Override
+    public final RowMapper<T> forCursor() {
+        return new RowMapper<T>() {
+
+            // the indexes are resolved on the first row of the cursor
+            // индексы определяются на первой строке курсора
+            private Columns columns;
+
+            @Override
+            public T mapRow(ResultSet rs, int rowNumber) throws SQLException {
+                if (columns == null) {
+                    columns = resolve(rs);
+                }
+                return ContractRowMapper.this.mapRow(rs, columns.fieldColumns, columns.methodColumns);
+            }
+        };
+    }
+
+    /**
+     *
+     * The function resolves the column indexes of the cursor by its metadata
+     * (Функция определяет индексы колонок курсора по его метаданным)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param rs cursor (курсор)
+     * @return column indexes (индексы колонок)
+     * @throws ProgramUnitMappingException the cursor cannot be mapped into the class (курсор нельзя отобразить в класс)
+     */
+    private Columns resolve(ResultSet rs) throws ProgramUnitMappingException {
+
+        ResultSetMetaData resultSetMetaData;
+        try {
+            resultSetMetaData = rs.getMetaData();
+        } catch (SQLException e) {
+            throw new ProgramUnitMappingException(Reason.METADATA_NOT_FOUND, e);
+        }
+
+        int columnCount;
+        try {
+            columnCount = resultSetMetaData.getColumnCount();
+        } catch (SQLException e) {
+            throw new ProgramUnitMappingException(Reason.AMOUNT_COLUMN_DONT_GET, e);
+        }
+
+        // column name (upper case) -> column index
+        // имя колонки (в верхнем регистре) -> индекс колонки
+        Map<String, Integer> columnIndexes = new HashMap<>();
+        for (int i = 1; i <= columnCount; i++) {
+            try {
+                columnIndexes.putIfAbsent(resultSetMetaData.getColumnName(i).toUpperCase(), i);
+            } catch (SQLException e) {
+                throw new ProgramUnitMappingException(Reason.COLUMN_NOT_FOUND, e);
+            }
+        }
+
+        // fields whose columns are not in the cursor are skipped
+        // поля, колонок которых нет в курсоре, пропускаются
+        Set<String> fieldNames = new HashSet<>();
+        int[] fieldColumns = new int[fieldColumnNames.length];
+        for (int i = 0; i < fieldColumnNames.length; i++) {
+            fieldNames.add(fieldColumnNames[i]);
+            fieldColumns[i] = columnIndexes.getOrDefault(fieldColumnNames[i], 0);
+        }
+
+        // methods for which at least one column is in the cursor and is not taken by the field
+        // методы, для которых хотя бы одна колонка есть в курсоре и не занята полем
+        int[][] methodColumns = new int[methodColumnNames.length][];
+        for (int i = 0; i < methodColumnNames.length; i++) {
+            boolean isInvoked = false;
+            for (String columnName : methodColumnNames[i]) {
+                isInvoked |= columnIndexes.containsKey(columnName) && !fieldNames.contains(columnName);
+            }
+            if (!isInvoked) {
+                continue;
+            }
+            methodColumns[i] = new int[methodColumnNames[i].length];
+            for (int j = 0; j < methodColumnNames[i].length; j++) {
+                Integer columnIndex = columnIndexes.get(methodColumnNames[i][j]);
+                if (columnIndex == null) {
+                    // the method parameter has no column in the selection
+                    // для параметра метода нет колонки в выборке
+                    throw new ProgramUnitMappingException(Reason.CAST_FROM_DB_TO_JAVA_WITH_ERROR,
+                            new SQLException("Column " + methodColumnNames[i][j] + " not found"));
+                }
+                methodColumns[i][j] = columnIndex;
+            }
+        }
+
+        return new Columns(fieldColumns, methodColumns);
+    }
+
+    private static String[] upperCase(String[] names) {
+        String[] upperCaseNames = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            upperCaseNames[i] = names[i].toUpperCase();
+        }
+        return upperCaseNames;
+    }
+
+    /**
+     * Column indexes of one cursor (Индексы колонок одного курсора)
+     */
+    private static final class Columns {
+
+        private final int[] fieldColumns;
+        private final int[][] methodColumns;
+
+        Columns(int[] fieldColumns, int[][] methodColumns) {
+            this.fieldColumns = fieldColumns;
+            this.methodColumns = methodColumns;
+        }
+    }
+
+}
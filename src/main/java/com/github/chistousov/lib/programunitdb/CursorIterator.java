@@ -0,0 +1,251 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+
+/**
+ * <p>
+ * Iterator over the open output cursor of a program unit. Each record is read from the database and mapped only when
+ * {@link #hasNext()} and {@link #next()} are called, so the cursor of any size is processed in constant memory.
+ * (Итератор по открытому выходному курсору программного юнита. Каждая запись читается из БД и отображается только
+ * при вызове {@link #hasNext()} и {@link #next()}, поэтому курсор любого размера обрабатывается в постоянной памяти.)
+ * </p>
+ *
+ * <p>
+ * The iterator holds the cursor, the statement and the connection until it is closed. It is closed by {@link #close()} or
+ * automatically after the last record.
+ * (Итератор удерживает курсор, выражение и подключение до закрытия. Он закрывается через {@link #close()} или
+ * автоматически после последней записи.)
+ * </p>
+ *
+ * <p>
+ * A PostgreSQL refcursor is read in chunks of {@link ProgramUnitDB#setFetchSize(int)} rows: the next chunk is fetched when
+ * the previous one is read.
+ * (Refcursor PostgreSQL читается порциями по {@link ProgramUnitDB#setFetchSize(int)} строк: следующая порция получается,
+ * когда прочитана предыдущая.)
+ * </p>
+ *
+ * <p>
+ * Database errors are thrown as {@link DataAccessException} as in Spring JDBC Template
+ * (Ошибки БД выбрасываются как {@link DataAccessException} так же, как в Spring JDBC Template)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see ProgramUnitDB#executeCursorAsIterator(Object...)
+ * @see ProgramUnitDB#executeCursorAsStream(Object...)
+ */
+public final class CursorIterator<E> implements Iterator<E>, AutoCloseable {
+
+    private final Connection connection;
+    private final DataSource dataSource;
+    // the connection was switched off autocommit by the iterator
+    // у подключения автокоммит выключен итератором
+    private final boolean restoreAutoCommit;
+    private final Statement statement;
+    // current chunk of the PostgreSQL refcursor or the whole cursor
+    // текущая порция refcursor PostgreSQL или весь курсор
+    private ResultSet cursor;
+    // PostgreSQL refcursor read in chunks. Null - the cursor is read by the driver
+    // refcursor PostgreSQL, читаемый порциями. Null - курсор читается драйвером
+    private final PostgresRefCursor refCursor;
+    private int rowsInChunk;
+    private final RowMapper<E> rowMapper;
+    private final SQLExceptionTranslator exceptionTranslator;
+    private final String callString;
+
+    // the current record of the cursor has been read, but not yet returned
+    // текущая запись курсора прочитана, но еще не возвращена
+    private boolean isFetched;
+    private boolean isClosed;
+    // error that ended the reading of the cursor. Null - there was no error
+    // ошибка, которой завершилось чтение курсора. Null - ошибки не было
+    private Throwable failure;
+    private int rowNumber;
+
+    CursorIterator(Connection connection, DataSource dataSource, boolean restoreAutoCommit,
+            Statement statement, ResultSet cursor, PostgresRefCursor refCursor, RowMapper<E> rowMapper,
+            SQLExceptionTranslator exceptionTranslator, String callString) {
+        this.connection = connection;
+        this.dataSource = dataSource;
+        this.restoreAutoCommit = restoreAutoCommit;
+        this.statement = statement;
+        this.cursor = cursor;
+        this.refCursor = refCursor;
+        // the mapping is prepared for this cursor
+        // отображение подготавливается для этого курсора
+        this.rowMapper = PerCursorRowMapper.forCursor(rowMapper);
+        this.exceptionTranslator = exceptionTranslator;
+        this.callString = callString;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (isFetched) {
+            return true;
+        }
+        if (isClosed) {
+            return false;
+        }
+        try {
+            isFetched = cursor.next();
+            // a full chunk is read, the cursor may have more rows
+            // прочитана полная порция, у курсора могут быть еще строки
+            if (!isFetched && refCursor != null && rowsInChunk == refCursor.getChunkSize()) {
+                JdbcUtils.closeResultSet(cursor);
+                cursor = refCursor.fetch();
+                rowsInChunk = 0;
+                isFetched = cursor.next();
+            }
+            if (isFetched) {
+                rowsInChunk++;
+            }
+        } catch (SQLException e) {
+            throw translate(e);
+        }
+        if (!isFetched) {
+            close();
+        }
+        return isFetched;
+    }
+
+    @Override
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        isFetched = false;
+        try {
+            return rowMapper.mapRow(cursor, rowNumber++);
+        } catch (SQLException e) {
+            throw translate(e);
+        } catch (RuntimeException | Error e) {
+            // the transaction held by the iterator is rolled back for any error of the row mapper
+            // транзакция, удерживаемая итератором, откатывается при любой ошибке отображения строки
+            fail(e);
+            throw e;
+        }
+    }
+
+    /**
+     * The function closes the cursor, the statement and returns the connection. Repeated calls do nothing.
+     * (Функция закрывает курсор, выражение и возвращает подключение. Повторные вызовы ничего не делают.)
+     *
+     * @throws DataAccessException error of committing the transaction held by the iterator
+     *                             (ошибка фиксации транзакции, удерживаемой итератором)
+     */
+    @Override
+    public void close() throws DataAccessException {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        isFetched = false;
+        JdbcUtils.closeResultSet(cursor);
+        if (refCursor != null) {
+            refCursor.close();
+        }
+        JdbcUtils.closeStatement(statement);
+        try {
+            releaseConnection(connection, dataSource, restoreAutoCommit, failure);
+        } catch (SQLException e) {
+            throw translate(e);
+        }
+    }
+
+    /**
+     *
+     * @return metadata of the open cursor (метаданные открытого курсора)
+     * @throws DataAccessException metadata error, the iterator is closed (ошибка метаданных, итератор закрывается)
+     */
+    ResultSetMetaData getMetaData() throws DataAccessException {
+        try {
+            return cursor.getMetaData();
+        } catch (SQLException e) {
+            throw translate(e);
+        }
+    }
+
+    private DataAccessException translate(SQLException e) {
+        fail(e);
+        DataAccessException translated = exceptionTranslator.translate("CursorIterator", callString, e);
+        return translated != null ? translated : new UncategorizedSQLException("CursorIterator", callString, e);
+    }
+
+    private void fail(Throwable e) {
+        if (!isClosed) {
+            failure = e;
+            close();
+        }
+    }
+
+    /**
+     *
+     * The function returns the connection. If autocommit was switched off by the library, the transaction is committed
+     * after success or rolled back after an error, and autocommit is switched on again in any case.
+     * (Функция возвращает подключение. Если автокоммит был выключен библиотекой, транзакция фиксируется после успеха
+     * или откатывается после ошибки, и автокоммит снова включается в любом случае.)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param connection connection (подключение)
+     * @param dataSource data source (источник данных)
+     * @param restoreAutoCommit autocommit was switched off by the library (автокоммит был выключен библиотекой)
+     * @param error error of the work on the connection, null - success. Errors of the rollback are added to it
+     *              as suppressed
+     *              (ошибка работы на подключении, null - успех. Ошибки отката добавляются к ней как подавленные)
+     * @throws SQLException error of the commit or of switching on autocommit after success; the connection
+     *                      is returned anyway
+     *                      (ошибка фиксации или включения автокоммита после успеха; подключение все равно
+     *                      возвращается)
+     */
+    static void releaseConnection(Connection connection, DataSource dataSource, boolean restoreAutoCommit,
+            Throwable error) throws SQLException {
+        SQLException releaseError = null;
+        if (restoreAutoCommit) {
+            try {
+                if (error == null) {
+                    connection.commit();
+                } else {
+                    connection.rollback();
+                }
+            } catch (SQLException e) {
+                releaseError = e;
+            }
+            // autocommit is switched on even if the commit or the rollback failed
+            // автокоммит включается, даже если фиксация или откат не удались
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                if (releaseError == null) {
+                    releaseError = e;
+                } else {
+                    releaseError.addSuppressed(e);
+                }
+            }
+        }
+        DataSourceUtils.releaseConnection(connection, dataSource);
+        if (releaseError != null) {
+            if (error == null) {
+                throw releaseError;
+            }
+            error.addSuppressed(releaseError);
+        }
+    }
+
+}
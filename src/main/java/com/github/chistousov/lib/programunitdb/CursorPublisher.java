@@ -0,0 +1,277 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * <p>
+ * Reactive Streams {@link Publisher} of the records of the output cursor. Records are read from the database only when the
+ * subscriber requests them via {@link Subscription#request(long)}, so a slow subscriber does not cause the cursor to be
+ * read into memory.
+ * (Reactive Streams {@link Publisher} записей выходного курсора. Записи читаются из БД только когда подписчик
+ * запрашивает их через {@link Subscription#request(long)}, поэтому медленный подписчик не приводит к чтению курсора в память.)
+ * </p>
+ *
+ * <p>
+ * Each subscription calls the program unit again. Blocking JDBC reads are performed on the given {@link Executor}, never on
+ * the thread calling {@link Subscription#request(long)}. One task reads at most {@value #BATCH_SIZE} records, after which
+ * it gives the thread to other subscriptions.
+ * (Каждая подписка заново вызывает программный юнит. Блокирующее чтение JDBC выполняется на заданном {@link Executor},
+ * никогда на потоке, вызвавшем {@link Subscription#request(long)}. Одна задача читает не более {@value #BATCH_SIZE} записей,
+ * после чего отдает поток другим подпискам.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see <a href="https://www.reactive-streams.org/">Reactive Streams</a>
+ * @see ProgramUnitDB#executeCursorAsPublisher(Object...)
+ */
+final class CursorPublisher<T> implements Publisher<T> {
+
+    // the maximum number of records sent by one task
+    // максимальное количество записей, отправляемых одной задачей
+    static final int BATCH_SIZE = 256;
+
+    private final Callable<CursorIterator<T>> cursorOpener;
+    private final Executor executor;
+
+    /**
+     *
+     * @param cursorOpener opens the cursor of the program unit (открывает курсор программного юнита)
+     * @param executor executor of blocking reads (исполнитель блокирующего чтения)
+     */
+    CursorPublisher(Callable<CursorIterator<T>> cursorOpener, Executor executor) {
+        this.cursorOpener = Objects.requireNonNull(cursorOpener, "cursorOpener");
+        this.executor = Objects.requireNonNull(executor, "executor");
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        CursorSubscription<T> subscription = new CursorSubscription<>(subscriber, cursorOpener, executor);
+        try {
+            subscriber.onSubscribe(subscription);
+        } catch (Throwable e) {
+            // Reactive Streams rule 2.13: the subscription is considered cancelled
+            // правило Reactive Streams 2.13: подписка считается отмененной
+            subscription.isCancelled = true;
+        }
+        subscription.onSubscribed();
+    }
+
+    /**
+     * <p>
+     * Subscription to the cursor. Signals from the subscriber only change the demand and count themselves in the WIP
+     * counter; the only drain loop is owned by whoever moves the counter from 0, so the subscriber is signaled serially
+     * (Reactive Streams rule 1.3). The cursor is opened, read and closed only inside the drain loop.
+     * (Подписка на курсор. Сигналы подписчика только изменяют спрос и учитываются в счетчике WIP; единственный цикл
+     * отправки принадлежит тому, кто перевел счетчик с 0, поэтому подписчику сигналы отправляются последовательно
+     * (правило Reactive Streams 1.3). Курсор открывается, читается и закрывается только внутри цикла отправки.)
+     * </p>
+     *
+     * <p>
+     * The counter starts at 1: until {@link Subscriber#onSubscribe(Subscription)} returns, the drain loop belongs to the
+     * subscribing thread, so no record is sent in parallel with onSubscribe.
+     * (Счетчик начинается с 1: пока {@link Subscriber#onSubscribe(Subscription)} не вернулся, цикл отправки принадлежит
+     * подписывающему потоку, поэтому ни одна запись не отправляется параллельно с onSubscribe.)
+     * </p>
+     */
+    private static final class CursorSubscription<T> implements Subscription, Runnable {
+
+        private final Subscriber<? super T> subscriber;
+        private final Callable<CursorIterator<T>> cursorOpener;
+        private final Executor executor;
+
+        // unfulfilled demand of the subscriber
+        // невыполненный спрос подписчика
+        private final AtomicLong requested = new AtomicLong();
+        // number of signals not yet processed by the drain loop, the loop is scheduled only on the transition from 0
+        // количество сигналов, еще не обработанных циклом отправки, цикл планируется только при переходе с 0
+        private final AtomicInteger wip = new AtomicInteger(1);
+
+        private volatile boolean isCancelled;
+        private volatile IllegalArgumentException invalidRequest;
+
+        // used only inside the drain loop
+        // используются только внутри цикла отправки
+        private CursorIterator<T> cursor;
+        private boolean isDone;
+
+        CursorSubscription(Subscriber<? super T> subscriber, Callable<CursorIterator<T>> cursorOpener,
+                Executor executor) {
+            this.subscriber = subscriber;
+            this.cursorOpener = cursorOpener;
+            this.executor = executor;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Reactive Streams rule 3.9: request " + n + " <= 0");
+            } else {
+                long current;
+                long next;
+                do {
+                    current = requested.get();
+                    if (current == Long.MAX_VALUE) {
+                        break;
+                    }
+                    next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                } while (!requested.compareAndSet(current, next));
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            isCancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                submit();
+            }
+        }
+
+        /**
+         * Gives the drain loop away after {@link Subscriber#onSubscribe(Subscription)}: the signals received during
+         * onSubscribe are processed by the task
+         * (Отдает цикл отправки после {@link Subscriber#onSubscribe(Subscription)}: сигналы, полученные во время
+         * onSubscribe, обрабатываются задачей)
+         */
+        private void onSubscribed() {
+            if (wip.decrementAndGet() != 0) {
+                submit();
+            }
+        }
+
+        private void submit() {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                // the drain loop belongs to the current thread, so the subscription is finished on it; the counter is not
+                // released, and later signals do not start the loop again
+                // цикл отправки принадлежит текущему потоку, поэтому подписка завершается на нем; счетчик не освобождается,
+                // и последующие сигналы не запускают цикл снова
+                closeCursor();
+                if (!isDone) {
+                    isDone = true;
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            while (true) {
+                if (!isDone) {
+                    if (drain()) {
+                        // the batch is over, but there is still demand: the task is rescheduled, the signals remain counted
+                        // пакет закончился, но спрос еще есть: задача планируется заново, сигналы остаются учтенными
+                        submit();
+                        return;
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Sends the requested records (Отправляет запрошенные записи)
+         *
+         * @return true if the batch is over, but the demand is not (true, если пакет закончился, а спрос нет)
+         */
+        private boolean drain() {
+            if (isCancelled) {
+                closeCursor();
+                isDone = true;
+                return false;
+            }
+            IllegalArgumentException invalid = invalidRequest;
+            if (invalid != null) {
+                fail(invalid);
+                return false;
+            }
+            long demand = requested.get();
+            if (demand == 0) {
+                return false;
+            }
+
+            if (cursor == null) {
+                try {
+                    cursor = cursorOpener.call();
+                } catch (Throwable e) {
+                    fail(e);
+                    return false;
+                }
+            }
+
+            long emitted = 0;
+            while (emitted != demand && emitted < BATCH_SIZE) {
+                if (isCancelled) {
+                    closeCursor();
+                    isDone = true;
+                    return false;
+                }
+
+                T record;
+                try {
+                    if (!cursor.hasNext()) {
+                        closeCursor();
+                        isDone = true;
+                        subscriber.onComplete();
+                        return false;
+                    }
+                    record = cursor.next();
+                } catch (Throwable e) {
+                    fail(e);
+                    return false;
+                }
+
+                try {
+                    subscriber.onNext(record);
+                } catch (Throwable e) {
+                    // Reactive Streams rule 2.13: the subscription is considered cancelled
+                    // правило Reactive Streams 2.13: подписка считается отмененной
+                    closeCursor();
+                    isDone = true;
+                    return false;
+                }
+                emitted++;
+            }
+
+            if (demand != Long.MAX_VALUE) {
+                demand = requested.addAndGet(-emitted);
+            }
+            return demand > 0 && !isCancelled;
+        }
+
+        private void fail(Throwable e) {
+            closeCursor();
+            isDone = true;
+            subscriber.onError(e);
+        }
+
+        private void closeCursor() {
+            if (cursor != null) {
+                cursor.close();
+                cursor = null;
+            }
+        }
+
+    }
+
+}
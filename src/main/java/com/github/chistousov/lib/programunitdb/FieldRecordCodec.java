@@ -0,0 +1,253 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * <p>
+ * {@link RecordCodec} that writes all instance fields of the contract class one after another: a null flag and the value in
+ * a fixed binary form for its type. Fields of other types are written by Java serialization, so they must be
+ * {@link Serializable}. The object is read back through the default constructor.
+ * ({@link RecordCodec}, который пишет все поля экземпляра класса-контракта одно за другим: признак null и значение
+ * в фиксированной двоичной форме для его типа. Поля других типов пишутся сериализацией Java, поэтому они должны быть
+ * {@link Serializable}. Объект читается обратно через конструктор по умолчанию.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see SpillingList
+ *
+ * @param <T> record type (тип записи)
+ */
+final class FieldRecordCodec<T> implements RecordCodec<T> {
+
+    /**
+     * Writing and reading of a non-null value of one type (Запись и чтение не-null значения одного типа)
+     */
+    private interface ValueCodec {
+
+        void write(DataOutput out, Object value) throws IOException;
+
+        Object read(DataInput in) throws IOException;
+    }
+
+    private static final Map<Class<?>, ValueCodec> VALUE_CODECS = new HashMap<>();
+
+    static {
+        VALUE_CODECS.put(boolean.class, codec((out, v) -> out.writeBoolean((Boolean) v), DataInput::readBoolean));
+        VALUE_CODECS.put(byte.class, codec((out, v) -> out.writeByte((Byte) v), DataInput::readByte));
+        VALUE_CODECS.put(short.class, codec((out, v) -> out.writeShort((Short) v), DataInput::readShort));
+        VALUE_CODECS.put(char.class, codec((out, v) -> out.writeChar((Character) v), DataInput::readChar));
+        VALUE_CODECS.put(int.class, codec((out, v) -> out.writeInt((Integer) v), DataInput::readInt));
+        VALUE_CODECS.put(long.class, codec((out, v) -> out.writeLong((Long) v), DataInput::readLong));
+        VALUE_CODECS.put(float.class, codec((out, v) -> out.writeFloat((Float) v), DataInput::readFloat));
+        VALUE_CODECS.put(double.class, codec((out, v) -> out.writeDouble((Double) v), DataInput::readDouble));
+        VALUE_CODECS.put(Boolean.class, VALUE_CODECS.get(boolean.class));
+        VALUE_CODECS.put(Byte.class, VALUE_CODECS.get(byte.class));
+        VALUE_CODECS.put(Short.class, VALUE_CODECS.get(short.class));
+        VALUE_CODECS.put(Character.class, VALUE_CODECS.get(char.class));
+        VALUE_CODECS.put(Integer.class, VALUE_CODECS.get(int.class));
+        VALUE_CODECS.put(Long.class, VALUE_CODECS.get(long.class));
+        VALUE_CODECS.put(Float.class, VALUE_CODECS.get(float.class));
+        VALUE_CODECS.put(Double.class, VALUE_CODECS.get(double.class));
+
+        VALUE_CODECS.put(String.class, codec((out, v) -> writeString(out, (String) v), FieldRecordCodec::readString));
+        VALUE_CODECS.put(byte[].class, codec((out, v) -> writeBytes(out, (byte[]) v), FieldRecordCodec::readBytes));
+        VALUE_CODECS.put(BigDecimal.class, codec((out, v) -> {
+            out.writeInt(((BigDecimal) v).scale());
+            writeBytes(out, ((BigDecimal) v).unscaledValue().toByteArray());
+        }, in -> {
+            int scale = in.readInt();
+            return new BigDecimal(new BigInteger(readBytes(in)), scale);
+        }));
+        VALUE_CODECS.put(UUID.class, codec((out, v) -> {
+            out.writeLong(((UUID) v).getMostSignificantBits());
+            out.writeLong(((UUID) v).getLeastSignificantBits());
+        }, in -> new UUID(in.readLong(), in.readLong())));
+        VALUE_CODECS.put(LocalDate.class, codec((out, v) -> out.writeLong(((LocalDate) v).toEpochDay()),
+                in -> LocalDate.ofEpochDay(in.readLong())));
+        VALUE_CODECS.put(LocalTime.class, codec((out, v) -> out.writeLong(((LocalTime) v).toNanoOfDay()),
+                in -> LocalTime.ofNanoOfDay(in.readLong())));
+        VALUE_CODECS.put(LocalDateTime.class, codec((out, v) -> {
+            out.writeLong(((LocalDateTime) v).toLocalDate().toEpochDay());
+            out.writeLong(((LocalDateTime) v).toLocalTime().toNanoOfDay());
+        }, in -> LocalDateTime.of(LocalDate.ofEpochDay(in.readLong()), LocalTime.ofNanoOfDay(in.readLong()))));
+        VALUE_CODECS.put(Instant.class, codec((out, v) -> {
+            out.writeLong(((Instant) v).getEpochSecond());
+            out.writeInt(((Instant) v).getNano());
+        }, in -> Instant.ofEpochSecond(in.readLong(), in.readInt())));
+        VALUE_CODECS.put(OffsetDateTime.class, codec((out, v) -> {
+            Instant instant = ((OffsetDateTime) v).toInstant();
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+            out.writeInt(((OffsetDateTime) v).getOffset().getTotalSeconds());
+        }, in -> {
+            Instant instant = Instant.ofEpochSecond(in.readLong(), in.readInt());
+            return OffsetDateTime.ofInstant(instant, ZoneOffset.ofTotalSeconds(in.readInt()));
+        }));
+    }
+
+    // codec of a field of another type: Java serialization
+    // формат поля другого типа: сериализация Java
+    private static final ValueCodec SERIALIZABLE = codec((out, v) -> {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+            objects.writeObject(v);
+        }
+        writeBytes(out, bytes.toByteArray());
+    }, in -> {
+        try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+            return objects.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    });
+
+    private final MethodHandle instantiator;
+    private final MethodHandle[] readers;
+    private final MethodHandle[] writers;
+    private final ValueCodec[] codecs;
+
+    /**
+     *
+     * @param type contract class (класс-контракт)
+     * @throws Exception the class has no default constructor or has a field that cannot be written (у класса нет конструктора по умолчанию или есть поле, которое нельзя записать)
+     */
+    FieldRecordCodec(Class<T> type) throws Exception {
+        // an inner class is created together with its main class
+        // внутренний класс создается вместе со своим главным классом
+        boolean isInner = type.isMemberClass() && !Modifier.isStatic(type.getModifiers());
+        this.instantiator = Accessors.instantiator(type, isInner ? type.getEnclosingClass() : null);
+
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+                    fields.add(field);
+                }
+            }
+        }
+
+        this.readers = new MethodHandle[fields.size()];
+        this.writers = new MethodHandle[fields.size()];
+        this.codecs = new ValueCodec[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            ValueCodec codec = VALUE_CODECS.get(field.getType());
+            if (codec == null) {
+                if (!field.getType().isArray() && !Serializable.class.isAssignableFrom(field.getType())
+                        && !field.getType().isInterface()) {
+                    throw new IllegalArgumentException("Field " + field + " cannot be written to disk: "
+                            + field.getType().getCanonicalName() + " is not Serializable, set a RecordCodec");
+                }
+                codec = SERIALIZABLE;
+            }
+            readers[i] = Accessors.fieldReader(field);
+            writers[i] = Accessors.fieldWriter(field);
+            codecs[i] = codec;
+        }
+    }
+
+    @Override
+    public void write(T record, DataOutput out) throws IOException {
+        for (int i = 0; i < readers.length; i++) {
+            Object value;
+            try {
+                value = (Object) readers[i].invokeExact((Object) record);
+            } catch (Throwable e) {
+                throw new IOException(e);
+            }
+            out.writeBoolean(value != null);
+            if (value != null) {
+                codecs[i].write(out, value);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T read(DataInput in) throws IOException {
+        try {
+            Object record = (Object) instantiator.invokeExact();
+            for (int i = 0; i < writers.length; i++) {
+                if (in.readBoolean()) {
+                    writers[i].invokeExact(record, codecs[i].read(in));
+                }
+            }
+            return (T) record;
+        } catch (IOException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(DataOutput out, Object value) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Reader {
+        Object read(DataInput in) throws IOException;
+    }
+
+    private static ValueCodec codec(Writer writer, Reader reader) {
+        return new ValueCodec() {
+            @Override
+            public void write(DataOutput out, Object value) throws IOException {
+                writer.write(out, value);
+            }
+
+            @Override
+            public Object read(DataInput in) throws IOException {
+                return reader.read(in);
+            }
+        };
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        // writeUTF is limited to 64 KB
+        // writeUTF ограничен 64 КБ
+        writeBytes(out, value.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return new String(readBytes(in), java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutput out, byte[] value) throws IOException {
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+        byte[] value = new byte[in.readInt()];
+        in.readFully(value);
+        return value;
+    }
+
+}
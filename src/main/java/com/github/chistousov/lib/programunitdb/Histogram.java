@@ -0,0 +1,142 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Histogram of non-negative values (durations in nanoseconds, numbers of rows) with a relative error below 1/64, as in
+ * HdrHistogram: values below 128 are counted exactly, larger values are counted in 64 linear buckets per power of two.
+ * The memory does not depend on the number of values (3712 counters).
+ * (Гистограмма неотрицательных значений (длительностей в наносекундах, количеств строк) с относительной погрешностью меньше
+ * 1/64, как в HdrHistogram: значения меньше 128 считаются точно, большие значения считаются в 64 линейных корзинах на каждую
+ * степень двойки. Память не зависит от количества значений (3712 счетчиков).)
+ * </p>
+ *
+ * <p>
+ * Recording is lock-free and safe for concurrent use; reading while recording returns an approximate snapshot.
+ * (Запись не блокирует и безопасна для конкурентного использования; чтение во время записи возвращает приблизительный снимок.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see <a href="https://hdrhistogram.github.io/HdrHistogram/">HdrHistogram</a>
+ */
+public final class Histogram {
+
+    // values below EXACT_LIMIT have their own bucket
+    // значения меньше EXACT_LIMIT имеют свою корзину
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int EXACT_LIMIT = SUB_BUCKETS << 1;
+    private static final int BUCKET_COUNT = bucketIndex(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     *
+     * @param value value, negative values are counted as 0 (значение, отрицательные значения считаются как 0)
+     */
+    public void record(long value) {
+        long recorded = Math.max(value, 0);
+        counts.incrementAndGet(bucketIndex(recorded));
+        totalCount.incrementAndGet();
+        sum.addAndGet(recorded);
+        long currentMax;
+        while (recorded > (currentMax = max.get()) && !max.compareAndSet(currentMax, recorded)) {
+            // another thread changed the maximum
+            // другой поток изменил максимум
+        }
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < EXACT_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    // the largest value counted in the bucket
+    // наибольшее значение, считаемое в корзине
+    private static long highestValue(int index) {
+        if (index < EXACT_LIMIT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     *
+     * @return number of recorded values (количество записанных значений)
+     */
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    /**
+     *
+     * @return maximum recorded value, 0 if there are none (максимальное записанное значение, 0, если их нет)
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     *
+     * @return mean of the recorded values, 0 if there are none (среднее записанных значений, 0, если их нет)
+     */
+    public double getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : (double) sum.get() / count;
+    }
+
+    /**
+     *
+     * @param percentile percentile from 0 to 100 (перцентиль от 0 до 100)
+     * @return value that is not exceeded by the given percentage of the recorded values, 0 if there are none
+     *         (значение, которое не превышает заданный процент записанных значений, 0, если их нет)
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile is not in [0, 100]");
+        }
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Removes all recorded values (Удаляет все записанные значения)
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "Histogram[count=" + getTotalCount() + ", mean=" + getMean() + ", p50=" + getValueAtPercentile(50)
+                + ", p99=" + getValueAtPercentile(99) + ", max=" + getMax() + "]";
+    }
+
+}
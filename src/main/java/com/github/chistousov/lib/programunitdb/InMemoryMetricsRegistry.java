@@ -0,0 +1,171 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * {@link MetricsRegistry} that keeps the metrics of each program unit in memory: counts of calls and errors, calls in progress,
+ * histograms of the phases of the calls and of the numbers of mapped records. The metrics are read locally, without a
+ * monitoring system. One registry can be shared by several {@link ProgramUnitDB}.
+ * ({@link MetricsRegistry}, который хранит метрики каждого программного юнита в памяти: количества вызовов и ошибок,
+ * выполняющиеся вызовы, гистограммы фаз вызовов и количеств отображенных записей. Метрики читаются локально, без системы
+ * мониторинга. Один реестр может разделяться несколькими {@link ProgramUnitDB}.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see ProgramUnitDB#setMetricsRegistry(MetricsRegistry)
+ */
+public final class InMemoryMetricsRegistry implements MetricsRegistry {
+
+    private final Map<String, UnitMetrics> units = new ConcurrentHashMap<>();
+
+    @Override
+    public void callStarted(String programUnit) {
+        unit(programUnit).inFlightCount.increment();
+    }
+
+    @Override
+    public void callFinished(String programUnit, long acquireNanos, long executeNanos, long mappingNanos,
+            boolean isFailed) {
+        UnitMetrics unit = unit(programUnit);
+        unit.inFlightCount.decrement();
+        unit.callCount.increment();
+        if (isFailed) {
+            unit.errorCount.increment();
+        }
+        unit.acquireNanos.record(acquireNanos);
+        unit.executeNanos.record(executeNanos);
+        unit.mappingNanos.record(mappingNanos);
+    }
+
+    @Override
+    public void rowsMapped(String programUnit, long rows) {
+        unit(programUnit).rows.record(rows);
+    }
+
+    private UnitMetrics unit(String programUnit) {
+        UnitMetrics unit = units.get(programUnit);
+        return unit != null ? unit : units.computeIfAbsent(programUnit, name -> new UnitMetrics());
+    }
+
+    /**
+     *
+     * @param programUnit name of the program unit (имя программного юнита)
+     * @return metrics of the program unit or null if it was not called (метрики программного юнита или null, если он не вызывался)
+     */
+    public UnitMetrics getUnitMetrics(String programUnit) {
+        return units.get(programUnit);
+    }
+
+    /**
+     *
+     * @return metrics of all called program units by name (метрики всех вызванных программных юнитов по имени)
+     */
+    public Map<String, UnitMetrics> getAllUnitMetrics() {
+        return Collections.unmodifiableMap(new TreeMap<>(units));
+    }
+
+    /**
+     * Removes all metrics (Удаляет все метрики)
+     */
+    public void clear() {
+        units.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "InMemoryMetricsRegistry" + getAllUnitMetrics();
+    }
+
+    /**
+     * <p>
+     * Metrics of one program unit (Метрики одного программного юнита)
+     * </p>
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     */
+    public static final class UnitMetrics {
+
+        private final LongAdder callCount = new LongAdder();
+        private final LongAdder errorCount = new LongAdder();
+        private final LongAdder inFlightCount = new LongAdder();
+        private final Histogram acquireNanos = new Histogram();
+        private final Histogram executeNanos = new Histogram();
+        private final Histogram mappingNanos = new Histogram();
+        private final Histogram rows = new Histogram();
+
+        private UnitMetrics() {
+        }
+
+        /**
+         *
+         * @return number of finished calls (количество завершенных вызовов)
+         */
+        public long getCallCount() {
+            return callCount.sum();
+        }
+
+        /**
+         *
+         * @return number of calls that ended with an exception (количество вызовов, завершившихся исключением)
+         */
+        public long getErrorCount() {
+            return errorCount.sum();
+        }
+
+        /**
+         *
+         * @return number of calls in progress (количество выполняющихся вызовов)
+         */
+        public long getInFlightCount() {
+            return inFlightCount.sum();
+        }
+
+        /**
+         *
+         * @return durations of getting the connection in nanoseconds (длительности получения подключения в наносекундах)
+         */
+        public Histogram getAcquireNanos() {
+            return acquireNanos;
+        }
+
+        /**
+         *
+         * @return durations of execution in the database in nanoseconds (длительности выполнения в БД в наносекундах)
+         */
+        public Histogram getExecuteNanos() {
+            return executeNanos;
+        }
+
+        /**
+         *
+         * @return durations of mapping in nanoseconds (длительности отображения в наносекундах)
+         */
+        public Histogram getMappingNanos() {
+            return mappingNanos;
+        }
+
+        /**
+         *
+         * @return numbers of records of mapped cursors (количества записей отображенных курсоров)
+         */
+        public Histogram getRows() {
+            return rows;
+        }
+
+        @Override
+        public String toString() {
+            return "UnitMetrics[calls=" + getCallCount() + ", errors=" + getErrorCount() + ", inFlight="
+                    + getInFlightCount() + ", acquire=" + acquireNanos + ", execute=" + executeNanos + ", mapping="
+                    + mappingNanos + ", rows=" + rows + "]";
+        }
+
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.github.chistousov.lib.programunitdb;
+
+/**
+ * <p>
+ * Receiver of the metrics of the calls of program units. The program unit is named {@code schema.name}. Implement the
+ * interface to export the metrics to a monitoring system; {@link InMemoryMetricsRegistry} keeps them in memory.
+ * (Получатель метрик вызовов программных юнитов. Программный юнит называется {@code schema.name}. Реализуйте интерфейс,
+ * чтобы выгружать метрики в систему мониторинга; {@link InMemoryMetricsRegistry} хранит их в памяти.)
+ * </p>
+ *
+ * <p>
+ * The methods are called in the thread of the call and must be fast and thread-safe.
+ * (Методы вызываются в потоке вызова и должны быть быстрыми и потокобезопасными.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see ProgramUnitDB#setMetricsRegistry(MetricsRegistry)
+ */
+public interface MetricsRegistry {
+
+    /**
+     *
+     * The call went to the database (Вызов пошел в БД)
+     *
+     * @param programUnit name of the program unit (имя программного юнита)
+     */
+    void callStarted(String programUnit);
+
+    /**
+     *
+     * The call is finished. The phases do not overlap, their sum is the duration of the call.
+     * (Вызов завершен. Фазы не пересекаются, их сумма - длительность вызова.)
+     *
+     * @param programUnit name of the program unit (имя программного юнита)
+     * @param acquireNanos getting the connection from the data source (получение подключения из источника данных)
+     * @param executeNanos execution in the database and reading of the results by the driver (выполнение в БД и чтение результатов драйвером)
+     * @param mappingNanos mapping of the results into the contract class (отображение результатов в класс-контракт)
+     * @param isFailed the call ended with an exception (вызов завершился исключением)
+     */
+    void callFinished(String programUnit, long acquireNanos, long executeNanos, long mappingNanos, boolean isFailed);
+
+    /**
+     *
+     * The cursor of the call is mapped (Курсор вызова отображен)
+     *
+     * @param programUnit name of the program unit (имя программного юнита)
+     * @param rows number of mapped records (количество отображенных записей)
+     */
+    void rowsMapped(String programUnit, long rows);
+}
@@ -0,0 +1,95 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.core.InfrastructureProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * <p>
+ * Data source of a program unit that measures getting the connection for {@link CallTimer} and wraps the connection with
+ * the {@link StatementCache}, if it is set. Spring transactions see it as the target data source ({@link InfrastructureProxy}),
+ * so the connections of the transaction are shared as before.
+ * (Источник данных программного юнита, который измеряет получение подключения для {@link CallTimer} и оборачивает
+ * подключение кэшем {@link StatementCache}, если он задан. Транзакции Spring видят его как целевой источник данных
+ * ({@link InfrastructureProxy}), поэтому подключения транзакции разделяются как прежде.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see MetricsRegistry
+ */
+final class ObservedDataSource extends DelegatingDataSource implements InfrastructureProxy {
+
+    // cache of prepared statements. Null - statements are prepared by each call
+    // кэш подготовленных выражений. Null - выражения подготавливаются каждым вызовом
+    private volatile StatementCache statementCache;
+
+    /**
+     *
+     * @param targetDataSource data source of the user (источник данных пользователя)
+     */
+    ObservedDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    /**
+     *
+     * @param dataSource data source (источник данных)
+     * @return data source of the user (источник данных пользователя)
+     */
+    static DataSource unwrap(DataSource dataSource) {
+        return dataSource instanceof ObservedDataSource ? ((ObservedDataSource) dataSource).getTargetDataSource()
+                : dataSource;
+    }
+
+    void setStatementCache(StatementCache statementCache) {
+        this.statementCache = statementCache;
+    }
+
+    StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        CallTimer timer = CallTimer.current();
+        if (timer == null) {
+            return withStatementCache(obtainTargetDataSource().getConnection());
+        }
+        long start = System.nanoTime();
+        try {
+            return withStatementCache(obtainTargetDataSource().getConnection());
+        } finally {
+            timer.addAcquireNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        CallTimer timer = CallTimer.current();
+        if (timer == null) {
+            return withStatementCache(obtainTargetDataSource().getConnection(username, password));
+        }
+        long start = System.nanoTime();
+        try {
+            return withStatementCache(obtainTargetDataSource().getConnection(username, password));
+        } finally {
+            timer.addAcquireNanos(System.nanoTime() - start);
+        }
+    }
+
+    private Connection withStatementCache(Connection connection) {
+        StatementCache cache = this.statementCache;
+        return cache == null ? connection : cache.wrap(connection);
+    }
+
+    @Override
+    public Object getWrappedObject() {
+        return obtainTargetDataSource();
+    }
+
+}
@@ -0,0 +1,215 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.ResultSet;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * <p>
+ * Table of readers of output parameters by the Java type of the field, method parameter or stored function result.
+ * The reader is resolved once per type ({@link ClassValue}) and reads the registered output parameter by index with a typed
+ * {@link CallableStatement} getter: wrapper types get null for NULL ({@link CallableStatement#wasNull()}), primitive types
+ * get the default value, temporal types are read by JDBC 4.2 {@link CallableStatement#getObject(int, Class)}. Types without
+ * a reader are read by {@link CallableStatement#getObject(int)}. The table is built from the same {@link ValueReaders} as
+ * {@link ColumnReaders} plus {@link Void} for the result of a function without a value.
+ * (Таблица чтения выходных параметров по Java типу поля, параметра метода или результата хранимой функции.
+ * Чтение определяется один раз на тип ({@link ClassValue}) и читает зарегистрированный выходной параметр по индексу
+ * типизированным геттером {@link CallableStatement}: типы-обертки получают null для NULL ({@link CallableStatement#wasNull()}),
+ * примитивные типы - значение по умолчанию, типы даты и времени читаются JDBC 4.2
+ * {@link CallableStatement#getObject(int, Class)}. Типы без чтения читаются {@link CallableStatement#getObject(int)}.
+ * Таблица строится по тем же {@link ValueReaders}, что и {@link ColumnReaders}, плюс {@link Void} для результата функции
+ * без значения.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see ColumnReaders
+ */
+final class OutParamReaders {
+
+    /**
+     * Reading of one output parameter of the executed call (Чтение одного выходного параметра выполненного вызова)
+     */
+    @FunctionalInterface
+    interface OutParamReader {
+
+        /**
+         *
+         * @param statement executed call statement (выполненное выражение вызова)
+         * @param index index of the output parameter, starting from 1 (индекс выходного параметра, начиная с 1)
+         * @return value of the output parameter (значение выходного параметра)
+         * @throws SQLException error when converting from JDBC type to JAVA type
+         */
+        Object read(CallableStatement statement, int index) throws SQLException;
+    }
+
+    // reading of an output parameter of a type without a reader
+    // чтение выходного параметра типа без чтения
+    private static final OutParamReader OBJECT = CallableStatement::getObject;
+
+    // typed getters of the CallableStatement
+    // типизированные геттеры CallableStatement
+    private static final ValueReaders.Getters<CallableStatement> GETTERS = new ValueReaders.Getters<CallableStatement>() {
+
+        @Override
+        public boolean getBoolean(CallableStatement cs, int index) throws SQLException {
+            return cs.getBoolean(index);
+        }
+
+        @Override
+        public byte getByte(CallableStatement cs, int index) throws SQLException {
+            return cs.getByte(index);
+        }
+
+        @Override
+        public short getShort(CallableStatement cs, int index) throws SQLException {
+            return cs.getShort(index);
+        }
+
+        @Override
+        public int getInt(CallableStatement cs, int index) throws SQLException {
+            return cs.getInt(index);
+        }
+
+        @Override
+        public long getLong(CallableStatement cs, int index) throws SQLException {
+            return cs.getLong(index);
+        }
+
+        @Override
+        public float getFloat(CallableStatement cs, int index) throws SQLException {
+            return cs.getFloat(index);
+        }
+
+        @Override
+        public double getDouble(CallableStatement cs, int index) throws SQLException {
+            return cs.getDouble(index);
+        }
+
+        @Override
+        public boolean wasNull(CallableStatement cs) throws SQLException {
+            return cs.wasNull();
+        }
+
+        @Override
+        public String getString(CallableStatement cs, int index) throws SQLException {
+            return cs.getString(index);
+        }
+
+        @Override
+        public BigDecimal getBigDecimal(CallableStatement cs, int index) throws SQLException {
+            return cs.getBigDecimal(index);
+        }
+
+        @Override
+        public byte[] getBytes(CallableStatement cs, int index) throws SQLException {
+            return cs.getBytes(index);
+        }
+
+        @Override
+        public Date getDate(CallableStatement cs, int index) throws SQLException {
+            return cs.getDate(index);
+        }
+
+        @Override
+        public Time getTime(CallableStatement cs, int index) throws SQLException {
+            return cs.getTime(index);
+        }
+
+        @Override
+        public Timestamp getTimestamp(CallableStatement cs, int index) throws SQLException {
+            return cs.getTimestamp(index);
+        }
+
+        @Override
+        public Object getObject(CallableStatement cs, int index) throws SQLException {
+            return cs.getObject(index);
+        }
+
+        @Override
+        public <V> V getObject(CallableStatement cs, int index, Class<V> type) throws SQLException {
+            return cs.getObject(index, type);
+        }
+    };
+
+    private static final Map<Class<?>, OutParamReader> READERS = new HashMap<>();
+
+    static {
+        // the conversions are the same for columns and output parameters
+        // преобразования одинаковые для колонок и выходных параметров
+        ValueReaders.readers(GETTERS).forEach((type, reader) -> READERS.put(type, reader::read));
+        // the result of a function without a value
+        // результат функции без значения
+        READERS.put(Void.class, (cs, i) -> null);
+    }
+
+    // type -> reader, resolved on the first access to the type
+    // тип -> чтение, определяемое при первом обращении к типу
+    private static final ClassValue<OutParamReader> BY_TYPE = new ClassValue<OutParamReader>() {
+        @Override
+        protected OutParamReader computeValue(Class<?> type) {
+            return READERS.getOrDefault(type, OBJECT);
+        }
+    };
+
+    private OutParamReaders() {
+    }
+
+    /**
+     *
+     * The function returns the reader of an output parameter into the type
+     * (Функция возвращает чтение выходного параметра в тип)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param type type of the field, method parameter or result (тип поля, параметра метода или результата)
+     * @return reader of the output parameter (чтение выходного параметра)
+     */
+    static OutParamReader forType(Class<?> type) {
+        return BY_TYPE.get(type);
+    }
+
+    /**
+     *
+     * The function returns the reader of an output cursor into a list of records. The cursor is read completely and closed.
+     * (Функция возвращает чтение выходного курсора в список записей. Курсор читается полностью и закрывается.)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param rowMapper mapping of one cursor record (отображение одной записи курсора)
+     * @return reader of the output cursor (чтение выходного курсора)
+     */
+    static OutParamReader forCursor(RowMapper<?> rowMapper) {
+        return (statement, index) -> {
+            ResultSet cursor = (ResultSet) statement.getObject(index);
+            if (cursor == null) {
+                return null;
+            }
+            try {
+                RowMapper<?> cursorRowMapper = PerCursorRowMapper.forCursor(rowMapper);
+                List<Object> records = new ArrayList<>();
+                int rowNumber = 0;
+                while (cursor.next()) {
+                    records.add(cursorRowMapper.mapRow(cursor, rowNumber++));
+                }
+                return records;
+            } finally {
+                JdbcUtils.closeResultSet(cursor);
+            }
+        };
+    }
+
+}
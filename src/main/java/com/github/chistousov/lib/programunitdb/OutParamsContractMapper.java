@@ -0,0 +1,78 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.util.Map;
+
+/**
+ * <p>
+ * Mapper of a contract class describing several output parameters, generated at compile time. The cursors among the output
+ * parameters are mapped by the row mappers of {@link #getCursorRowMappers()}.
+ * (Отображение класса-контракта, описывающего несколько выходных параметров, сгенерированное на этапе компиляции. Курсоры
+ * среди выходных параметров отображаются отображениями строк {@link #getCursorRowMappers()}.)
+ * </p>
+ * 
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see ContractMapper
+ * @param <T> contract class (класс-контракт)
+ */
+public interface OutParamsContractMapper<T> extends ContractMapper<T> {
+
+    /**
+     * 
+     * Creates a contract object from the output parameters
+     * (Создает объект класса-контракта по выходным параметрам)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param outParams output parameter name -&gt; value (имя выходного параметра -&gt; значение)
+     * @return contract object (объект класса-контракта)
+     * @throws Exception mapping error (ошибка отображения)
+     */
+    T mapOutParams(Map<String, Object> outParams) throws Exception;
+
+    /**
+     *
+     * Output parameters of the fields and of the parameters of each method in the order of the values of
+     * {@link #mapOutParams(Object[], boolean[])}
+     * (Выходные параметры полей и параметров каждого метода в порядке значений {@link #mapOutParams(Object[], boolean[])})
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @return output parameter names (upper case) (имена выходных параметров (в верхнем регистре))
+     */
+    String[] getOutParamNames();
+
+    /**
+     *
+     * Java types of the output parameters of {@link #getOutParamNames()}: the value of each output parameter is read by the
+     * reader of its type
+     * (Java типы выходных параметров {@link #getOutParamNames()}: значение каждого выходного параметра читается чтением его типа)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @return types of the fields and method parameters (типы полей и параметров методов)
+     */
+    Class<?>[] getOutParamTypes();
+
+    /**
+     *
+     * Creates a contract object from the values read from the call statement by index. A field is written and a method is
+     * invoked only if its output parameter, or one of them, is in the call.
+     * (Создает объект класса-контракта по значениям, прочитанным из выражения вызова по индексу. Поле записывается, а метод
+     * вызывается, только если его выходной параметр, или один из них, есть в вызове.)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param values values of {@link #getOutParamNames()}, read by the readers of {@link #getOutParamTypes()}
+     *               (значения {@link #getOutParamNames()}, прочитанные чтениями {@link #getOutParamTypes()})
+     * @param isInCall whether each output parameter is in the call (есть ли каждый выходной параметр в вызове)
+     * @return contract object (объект класса-контракта)
+     * @throws Exception mapping error (ошибка отображения)
+     */
+    T mapOutParams(Object[] values, boolean[] isInCall) throws Exception;
+
+}
@@ -0,0 +1,57 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.RowMapperResultSetExtractor;
+
+/**
+ * <p>
+ * Mapping of cursor records that is prepared on the first record of each cursor, for example by its metadata. The shared
+ * object keeps no state of a cursor: each cursor is read by its own mapper of {@link #forCursor()}, which lives as long as
+ * the reading of the cursor.
+ * (Отображение записей курсора, которое подготавливается на первой записи каждого курсора, например по его метаданным.
+ * Разделяемый объект не хранит состояния курсора: каждый курсор читается своим отображением {@link #forCursor()},
+ * которое живет, пока читается курсор.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ *
+ * @param <T> record type (тип записи)
+ */
+interface PerCursorRowMapper<T> extends RowMapper<T> {
+
+    /**
+     *
+     * @return mapping of the records of one cursor (отображение записей одного курсора)
+     */
+    RowMapper<T> forCursor();
+
+    /**
+     *
+     * @param <T> record type (тип записи)
+     * @param rowMapper mapping of one cursor record (отображение одной записи курсора)
+     * @return mapping of the records of one cursor, or rowMapper itself if it keeps no state of a cursor
+     *         (отображение записей одного курсора или сам rowMapper, если он не хранит состояния курсора)
+     */
+    static <T> RowMapper<T> forCursor(RowMapper<T> rowMapper) {
+        return rowMapper instanceof PerCursorRowMapper ? ((PerCursorRowMapper<T>) rowMapper).forCursor() : rowMapper;
+    }
+
+    /**
+     *
+     * The function returns the reading of the whole cursor into a list for Spring JDBC, which maps all the cursors of an
+     * output parameter by one {@link RowMapper}
+     * (Функция возвращает чтение всего курсора в список для Spring JDBC, который отображает все курсоры выходного
+     * параметра одним {@link RowMapper})
+     *
+     * @param <T> record type (тип записи)
+     * @param rowMapper mapping of cursor records (отображение записей курсора)
+     * @return reading of the cursor (чтение курсора)
+     */
+    static <T> ResultSetExtractor<List<T>> extractor(PerCursorRowMapper<T> rowMapper) {
+        return rs -> new RowMapperResultSetExtractor<>(rowMapper.forCursor()).extractData(rs);
+    }
+}
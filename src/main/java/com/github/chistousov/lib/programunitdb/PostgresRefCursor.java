@@ -0,0 +1,94 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * <p>
+ * Open PostgreSQL refcursor read in chunks by {@code FETCH FORWARD n FROM "cursor"}. The PostgreSQL driver reads an output
+ * refcursor by {@code FETCH ALL}, so the whole cursor is kept in the memory of the client before the first row is returned.
+ * Here only the name of the cursor is read, and the cursor stays open in the transaction until it is closed.
+ * (Открытый refcursor PostgreSQL, читаемый порциями через {@code FETCH FORWARD n FROM "cursor"}. Драйвер PostgreSQL читает
+ * выходной refcursor через {@code FETCH ALL}, поэтому весь курсор хранится в памяти клиента до возврата первой строки.
+ * Здесь читается только имя курсора, и курсор остается открытым в транзакции до закрытия.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see <a href="https://www.postgresql.org/docs/current/sql-fetch.html">FETCH</a>
+ * @see CursorIterator
+ */
+final class PostgresRefCursor {
+
+    private static final String DATABASE_PRODUCT_NAME = "PostgreSQL";
+
+    private final Connection connection;
+    private final String quotedName;
+    private final int chunkSize;
+    private final PreparedStatement fetch;
+
+    /**
+     *
+     * @param connection connection with the open transaction of the cursor (подключение с открытой транзакцией курсора)
+     * @param name name of the cursor (portal) (имя курсора (портала))
+     * @param chunkSize number of rows in one chunk (количество строк в одной порции)
+     * @throws SQLException the statement cannot be prepared (выражение нельзя подготовить)
+     */
+    PostgresRefCursor(Connection connection, String name, int chunkSize) throws SQLException {
+        this.connection = connection;
+        this.quotedName = '"' + name.replace("\"", "\"\"") + '"';
+        this.chunkSize = chunkSize;
+        this.fetch = connection.prepareStatement("FETCH FORWARD " + chunkSize + " FROM " + quotedName);
+    }
+
+    /**
+     *
+     * @param connection connection (подключение)
+     * @return true if the connection is to PostgreSQL (true, если подключение к PostgreSQL)
+     * @throws SQLException metadata error (ошибка метаданных)
+     */
+    static boolean isPostgreSQL(Connection connection) throws SQLException {
+        return DATABASE_PRODUCT_NAME.equals(connection.getMetaData().getDatabaseProductName());
+    }
+
+    /**
+     *
+     * @return next chunk of rows, empty if the cursor is read (следующая порция строк, пустая, если курсор прочитан)
+     * @throws SQLException fetch error (ошибка получения)
+     */
+    ResultSet fetch() throws SQLException {
+        return fetch.executeQuery();
+    }
+
+    /**
+     *
+     * @return number of rows in one chunk: a shorter chunk is the last one (количество строк в одной порции: более короткая порция - последняя)
+     */
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * The function closes the cursor in the database and the fetch statement
+     * (Функция закрывает курсор в БД и выражение получения)
+     */
+    void close() {
+        JdbcUtils.closeStatement(fetch);
+        Statement statement = null;
+        try {
+            statement = connection.createStatement();
+            statement.execute("CLOSE " + quotedName);
+        } catch (SQLException e) {
+            // the cursor is closed at the end of the transaction in any case
+            // курсор в любом случае закрывается в конце транзакции
+        } finally {
+            JdbcUtils.closeStatement(statement);
+        }
+    }
+
+}
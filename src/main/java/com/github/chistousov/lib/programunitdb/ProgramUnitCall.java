@@ -0,0 +1,807 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.sql.BatchUpdateException;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.ResultSetSupportingSqlParameter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlInOutParameter;
+import org.springframework.jdbc.core.SqlOutParameter;
+import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.SqlReturnResultSet;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.core.simple.SimpleJdbcCall;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * <p>
+ * {@link SimpleJdbcCall} that can also open the output cursor of a program unit without reading it into memory.
+ * The call string and the parameters are taken from {@link SimpleJdbcCall} after compilation, so the call is the same as in
+ * {@link SimpleJdbcCall#execute(Object...)}.
+ * ({@link SimpleJdbcCall}, который также умеет открывать выходной курсор программного юнита без чтения его в память.
+ * Строка вызова и параметры берутся из {@link SimpleJdbcCall} после компиляции, поэтому вызов такой же, как и в
+ * {@link SimpleJdbcCall#execute(Object...)}.)
+ * </p>
+ *
+ * <p>
+ * Declared parameters and row mappers are passed to {@link SimpleJdbcCall} only at compilation, depending on
+ * {@link CallMetaDataCache.Mode}: with the metadata of the database, with the metadata from {@link CallMetaDataCache}
+ * or only with the declared parameters.
+ * (Объявленные параметры и отображения строк передаются {@link SimpleJdbcCall} только при компиляции, в зависимости от
+ * {@link CallMetaDataCache.Mode}: с метаданными БД, с метаданными из {@link CallMetaDataCache} или только
+ * с объявленными параметрами.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see org.springframework.jdbc.core.simple.SimpleJdbcCall
+ * @see CursorIterator
+ * @see CallMetaDataCache
+ */
+class ProgramUnitCall extends SimpleJdbcCall {
+
+    /**
+     * Reading of the output parameters of the executed call (Чтение выходных параметров выполненного вызова)
+     *
+     * @param <R> result type (тип результата)
+     */
+    @FunctionalInterface
+    interface OutParamsReader<R> {
+
+        /**
+         *
+         * @param statement executed call statement (выполненное выражение вызова)
+         * @return result (результат)
+         * @throws SQLException reading error (ошибка чтения)
+         */
+        R read(CallableStatement statement) throws SQLException;
+    }
+
+    // name of the returned parameter of the stored function if it is not named
+    // имя возвращаемого параметра хранимой функции, если он не назван
+    private static final String FUNCTION_RETURN_NAME = "return";
+
+    private final List<SqlParameter> declaredParameters = new ArrayList<>();
+    private final Map<String, RowMapper<?>> declaredRowMappers = new LinkedHashMap<>();
+
+    private volatile CallMetaDataCache.Mode metaDataMode = CallMetaDataCache.Mode.SHARED;
+
+    // output parameters of the compiled call: name (upper case) -> index in the call string
+    // выходные параметры скомпилированного вызова: имя (в верхнем регистре) -> индекс в строке вызова
+    private volatile Map<String, Integer> outParamIndexes = Collections.emptyMap();
+    // index of the return value of a function or of the only output parameter of a procedure, 0 if there is none
+    // индекс возвращаемого значения функции или единственного выходного параметра процедуры, 0, если его нет
+    private volatile int scalarOutParamIndex;
+    // the call returns result sets that only SimpleJdbcCall can process
+    // вызов возвращает наборы строк, которые может обработать только SimpleJdbcCall
+    private volatile boolean isReturningResultSets;
+    // the data source is PostgreSQL. Null - not yet known
+    // источник данных - PostgreSQL. Null - еще не известно
+    private volatile Boolean isPostgreSQL;
+
+    /**
+     *
+     * @param dataSource data source (источник данных)
+     */
+    ProgramUnitCall(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    /**
+     *
+     * @param metaDataMode where the parameters of the program unit are taken from (откуда берутся параметры программного юнита)
+     */
+    void setMetaDataMode(CallMetaDataCache.Mode metaDataMode) {
+        if (isCompiled()) {
+            throw new InvalidDataAccessApiUsageException("The call is already compiled: " + getProcedureName());
+        }
+        this.metaDataMode = Objects.requireNonNull(metaDataMode, "metaDataMode");
+    }
+
+    CallMetaDataCache.Mode getMetaDataMode() {
+        return metaDataMode;
+    }
+
+    @Override
+    public void addDeclaredParameter(SqlParameter parameter) {
+        declaredParameters.add(Objects.requireNonNull(parameter, "parameter"));
+    }
+
+    @Override
+    public void addDeclaredRowMapper(String parameterName, RowMapper<?> rowMapper) {
+        declaredRowMappers.put(parameterName, rowMapper);
+    }
+
+    @Override
+    protected void compileInternal() {
+        switch (metaDataMode) {
+            case DECLARED_ONLY:
+                compileDeclaredOnly();
+                break;
+            case SHARED:
+                CallMetaDataCache.Key key = new CallMetaDataCache.Key(getJdbcTemplate().getDataSource(),
+                        getSchemaName(), getCatalogName(), getProcedureName(), isFunction());
+                List<SqlParameter> cachedParameters = CallMetaDataCache.get(key);
+                if (cachedParameters != null) {
+                    compileFromCache(cachedParameters);
+                } else {
+                    compileWithMetaData();
+                    CallMetaDataCache.put(key, getCallParameters());
+                }
+                break;
+            default:
+                compileWithMetaData();
+        }
+        bindPerCursorRowMappers();
+        indexOutParameters();
+    }
+
+    /**
+     *
+     * Spring JDBC maps all the cursors of a parameter by its one {@link RowMapper}, so a {@link PerCursorRowMapper} is given to
+     * it as a {@link ResultSetExtractor} that prepares the mapping for each cursor
+     * (Spring JDBC отображает все курсоры параметра его одним {@link RowMapper}, поэтому {@link PerCursorRowMapper}
+     * передается ему как {@link ResultSetExtractor}, который подготавливает отображение для каждого курсора)
+     */
+    private void bindPerCursorRowMappers() {
+        List<SqlParameter> callParameters = getCallParameters();
+        for (int i = 0; i < callParameters.size(); i++) {
+            SqlParameter parameter = callParameters.get(i);
+            if (!(parameter instanceof ResultSetSupportingSqlParameter)
+                    || !(((ResultSetSupportingSqlParameter) parameter).getRowMapper() instanceof PerCursorRowMapper)) {
+                continue;
+            }
+            ResultSetExtractor<?> extractor = PerCursorRowMapper
+                    .extractor((PerCursorRowMapper<?>) ((ResultSetSupportingSqlParameter) parameter).getRowMapper());
+            if (parameter.isResultsParameter()) {
+                callParameters.set(i, new SqlReturnResultSet(parameter.getName(), extractor));
+            } else if (parameter instanceof SqlInOutParameter) {
+                callParameters.set(i, new SqlInOutParameter(parameter.getName(), parameter.getSqlType(), extractor));
+            } else {
+                callParameters.set(i, new SqlOutParameter(parameter.getName(), parameter.getSqlType(), extractor));
+            }
+        }
+    }
+
+    /**
+     * Indexes the output parameters of the compiled call (Индексирует выходные параметры скомпилированного вызова)
+     */
+    private void indexOutParameters() {
+        Map<String, Integer> indexes = new HashMap<>();
+        int firstOutIndex = 0;
+        boolean isReturningResultSets = false;
+        int sqlIndex = 1;
+        for (SqlParameter parameter : getCallParameters()) {
+            if (parameter.isResultsParameter()) {
+                isReturningResultSets = true;
+                continue;
+            }
+            if (parameter instanceof SqlOutParameter) {
+                if (parameter.getName() != null) {
+                    indexes.putIfAbsent(parameter.getName().toUpperCase(), sqlIndex);
+                }
+                if (firstOutIndex == 0) {
+                    firstOutIndex = sqlIndex;
+                }
+            }
+            sqlIndex++;
+        }
+
+        this.outParamIndexes = Collections.unmodifiableMap(indexes);
+        this.scalarOutParamIndex = isFunction() ? (firstOutIndex == 1 ? 1 : 0)
+                : (indexes.size() == 1 ? firstOutIndex : 0);
+        this.isReturningResultSets = isReturningResultSets;
+    }
+
+    /**
+     *
+     * @return output parameters of the compiled call: name (upper case) -> index in the call string (выходные параметры скомпилированного вызова: имя (в верхнем регистре) -> индекс в строке вызова)
+     */
+    Map<String, Integer> getOutParamIndexes() {
+        checkCompiled();
+        return outParamIndexes;
+    }
+
+    /**
+     *
+     * @return index of the return value of a function or of the only output parameter of a procedure, 0 if there is none (индекс возвращаемого значения функции или единственного выходного параметра процедуры, 0, если его нет)
+     */
+    int getScalarOutParamIndex() {
+        checkCompiled();
+        return scalarOutParamIndex;
+    }
+
+    /**
+     *
+     * @return true if the output parameters can be read by {@link #executeDirect(OutParamsReader, Object...)} (true, если выходные параметры можно прочитать через {@link #executeDirect(OutParamsReader, Object...)})
+     */
+    boolean isDirectCallSupported() {
+        checkCompiled();
+        return !isReturningResultSets;
+    }
+
+    /**
+     *
+     * @return parameters of the compiled call in the order of the call string (параметры скомпилированного вызова в порядке строки вызова)
+     */
+    List<SqlParameter> getCompiledParameters() {
+        checkCompiled();
+        return getCallParameters();
+    }
+
+    /**
+     *
+     * @return qualified name of the program unit from the call string, for example schema.name (полное имя программного юнита из строки вызова, например schema.name)
+     */
+    String getProgramUnitName() {
+        checkCompiled();
+
+        // {call schema.name(?, ?)} or {? = call schema.name(?)}
+        // {call schema.name(?, ?)} или {? = call schema.name(?)}
+        String callString = getCallString();
+        int nameStart = callString.indexOf("call ") + "call ".length();
+        int nameEnd = callString.indexOf('(', nameStart);
+        if (nameEnd < 0) {
+            nameEnd = callString.lastIndexOf('}');
+        }
+        return callString.substring(nameStart, nameEnd).trim();
+    }
+
+    /**
+     * Compilation with the metadata of the database (Компиляция с метаданными БД)
+     */
+    private void compileWithMetaData() {
+        declaredParameters.forEach(super::addDeclaredParameter);
+        declaredRowMappers.forEach(super::addDeclaredRowMapper);
+        super.compileInternal();
+    }
+
+    /**
+     *
+     * Compilation with the parameters of the same program unit, previously compiled with the metadata of the database.
+     * Declared parameters replace the cached ones with the same name, and cursors get the row mappers of this call.
+     * (Компиляция с параметрами того же программного юнита, ранее скомпилированного с метаданными БД.
+     * Объявленные параметры заменяют закэшированные с тем же именем, а курсоры получают отображения строк этого вызова.)
+     *
+     * @param cachedParameters parameters of the compiled call (параметры скомпилированного вызова)
+     */
+    private void compileFromCache(List<SqlParameter> cachedParameters) {
+        setAccessCallParameterMetaData(false);
+
+        boolean isReturnFound = false;
+        for (SqlParameter parameter : cachedParameters) {
+            // returned result sets are added by SimpleJdbcCall itself for the row mappers
+            // возвращаемые наборы строк SimpleJdbcCall добавляет сам по отображениям строк
+            if (parameter.isResultsParameter()) {
+                RowMapper<?> rowMapper = findIgnoreCase(declaredRowMappers, parameter.getName());
+                if (rowMapper != null) {
+                    super.addDeclaredRowMapper(parameter.getName(), rowMapper);
+                }
+                continue;
+            }
+
+            // with metadata access switched off, the first output parameter of a function is its return value
+            // при выключенном доступе к метаданным первый выходной параметр функции является ее возвращаемым значением
+            boolean isReturn = false;
+            if (parameter instanceof SqlOutParameter && isFunction() && !isReturnFound) {
+                isReturn = true;
+                isReturnFound = true;
+            }
+
+            SqlParameter declared = null;
+            for (SqlParameter declaredParameter : declaredParameters) {
+                if (declaredParameter.getName() != null
+                        && declaredParameter.getName().equalsIgnoreCase(parameter.getName())) {
+                    declared = declaredParameter;
+                }
+            }
+            if (declared != null && !isReturn) {
+                super.addDeclaredParameter(declared);
+                continue;
+            }
+
+            if (!(parameter instanceof SqlOutParameter)) {
+                super.addDeclaredParameter(parameter);
+                continue;
+            }
+
+            String name = parameter.getName() == null || parameter.getName().isEmpty() ? FUNCTION_RETURN_NAME
+                    : parameter.getName();
+            RowMapper<?> rowMapper = findIgnoreCase(declaredRowMappers, parameter.getName());
+            if (rowMapper == null && isReturn) {
+                rowMapper = findIgnoreCase(declaredRowMappers, "");
+            }
+            if (rowMapper != null) {
+                super.addDeclaredParameter(new SqlOutParameter(name, parameter.getSqlType(), rowMapper));
+            } else if (((SqlOutParameter) parameter).isResultSetSupported() || !name.equals(parameter.getName())) {
+                // the row mapper of another call is not used
+                // отображение строк другого вызова не используется
+                super.addDeclaredParameter(parameter.getTypeName() == null
+                        ? new SqlOutParameter(name, parameter.getSqlType())
+                        : new SqlOutParameter(name, parameter.getSqlType(), parameter.getTypeName()));
+            } else {
+                super.addDeclaredParameter(parameter);
+            }
+        }
+
+        super.compileInternal();
+    }
+
+    /**
+     *
+     * Compilation without metadata. The declared parameters must describe the whole signature in its order, including output
+     * parameters; cursors get the row mappers by the name of the output parameter, and the cursor of a function - the first
+     * output parameter.
+     * (Компиляция без метаданных. Объявленные параметры должны описывать всю сигнатуру в ее порядке, включая выходные
+     * параметры; курсоры получают отображения строк по имени выходного параметра, а курсор функции - первый выходной параметр.)
+     */
+    private void compileDeclaredOnly() {
+        setAccessCallParameterMetaData(false);
+
+        Map<String, RowMapper<?>> unboundRowMappers = new LinkedHashMap<>(declaredRowMappers);
+        boolean isReturnFound = false;
+        for (SqlParameter parameter : declaredParameters) {
+            if (parameter instanceof SqlOutParameter) {
+                boolean isReturn = isFunction() && !isReturnFound;
+                isReturnFound = isReturnFound || isFunction();
+
+                RowMapper<?> rowMapper = removeIgnoreCase(unboundRowMappers, parameter.getName());
+                if (rowMapper == null && isReturn) {
+                    rowMapper = removeIgnoreCase(unboundRowMappers, "");
+                }
+                if (rowMapper != null) {
+                    super.addDeclaredParameter(new SqlOutParameter(parameter.getName(), parameter.getSqlType(), rowMapper));
+                    continue;
+                }
+            }
+            super.addDeclaredParameter(parameter);
+        }
+
+        if (!unboundRowMappers.isEmpty()) {
+            throw new InvalidDataAccessApiUsageException("Without metadata, the output cursors "
+                    + unboundRowMappers.keySet() + " of " + getProcedureName() + " must be declared as SqlOutParameter");
+        }
+
+        super.compileInternal();
+    }
+
+    private static RowMapper<?> findIgnoreCase(Map<String, RowMapper<?>> rowMappers, String name) {
+        for (Map.Entry<String, RowMapper<?>> entry : rowMappers.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(name == null ? "" : name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static RowMapper<?> removeIgnoreCase(Map<String, RowMapper<?>> rowMappers, String name) {
+        for (Map.Entry<String, RowMapper<?>> entry : rowMappers.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(name == null ? "" : name)) {
+                return rowMappers.remove(entry.getKey());
+            }
+        }
+        return null;
+    }
+
+    /**
+     *
+     * The function calls the program unit and returns the iterator over its output cursor. The rows are read from the
+     * database and mapped only when the iterator is moved. A PostgreSQL refcursor with fetchSize &gt; 0 is read in chunks of
+     * fetchSize rows by {@link PostgresRefCursor}.
+     * (Функция вызывает программный юнит и возвращает итератор по его выходному курсору. Строки читаются из БД и
+     * отображаются только при движении итератора. Refcursor PostgreSQL с fetchSize &gt; 0 читается порциями по fetchSize
+     * строк через {@link PostgresRefCursor}.)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param <E> record type (тип записи)
+     * @param cursorName name of the output cursor, empty for a stored function (имя выходного курсора, пустое для хранимой функции)
+     * @param rowMapper mapping of one cursor record (отображение одной записи курсора)
+     * @param fetchSize number of rows fetched from the database at once, 0 - driver default (количество строк, получаемых из БД за раз, 0 - по умолчанию драйвера)
+     * @param args input parameters (входные параметры)
+     * @return open cursor iterator (итератор открытого курсора)
+     * @throws DataAccessException call error (ошибка вызова)
+     */
+    <E> CursorIterator<E> openCursor(String cursorName, RowMapper<E> rowMapper, int fetchSize, Object... args)
+            throws DataAccessException {
+
+        checkCompiled();
+
+        String callString = getCallString();
+        List<SqlParameter> callParameters = getCallParameters();
+        DataSource dataSource = getJdbcTemplate().getDataSource();
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        CallableStatement statement = null;
+        ResultSet cursor = null;
+        PreparedStatement refCursorCall = null;
+        PostgresRefCursor refCursor = null;
+        boolean restoreAutoCommit = false;
+        try {
+            // outside of a transaction the cursor lives only until the end of the call, so the transaction is held until
+            // the iterator is closed
+            // вне транзакции курсор живет только до конца вызова, поэтому транзакция удерживается до закрытия итератора
+            if (!DataSourceUtils.isConnectionTransactional(connection, dataSource) && connection.getAutoCommit()) {
+                connection.setAutoCommit(false);
+                restoreAutoCommit = true;
+            }
+
+            if (fetchSize > 0 && isPostgreSQL(connection)) {
+                refCursorCall = prepareRefCursorCall(connection, callParameters, cursorName, args);
+            }
+            if (refCursorCall != null) {
+                String portalName = null;
+                try (ResultSet call = refCursorCall.executeQuery()) {
+                    if (call.next()) {
+                        portalName = isFunction() ? call.getString(1) : call.getString(cursorName);
+                    }
+                }
+                if (portalName == null) {
+                    throw new InvalidDataAccessApiUsageException("Cursor " + cursorName + " not returned by " + callString);
+                }
+                refCursor = new PostgresRefCursor(connection, portalName, fetchSize);
+                cursor = refCursor.fetch();
+                return new CursorIterator<>(connection, dataSource, restoreAutoCommit, refCursorCall, cursor, refCursor,
+                        rowMapper, getJdbcTemplate().getExceptionTranslator(), callString);
+            }
+
+            statement = connection.prepareCall(callString);
+            if (fetchSize > 0) {
+                statement.setFetchSize(fetchSize);
+            }
+
+            int cursorIndex = setParameters(statement, callParameters, cursorName, args);
+
+            boolean isResultSet = statement.execute();
+
+            if (cursorIndex > 0) {
+                cursor = (ResultSet) statement.getObject(cursorIndex);
+            } else if (isResultSet) {
+                // the cursor is returned as the result of the statement
+                // курсор возвращается как результат выражения
+                cursor = statement.getResultSet();
+            }
+            if (cursor == null) {
+                throw new InvalidDataAccessApiUsageException("Cursor " + cursorName + " not returned by " + callString);
+            }
+            if (fetchSize > 0) {
+                cursor.setFetchSize(fetchSize);
+            }
+
+            return new CursorIterator<>(connection, dataSource, restoreAutoCommit, statement, cursor, null, rowMapper,
+                    getJdbcTemplate().getExceptionTranslator(), callString);
+        } catch (SQLException e) {
+            JdbcUtils.closeResultSet(cursor);
+            if (refCursor != null) {
+                refCursor.close();
+            }
+            JdbcUtils.closeStatement(refCursorCall);
+            JdbcUtils.closeStatement(statement);
+            try {
+                CursorIterator.releaseConnection(connection, dataSource, restoreAutoCommit, e);
+            } catch (SQLException releaseError) {
+                // not thrown after an error: the errors of the rollback are added to it
+                // не выбрасывается после ошибки: ошибки отката добавляются к ней
+            }
+            DataAccessException translated = getJdbcTemplate().getExceptionTranslator().translate("openCursor",
+                    callString, e);
+            throw translated != null ? translated : new UncategorizedSQLException("openCursor", callString, e);
+        } catch (RuntimeException e) {
+            JdbcUtils.closeResultSet(cursor);
+            if (refCursor != null) {
+                refCursor.close();
+            }
+            JdbcUtils.closeStatement(refCursorCall);
+            JdbcUtils.closeStatement(statement);
+            try {
+                CursorIterator.releaseConnection(connection, dataSource, restoreAutoCommit, e);
+            } catch (SQLException releaseError) {
+                // not thrown after an error: the errors of the rollback are added to it
+                // не выбрасывается после ошибки: ошибки отката добавляются к ней
+            }
+            throw e;
+        }
+    }
+
+    /**
+     *
+     * The function calls the program unit and reads the registered output parameters directly from the
+     * {@link CallableStatement} by index, without the map of all output parameters of {@link SimpleJdbcCall#execute(Object...)}
+     * (Функция вызывает программный юнит и читает зарегистрированные выходные параметры прямо из {@link CallableStatement}
+     * по индексу, без отображения всех выходных параметров {@link SimpleJdbcCall#execute(Object...)})
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see #getOutParamIndexes()
+     *
+     * @param <R> result type (тип результата)
+     * @param reader reading of the output parameters (чтение выходных параметров)
+     * @param args input parameters (входные параметры)
+     * @return result (результат)
+     * @throws DataAccessException call error (ошибка вызова)
+     */
+    <R> R executeDirect(OutParamsReader<R> reader, Object... args) throws DataAccessException {
+
+        checkCompiled();
+
+        String callString = getCallString();
+        DataSource dataSource = getJdbcTemplate().getDataSource();
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        CallableStatement statement = null;
+        try {
+            statement = connection.prepareCall(callString);
+            setParameters(statement, getCallParameters(), null, args);
+            statement.execute();
+            return reader.read(statement);
+        } catch (SQLException e) {
+            DataAccessException translated = getJdbcTemplate().getExceptionTranslator().translate("executeDirect",
+                    callString, e);
+            throw translated != null ? translated : new UncategorizedSQLException("executeDirect", callString, e);
+        } finally {
+            JdbcUtils.closeStatement(statement);
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     *
+     * The function calls the program unit for each row of input parameters through {@link CallableStatement#addBatch()} on
+     * one connection. Rows are sent to the database in batches of batchSize rows.
+     * (Функция вызывает программный юнит для каждой строки входных параметров через {@link CallableStatement#addBatch()}
+     * на одном подключении. Строки отправляются в БД пакетами по batchSize строк.)
+     *
+     * Outside of a transaction all the batches are applied in one transaction: an error of any row rolls back all the rows.
+     * The {@link BatchUpdateException} of the failed batch with the update counts of its rows is the cause of the thrown
+     * error or, if the translator took the error of the row out of it, is added to the thrown error as suppressed.
+     * (Вне транзакции все пакеты применяются в одной транзакции: ошибка любой строки откатывает все строки.
+     * {@link BatchUpdateException} неудавшегося пакета с количествами измененных записей его строк - причина выброшенной
+     * ошибки или, если транслятор извлек из него ошибку строки, добавляется к выброшенной ошибке как подавленная.)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see CallableStatement#executeBatch()
+     *
+     * @param paramRows rows of input parameters (строки входных параметров)
+     * @param batchSize number of rows in one batch (количество строк в одном пакете)
+     * @return update counts of each batch (количество измененных записей каждого пакета)
+     * @throws DataAccessException call error (ошибка вызова)
+     */
+    int[][] executeBatch(Iterator<Object[]> paramRows, int batchSize) throws DataAccessException {
+
+        checkCompiled();
+
+        String callString = getCallString();
+        List<SqlParameter> callParameters = getCallParameters();
+        for (SqlParameter parameter : callParameters) {
+            if (parameter instanceof SqlOutParameter || parameter.isResultsParameter()) {
+                throw new InvalidDataAccessApiUsageException(
+                        "Batch is only available for program units without output parameters: " + callString);
+            }
+        }
+        DataSource dataSource = getJdbcTemplate().getDataSource();
+
+        List<int[]> updateCounts = new ArrayList<>();
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        CallableStatement statement = null;
+        boolean restoreAutoCommit = false;
+        Exception error = null;
+        try {
+            if (!DataSourceUtils.isConnectionTransactional(connection, dataSource) && connection.getAutoCommit()) {
+                connection.setAutoCommit(false);
+                restoreAutoCommit = true;
+            }
+
+            statement = connection.prepareCall(callString);
+
+            int rowsInBatch = 0;
+            while (paramRows.hasNext()) {
+                setParameters(statement, callParameters, null, paramRows.next());
+                statement.addBatch();
+                if (++rowsInBatch == batchSize) {
+                    updateCounts.add(statement.executeBatch());
+                    rowsInBatch = 0;
+                }
+            }
+            if (rowsInBatch > 0) {
+                updateCounts.add(statement.executeBatch());
+            }
+        } catch (SQLException | RuntimeException e) {
+            error = e;
+        } finally {
+            JdbcUtils.closeStatement(statement);
+        }
+        // the transaction of the batches is committed or rolled back
+        // транзакция пакетов фиксируется или откатывается
+        try {
+            CursorIterator.releaseConnection(connection, dataSource, restoreAutoCommit, error);
+        } catch (SQLException e) {
+            error = e;
+        }
+        if (error instanceof SQLException) {
+            DataAccessException translated = getJdbcTemplate().getExceptionTranslator().translate("executeBatch",
+                    callString, (SQLException) error);
+            if (translated == null) {
+                translated = new UncategorizedSQLException("executeBatch", callString, (SQLException) error);
+            }
+            // the update counts of the failed batch stay available
+            // количества измененных записей неудавшегося пакета остаются доступны
+            if (error instanceof BatchUpdateException && translated.getCause() != error) {
+                translated.addSuppressed(error);
+            }
+            throw translated;
+        } else if (error != null) {
+            throw (RuntimeException) error;
+        }
+
+        return updateCounts.toArray(new int[updateCounts.size()][]);
+    }
+
+    /**
+     *
+     * The function sets the input parameters and registers the output parameters in the same way as
+     * {@link SimpleJdbcCall} does
+     * (Функция устанавливает входные параметры и регистрирует выходные параметры так же, как это делает
+     * {@link SimpleJdbcCall})
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param statement call statement (выражение вызова)
+     * @param callParameters parameters of the compiled call (параметры скомпилированного вызова)
+     * @param cursorName name of the output cursor (имя выходного курсора)
+     * @param args input parameters (входные параметры)
+     * @return index of the output cursor or 0 if the cursor is not an output parameter (индекс выходного курсора или 0, если курсор не является выходным параметром)
+     * @throws SQLException parameter error (ошибка параметра)
+     */
+    private int setParameters(CallableStatement statement, List<SqlParameter> callParameters, String cursorName,
+            Object[] args) throws SQLException {
+
+        int cursorIndex = 0;
+        int argIndex = 0;
+        int sqlIndex = 1;
+        for (SqlParameter parameter : callParameters) {
+            // parameters of the returned result sets have no placeholder in the call string
+            // у параметров возвращаемых наборов строк нет места в строке вызова
+            if (parameter.isResultsParameter()) {
+                continue;
+            }
+
+            if (parameter instanceof SqlOutParameter) {
+                if (parameter.getTypeName() != null) {
+                    statement.registerOutParameter(sqlIndex, parameter.getSqlType(), parameter.getTypeName());
+                } else if (parameter.getScale() != null) {
+                    statement.registerOutParameter(sqlIndex, parameter.getSqlType(), parameter.getScale());
+                } else {
+                    statement.registerOutParameter(sqlIndex, parameter.getSqlType());
+                }
+                if (parameter.isInputValueProvided()) {
+                    StatementCreatorUtils.setParameterValue(statement, sqlIndex, parameter, nextArg(args, argIndex++));
+                }
+
+                // the return value of a stored function is always the first, the cursor of a procedure is found by name
+                // возвращаемое значение хранимой функции всегда первое, курсор процедуры ищется по имени
+                if (cursorIndex == 0 && (isFunction() ? sqlIndex == 1
+                        : parameter.getName() != null && parameter.getName().equalsIgnoreCase(cursorName))) {
+                    cursorIndex = sqlIndex;
+                }
+            } else {
+                StatementCreatorUtils.setParameterValue(statement, sqlIndex, parameter, nextArg(args, argIndex++));
+            }
+            sqlIndex++;
+        }
+
+        return cursorIndex;
+    }
+
+    private boolean isPostgreSQL(Connection connection) throws SQLException {
+        Boolean isPostgreSQL = this.isPostgreSQL;
+        if (isPostgreSQL == null) {
+            isPostgreSQL = PostgresRefCursor.isPostgreSQL(connection);
+            this.isPostgreSQL = isPostgreSQL;
+        }
+        return isPostgreSQL;
+    }
+
+    /**
+     *
+     * The function prepares a plain query of the program unit that returns the name of the output refcursor instead of its rows:
+     * {@code SELECT * FROM function(...)} or {@code CALL procedure(...)} with NULL in place of the output parameters
+     * (Функция подготавливает обычный запрос программного юнита, который возвращает имя выходного refcursor вместо его строк:
+     * {@code SELECT * FROM function(...)} или {@code CALL procedure(...)} с NULL на месте выходных параметров)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param connection connection (подключение)
+     * @param callParameters parameters of the compiled call (параметры скомпилированного вызова)
+     * @param cursorName name of the output cursor (имя выходного курсора)
+     * @param args input parameters (входные параметры)
+     * @return prepared query or null if the cursor is not an output parameter (подготовленный запрос или null, если курсор не является выходным параметром)
+     * @throws SQLException parameter error (ошибка параметра)
+     */
+    private PreparedStatement prepareRefCursorCall(Connection connection, List<SqlParameter> callParameters,
+            String cursorName, Object[] args) throws SQLException {
+
+        StringBuilder sql = new StringBuilder(isFunction() ? "SELECT * FROM " : "CALL ").append(getProgramUnitName())
+                .append('(');
+        List<SqlParameter> inParameters = new ArrayList<>();
+        List<Object> inValues = new ArrayList<>();
+        boolean isCursorFound = false;
+        boolean isFirst = true;
+        int argIndex = 0;
+        for (SqlParameter parameter : callParameters) {
+            if (parameter.isResultsParameter()) {
+                return null;
+            }
+            boolean isOut = parameter instanceof SqlOutParameter;
+            if (isOut && isFunction() && !isCursorFound) {
+                // the return value of the stored function is the result of the query
+                // возвращаемое значение хранимой функции - результат запроса
+                isCursorFound = true;
+                continue;
+            }
+            if (isOut && parameter.getName() != null && parameter.getName().equalsIgnoreCase(cursorName)) {
+                isCursorFound = true;
+            }
+            if (isOut && !(parameter instanceof SqlInOutParameter) && isFunction()) {
+                // output parameters are not passed to a function
+                // выходные параметры не передаются в функцию
+                continue;
+            }
+            sql.append(isFirst ? "" : ", ");
+            isFirst = false;
+            if (isOut && !parameter.isInputValueProvided()) {
+                sql.append("NULL");
+            } else {
+                sql.append('?');
+                inParameters.add(parameter);
+                inValues.add(nextArg(args, argIndex++));
+            }
+        }
+        if (!isCursorFound) {
+            return null;
+        }
+        sql.append(')');
+
+        PreparedStatement statement = connection.prepareStatement(sql.toString());
+        try {
+            for (int i = 0; i < inParameters.size(); i++) {
+                StatementCreatorUtils.setParameterValue(statement, i + 1, inParameters.get(i), inValues.get(i));
+            }
+        } catch (SQLException | RuntimeException e) {
+            JdbcUtils.closeStatement(statement);
+            throw e;
+        }
+        return statement;
+    }
+
+    static Object nextArg(Object[] args, int argIndex) {
+        if (args == null || argIndex >= args.length) {
+            throw new InvalidDataAccessApiUsageException(
+                    "Not enough input parameters: " + (args == null ? 0 : args.length));
+        }
+        return args[argIndex];
+    }
+
+}
@@ -1,29 +1,54 @@
 package com.github.chistousov.lib.programunitdb;
 
-import java.lang.reflect.Constructor;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.sql.CallableStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.sql.DataSource;
 
+import org.reactivestreams.Publisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SqlParameter;
-import org.springframework.jdbc.core.simple.SimpleJdbcCall;
 
 import com.github.chistousov.lib.programunitdb.annotations.Column;
+import com.github.chistousov.lib.programunitdb.ColumnReaders.ColumnReader;
+import com.github.chistousov.lib.programunitdb.OutParamReaders.OutParamReader;
+import com.github.chistousov.lib.programunitdb.ProgramUnitMappingException.Reason;
 import com.github.chistousov.lib.programunitdb.annotations.OutParam;
 
 
@@ -74,35 +99,100 @@ public class ProgramUnitDB<T> {
 
     // object directly calling a stored function or stored procedure in the database
     // объект непосредственно, вызывающий хранимую функцию или хранимую процедуру в БД
-    private SimpleJdbcCall programUnit;
+    private final ProgramUnitCall programUnit;
+    // data source of the program unit: metrics and cache of statements
+    // источник данных программного юнита: метрики и кэш выражений
+    private final ObservedDataSource dataSource;
 
     // class describing output parameters via @Column and/or @OutParam annotations
     // класс, описывающий выходные параметры через аннотации @Column и/или @OutParam
-    private Class<T> clazzOutParameters;
+    private final Class<T> clazzOutParameters;
 
     // multiple output parameters
     // to store mapping output_parameter_name(OutParam.name) -> class_fields
     // несколько выходных параметров
     // для хранения отображения имя_выходного_параметра(OutParam.name) -> поля_класса
-    private Map<String, Field> mappingOutParamToField;
+    private final Map<String, Field> mappingOutParamToField;
     // to store mapping output_parameter_name(OutParam.name) -> class_method
     // для хранения отображения имя_выходного_параметра(OutParam.name) -> метод_класса
-    private Map<String, Method> mappingOutParamToMethod;
-
-    // Assembly error
-    // Ошибка конпоновки
-    private boolean flagDefaultConstructorNotFound = false;
-    private boolean flagFieldNotFound = false;
-    private boolean flagMethodInccorect = false;
-    private boolean flagMetaDataNotFound = false;
-    private boolean flagAmountColumnDontGet = false;
-    private boolean flagColumnNotFound = false;
-    private boolean flagCastFromDBToJavaWithError = false;
+    private final Map<String, Method> mappingOutParamToMethod;
+    // cached accessors of the contract class for multiple output parameters
+    // кэшированные доступы класса-контракта для нескольких выходных параметров
+    private final MethodHandle outParamsInstantiator;
+    private final Map<String, MethodHandle> outParamFieldWriters;
+    private final Map<Method, MethodAccessor> outParamMethodAccessors;
+    // output parameter name (upper case) -> mapper of the cursor of the nested class
+    // имя выходного параметра (в верхнем регистре) -> отображение курсора вложенного класса
+    private final Map<String, RowMapper<?>> outParamCursorRowMappers;
+    // plan of reading the output parameters directly from the call statement, built after compilation
+    // план чтения выходных параметров прямо из выражения вызова, строится после компиляции
+    private volatile OutParamsPlan outParamsPlan;
+    private volatile ContractOutParamsPlan contractOutParamsPlan;
+
+    // reading of the non-cursor result by index. Null if the result is not non-cursor
+    // чтение некурсорного результата по индексу. Null, если результат не некурсорный
+    private final OutParamReader scalarOutParamReader;
+
+    // mapper of several output parameters generated at compile time for the contract class. Null if there is none
+    // отображение нескольких выходных параметров, сгенерированное на этапе компиляции для класса-контракта. Null, если его нет
+    private final OutParamsContractMapper<T> outParamsContractMapper;
 
     // function types
     // типы функиций
-    private boolean isReturnedOnlyOneCursor = false;
-    private boolean isReturnedSeveralOutParam = false;
+    private final boolean isReturnedOnlyOneCursor;
+    private final boolean isReturnedSeveralOutParam;
+
+    // the only output cursor: its name and mapping of one record. Null if there is no such cursor
+    // единственный выходной курсор: его имя и отображение одной записи. Null, если такого курсора нет
+    private final String cursorName;
+    private final RowMapper<?> cursorRowMapper;
+
+    // number of cursor rows fetched from the database at once when streaming, 0 - driver default
+    // количество строк курсора, получаемых из БД за раз при потоковом чтении, 0 - по умолчанию драйвера
+    private volatile int fetchSize;
+
+    // executor of blocking database work performed off the calling thread
+    // исполнитель блокирующей работы с БД, выполняемой вне вызывающего потока
+    private volatile Executor executor = ProgramUnitExecutors.defaultExecutor();
+
+    // cache of results by input parameters. Null - results are not cached
+    // кэш результатов по входным параметрам. Null - результаты не кэшируются
+    private volatile ResultCache resultCache;
+
+    // concurrent calls with equal input parameters share one call to the database
+    // конкурентные вызовы с равными входными параметрами разделяют один вызов БД
+    private volatile boolean coalescing;
+    // calls in progress: call key -> its result
+    // выполняющиеся вызовы: ключ вызова -> его результат
+    private final Map<CallKey, CompletableFuture<Object>> inFlightCalls = new ConcurrentHashMap<>();
+    // number of calls that received the result of another call in progress
+    // количество вызовов, получивших результат другого выполняющегося вызова
+    private final LongAdder collapsedCallCount = new LongAdder();
+
+    // number of cursor records kept in memory, after which they are written to disk, 0 - not written
+    // количество записей курсора, хранимых в памяти, после которого они пишутся на диск, 0 - не пишутся
+    private volatile int spillThreshold;
+    private volatile Path spillDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+    // binary format of a record on disk. Null - fields of the contract class
+    // двоичный формат записи на диске. Null - поля класса-контракта
+    private volatile RecordCodec<T> recordCodec;
+
+    // pool of the parallel mapping of cursor records. Null - records are mapped by the reading thread
+    // пул параллельного отображения записей курсора. Null - записи отображаются читающим потоком
+    private volatile ForkJoinPool mappingPool;
+    // number of records mapped by one task of the pool
+    // количество записей, отображаемых одной задачей пула
+    private volatile int mappingChunkSize = 1024;
+
+    // name of the program unit in the metrics: schema.name
+    // имя программного юнита в метриках: schema.name
+    private final String metricsName;
+    // name of the program unit in the JFR events: schema.catalog.name
+    // имя программного юнита в событиях JFR: schema.catalog.name
+    private final String eventName;
+    // receiver of the metrics of the calls. Null - the calls are not measured
+    // получатель метрик вызовов. Null - вызовы не измеряются
+    private volatile MetricsRegistry metricsRegistry;
 
     /**
      * ProgramInitDB constructor (Конструктор ProgramInitDB)
@@ -133,13 +223,43 @@ public class ProgramUnitDB<T> {
      *                               хранимой процедурой)
      * @throws Exception initialization error
      */
+    @SuppressWarnings("unchecked")
     public ProgramUnitDB(DataSource dataSource, String schemaName, String catalogName, String procedureOrFuctionName,
             List<SqlParameter> inParameters, Class<T> clazzOutParameters, boolean isFunction) throws Exception {
         Objects.requireNonNull(dataSource, "dataSource");
         Objects.requireNonNull(schemaName, "schemaName");
         Objects.requireNonNull(procedureOrFuctionName, "procedureOrFuctionName");
 
-        programUnit = new SimpleJdbcCall(dataSource).withSchemaName(schemaName).withCatalogName(catalogName);
+        // the call and the mapping of the contract class are set only here and are not changed afterwards; the settings
+        // (fetch size, executor, cache, coalescing, spilling, mapping pool, metrics, statement cache) are volatile and are seen
+        // by the calls started after a change, so the object can be shared between threads. The errors of each call are thrown as
+        // ProgramUnitMappingException of this call
+        // вызов и отображение класса-контракта задаются только здесь и после не изменяются; настройки (размер выборки,
+        // исполнитель, кэш, объединение, выгрузка на диск, пул отображения, метрики, кэш выражений) volatile и видны
+        // вызовам, начатым после изменения, поэтому объект может разделяться между потоками. Ошибки каждого вызова выбрасываются
+        // как ProgramUnitMappingException этого вызова
+        // getting of connections is measured for the metrics
+        // получение подключений измеряется для метрик
+        this.dataSource = new ObservedDataSource(dataSource);
+        this.programUnit = new ProgramUnitCall(this.dataSource);
+        this.programUnit.withSchemaName(schemaName).withCatalogName(catalogName);
+        this.metricsName = schemaName + "." + procedureOrFuctionName;
+        this.eventName = catalogName == null ? metricsName
+                : schemaName + "." + catalogName + "." + procedureOrFuctionName;
+        this.clazzOutParameters = clazzOutParameters;
+
+        Map<String, Field> mappingOutParamToField = null;
+        Map<String, Method> mappingOutParamToMethod = null;
+        MethodHandle outParamsInstantiator = null;
+        Map<String, MethodHandle> outParamFieldWriters = null;
+        Map<Method, MethodAccessor> outParamMethodAccessors = null;
+        Map<String, RowMapper<?>> outParamCursorRowMappers = null;
+        OutParamReader scalarOutParamReader = null;
+        OutParamsContractMapper<T> outParamsContractMapper = null;
+        boolean isReturnedOnlyOneCursor = false;
+        boolean isReturnedSeveralOutParam = false;
+        String cursorName = null;
+        RowMapper<?> cursorRowMapper = null;
 
         programUnit.setFunction(isFunction);
         programUnit.setProcedureName(procedureOrFuctionName);
@@ -149,180 +269,75 @@ public class ProgramUnitDB<T> {
             inParameters.forEach(par -> programUnit.addDeclaredParameter(par));
         }
 
-        // stored procedure with no output parameters
-        // хранимая процедура без выходных параметров
-        if (clazzOutParameters == null) {
-            
-            
-            
-            this.clazzOutParameters = null;
-
-
-
-        // non-cursor types
-        // некурсорные типы
-        } else if (
-                clazzOutParameters.equals(java.lang.Character.class) 
-                ||
-                clazzOutParameters.equals(java.lang.Boolean.class) 
-                ||
-                clazzOutParameters.equals(java.lang.Byte.class)
-                ||
-                clazzOutParameters.equals(java.lang.Short.class) 
-                ||
-                clazzOutParameters.equals(java.lang.Integer.class) 
-                ||
-                clazzOutParameters.equals(java.lang.Long.class) 
-                ||
-                clazzOutParameters.equals(java.lang.Float.class) 
-                ||
-                clazzOutParameters.equals(java.lang.Double.class)
-                ||
-                clazzOutParameters.equals(java.lang.Void.class) 
-                || 
-                clazzOutParameters.equals(String.class)
-                || 
-                clazzOutParameters.equals(LocalDateTime.class)
-                ||
-                clazzOutParameters.equals(LocalDate.class)
-                ||
-                clazzOutParameters.equals(LocalTime.class)
-                ) {
-
-
-
-            this.clazzOutParameters = clazzOutParameters;
-
-        // multiple output parameters
-        // несколько выходных параметров
-        } else if (Arrays.asList(clazzOutParameters.getDeclaredFields()).stream()
-                .anyMatch(field -> field.isAnnotationPresent(OutParam.class))
-                ||
-                Arrays.asList(clazzOutParameters.getDeclaredMethods()).stream().anyMatch(method -> Arrays.asList(method.getParameters()).stream().anyMatch(parameter -> parameter.isAnnotationPresent(OutParam.class)))
-                ) {
-
-            // TODO move mapping Fields and Methods into separate functions (polymorphism in annotations???) (вынести mapping Fields и Methods в отдельные функции (полиморфизм в аннотациях???))
-
-            this.clazzOutParameters = clazzOutParameters;
-            
-            // note that you can call the executeReturnedSeveralOutParams method
-            // помечаем, что можно вызвать метод executeReturnedSeveralOutParams
-            this.isReturnedSeveralOutParam = true;
-            
-            // check if there is a field in the class with the annotation @OutParam
-            // проверяем есть ли поле в классе с аннотацией @OutParam
-            mappingOutParamToField = new HashMap<>();
-            Field[] fiels = clazzOutParameters.getDeclaredFields();
-            for (int i = 0; i < fiels.length; i++) {
-
-                if (fiels[i].isAnnotationPresent(OutParam.class)) {
-                    mappingOutParamToField.put(fiels[i].getAnnotation(OutParam.class).name().toUpperCase(), fiels[i]);
-                }
-            }
-
+        // analysis of the contract class is performed once per class and shared by all objects
+        // анализ класса-контракта выполняется один раз на класс и разделяется всеми объектами
+        ContractDescriptor descriptor = clazzOutParameters == null ? null : ContractDescriptor.of(clazzOutParameters);
 
-            // check if there is a method in the class with @OutParam annotated parameters
-            // проверяем есть ли метод в классе с аннотированными @OutParam параметрами
-            Method[] methods = clazzOutParameters.getDeclaredMethods();
-            mappingOutParamToMethod = new HashMap<>();
-            for (int i = 0; i < methods.length; i++) {
+        // stored procedure with no output parameters or non-cursor types
+        // хранимая процедура без выходных параметров или некурсорные типы
+        if (descriptor == null || descriptor.isNonCursor) {
 
-                Parameter[] parameters = methods[i].getParameters();
-                if (Arrays.asList(parameters).stream()
-                        .allMatch(parameter -> parameter.isAnnotationPresent(OutParam.class))) {
-                    for (int j = 0; j < parameters.length; j++) {
-                        mappingOutParamToMethod.put(parameters[j].getAnnotation(OutParam.class).name().toUpperCase(),
-                                methods[i]);
-                    }
-
-                } else if (Arrays.asList(parameters).stream()
-                        .anyMatch(parameter -> parameter.isAnnotationPresent(OutParam.class))) {
-                    throw new Exception(
-                            "Either mark all parameters with the @OutParam annotation, or don't use this method at all "
-                                    + methods[i].getName() + " as receiving data from output parameters");
-                }
-
-            }
-
-            // check if there is a class in a class with @OutParam annotated parameters
-            // проверяем есть ли класс в классе с аннотированными @OutParam параметрами
-            boolean isExistInternalClazzes = false;
-            Class<?>[] internalClazzes = clazzOutParameters.getDeclaredClasses();
-            for (int i = 0; i < internalClazzes.length; i++) {
-                if (internalClazzes[i].isAnnotationPresent(OutParam.class)) {
-                    // take the value of the @OutParam annotation above the class
-                    //берем значение аннотации @OutParam над классом
-                    String paramName = internalClazzes[i].getAnnotation(OutParam.class).name();
-
-                    Map<String, Field> mappingToField = new HashMap<>();
-                    Map<String, Method> mappingToMethod = new HashMap<>();
-
-                    Field[] fielsInternalClazzes = internalClazzes[i].getDeclaredFields();
-                    for (int j = 0; j < fielsInternalClazzes.length; j++) {
 
-                        if (fielsInternalClazzes[j].isAnnotationPresent(Column.class)) {
-                            mappingToField.put(fielsInternalClazzes[j].getAnnotation(Column.class).name().toUpperCase(),
-                                    fielsInternalClazzes[j]);
-                        }
-                    }
 
-                    Method[] methodsInternalClazzes = internalClazzes[i].getDeclaredMethods();
-                    for (int j = 0; j < methodsInternalClazzes.length; j++) {
-
-                        Parameter[] parametersMethodsInternalClazzes = methodsInternalClazzes[j].getParameters();
-                        if (Arrays.asList(parametersMethodsInternalClazzes).stream()
-                                .allMatch(parameter -> parameter.isAnnotationPresent(Column.class))) {
-                            for (int k = 0; k < parametersMethodsInternalClazzes.length; k++) {
-                                mappingToMethod.put(parametersMethodsInternalClazzes[k].getAnnotation(Column.class)
-                                        .name().toUpperCase(), methodsInternalClazzes[j]);
-                            }
+            scalarOutParamReader = descriptor == null ? null : OutParamReaders.forType(clazzOutParameters);
 
-                        } else if (Arrays.asList(parametersMethodsInternalClazzes).stream()
-                                .anyMatch(parameter -> parameter.isAnnotationPresent(Column.class))) {
-                            throw new Exception(
-                                    "Either mark all parameters with the @Column annotation or don't use this "
-                                            + methodsInternalClazzes[j].getName()
-                                            + " method at all as receiving data from output parameters");
-                        }
+        // the contract class has a mapper generated at compile time
+        // у класса-контракта есть отображение, сгенерированное на этапе компиляции
+        } else if (descriptor.contractMapper != null) {
 
-                    }
-                    programUnit.addDeclaredRowMapper(
-                            paramName.equals("") ? DEFAULT_NAME_RETURN_PARAM_IN_FUNCTION.toUpperCase()
-                                    : paramName.toUpperCase(),
-                            getHandlerOneRecordByCursor(internalClazzes[i], clazzOutParameters, mappingToField,
-                                    mappingToMethod));
+            Map<String, RowMapper<?>> cursorRowMappers = descriptor.contractMapper.getCursorRowMappers();
 
-                    isExistInternalClazzes = true;
+            if (descriptor.contractMapper instanceof OutParamsContractMapper) {
+                outParamsContractMapper = (OutParamsContractMapper<T>) descriptor.contractMapper;
+                // note that you can call the executeReturnedSeveralOutParams method
+                // помечаем, что можно вызвать метод executeReturnedSeveralOutParams
+                isReturnedSeveralOutParam = true;
+                outParamCursorRowMappers = cursorRowMappers;
+            } else {
+                // the cursor name is checked in the same way as with reflection
+                // имя курсора проверяется так же, как и при рефлексии
+                String returnCursorName = cursorRowMappers.keySet().iterator().next();
+                if (programUnit.isFunction() != returnCursorName.equals(DEFAULT_NAME_RETURN_PARAM_IN_FUNCTION)) {
+                    throw new Exception("Unknown how to display the class " + clazzOutParameters.getCanonicalName()
+                            + " to output cursor");
                 }
+                // note that you can call the executeReturnedOnlyOneCursor method
+                // помечаем, что можно вызвать метод executeReturnedOnlyOneCursor
+                isReturnedOnlyOneCursor = true;
+                cursorName = returnCursorName;
+                cursorRowMapper = cursorRowMappers.get(returnCursorName);
             }
 
-            if (mappingOutParamToField.isEmpty() && mappingOutParamToMethod.isEmpty() && isExistInternalClazzes) {
-                throw new Exception("No fields, method parameters or classes annotated with @OutParam");
-            }
+            cursorRowMappers.forEach((name, rowMapper) -> programUnit.addDeclaredRowMapper(name, rowMapper));
 
+        // multiple output parameters
+        // несколько выходных параметров
+        } else if (descriptor.isSeveralOutParams) {
 
+            // note that you can call the executeReturnedSeveralOutParams method
+            // помечаем, что можно вызвать метод executeReturnedSeveralOutParams
+            isReturnedSeveralOutParam = true;
 
-            // только один курсор
-        } else if (Arrays.asList(clazzOutParameters.getDeclaredFields()).stream()
-                .anyMatch(field -> field.isAnnotationPresent(Column.class))
-                ||
-                Arrays.asList(clazzOutParameters.getDeclaredMethods()).stream().anyMatch(method -> Arrays.asList(method.getParameters()).stream().anyMatch(parameter -> parameter.isAnnotationPresent(Column.class)))
-                ) {
+            mappingOutParamToField = descriptor.mappingOutParamToField;
+            mappingOutParamToMethod = descriptor.mappingOutParamToMethod;
+            outParamsInstantiator = descriptor.outParamsInstantiator;
+            outParamFieldWriters = descriptor.outParamFieldWriters;
+            outParamMethodAccessors = descriptor.outParamMethodAccessors;
+            outParamCursorRowMappers = descriptor.cursorRowMappers;
 
+            descriptor.cursorRowMappers.forEach((name, rowMapper) -> programUnit.addDeclaredRowMapper(name, rowMapper));
 
+        // только один курсор
+        } else {
 
             // note that you can call the executeReturnedOnlyOneCursor method
             // помечаем, что можно вызвать метод executeReturnedOnlyOneCursor
-            this.isReturnedOnlyOneCursor = true;
+            isReturnedOnlyOneCursor = true;
 
-            OutParam outParamAnnotation = null;
+            OutParam outParamAnnotation = descriptor.outParamAnnotation;
 
             String returnCursorName = DEFAULT_NAME_RETURN_PARAM_IN_FUNCTION.toUpperCase();
 
-            if (clazzOutParameters.isAnnotationPresent(OutParam.class)) {
-                outParamAnnotation = clazzOutParameters.getAnnotation(OutParam.class);
-            }
-
             // if the class represents a stored function, then it must be either not annotated or only annotated with isReturnFucntionParam=true
             // если класс представляет хранимую функцию, то он должен быть либо не аннотирован либо аннотирован только с isReturnFucntionParam=true
             if (programUnit.isFunction() && (outParamAnnotation == null || (outParamAnnotation != null
@@ -338,469 +353,2123 @@ public class ProgramUnitDB<T> {
                         + " to output cursor");
             }
 
-            // to store cursor column name mapping in class field
-            // для хранения отображение имени столбца курсора в поле класса
-            Map<String, Field> mappingColumnCursorToField = new HashMap<>();
-            // to store the mapping of the cursor column name to class method parameters
-            // для хранения отображения имени столбца курсора в параметры метода класса
-            Map<String, Method> mappingColumnCursorToMethod = new HashMap<>();
-
-            // check if there is a field in the class with the @Column annotation
-            // проверяем есть ли поле в классе с аннотацией @Column
-            Field[] fiels = clazzOutParameters.getDeclaredFields();
-            for (int i = 0; i < fiels.length; i++) {
-
-                if (fiels[i].isAnnotationPresent(Column.class)) {
-                    mappingColumnCursorToField.put(fiels[i].getAnnotation(Column.class).name().toUpperCase(), fiels[i]);
-                }
-            }
-
-            // check if there is a method in the class with @Column annotated parameters
-            // проверяем есть ли метод в классе с аннотированными @Column параметрами
-            Method[] methods = clazzOutParameters.getDeclaredMethods();
-            for (int i = 0; i < methods.length; i++) {
-
-                Parameter[] parameters = methods[i].getParameters();
-                if (Arrays.asList(parameters).stream()
-                        .allMatch(parameter -> parameter.isAnnotationPresent(Column.class))) {
-                    for (int j = 0; j < parameters.length; j++) {
-                        mappingColumnCursorToMethod.put(parameters[j].getAnnotation(Column.class).name().toUpperCase(),
-                                methods[i]);
-                    }
-
-                } else if (Arrays.asList(parameters).stream()
-                        .anyMatch(parameter -> parameter.isAnnotationPresent(Column.class))) {
-                    throw new Exception(
-                            "Either mark all parameters with the @Column annotation or don't use this "
-                                    + methods[i].getName() + " method at all as receiving data from the cursor");
-                }
-
-            }
-
-            if (mappingColumnCursorToField.isEmpty() && mappingColumnCursorToMethod.isEmpty()) {
-                throw new Exception("No fields or method parameters annotated with @Column");
-            }
-
-            programUnit.addDeclaredRowMapper(returnCursorName, getHandlerOneRecordByCursor(clazzOutParameters, null,
-                    mappingColumnCursorToField, mappingColumnCursorToMethod));
-
-        } else {
-            throw new Exception("It is not clear how to handle output parameters");
+            cursorName = returnCursorName;
+            cursorRowMapper = descriptor.cursorRowMapper;
+            programUnit.addDeclaredRowMapper(returnCursorName, cursorRowMapper);
         }
+
+        this.mappingOutParamToField = mappingOutParamToField;
+        this.mappingOutParamToMethod = mappingOutParamToMethod;
+        this.outParamsInstantiator = outParamsInstantiator;
+        this.outParamFieldWriters = outParamFieldWriters;
+        this.outParamMethodAccessors = outParamMethodAccessors;
+        this.outParamCursorRowMappers = outParamCursorRowMappers;
+        this.scalarOutParamReader = scalarOutParamReader;
+        this.outParamsContractMapper = outParamsContractMapper;
+        this.isReturnedOnlyOneCursor = isReturnedOnlyOneCursor;
+        this.isReturnedSeveralOutParam = isReturnedSeveralOutParam;
+        this.cursorName = cursorName;
+        this.cursorRowMapper = cursorRowMapper;
     }
 
-    //------------------------------------------------------------------------
-    //  call block
-    //  блок вызова
-    //------------------------------------------------------------------------
     /**
      * 
-     * The function is called only for a stored procedure with no output parameters (Функция вызывается только для хранимой процедуры без выходных параметров)
+     * Sets the number of cursor rows fetched from the database at once by {@link #executeCursorAsIterator(Object...)} and
+     * {@link #executeCursorAsStream(Object...)}. The PostgreSQL driver ignores the fetch size for a refcursor, so in PostgreSQL
+     * the refcursor is kept open in the transaction and read by {@code FETCH FORWARD fetchSize}.
+     * (Задает количество строк курсора, получаемых из БД за раз методами {@link #executeCursorAsIterator(Object...)} и
+     * {@link #executeCursorAsStream(Object...)}. Драйвер PostgreSQL игнорирует размер выборки для refcursor, поэтому
+     * в PostgreSQL refcursor остается открытым в транзакции и читается через {@code FETCH FORWARD fetchSize}.)
      * 
      * @author Nikita Chistousov (chistousov.nik@yandex.ru)
      * @since 8
-     * @see <a href=
-     *      "https://docs.oracle.com/javase/8/docs/technotes/guides/jdbc/">JDBC</a>
-     * @see javax.sql.DataSource
+     * @see java.sql.Statement#setFetchSize(int)
+     * @see PostgresRefCursor
      * 
-     * @param params input parameters (входные параметры)
-     * @throws Exception runtime error
+     * @param fetchSize number of rows, 0 - driver default (количество строк, 0 - по умолчанию драйвера)
      */
-    public void executeWithoutOutParameters(Object... params) throws Exception {
-
-        if (this.clazzOutParameters != null) {
-            throw new Exception(FUNCTION_UNDEFINED_MESSAGE);
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 0) {
+            throw new IllegalArgumentException("fetchSize < 0");
         }
-        this.programUnit.execute(params);
+        this.fetchSize = fetchSize;
     }
-    
+
     /**
      * 
-     * The function is called only for a stored procedure or for a stored function with non-cursor input parameters 
-     * (Функция вызывается только для хранимой процедуры или для хранимой функции с некурсорными входными параметрами)
+     * @return number of cursor rows fetched from the database at once (количество строк курсора, получаемых из БД за раз)
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * 
+     * Sets the executor on which blocking database work is performed off the calling thread: the *Async methods and
+     * {@link #executeCursorAsPublisher(Object...)}. By default, a shared fixed pool of daemon threads by the number of processors.
+     * On Java 21 and later, {@link ProgramUnitExecutors#newVirtualThreadPerTaskExecutor()} can be used.
+     * (Задает исполнитель, на котором блокирующая работа с БД выполняется вне вызывающего потока: методы *Async и
+     * {@link #executeCursorAsPublisher(Object...)}. По умолчанию общий фиксированный пул демон-потоков по количеству процессоров.
+     * На Java 21 и выше можно использовать {@link ProgramUnitExecutors#newVirtualThreadPerTaskExecutor()}.)
      * 
      * @author Nikita Chistousov (chistousov.nik@yandex.ru)
      * @since 8
-     * @see <a href=
-     *      "https://docs.oracle.com/javase/8/docs/technotes/guides/jdbc/">JDBC</a>
-     * @see javax.sql.DataSource
+     * @see ProgramUnitExecutors
      * 
-     * @param params input parameters (входные параметры)
-     * @throws Exception runtime error
-     * @return returns a non-cursor value (возвращает не курсорное значение)
+     * @param executor executor (исполнитель)
      */
-    @SuppressWarnings("unchecked")
-    public T executeReturnedOnlyOneNonCursor(Object... params) throws Exception {
+    public void setExecutor(Executor executor) {
+        this.executor = Objects.requireNonNull(executor, "executor");
+    }
 
-        if (this.clazzOutParameters == null) {
-            throw new Exception(FUNCTION_UNDEFINED_MESSAGE);
-        }
-        if(this.clazzOutParameters.equals(Short.class)){
-            return (T) Short.valueOf(programUnit.executeFunction(Object.class, params).toString());
-        }
-        if(this.clazzOutParameters.equals(Integer.class)){
-            return (T) Integer.valueOf(programUnit.executeFunction(Object.class, params).toString());
-        }
-        if(this.clazzOutParameters.equals(Long.class)){
-            return (T) Long.valueOf(programUnit.executeFunction(Object.class, params).toString());
-        }
-        if(this.clazzOutParameters.equals(Float.class)){
-            return (T) Float.valueOf(programUnit.executeFunction(Object.class, params).toString());
-        }
-        if(this.clazzOutParameters.equals(Double.class)){
-            return (T) Double.valueOf(programUnit.executeFunction(Object.class, params).toString());
-        }
-        if (this.clazzOutParameters.equals(LocalDateTime.class)) {
-            return (T) programUnit.executeFunction(java.sql.Timestamp.class, params).toLocalDateTime();
-        }
-        if(this.clazzOutParameters.equals(LocalDate.class)){
-            return (T) programUnit.executeFunction(java.sql.Date.class, params).toLocalDate();
-        }
-        if(this.clazzOutParameters.equals(LocalTime.class)){
-            return (T) programUnit.executeFunction(java.sql.Time.class, params).toLocalTime();
-        }
-        return programUnit.executeFunction(this.clazzOutParameters, params);
+    /**
+     * 
+     * @return executor of blocking database work (исполнитель блокирующей работы с БД)
+     */
+    public Executor getExecutor() {
+        return executor;
     }
 
     /**
      * 
-     * The function is called on a stored procedure or stored function with a single exit cursor that returns a list of values
-     * (Функция вызывается для хранимой процедуры или для хранимой функции с одним выходным курсором, который возвращает список значений)
+     * Sets where the parameters of the program unit are taken from. Must be called before the first call.
+     * By default {@link CallMetaDataCache.Mode#SHARED}: the metadata is read from the database once for all objects with the same
+     * DataSource, schema, catalog and name. In the {@link CallMetaDataCache.Mode#DECLARED_ONLY} mode the metadata is not read,
+     * so inParameters of the constructor must describe the whole signature in its order, including
+     * {@link org.springframework.jdbc.core.SqlOutParameter} (for a stored function, the first of them is the return value).
+     * (Задает, откуда берутся параметры программного юнита. Вызывается до первого вызова.
+     * По умолчанию {@link CallMetaDataCache.Mode#SHARED}: метаданные читаются из БД один раз для всех объектов с одинаковыми
+     * DataSource, схемой, каталогом и именем. В режиме {@link CallMetaDataCache.Mode#DECLARED_ONLY} метаданные не читаются,
+     * поэтому inParameters конструктора должны описывать всю сигнатуру в ее порядке, включая
+     * {@link org.springframework.jdbc.core.SqlOutParameter} (для хранимой функции первый из них - возвращаемое значение).)
      * 
      * @author Nikita Chistousov (chistousov.nik@yandex.ru)
      * @since 8
-     * @see <a href=
-     *      "https://docs.oracle.com/javase/8/docs/technotes/guides/jdbc/">JDBC</a>
-     * @see javax.sql.DataSource
+     * @see CallMetaDataCache
      * 
-     * @param params input parameters (входные параметры)
-     * @throws Exception runtime error
-     * 
-     * @return records from the cursor
+     * @param metaDataMode where the parameters are taken from (откуда берутся параметры)
      */
-    @SuppressWarnings("unchecked")
-    public List<T> executeReturnedOnlyOneCursor(Object... params) throws Exception {
-
-        if (!this.isReturnedOnlyOneCursor) {
-            throw new Exception(FUNCTION_UNDEFINED_MESSAGE);
-        }
-
-        checkThisObject();
-
-        List<T> reList;
-
-        reList = programUnit.executeFunction((new ArrayList<>()).getClass(), params);
-
-        checkThisObject();
+    public void setMetaDataMode(CallMetaDataCache.Mode metaDataMode) {
+        this.programUnit.setMetaDataMode(metaDataMode);
+    }
 
-        return reList;
+    /**
+     * 
+     * @return where the parameters of the program unit are taken from (откуда берутся параметры программного юнита)
+     */
+    public CallMetaDataCache.Mode getMetaDataMode() {
+        return this.programUnit.getMetaDataMode();
     }
 
     /**
-     * Function called on a stored procedure or stored function with a single exit cursor that returns a single value
-     * (Функция вызывается для хранимой процедуры или для хранимой функции с одним выходным курсором, который возвращает одно значение)
+     * 
+     * Enables caching of the results of {@link #executeReturnedOnlyOneNonCursor(Object...)},
+     * {@link #executeReturnedOnlyOneCursor(Object...)} and {@link #executeReturnedSeveralOutParams(Object...)} by the values
+     * of input parameters. Only for idempotent program units (lookups by key) that do not change data. A cached list of
+     * records is returned unmodifiable and the same objects of records are returned to all callers. A cursor read with
+     * {@link #setSpillThreshold(int)} is not cached.
+     * (Включает кэширование результатов {@link #executeReturnedOnlyOneNonCursor(Object...)},
+     * {@link #executeReturnedOnlyOneCursor(Object...)} и {@link #executeReturnedSeveralOutParams(Object...)} по значениям
+     * входных параметров. Только для идемпотентных программных юнитов (поиск по ключу), которые не изменяют данные.
+     * Закэшированный список записей возвращается неизменяемым, и всем вызывающим возвращаются одни и те же объекты записей.
+     * Курсор, читаемый с {@link #setSpillThreshold(int)}, не кэшируется.)
      * 
      * @author Nikita Chistousov (chistousov.nik@yandex.ru)
      * @since 8
-     * @see <a href=
-     *      "https://docs.oracle.com/javase/8/docs/technotes/guides/jdbc/">JDBC</a>
-     * @see javax.sql.DataSource
+     * @see ResultCache
      * 
-     * @param params input parameters (входные параметры)
-     * @throws Exception runtime error
-     * 
-     * @return records from the cursor
+     * @param resultCache cache of results. Null disables caching (кэш результатов. Null отключает кэширование)
      */
-    public T executeReturnedOnlyOneCursorFirstRecord(Object... params) throws Exception {
-
-        List<T> records = executeReturnedOnlyOneCursor(params);
+    public void setResultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
 
-        return records.isEmpty() ? null : records.get(0);
+    /**
+     * 
+     * @return cache of results or null (кэш результатов или null)
+     */
+    public ResultCache getResultCache() {
+        return resultCache;
     }
 
     /**
-     * Function called on a stored procedure or stored function with many different output parameters
-     * (Функция вызывается для хранимой процедуры или для хранимой функции с множеством различных выходных параметров)
+     * 
+     * Limits the number of records of {@link #executeReturnedOnlyOneCursor(Object...)} kept in memory. When the cursor has more
+     * records, they are written to a temporary file, and a {@link SpillingList} is returned, which reads the records from the
+     * memory-mapped file on access and must be closed. While the threshold is set, the calls of
+     * {@link #executeReturnedOnlyOneCursor(Object...)} bypass the result cache and coalescing: each caller receives and
+     * closes its own list.
+     * (Ограничивает количество записей {@link #executeReturnedOnlyOneCursor(Object...)}, хранимых в памяти. Когда у курсора
+     * больше записей, они пишутся во временный файл и возвращается {@link SpillingList}, который читает записи из отображенного
+     * в память файла при обращении и который нужно закрыть. Пока порог задан, вызовы
+     * {@link #executeReturnedOnlyOneCursor(Object...)} идут в обход кэша результатов и объединения вызовов: каждый вызывающий
+     * получает и закрывает свой список.)
      * 
      * @author Nikita Chistousov (chistousov.nik@yandex.ru)
      * @since 8
-     * @see <a href=
-     *      "https://docs.oracle.com/javase/8/docs/technotes/guides/jdbc/">JDBC</a>
-     * @see javax.sql.DataSource
+     * @see SpillingList
+     * @see #setRecordCodec(RecordCodec)
      * 
-     * @param params input parameters (входные параметры)
-     * @throws Exception runtime error
-     * @return output parameters (выходные параметры)
+     * @param spillThreshold number of records in memory, 0 - records are not written to disk (количество записей в памяти, 0 - записи не пишутся на диск)
      */
-    @SuppressWarnings("unchecked")
-    public T executeReturnedSeveralOutParams(Object... params) throws Exception {
-        if (!this.isReturnedSeveralOutParam) {
-            throw new Exception(FUNCTION_UNDEFINED_MESSAGE);
-        }
-
-        checkThisObject();
-
-        Map<String, Object> outParams = programUnit.execute(params);
-
-        checkThisObject();
-
-        // create an object of the type using the default constructor
-        // создаем объект типа с помощью конструктора по умл
-        Constructor<?>[] constructors = clazzOutParameters.getConstructors();
-        if (constructors.length == 0) {
-            throw new Exception("У класса " + clazzOutParameters.getCanonicalName() + " нет конструкторов");
+    public void setSpillThreshold(int spillThreshold) {
+        if (spillThreshold < 0) {
+            throw new IllegalArgumentException("spillThreshold < 0");
         }
-        Object objOutParams = constructors[0].newInstance();
-
-        // copy data by methods
-        // копируем данные по методам
-        Map<String, Method> mapMethod = new HashMap<>(this.mappingOutParamToMethod);
-
-        // running through the fields
-        // пробегаем по полям
-        for (Map.Entry<String,Object> outParam : outParams.entrySet()) {
-
-            String outParamName = outParam.getKey().toUpperCase();
-
-            // if this field
-            // если это поле
-            if (this.mappingOutParamToField.containsKey(outParamName)) {
-                Field fieldClass = this.mappingOutParamToField.get(outParamName);
-
-                // gives access even if the field is private
-                // дает доступ даже если поле private
-                fieldClass.setAccessible(true);
-
-                // get the value from the column and convert it to the field type
-                // получаем значение со столбца и преобразуем его к типу поля
-                fieldClass.set(objOutParams, castFromDBOutParamToJava(fieldClass.getType(), outParam.getValue()));
-
-            }
-            // if these are method parameters
-            // если это параметры метода
-            else if (mapMethod.containsKey(outParamName)) {
-                Method methodClass = mapMethod.get(outParamName);
-
-                // gives access even if the field is private
-                // дает доступ даже если метод private
-                methodClass.setAccessible(true);
-
-                Parameter[] parameters = methodClass.getParameters();
-                List<Object> paramsForInvoke = new ArrayList<>();
-                for (int j = 0; j < parameters.length; j++) {
-
-                    // get annotation value
-                    // берем значение аннотации
-                    String columnAndParamName = parameters[j].getAnnotation(OutParam.class).name().toUpperCase();
-
-                    // we take the value from the row from the database, convert it to the type of the parameter
-                    // берем значение из строки с БД, преобразует к типу параметра
-                    paramsForInvoke.add(j, castFromDBOutParamToJava(parameters[j].getType(),
-                            outParams.get(columnAndParamName.toUpperCase())));
-
-                    // remove the parameter from the display
-                    // удаляем параметр из отображения
-                    mapMethod.remove(columnAndParamName, methodClass);
-
-                }
-
-                methodClass.invoke(objOutParams, paramsForInvoke.toArray());
-
-            }
+        this.spillThreshold = spillThreshold;
+    }
 
-        }
+    /**
+     * 
+     * @return number of records in memory, after which they are written to disk, 0 - not written (количество записей в памяти, после которого они пишутся на диск, 0 - не пишутся)
+     */
+    public int getSpillThreshold() {
+        return spillThreshold;
+    }
 
-        return clazzOutParameters.cast(objOutParams);
+    /**
+     * 
+     * @param spillDirectory directory of temporary files, by default java.io.tmpdir (каталог временных файлов, по умолчанию java.io.tmpdir)
+     */
+    public void setSpillDirectory(Path spillDirectory) {
+        this.spillDirectory = Objects.requireNonNull(spillDirectory, "spillDirectory");
     }
 
+    /**
+     * 
+     * @return directory of temporary files (каталог временных файлов)
+     */
+    public Path getSpillDirectory() {
+        return spillDirectory;
+    }
 
-    //------------------------------------------------------------------------
-    // auxiliary function block 
-    // блок вспомогательных функций
-    //------------------------------------------------------------------------
     /**
      * 
-     * The function checks whether an error occurred during the cursor processing stage? If yes, an exception is thrown
-     * (Функция проверяет: возникла ли ошибка на этапе обработки курсора?
-     * Если да вываливается исключение)
+     * Sets the binary format of a record written to disk. By default, all fields of the contract class are written.
+     * (Задает двоичный формат записи, записываемой на диск. По умолчанию пишутся все поля класса-контракта.)
      * 
      * @author Nikita Chistousov (chistousov.nik@yandex.ru)
      * @since 8
+     * @see #setSpillThreshold(int)
      * 
-     * @throws Exception when parsing (при парсинге)
+     * @param recordCodec binary format of a record (двоичный формат записи)
      */
-    private void checkThisObject() throws Exception {
-        if (flagDefaultConstructorNotFound) {
-            throw new Exception("No default constructor");
-        }
-        if (flagFieldNotFound) {
-            throw new Exception("Called field is missing");
-        }
-        if (flagMethodInccorect) {
-            throw new Exception("Called method is missing");
-        }
-        if (flagMetaDataNotFound) {
-            throw new Exception("Metadata not found");
-        }
-        if (flagAmountColumnDontGet) {
-            throw new Exception("No entries in cursor");
-        }
-        if (flagColumnNotFound) {
-            throw new Exception("Column not found in selection");
-        }
-        if (flagCastFromDBToJavaWithError) {
-            throw new Exception("Error when converting type from column type to Java type");
-        }
+    public void setRecordCodec(RecordCodec<T> recordCodec) {
+        this.recordCodec = Objects.requireNonNull(recordCodec, "recordCodec");
     }
 
     /**
-     * The function converts the type of the cursor column from the database from the current to the required one
-     * (Функция преобразует тип колонки курсора с БД из текущего в нужный)
+     * 
+     * Enables the parallel mapping of the records of {@link #executeReturnedOnlyOneCursor(Object...)}. The cursor is still read
+     * by one thread, which only reads the values of the columns and collects them into chunks of {@link #setMappingChunkSize(int)}
+     * records; the objects of the contract class are created and filled by the tasks of a {@link ForkJoinPool} in parallel with
+     * the reading. The records are returned in the order of the cursor. Contract classes with a generated mapper and
+     * writing to disk ({@link #setSpillThreshold(int)}) are mapped by the reading thread. The previous pool is shut down.
+     * (Включает параллельное отображение записей {@link #executeReturnedOnlyOneCursor(Object...)}. Курсор по-прежнему читается
+     * одним потоком, который только читает значения колонок и собирает их в порции по {@link #setMappingChunkSize(int)}
+     * записей; объекты класса-контракта создаются и заполняются задачами {@link ForkJoinPool} параллельно с чтением.
+     * Записи возвращаются в порядке курсора. Классы-контракты со сгенерированным отображением и запись на диск
+     * ({@link #setSpillThreshold(int)}) отображаются читающим потоком. Предыдущий пул останавливается.)
      * 
      * @author Nikita Chistousov (chistousov.nik@yandex.ru)
      * @since 8
-     * @see <a href=
-     *      "https://docs.oracle.com/javase/8/docs/technotes/guides/jdbc/">JDBC</a>
-     * @see java.sql.ResultSet
+     * @see #setMappingChunkSize(int)
      * 
-     * @param toCast what do we transform (к чему преобразуем)
-     * @param rs current cursor entry(текущая запись курсора)
-     * @param columnName column in cursor entry(колонка в записи курсора)
-     * @throws SQLException error when converting from JDBC type to JAVA type
-     */
-    private Object castFromDBToJava(Class<?> toCast, ResultSet rs, String columnName) throws SQLException {
-        if (toCast.equals(short.class)) {
-            return rs.getShort(columnName);
-        } else if (toCast.equals(int.class)) {
-            return rs.getInt(columnName);
-        } else if (toCast.equals(long.class)) {
-            return rs.getLong(columnName);
-        } else if (toCast.equals(Short.class)) {
-            return rs.getShort(columnName);
-        } else if (toCast.equals(Integer.class)) {
-            return rs.getInt(columnName);
-        } else if (toCast.equals(Long.class)) {
-            return rs.getLong(columnName);
-        } else if (toCast.equals(LocalDate.class)) {
-			java.sql.Date date = rs.getDate(columnName);
-            return date == null ? null : date.toLocalDate();
-        } else if (toCast.equals(LocalTime.class)) {
-			java.sql.Time time = rs.getTime(columnName);
-            return time == null ? null : time.toLocalTime();
-        } else if (toCast.equals(LocalDateTime.class)) {
-			java.sql.Timestamp datetime = rs.getTimestamp(columnName);
-            return datetime == null ? null : datetime.toLocalDateTime();
-        } else if (toCast.equals(String.class)) {
-            return rs.getString(columnName);
-        } else if (toCast.equals(Double.class)) {
-            return Double.valueOf(rs.getString(columnName));
-        } else if (toCast.equals(double.class)) {
-            return Double.valueOf(rs.getString(columnName));
-        } else if (toCast.equals(Boolean.class)) {
-            return rs.getBoolean(columnName);
-        } else if (toCast.equals(boolean.class)) {
-            return rs.getBoolean(columnName);
-        } else {
-            return rs.getObject(columnName);
+     * @param mappingParallelism number of mapping threads, 1 - records are mapped by the reading thread (количество потоков отображения, 1 - записи отображаются читающим потоком)
+     */
+    public synchronized void setMappingParallelism(int mappingParallelism) {
+        if (mappingParallelism < 1) {
+            throw new IllegalArgumentException("mappingParallelism < 1");
+        }
+        ForkJoinPool previous = this.mappingPool;
+        this.mappingPool = mappingParallelism == 1 ? null : new ForkJoinPool(mappingParallelism);
+        if (previous != null) {
+            // the submitted chunks are still mapped, the rest of the calls in progress are mapped by their reading threads
+            // отправленные порции еще отображаются, остаток выполняющихся вызовов отображается их читающими потоками
+            previous.shutdown();
         }
-        
     }
 
     /**
-     * The function converts the object to the desired type
-     * (Функция преобразует объект к нужному типу)
      * 
-     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
-     * @since 8
-     * @see <a href=
-     *      "https://docs.oracle.com/javase/8/docs/technotes/guides/jdbc/">JDBC</a>
-     * @see java.sql.ResultSet
+     * @return number of mapping threads, 1 - records are mapped by the reading thread (количество потоков отображения, 1 - записи отображаются читающим потоком)
+     */
+    public int getMappingParallelism() {
+        ForkJoinPool pool = this.mappingPool;
+        return pool == null ? 1 : pool.getParallelism();
+    }
+
+    /**
      * 
-     * @param toCast what do we transform (к чему преобразуем)
-     * @param obj what we transform (что преобразуем)
-     * @throws SQLException when converting
-     */
-    private Object castFromDBOutParamToJava(Class<?> toCast, Object obj) {
-		if(obj == null){
-			return null; 	
-		} else if (toCast.equals(short.class)) {
-            return Short.valueOf(obj.toString());
-        } else if (toCast.equals(int.class)) {
-            return Integer.valueOf(obj.toString());
-        } else if (toCast.equals(long.class)) {
-            return Long.valueOf(obj.toString());
-        } else if (toCast.equals(Short.class)) {
-            return Short.valueOf(obj.toString());
-        } else if (toCast.equals(Integer.class)) {
-            return Integer.valueOf(obj.toString());
-        } else if (toCast.equals(Long.class)) {
-            return Long.valueOf(obj.toString());
-        } else if (toCast.equals(LocalDate.class)) {
-            return ((java.sql.Date) obj).toLocalDate();
-        } else if (toCast.equals(LocalTime.class)) {
-            return ((java.sql.Time) obj).toLocalTime();
-        } else if (toCast.equals(LocalDateTime.class)) {
-            return ((java.sql.Timestamp) obj).toLocalDateTime();
-        } else if (toCast.equals(String.class)) {
-            return obj.toString();
-        } else if (toCast.equals(Double.class)) {
-            return Double.valueOf(obj.toString());
-        } else if (toCast.equals(double.class)) {
-            return Double.valueOf(obj.toString());
-        } else if (toCast.equals(Boolean.class)) {
-            return Boolean.valueOf(obj.toString());
-        } else if (toCast.equals(boolean.class)) {
-            return Boolean.valueOf(obj.toString());
-        } else {
-            return obj;
+     * @param mappingChunkSize number of records mapped by one task, by default 1024 (количество записей, отображаемых одной задачей, по умолчанию 1024)
+     */
+    public void setMappingChunkSize(int mappingChunkSize) {
+        if (mappingChunkSize < 1) {
+            throw new IllegalArgumentException("mappingChunkSize < 1");
         }
+        this.mappingChunkSize = mappingChunkSize;
     }
 
     /**
      * 
-     * The function returns a {@link RowMapper} that maps the cursor to a {@link List} of class objects (classCursorDefinition)
-     * (Функция возвращает {@link RowMapper}, который отображает курсор в {@link List} объектов класса (classCursorDefinition))
+     * @return number of records mapped by one task (количество записей, отображаемых одной задачей)
+     */
+    public int getMappingChunkSize() {
+        return mappingChunkSize;
+    }
+
+    /**
+     * 
+     * Sets the receiver of the metrics of the calls: counts of calls and errors, calls in progress, duration of getting the
+     * connection, of execution in the database and of mapping into the contract class, number of mapped cursor records.
+     * The metrics are recorded for the calls that go to the database; the lazy cursors ({@link #executeCursorAsIterator(Object...)},
+     * {@link #executeCursorAsStream(Object...)}, {@link #executeCursorAsPublisher(Object...)}) are read at the pace of the
+     * consumer and are not measured.
+     * (Задает получателя метрик вызовов: количества вызовов и ошибок, выполняющиеся вызовы, длительность получения подключения,
+     * выполнения в БД и отображения в класс-контракт, количество отображенных записей курсора. Метрики записываются для
+     * вызовов, которые идут в БД; ленивые курсоры ({@link #executeCursorAsIterator(Object...)},
+     * {@link #executeCursorAsStream(Object...)}, {@link #executeCursorAsPublisher(Object...)}) читаются в темпе потребителя
+     * и не измеряются.)
      * 
      * @author Nikita Chistousov (chistousov.nik@yandex.ru)
      * @since 8
-     * @see <a href=
-     *      "https://docs.oracle.com/javase/8/docs/technotes/guides/jdbc/">JDBC</a>
-     * @see java.sql.ResultSet
+     * @see InMemoryMetricsRegistry
      * 
-     * @param classCursorDefinition the class whose object is being created (класс, объект которого создается)
-     * @param mainClassDefinition main class if classCursorDefinition is nested. May be null (главный класс, если classCursorDefinition является вложенным. Может быть null)
+     * @param metricsRegistry receiver of the metrics, null - the calls are not measured (получатель метрик, null - вызовы не измеряются)
+     */
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    /**
+     * 
+     * @return receiver of the metrics or null (получатель метрик или null)
+     */
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    /**
+     * 
+     * @return name of the program unit in the metrics: schema.name (имя программного юнита в метриках: schema.name)
+     */
+    public String getMetricsName() {
+        return metricsName;
+    }
+
+    /**
+     * 
+     * Enables coalescing of concurrent calls of {@link #executeReturnedOnlyOneNonCursor(Object...)},
+     * {@link #executeReturnedOnlyOneCursor(Object...)} and {@link #executeReturnedSeveralOutParams(Object...)}: while a call
+     * with some input parameters is in progress, calls with equal parameters do not go to the database, but wait for it and
+     * receive its result or its exception. A list of records is then returned unmodifiable and the same objects of records
+     * are returned to all callers. Only for program units that do not change data. A cursor read with
+     * {@link #setSpillThreshold(int)} is not coalesced.
+     * (Включает объединение конкурентных вызовов {@link #executeReturnedOnlyOneNonCursor(Object...)},
+     * {@link #executeReturnedOnlyOneCursor(Object...)} и {@link #executeReturnedSeveralOutParams(Object...)}: пока выполняется
+     * вызов с какими-то входными параметрами, вызовы с равными параметрами не идут в БД, а ждут его и получают его результат
+     * или его исключение. Список записей тогда возвращается неизменяемым, и всем вызывающим возвращаются одни и те же объекты
+     * записей. Только для программных юнитов, которые не изменяют данные. Курсор, читаемый с {@link #setSpillThreshold(int)},
+     * не объединяется.)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see #getCollapsedCallCount()
+     * 
+     * @param coalescing true - coalesce concurrent calls (true - объединять конкурентные вызовы)
+     */
+    public void setCoalescing(boolean coalescing) {
+        this.coalescing = coalescing;
+    }
+
+    /**
+     * 
+     * @return true if concurrent calls are coalesced (true, если конкурентные вызовы объединяются)
+     */
+    public boolean isCoalescing() {
+        return coalescing;
+    }
+
+    /**
+     * 
+     * @return number of calls that did not go to the database and received the result of another call in progress
+     *         (количество вызовов, которые не пошли в БД и получили результат другого выполняющегося вызова)
+     */
+    public long getCollapsedCallCount() {
+        return collapsedCallCount.sum();
+    }
+
+    /**
+     * 
+     * Enables the cache of prepared statements: the calls on a connection reuse the {@link java.sql.CallableStatement} prepared
+     * by the previous calls on it instead of preparing the call string again. Useful when the pool or the driver does not cache
+     * statements. The connections of Spring transactions are used without the cache.
+     * (Включает кэш подготовленных выражений: вызовы на подключении повторно используют {@link java.sql.CallableStatement},
+     * подготовленное предыдущими вызовами на нем, вместо повторной подготовки строки вызова. Полезно, когда пул или драйвер
+     * не кэширует выражения. Подключения транзакций Spring используются без кэша.)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see StatementCache
+     * 
+     * @param statementCache cache of statements. Null disables caching (кэш выражений. Null отключает кэширование)
+     */
+    public void setStatementCache(StatementCache statementCache) {
+        this.dataSource.setStatementCache(statementCache);
+    }
+
+    /**
+     * 
+     * @return cache of statements or null (кэш выражений или null)
+     */
+    public StatementCache getStatementCache() {
+        return dataSource.getStatementCache();
+    }
+
+    /**
+     * 
+     * The function reads the metadata of the program unit and prepares the call in advance. Otherwise this is done by the first
+     * call, under the monitor of {@link org.springframework.jdbc.core.simple.SimpleJdbcCall#compile()}, which also pins
+     * the virtual thread for the time of reading the metadata. After compilation, the call path has no monitors of the library.
+     * (Функция заранее читает метаданные программного юнита и подготавливает вызов. Иначе это делает первый вызов,
+     * под монитором {@link org.springframework.jdbc.core.simple.SimpleJdbcCall#compile()}, который к тому же закрепляет
+     * виртуальный поток на время чтения метаданных. После компиляции на пути вызова нет мониторов библиотеки.)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @throws Exception metadata error (ошибка метаданных)
+     */
+    public void compile() throws Exception {
+        try {
+            this.programUnit.compile();
+        } catch (DataAccessException e) {
+            throw unwrapMappingException(e);
+        }
+    }
+
+    //------------------------------------------------------------------------
+    //  call block
+    //  блок вызова
+    //------------------------------------------------------------------------
+    /**
+     * 
+     * The function is called only for a stored procedure with no output parameters (Функция вызывается только для хранимой процедуры без выходных параметров)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see <a href=
+     *      "https://docs.oracle.com/javase/8/docs/technotes/guides/jdbc/">JDBC</a>
+     * @see javax.sql.DataSource
+     * 
+     * @param params input parameters (входные параметры)
+     * @throws Exception runtime error
+     */
+    public void executeWithoutOutParameters(Object... params) throws Exception {
+
+        if (this.clazzOutParameters != null) {
+            throw new Exception(FUNCTION_UNDEFINED_MESSAGE);
+        }
+        observe("executeWithoutOutParameters", () -> this.programUnit.execute(params));
+    }
+
+    /**
+     * 
+     * The function is called only for a stored procedure with no output parameters. All rows of input parameters are sent
+     * in one batch on one connection instead of a separate call for each row.
+     * (Функция вызывается только для хранимой процедуры без выходных параметров. Все строки входных параметров
+     * отправляются одним пакетом на одном подключении вместо отдельного вызова для каждой строки.)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see java.sql.CallableStatement#executeBatch()
+     * 
+     * @param paramRows rows of input parameters (строки входных параметров)
+     * @throws Exception runtime error
+     * @return update counts of the batch (количество измененных записей пакета)
+     */
+    public int[][] executeBatch(List<Object[]> paramRows) throws Exception {
+        Objects.requireNonNull(paramRows, "paramRows");
+
+        return executeBatch(paramRows.iterator(), Math.max(paramRows.size(), 1));
+    }
+
+    /**
+     * 
+     * The function is called only for a stored procedure with no output parameters. Rows of input parameters are taken from
+     * the iterator as they are sent, so they do not have to be in memory at the same time. All batches are sent on one connection.
+     * Outside of a transaction all the batches are applied in one transaction: an error of any row rolls back all the rows.
+     * (Функция вызывается только для хранимой процедуры без выходных параметров. Строки входных параметров берутся
+     * из итератора по мере отправки, поэтому им не нужно одновременно находиться в памяти. Все пакеты отправляются
+     * на одном подключении. Вне транзакции все пакеты применяются в одной транзакции: ошибка любой строки откатывает
+     * все строки.)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see java.sql.CallableStatement#executeBatch()
+     * 
+     * @param paramRows rows of input parameters (строки входных параметров)
+     * @param batchSize number of rows in one batch (количество строк в одном пакете)
+     * @throws Exception runtime error
+     * @return update counts of each batch (количество измененных записей каждого пакета)
+     */
+    public int[][] executeBatch(Iterator<Object[]> paramRows, int batchSize) throws Exception {
+        Objects.requireNonNull(paramRows, "paramRows");
+
+        if (this.clazzOutParameters != null) {
+            throw new Exception(FUNCTION_UNDEFINED_MESSAGE);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize <= 0");
+        }
+        return observe("executeBatch", () -> this.programUnit.executeBatch(paramRows, batchSize));
+    }
+    
+    /**
+     * 
+     * The function is called only for a stored procedure or for a stored function with non-cursor input parameters 
+     * (Функция вызывается только для хранимой процедуры или для хранимой функции с некурсорными входными параметрами)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see <a href=
+     *      "https://docs.oracle.com/javase/8/docs/technotes/guides/jdbc/">JDBC</a>
+     * @see javax.sql.DataSource
+     * 
+     * @param params input parameters (входные параметры)
+     * @throws Exception runtime error
+     * @return returns a non-cursor value (возвращает не курсорное значение)
+     */
+    public T executeReturnedOnlyOneNonCursor(Object... params) throws Exception {
+
+        if (this.clazzOutParameters == null) {
+            throw new Exception(FUNCTION_UNDEFINED_MESSAGE);
+        }
+        return invoke("executeReturnedOnlyOneNonCursor", params, () -> callReturnedOnlyOneNonCursor(params));
+    }
+
+    @SuppressWarnings("unchecked")
+    private T callReturnedOnlyOneNonCursor(Object... params) throws Exception {
+
+        // the result is read from the call statement by index with a typed getter
+        // результат читается из выражения вызова по индексу типизированным геттером
+        int index = programUnit.getScalarOutParamIndex();
+        if (index > 0 && programUnit.isDirectCallSupported()) {
+            OutParamReader reader = this.scalarOutParamReader;
+            return (T) programUnit.executeDirect(statement -> reader.read(statement, index), params);
+        }
+
+        // the value of the driver is converted in the same way as an output parameter of the contract class
+        // значение драйвера преобразуется так же, как выходной параметр класса-контракта
+        return ContractMapperSupport.castOutParam(this.clazzOutParameters,
+                programUnit.executeFunction(Object.class, params));
+    }
+
+    /**
+     * 
+     * The function is called on a stored procedure or stored function with a single exit cursor that returns a list of values
+     * (Функция вызывается для хранимой процедуры или для хранимой функции с одним выходным курсором, который возвращает список значений)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see <a href=
+     *      "https://docs.oracle.com/javase/8/docs/technotes/guides/jdbc/">JDBC</a>
+     * @see javax.sql.DataSource
+     * 
+     * @param params input parameters (входные параметры)
+     * @throws Exception runtime error
+     * 
+     * @return records from the cursor
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> executeReturnedOnlyOneCursor(Object... params) throws Exception {
+
+        if (!this.isReturnedOnlyOneCursor) {
+            throw new Exception(FUNCTION_UNDEFINED_MESSAGE);
+        }
+
+        // the cursor of writing to disk and of the parallel mapping is opened by openCursor, which also takes the cursor
+        // returned as a result set of the call (for example, H2)
+        // курсор записи на диск и параллельного отображения открывается openCursor, который также берет курсор,
+        // возвращаемый как набор строк вызова (например, H2)
+        int threshold = this.spillThreshold;
+        if (threshold > 0) {
+            // each caller receives its own list, which may be on disk and is closed by the caller, so the list is not
+            // shared through the cache of results and coalescing
+            // каждый вызывающий получает свой список, который может быть на диске и закрывается вызывающим, поэтому список
+            // не разделяется через кэш результатов и объединение вызовов
+            return observe("executeReturnedOnlyOneCursor", () -> readCursorWithSpill(threshold, params));
+        }
+
+        return invoke("executeReturnedOnlyOneCursor", params, () -> {
+            List<T> reList;
+
+            ForkJoinPool pool = this.mappingPool;
+            if (pool != null && cursorRowMapper instanceof CursorRowMapper) {
+                reList = readCursorInParallel(pool, params);
+            } else if (!programUnit.isDirectCallSupported()) {
+                // the cursor is returned as a result set of the call (for example, H2), not as an output parameter
+                // курсор возвращается как набор строк вызова (например, H2), а не как выходной параметр
+                try {
+                    reList = (List<T>) programUnit.execute(params).get(cursorName);
+                } catch (DataAccessException e) {
+                    throw unwrapMappingException(e);
+                }
+            } else {
+                try {
+                    reList = programUnit.executeFunction((new ArrayList<>()).getClass(), params);
+                } catch (DataAccessException e) {
+                    throw unwrapMappingException(e);
+                }
+            }
+
+            // the list is shared by all callers of the cache or of the coalesced call
+            // список разделяется всеми вызывающими кэша или объединенного вызова
+            return resultCache == null && !coalescing ? reList : Collections.unmodifiableList(reList);
+        });
+    }
+
+    /**
+     * 
+     * The function reads the cursor into memory, and after threshold records - into a temporary file
+     * (Функция читает курсор в память, а после threshold записей - во временный файл)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param threshold number of records in memory (количество записей в памяти)
+     * @param params input parameters (входные параметры)
+     * @return list in memory or {@link SpillingList} (список в памяти или {@link SpillingList})
+     * @throws Exception runtime error
+     */
+    private List<T> readCursorWithSpill(int threshold, Object... params) throws Exception {
+        List<T> records = new ArrayList<>();
+        SpillingList.Writer<T> writer = null;
+        try (CursorIterator<T> iterator = executeCursorAsIterator(params)) {
+            while (iterator.hasNext()) {
+                T record = iterator.next();
+                if (writer == null && records.size() < threshold) {
+                    records.add(record);
+                    continue;
+                }
+                if (writer == null) {
+                    // the records in memory are moved to disk
+                    // записи из памяти переносятся на диск
+                    writer = new SpillingList.Writer<>(recordCodec(), spillDirectory);
+                    for (T recordInMemory : records) {
+                        writer.add(recordInMemory);
+                    }
+                    records = null;
+                }
+                writer.add(record);
+            }
+            return writer == null ? records : writer.finish();
+        } catch (DataAccessException e) {
+            if (writer != null) {
+                writer.close();
+            }
+            throw unwrapMappingException(e);
+        } catch (Exception e) {
+            if (writer != null) {
+                writer.close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 
+     * The function reads the values of the cursor columns in the calling thread and maps the chunks of records into objects
+     * of the contract class on the pool
+     * (Функция читает значения колонок курсора в вызывающем потоке и отображает порции записей в объекты класса-контракта
+     * на пуле)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param pool pool of the mapping (пул отображения)
+     * @param params input parameters (входные параметры)
+     * @return records in the order of the cursor (записи в порядке курсора)
+     * @throws Exception runtime error
+     */
+    @SuppressWarnings("unchecked")
+    private List<T> readCursorInParallel(ForkJoinPool pool, Object... params) throws Exception {
+        int chunkSize = this.mappingChunkSize;
+        CursorRowMapper rowMapper = (CursorRowMapper) cursorRowMapper;
+        ValuesRowMapper valuesRowMapper = new ValuesRowMapper(rowMapper);
+
+        // chunks in the order of the cursor
+        // порции в порядке курсора
+        List<ForkJoinTask<Object[]>> chunks = new ArrayList<>();
+        int size = 0;
+        // time of the mapping tasks for the metrics
+        // время задач отображения для метрик
+        CallTimer timer = CallTimer.current();
+        LongAdder mappingNanos = timer == null ? null : new LongAdder();
+        try {
+            try (CursorIterator<Object[]> iterator = programUnit.openCursor(cursorName, valuesRowMapper, fetchSize,
+                    params)) {
+                Object[] chunk = new Object[chunkSize];
+                int count = 0;
+                while (iterator.hasNext()) {
+                    chunk[count++] = iterator.next();
+                    if (count == chunkSize) {
+                        chunks.add(submit(pool, mappingTask(rowMapper, valuesRowMapper.plan, chunk, mappingNanos)));
+                        size += count;
+                        chunk = new Object[chunkSize];
+                        count = 0;
+                    }
+                }
+                if (count > 0) {
+                    chunks.add(submit(pool, mappingTask(rowMapper, valuesRowMapper.plan, Arrays.copyOf(chunk, count),
+                            mappingNanos)));
+                    size += count;
+                }
+            }
+
+            List<T> records = new ArrayList<>(size);
+            for (ForkJoinTask<Object[]> chunk : chunks) {
+                records.addAll((List<T>) (List<?>) Arrays.asList(chunk.get()));
+            }
+            if (timer != null) {
+                timer.addMapping(mappingNanos.sum(), size);
+            }
+            return records;
+        } catch (DataAccessException e) {
+            cancel(chunks);
+            throw unwrapMappingException(e);
+        } catch (ExecutionException e) {
+            cancel(chunks);
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (Exception e) {
+            cancel(chunks);
+            throw e;
+        }
+    }
+
+    // the chunk of values of the columns is replaced with the objects of the contract class
+    // порция значений колонок заменяется объектами класса-контракта
+    private static Callable<Object[]> mappingTask(CursorRowMapper rowMapper, MappingPlan plan, Object[] chunk,
+            LongAdder mappingNanos) {
+        return () -> {
+            long start = mappingNanos == null ? 0 : System.nanoTime();
+            for (int i = 0; i < chunk.length; i++) {
+                chunk[i] = rowMapper.populate(plan, (Object[]) chunk[i]);
+            }
+            if (mappingNanos != null) {
+                mappingNanos.add(System.nanoTime() - start);
+            }
+            return chunk;
+        };
+    }
+
+    // the pool shut down by setMappingParallelism rejects new chunks, they are mapped by the reading thread
+    // пул, остановленный setMappingParallelism, отклоняет новые порции, они отображаются читающим потоком
+    private static ForkJoinTask<Object[]> submit(ForkJoinPool pool, Callable<Object[]> mappingTask) {
+        try {
+            return pool.submit(mappingTask);
+        } catch (RejectedExecutionException e) {
+            ForkJoinTask<Object[]> chunk = ForkJoinTask.adapt(mappingTask);
+            chunk.quietlyInvoke();
+            return chunk;
+        }
+    }
+
+    private static void cancel(List<ForkJoinTask<Object[]>> chunks) {
+        for (ForkJoinTask<Object[]> chunk : chunks) {
+            chunk.cancel(false);
+        }
+    }
+
+    private RecordCodec<T> recordCodec() throws Exception {
+        RecordCodec<T> codec = this.recordCodec;
+        if (codec == null) {
+            codec = new FieldRecordCodec<>(clazzOutParameters);
+            this.recordCodec = codec;
+        }
+        return codec;
+    }
+
+    /**
+     * Function called on a stored procedure or stored function with a single exit cursor that returns a single value
+     * (Функция вызывается для хранимой процедуры или для хранимой функции с одним выходным курсором, который возвращает одно значение)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see <a href=
+     *      "https://docs.oracle.com/javase/8/docs/technotes/guides/jdbc/">JDBC</a>
+     * @see javax.sql.DataSource
+     * 
+     * @param params input parameters (входные параметры)
+     * @throws Exception runtime error
+     * 
+     * @return records from the cursor
+     */
+    public T executeReturnedOnlyOneCursorFirstRecord(Object... params) throws Exception {
+
+        List<T> records = executeReturnedOnlyOneCursor(params);
+
+        return records.isEmpty() ? null : records.get(0);
+    }
+
+    /**
+     * 
+     * The function is called on a stored procedure or stored function with a single exit cursor. Unlike
+     * {@link #executeReturnedOnlyOneCursor(Object...)}, the records are not collected into a list: each record is read from
+     * the database and mapped only when the iterator is moved. The iterator must be closed (for example, with try-with-resources);
+     * after the last record it is closed automatically.
+     * (Функция вызывается для хранимой процедуры или для хранимой функции с одним выходным курсором. В отличие от
+     * {@link #executeReturnedOnlyOneCursor(Object...)}, записи не собираются в список: каждая запись читается из БД
+     * и отображается только при движении итератора. Итератор нужно закрыть (например, через try-with-resources);
+     * после последней записи он закрывается автоматически.)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see #setFetchSize(int)
+     * @see CursorIterator
+     * 
+     * @param params input parameters (входные параметры)
+     * @throws Exception runtime error
+     * 
+     * @return iterator over the records of the cursor (итератор по записям курсора)
+     */
+    @SuppressWarnings("unchecked")
+    public CursorIterator<T> executeCursorAsIterator(Object... params) throws Exception {
+
+        if (!this.isReturnedOnlyOneCursor) {
+            throw new Exception(FUNCTION_UNDEFINED_MESSAGE);
+        }
+
+        try {
+            return programUnit.openCursor(cursorName, (RowMapper<T>) cursorRowMapper, fetchSize, params);
+        } catch (DataAccessException e) {
+            throw unwrapMappingException(e);
+        }
+    }
+
+    /**
+     * 
+     * The function is the same as {@link #executeCursorAsIterator(Object...)}, but returns a lazy {@link Stream}.
+     * The stream must be closed (for example, with try-with-resources).
+     * (Функция аналогична {@link #executeCursorAsIterator(Object...)}, но возвращает ленивый {@link Stream}.
+     * Поток нужно закрыть (например, через try-with-resources).)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see #setFetchSize(int)
+     * 
+     * @param params input parameters (входные параметры)
+     * @throws Exception runtime error
+     * 
+     * @return stream of the records of the cursor (поток записей курсора)
+     */
+    public Stream<T> executeCursorAsStream(Object... params) throws Exception {
+
+        CursorIterator<T> iterator = executeCursorAsIterator(params);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * 
+     * The function is called on a stored procedure or stored function with a single exit cursor. The records are not mapped
+     * into objects of the contract class: the cursor is read in one pass into primitive arrays of columns, which takes much less
+     * memory and is convenient for aggregation.
+     * (Функция вызывается для хранимой процедуры или для хранимой функции с одним выходным курсором. Записи не отображаются
+     * в объекты класса-контракта: курсор за один проход читается в примитивные массивы колонок, что занимает намного меньше
+     * памяти и удобно для агрегации.)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see ColumnarResult
+     * @see #setFetchSize(int)
+     * 
+     * @param params input parameters (входные параметры)
+     * @throws Exception runtime error
+     * 
+     * @return columns of the cursor (колонки курсора)
+     */
+    public ColumnarResult executeCursorColumnar(Object... params) throws Exception {
+
+        if (!this.isReturnedOnlyOneCursor) {
+            throw new Exception(FUNCTION_UNDEFINED_MESSAGE);
+        }
+
+        return observe("executeCursorColumnar", () -> {
+            ColumnarResult.Builder builder = new ColumnarResult.Builder();
+            try (CursorIterator<Object> iterator = programUnit.openCursor(cursorName, builder, fetchSize, params)) {
+                builder.init(iterator.getMetaData());
+                while (iterator.hasNext()) {
+                    iterator.next();
+                }
+            } catch (DataAccessException e) {
+                throw unwrapMappingException(e);
+            }
+            return builder.build();
+        });
+    }
+
+    /**
+     * 
+     * The function is called on a stored procedure or stored function with a single exit cursor and returns a Reactive Streams
+     * {@link Publisher}. The program unit is called for each subscriber; records are read from the database only as the
+     * subscriber requests them, and the reads are performed on the executor {@link #setExecutor(Executor)}. The executor is
+     * shared with the *Async methods; a subscription holds its thread only while it reads a batch of records.
+     * (Функция вызывается для хранимой процедуры или для хранимой функции с одним выходным курсором и возвращает
+     * Reactive Streams {@link Publisher}. Программный юнит вызывается для каждого подписчика; записи читаются из БД только
+     * по мере запроса подписчиком, а чтение выполняется на исполнителе {@link #setExecutor(Executor)}. Исполнитель общий
+     * с методами *Async; подписка занимает его поток, только пока читает пакет записей.)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see <a href="https://www.reactive-streams.org/">Reactive Streams</a>
+     * @see #setFetchSize(int)
+     * 
+     * @param params input parameters (входные параметры)
+     * @throws Exception runtime error
+     * 
+     * @return publisher of the records of the cursor (издатель записей курсора)
+     */
+    public Publisher<T> executeCursorAsPublisher(Object... params) throws Exception {
+
+        if (!this.isReturnedOnlyOneCursor) {
+            throw new Exception(FUNCTION_UNDEFINED_MESSAGE);
+        }
+
+        return new CursorPublisher<>(() -> executeCursorAsIterator(params), executor);
+    }
+
+    /**
+     * Function called on a stored procedure or stored function with many different output parameters
+     * (Функция вызывается для хранимой процедуры или для хранимой функции с множеством различных выходных параметров)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see <a href=
+     *      "https://docs.oracle.com/javase/8/docs/technotes/guides/jdbc/">JDBC</a>
+     * @see javax.sql.DataSource
+     * 
+     * @param params input parameters (входные параметры)
+     * @throws Exception runtime error
+     * @return output parameters (выходные параметры)
+     */
+    public T executeReturnedSeveralOutParams(Object... params) throws Exception {
+        if (!this.isReturnedSeveralOutParam) {
+            throw new Exception(FUNCTION_UNDEFINED_MESSAGE);
+        }
+        return invoke("executeReturnedSeveralOutParams", params, () -> callReturnedSeveralOutParams(params));
+    }
+
+    @SuppressWarnings("unchecked")
+    private T callReturnedSeveralOutParams(Object... params) throws Exception {
+
+        // the output parameters are read from the call statement by index straight into the contract object
+        // выходные параметры читаются из выражения вызова по индексу прямо в объект-контракт
+        if (programUnit.isDirectCallSupported()) {
+            if (this.outParamsContractMapper != null) {
+                ContractOutParamsPlan plan = contractOutParamsPlan();
+                Object[] values = executeDirect(plan::read, params);
+                return mapping(() -> this.outParamsContractMapper.mapOutParams(values, plan.isInCall));
+            }
+            OutParamsPlan plan = outParamsPlan();
+            if (outParamsInstantiator == null) {
+                throw new Exception("У класса " + clazzOutParameters.getCanonicalName() + " нет конструкторов");
+            }
+            Object[] values = executeDirect(plan::read, params);
+            return clazzOutParameters.cast(mapping(() -> plan.populate(outParamsInstantiator, values)));
+        }
+
+        Map<String, Object> outParams;
+        try {
+            outParams = programUnit.execute(params);
+        } catch (DataAccessException e) {
+            throw unwrapMappingException(e);
+        }
+
+        return mapping(() -> mapOutParams(outParams));
+    }
+
+    /**
+     * 
+     * The function performs the call and reads the output parameters from the call statement by index
+     * (Функция выполняет вызов и читает выходные параметры из выражения вызова по индексу)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param reader reading of the output parameters (чтение выходных параметров)
+     * @param params input parameters (входные параметры)
+     * @return values of the output parameters (значения выходных параметров)
+     * @throws Exception call error or {@link ProgramUnitMappingException} of a cursor
+     *                   (ошибка вызова или {@link ProgramUnitMappingException} курсора)
+     */
+    private Object[] executeDirect(ProgramUnitCall.OutParamsReader<Object[]> reader, Object... params) throws Exception {
+        Object[] values;
+        try {
+            values = programUnit.executeDirect(reader, params);
+        } catch (DataAccessException e) {
+            throw unwrapMappingException(e);
+        }
+        CallTimer timer = CallTimer.current();
+        if (timer != null) {
+            timer.addBytes(values);
+        }
+        return values;
+    }
+
+    /**
+     * 
+     * The function maps the output parameters returned by {@link org.springframework.jdbc.core.simple.SimpleJdbcCall} into the contract class
+     * (Функция отображает выходные параметры, возвращенные {@link org.springframework.jdbc.core.simple.SimpleJdbcCall}, в класс-контракт)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param outParams output parameters by name (выходные параметры по имени)
+     * @return object of the contract class (объект класса-контракта)
+     * @throws Exception mapping error (ошибка отображения)
+     */
+    private T mapOutParams(Map<String, Object> outParams) throws Exception {
+
+        if (this.outParamsContractMapper != null) {
+            return this.outParamsContractMapper.mapOutParams(outParams);
+        }
+
+        // create an object of the type using the default constructor
+        // создаем объект типа с помощью конструктора по умл
+        if (outParamsInstantiator == null) {
+            throw new Exception("У класса " + clazzOutParameters.getCanonicalName() + " нет конструкторов");
+        }
+        Object objOutParams;
+        try {
+            objOutParams = (Object) outParamsInstantiator.invokeExact();
+        } catch (Exception e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new Exception(e);
+        }
+
+        // methods already invoked: a method is invoked once for all of its output parameters
+        // уже вызванные методы: метод вызывается один раз для всех своих выходных параметров
+        Set<Method> invokedMethods = new HashSet<>();
+
+        // running through the fields
+        // пробегаем по полям
+        for (Map.Entry<String,Object> outParam : outParams.entrySet()) {
+
+            String outParamName = outParam.getKey().toUpperCase();
+
+            // if this field
+            // если это поле
+            if (this.mappingOutParamToField.containsKey(outParamName)) {
+                Field fieldClass = this.mappingOutParamToField.get(outParamName);
+
+                // get the value from the column and convert it to the field type
+                // получаем значение со столбца и преобразуем его к типу поля
+                try {
+                    this.outParamFieldWriters.get(outParamName).invokeExact(objOutParams,
+                            ContractMapperSupport.castOutParam(fieldClass.getType(), outParam.getValue()));
+                } catch (Exception e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new Exception(e);
+                }
+
+            }
+            // if these are method parameters
+            // если это параметры метода
+            else if (this.mappingOutParamToMethod.containsKey(outParamName)) {
+                Method methodClass = this.mappingOutParamToMethod.get(outParamName);
+                if (!invokedMethods.add(methodClass)) {
+                    continue;
+                }
+                MethodAccessor methodAccessor = this.outParamMethodAccessors.get(methodClass);
+
+                Object[] paramsForInvoke = new Object[methodAccessor.parameterTypes.length];
+                for (int j = 0; j < paramsForInvoke.length; j++) {
+
+                    String columnAndParamName = methodAccessor.parameterNames[j];
+
+                    // we take the value from the row from the database, convert it to the type of the parameter
+                    // берем значение из строки с БД, преобразует к типу параметра
+                    paramsForInvoke[j] = ContractMapperSupport.castOutParam(methodAccessor.parameterTypes[j],
+                            outParams.get(columnAndParamName));
+
+                }
+
+                try {
+                    methodAccessor.invoker.invokeExact(objOutParams, paramsForInvoke);
+                } catch (Exception e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new Exception(e);
+                }
+
+            }
+
+        }
+
+        return clazzOutParameters.cast(objOutParams);
+    }
+
+    //------------------------------------------------------------------------
+    //  pipeline block
+    //  блок конвейера
+    //------------------------------------------------------------------------
+    /**
+     * 
+     * @return compiled call of the program unit (скомпилированный вызов программного юнита)
+     * @throws Exception metadata error (ошибка метаданных)
+     */
+    ProgramUnitCall getCompiledCall() throws Exception {
+        compile();
+        return this.programUnit;
+    }
+
+    /**
+     * 
+     * The function checks that the call method is defined for the program unit, as the call method itself does
+     * (Функция проверяет, что метод вызова определен для программного юнита, так же как это делает сам метод вызова)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see ProgramUnitPipeline
+     * 
+     * @param operation name of the call method (имя метода вызова)
+     * @throws Exception the call method is not defined (метод вызова не определен)
+     */
+    void checkOperation(String operation) throws Exception {
+        boolean isDefined;
+        switch (operation) {
+            case "executeWithoutOutParameters":
+                isDefined = this.clazzOutParameters == null;
+                break;
+            case "executeReturnedOnlyOneNonCursor":
+                isDefined = this.clazzOutParameters != null;
+                break;
+            case "executeReturnedOnlyOneCursor":
+                isDefined = this.isReturnedOnlyOneCursor;
+                break;
+            case "executeReturnedSeveralOutParams":
+                isDefined = this.isReturnedSeveralOutParam;
+                break;
+            default:
+                isDefined = false;
+                break;
+        }
+        if (!isDefined) {
+            throw new Exception(FUNCTION_UNDEFINED_MESSAGE);
+        }
+    }
+
+    /**
+     * 
+     * The function maps the output parameters of a call performed by {@link ProgramUnitPipeline} into the result of the call
+     * method: the value of a non-cursor, the records of the cursor or the object of the contract class
+     * (Функция отображает выходные параметры вызова, выполненного {@link ProgramUnitPipeline}, в результат метода вызова:
+     * некурсорное значение, записи курсора или объект класса-контракта)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see ProgramUnitPipeline
+     * 
+     * @param operation name of the call method (имя метода вызова)
+     * @param outParams output parameters by name in the order of the call, the cursors are lists of mapped records
+     *                  (выходные параметры по имени в порядке вызова, курсоры - списки отображенных записей)
+     * @return result of the call method (результат метода вызова)
+     * @throws Exception mapping error (ошибка отображения)
+     */
+    Object mapPipelined(String operation, Map<String, Object> outParams) throws Exception {
+        switch (operation) {
+            case "executeReturnedOnlyOneNonCursor": {
+                // the return value of a stored function or the only output parameter of a procedure
+                // возвращаемое значение хранимой функции или единственный выходной параметр процедуры
+                Iterator<Object> values = outParams.values().iterator();
+                Object value = values.hasNext() ? values.next() : null;
+                return ContractMapperSupport.castOutParam(this.clazzOutParameters, value);
+            }
+            case "executeReturnedOnlyOneCursor":
+                for (Object value : outParams.values()) {
+                    if (value instanceof List) {
+                        return value;
+                    }
+                }
+                return new ArrayList<T>();
+            case "executeReturnedSeveralOutParams":
+                return mapOutParams(outParams);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 
+     * The function performs the call through the cache of results and coalescing of concurrent calls, if they are enabled
+     * (Функция выполняет вызов через кэш результатов и объединение конкурентных вызовов, если они включены)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param <R> result type (тип результата)
+     * @param operation name of the call method (имя метода вызова)
+     * @param params input parameters (входные параметры)
+     * @param call call of the program unit (вызов программного юнита)
+     * @return result (результат)
+     * @throws Exception runtime error
+     */
+    private <R> R invoke(String operation, Object[] params, Callable<R> call) throws Exception {
+        ResultCache cache = this.resultCache;
+        boolean isCoalescing = this.coalescing;
+        // only the calls that go to the database are measured
+        // измеряются только вызовы, которые идут в БД
+        Callable<R> observedCall = () -> observe(operation, call);
+        if (cache == null && !isCoalescing) {
+            return observedCall.call();
+        }
+        CallKey key = new CallKey(operation, params);
+        Callable<R> databaseCall = isCoalescing ? () -> coalesce(key, observedCall) : observedCall;
+        return cache == null ? databaseCall.call() : cache.get(key, databaseCall);
+    }
+
+    /**
+     * 
+     * The function performs the call and passes its metrics to the registry {@link #setMetricsRegistry(MetricsRegistry)}
+     * and to the JFR event {@link ProgramUnitEvent}
+     * (Функция выполняет вызов и передает его метрики в реестр {@link #setMetricsRegistry(MetricsRegistry)}
+     * и в событие JFR {@link ProgramUnitEvent})
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param <R> result type (тип результата)
+     * @param operation name of the call method (имя метода вызова)
+     * @param call call of the program unit (вызов программного юнита)
+     * @return result (результат)
+     * @throws Exception runtime error
+     */
+    private <R> R observe(String operation, Callable<R> call) throws Exception {
+        MetricsRegistry registry = this.metricsRegistry;
+        Object event = ProgramUnitEvents.start();
+        if (registry == null && event == null) {
+            return call.call();
+        }
+        if (registry != null) {
+            registry.callStarted(metricsName);
+        }
+        CallTimer timer = CallTimer.start(event != null);
+        Throwable error = null;
+        try {
+            R result = call.call();
+            if (scalarOutParamReader != null) {
+                timer.addBytes(result);
+            }
+            return result;
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            timer.stop();
+            if (registry != null) {
+                registry.callFinished(metricsName, timer.getAcquireNanos(), timer.getExecuteNanos(),
+                        timer.getMappingNanos(), error != null);
+                if (isReturnedOnlyOneCursor || timer.getRows() > 0) {
+                    registry.rowsMapped(metricsName, timer.getRows());
+                }
+            }
+            if (event != null) {
+                ProgramUnitEvents.finish(event, eventName, operation, timer, error);
+            }
+        }
+    }
+
+    /**
+     * 
+     * The function performs the mapping of the results and adds its time to the current call
+     * (Функция выполняет отображение результатов и добавляет его время к текущему вызову)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param <R> result type (тип результата)
+     * @param mapping mapping of the results (отображение результатов)
+     * @return result (результат)
+     * @throws Exception mapping error (ошибка отображения)
+     */
+    private static <R> R mapping(Callable<R> mapping) throws Exception {
+        CallTimer timer = CallTimer.current();
+        if (timer == null) {
+            return mapping.call();
+        }
+        long start = System.nanoTime();
+        try {
+            return mapping.call();
+        } finally {
+            timer.addMapping(System.nanoTime() - start, 0);
+        }
+    }
+
+    /**
+     * 
+     * The function returns the plan of reading the output parameters of the compiled call into the contract class
+     * (Функция возвращает план чтения выходных параметров скомпилированного вызова в класс-контракт)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @return plan of reading the output parameters (план чтения выходных параметров)
+     */
+    private OutParamsPlan outParamsPlan() {
+        OutParamsPlan plan = this.outParamsPlan;
+        if (plan != null) {
+            return plan;
+        }
+
+        Map<String, Integer> indexes = programUnit.getOutParamIndexes();
+
+        // fields whose output parameters are in the call
+        // поля, выходные параметры которых есть в вызове
+        List<String> fieldNames = new ArrayList<>();
+        for (String outParamName : mappingOutParamToField.keySet()) {
+            if (indexes.containsKey(outParamName)) {
+                fieldNames.add(outParamName);
+            }
+        }
+        MethodHandle[] fieldWriters = new MethodHandle[fieldNames.size()];
+        OutParamReader[] fieldReaders = new OutParamReader[fieldNames.size()];
+        int[] fieldIndexes = new int[fieldNames.size()];
+        for (int i = 0; i < fieldNames.size(); i++) {
+            String outParamName = fieldNames.get(i);
+            fieldWriters[i] = outParamFieldWriters.get(outParamName);
+            fieldReaders[i] = outParamReader(outParamName, mappingOutParamToField.get(outParamName).getType());
+            fieldIndexes[i] = indexes.get(outParamName);
+        }
+
+        // methods for which at least one output parameter is in the call and is not taken by the field
+        // методы, для которых хотя бы один выходной параметр есть в вызове и не занят полем
+        List<Method> methods = new ArrayList<>();
+        for (Map.Entry<String, Method> entry : mappingOutParamToMethod.entrySet()) {
+            if (indexes.containsKey(entry.getKey())
+                    && !mappingOutParamToField.containsKey(entry.getKey())
+                    && !methods.contains(entry.getValue())) {
+                methods.add(entry.getValue());
+            }
+        }
+        MethodHandle[] methodInvokers = new MethodHandle[methods.size()];
+        OutParamReader[][] methodReaders = new OutParamReader[methods.size()][];
+        int[][] methodIndexes = new int[methods.size()][];
+        for (int i = 0; i < methods.size(); i++) {
+            MethodAccessor methodAccessor = outParamMethodAccessors.get(methods.get(i));
+            String[] outParamNames = methodAccessor.parameterNames;
+            methodInvokers[i] = methodAccessor.invoker;
+            methodReaders[i] = new OutParamReader[outParamNames.length];
+            methodIndexes[i] = new int[outParamNames.length];
+            for (int j = 0; j < outParamNames.length; j++) {
+                // the method parameter without an output parameter in the call gets null
+                // параметр метода без выходного параметра в вызове получает null
+                Integer index = indexes.get(outParamNames[j]);
+                methodReaders[i][j] = outParamReader(outParamNames[j], methodAccessor.parameterTypes[j]);
+                methodIndexes[i][j] = index == null ? 0 : index;
+            }
+        }
+
+        plan = new OutParamsPlan(fieldWriters, fieldReaders, fieldIndexes, methodInvokers, methodReaders, methodIndexes);
+        this.outParamsPlan = plan;
+        return plan;
+    }
+
+    /**
+     * 
+     * The function returns the plan of reading the output parameters of the compiled call for the generated
+     * {@link OutParamsContractMapper}
+     * (Функция возвращает план чтения выходных параметров скомпилированного вызова для сгенерированного
+     * {@link OutParamsContractMapper})
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @return plan of reading the output parameters (план чтения выходных параметров)
+     */
+    private ContractOutParamsPlan contractOutParamsPlan() {
+        ContractOutParamsPlan plan = this.contractOutParamsPlan;
+        if (plan != null) {
+            return plan;
+        }
+
+        Map<String, Integer> indexes = programUnit.getOutParamIndexes();
+        String[] outParamNames = outParamsContractMapper.getOutParamNames();
+        Class<?>[] outParamTypes = outParamsContractMapper.getOutParamTypes();
+        OutParamReader[] readers = new OutParamReader[outParamNames.length];
+        int[] outParamIndexes = new int[outParamNames.length];
+        boolean[] isInCall = new boolean[outParamNames.length];
+        for (int i = 0; i < outParamNames.length; i++) {
+            Integer index = indexes.get(outParamNames[i]);
+            readers[i] = outParamReader(outParamNames[i], outParamTypes[i]);
+            outParamIndexes[i] = index == null ? 0 : index;
+            isInCall[i] = index != null;
+        }
+
+        plan = new ContractOutParamsPlan(readers, outParamIndexes, isInCall);
+        this.contractOutParamsPlan = plan;
+        return plan;
+    }
+
+    private OutParamReader outParamReader(String outParamName, Class<?> type) {
+        RowMapper<?> rowMapper = outParamCursorRowMappers == null ? null : outParamCursorRowMappers.get(outParamName);
+        return rowMapper != null ? OutParamReaders.forCursor(rowMapper) : OutParamReaders.forType(type);
+    }
+
+    /**
+     * 
+     * The function performs the call or, if a call with the same key is already in progress, waits for its result
+     * (Функция выполняет вызов или, если вызов с тем же ключом уже выполняется, ждет его результата)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param <R> result type (тип результата)
+     * @param key call key (ключ вызова)
+     * @param call call of the program unit (вызов программного юнита)
+     * @return result (результат)
+     * @throws Exception error of the call, the same for all waiting callers (ошибка вызова, одна для всех ожидающих вызывающих)
+     */
+    @SuppressWarnings("unchecked")
+    private <R> R coalesce(CallKey key, Callable<R> call) throws Exception {
+        CompletableFuture<Object> inFlightCall = new CompletableFuture<>();
+        CompletableFuture<Object> existingCall = inFlightCalls.putIfAbsent(key, inFlightCall);
+
+        // the call is already in progress
+        // вызов уже выполняется
+        if (existingCall != null) {
+            collapsedCallCount.increment();
+            try {
+                return (R) existingCall.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
+
+        // new callers must not receive the completed result
+        // новые вызывающие не должны получить завершенный результат
+        try {
+            R result = call.call();
+            inFlightCalls.remove(key, inFlightCall);
+            inFlightCall.complete(result);
+            return result;
+        } catch (Throwable e) {
+            inFlightCalls.remove(key, inFlightCall);
+            inFlightCall.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+
+    //------------------------------------------------------------------------
+    //  asynchronous call block
+    //  блок асинхронного вызова
+    //------------------------------------------------------------------------
+    /**
+     * 
+     * Asynchronous {@link #executeWithoutOutParameters(Object...)} on the executor {@link #setExecutor(Executor)}
+     * (Асинхронный {@link #executeWithoutOutParameters(Object...)} на исполнителе {@link #setExecutor(Executor)})
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param params input parameters (входные параметры)
+     * @return completion of the call (завершение вызова)
+     */
+    public CompletableFuture<Void> executeWithoutOutParametersAsync(Object... params) {
+        return supplyAsync(() -> {
+            executeWithoutOutParameters(params);
+            return null;
+        });
+    }
+
+    /**
+     * 
+     * Asynchronous {@link #executeReturnedOnlyOneNonCursor(Object...)} on the executor {@link #setExecutor(Executor)}
+     * (Асинхронный {@link #executeReturnedOnlyOneNonCursor(Object...)} на исполнителе {@link #setExecutor(Executor)})
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param params input parameters (входные параметры)
+     * @return non-cursor value (некурсорное значение)
+     */
+    public CompletableFuture<T> executeReturnedOnlyOneNonCursorAsync(Object... params) {
+        return supplyAsync(() -> executeReturnedOnlyOneNonCursor(params));
+    }
+
+    /**
+     * 
+     * Asynchronous {@link #executeReturnedOnlyOneCursor(Object...)} on the executor {@link #setExecutor(Executor)}
+     * (Асинхронный {@link #executeReturnedOnlyOneCursor(Object...)} на исполнителе {@link #setExecutor(Executor)})
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param params input parameters (входные параметры)
+     * @return records from the cursor (записи курсора)
+     */
+    public CompletableFuture<List<T>> executeReturnedOnlyOneCursorAsync(Object... params) {
+        return supplyAsync(() -> executeReturnedOnlyOneCursor(params));
+    }
+
+    /**
+     * 
+     * Asynchronous {@link #executeReturnedOnlyOneCursorFirstRecord(Object...)} on the executor {@link #setExecutor(Executor)}
+     * (Асинхронный {@link #executeReturnedOnlyOneCursorFirstRecord(Object...)} на исполнителе {@link #setExecutor(Executor)})
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param params input parameters (входные параметры)
+     * @return first record from the cursor (первая запись курсора)
+     */
+    public CompletableFuture<T> executeReturnedOnlyOneCursorFirstRecordAsync(Object... params) {
+        return supplyAsync(() -> executeReturnedOnlyOneCursorFirstRecord(params));
+    }
+
+    /**
+     * 
+     * Asynchronous {@link #executeReturnedSeveralOutParams(Object...)} on the executor {@link #setExecutor(Executor)}
+     * (Асинхронный {@link #executeReturnedSeveralOutParams(Object...)} на исполнителе {@link #setExecutor(Executor)})
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param params input parameters (входные параметры)
+     * @return output parameters (выходные параметры)
+     */
+    public CompletableFuture<T> executeReturnedSeveralOutParamsAsync(Object... params) {
+        return supplyAsync(() -> executeReturnedSeveralOutParams(params));
+    }
+
+    /**
+     * 
+     * Asynchronous {@link #executeBatch(Iterator, int)} on the executor {@link #setExecutor(Executor)}
+     * (Асинхронный {@link #executeBatch(Iterator, int)} на исполнителе {@link #setExecutor(Executor)})
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param paramRows rows of input parameters (строки входных параметров)
+     * @param batchSize number of rows in one batch (количество строк в одном пакете)
+     * @return update counts of each batch (количество измененных записей каждого пакета)
+     */
+    public CompletableFuture<int[][]> executeBatchAsync(Iterator<Object[]> paramRows, int batchSize) {
+        return supplyAsync(() -> executeBatch(paramRows, batchSize));
+    }
+
+    //------------------------------------------------------------------------
+    // auxiliary function block 
+    // блок вспомогательных функций
+    //------------------------------------------------------------------------
+    /**
+     * 
+     * The function performs the call on the executor {@link #setExecutor(Executor)}. The call error completes the future as is,
+     * without wrapping.
+     * (Функция выполняет вызов на исполнителе {@link #setExecutor(Executor)}. Ошибка вызова завершает future как есть,
+     * без обертывания.)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param call call (вызов)
+     * @return result of the call (результат вызова)
+     */
+    private <R> CompletableFuture<R> supplyAsync(Callable<R> call) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(call.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 
+     * The function looks for the {@link ContractMapper} generated at compile time for the contract class
+     * (Функция ищет {@link ContractMapper}, сгенерированный на этапе компиляции для класса-контракта)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param clazz contract class (класс-контракт)
+     * @return generated mapper or null if there is none (сгенерированное отображение или null, если его нет)
+     * @throws Exception the generated class cannot be created (сгенерированный класс не удалось создать)
+     */
+    @SuppressWarnings("unchecked")
+    private static <C> ContractMapper<C> findGeneratedContractMapper(Class<C> clazz) throws Exception {
+        String packageName = clazz.getPackage() == null ? "" : clazz.getPackage().getName();
+        String simpleBinaryName = packageName.isEmpty() ? clazz.getName()
+                : clazz.getName().substring(packageName.length() + 1);
+        String mapperName = (packageName.isEmpty() ? "" : packageName + ".") + simpleBinaryName.replace('$', '_')
+                + ContractMapper.GENERATED_CLASS_SUFFIX;
+
+        Class<?> mapperClazz;
+        try {
+            mapperClazz = Class.forName(mapperName, true, clazz.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        if (!ContractMapper.class.isAssignableFrom(mapperClazz)) {
+            return null;
+        }
+        return (ContractMapper<C>) mapperClazz.getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * 
+     * The function extracts the mapping error of this call from the Spring JDBC exception, if the error occurred while processing the cursor
+     * (Функция извлекает ошибку отображения этого вызова из исключения Spring JDBC, если ошибка возникла на этапе обработки курсора)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * 
+     * @param e Spring JDBC exception (исключение Spring JDBC)
+     * @return {@link ProgramUnitMappingException} or the exception itself ({@link ProgramUnitMappingException} или само исключение)
+     */
+    private static Exception unwrapMappingException(DataAccessException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ProgramUnitMappingException) {
+                return (ProgramUnitMappingException) cause;
+            }
+        }
+        return e;
+    }
+
+    /**
+     * 
+     * The function returns a {@link RowMapper} that maps the cursor to a {@link List} of class objects (classCursorDefinition)
+     * (Функция возвращает {@link RowMapper}, который отображает курсор в {@link List} объектов класса (classCursorDefinition))
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see <a href=
+     *      "https://docs.oracle.com/javase/8/docs/technotes/guides/jdbc/">JDBC</a>
+     * @see java.sql.ResultSet
+     * 
+     * @param classCursorDefinition the class whose object is being created (класс, объект которого создается)
+     * @param mainClassDefinition main class if classCursorDefinition is nested. May be null (главный класс, если classCursorDefinition является вложенным. Может быть null)
      * @param mappingColumnCursorToField display cursor column in class field (отображение колонки курсора в поле класса)
      * @param mappingColumnCursorToMethod mapping cursor column to class method parameter (отображение колонки курсора в параметр метода класса)
-     * @throws SQLException when processing one record from the cursor
+     * @throws IllegalAccessException no access to the fields, methods or constructors of the class (нет доступа к полям, методам или конструкторам класса)
+     */
+    private static RowMapper<?> getHandlerOneRecordByCursor(Class<?> classCursorDefinition, Class<?> mainClassDefinition,
+            Map<String, Field> mappingColumnCursorToField, Map<String, Method> mappingColumnCursorToMethod)
+            throws IllegalAccessException {
+
+        return new CursorRowMapper(classCursorDefinition, mainClassDefinition, mappingColumnCursorToField,
+                mappingColumnCursorToMethod);
+    }
+
+    /**
+     * 
+     * <p>
+     * Immutable description of the contract class: what it maps, the mappings of output parameters and cursors to fields and
+     * methods, accessors and row mappers. The description does not depend on the program unit, so it is computed once per class
+     * ({@link ClassValue}) and shared by all {@link ProgramUnitDB} objects; errors of the contract class are also remembered.
+     * (Неизменяемое описание класса-контракта: что он отображает, отображения выходных параметров и курсоров в поля
+     * и методы, доступы и отображения строк. Описание не зависит от программного юнита, поэтому вычисляется один раз на класс
+     * ({@link ClassValue}) и разделяется всеми объектами {@link ProgramUnitDB}; ошибки класса-контракта также запоминаются.)
+     * </p>
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see java.lang.ClassValue
+     */
+    private static final class ContractDescriptor {
+
+        // descriptions of contract classes, computed on first access to the class
+        // описания классов-контрактов, вычисляемые при первом обращении к классу
+        private static final ClassValue<ContractDescriptor> DESCRIPTORS = new ClassValue<ContractDescriptor>() {
+            @Override
+            protected ContractDescriptor computeValue(Class<?> type) {
+                return new ContractDescriptor(type);
+            }
+        };
+
+        // non-cursor types
+        // некурсорные типы
+        private static final Set<Class<?>> NON_CURSOR_TYPES = new HashSet<>(Arrays.asList(
+                java.lang.Character.class,
+                java.lang.Boolean.class,
+                java.lang.Byte.class,
+                java.lang.Short.class,
+                java.lang.Integer.class,
+                java.lang.Long.class,
+                java.lang.Float.class,
+                java.lang.Double.class,
+                java.lang.Void.class,
+                String.class,
+                LocalDateTime.class,
+                LocalDate.class,
+                LocalTime.class));
+
+        // non-cursor type
+        // некурсорный тип
+        private final boolean isNonCursor;
+
+        // mapper generated at compile time. Null if there is none
+        // отображение, сгенерированное на этапе компиляции. Null, если его нет
+        private final ContractMapper<?> contractMapper;
+
+        // multiple output parameters
+        // несколько выходных параметров
+        private final boolean isSeveralOutParams;
+        private final Map<String, Field> mappingOutParamToField;
+        private final Map<String, Method> mappingOutParamToMethod;
+        private final MethodHandle outParamsInstantiator;
+        private final Map<String, MethodHandle> outParamFieldWriters;
+        private final Map<Method, MethodAccessor> outParamMethodAccessors;
+        // output parameter name (upper case) -> mapper of the cursor of the nested class
+        // имя выходного параметра (в верхнем регистре) -> отображение курсора вложенного класса
+        private final Map<String, RowMapper<?>> cursorRowMappers;
+
+        // only one cursor
+        // только один курсор
+        private final OutParam outParamAnnotation;
+        private final RowMapper<?> cursorRowMapper;
+
+        // error of the contract class. Null if there is none
+        // ошибка класса-контракта. Null, если ее нет
+        private final Exception error;
+
+        /**
+         * 
+         * The function returns the description of the contract class
+         * (Функция возвращает описание класса-контракта)
+         * 
+         * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+         * @since 8
+         * 
+         * @param clazzOutParameters contract class (класс-контракт)
+         * @return description of the contract class (описание класса-контракта)
+         * @throws Exception the contract class is described incorrectly, the error of the analysis is the cause
+         *                   (класс-контракт описан неверно, ошибка анализа - причина)
+         */
+        static ContractDescriptor of(Class<?> clazzOutParameters) throws Exception {
+            ContractDescriptor descriptor = DESCRIPTORS.get(clazzOutParameters);
+            if (descriptor.error != null) {
+                // the cached error is shared by all the callers, so each of them gets its own exception with its own stack trace
+                // закэшированная ошибка общая для всех вызывающих, поэтому каждый получает свое исключение со своим стеком
+                throw new Exception(descriptor.error.getMessage(), descriptor.error);
+            }
+            return descriptor;
+        }
+
+        private ContractDescriptor(Class<?> clazzOutParameters) {
+            boolean isNonCursor = false;
+            ContractMapper<?> contractMapper = null;
+            boolean isSeveralOutParams = false;
+            Map<String, Field> mappingOutParamToField = null;
+            Map<String, Method> mappingOutParamToMethod = null;
+            MethodHandle outParamsInstantiator = null;
+            Map<String, MethodHandle> outParamFieldWriters = null;
+            Map<Method, MethodAccessor> outParamMethodAccessors = null;
+            Map<String, RowMapper<?>> cursorRowMappers = null;
+            OutParam outParamAnnotation = null;
+            RowMapper<?> cursorRowMapper = null;
+            Exception error = null;
+
+            try {
+                if (NON_CURSOR_TYPES.contains(clazzOutParameters)) {
+
+                    isNonCursor = true;
+
+                // the contract class has a mapper generated at compile time
+                // у класса-контракта есть отображение, сгенерированное на этапе компиляции
+                } else if ((contractMapper = findGeneratedContractMapper(clazzOutParameters)) != null) {
+
+                    // the generated mapper is used as is
+                    // сгенерированное отображение используется как есть
+
+                // multiple output parameters
+                // несколько выходных параметров
+                } else if (Arrays.asList(clazzOutParameters.getDeclaredFields()).stream()
+                        .anyMatch(field -> field.isAnnotationPresent(OutParam.class))
+                        ||
+                        Arrays.asList(clazzOutParameters.getDeclaredMethods()).stream().anyMatch(method -> Arrays.asList(method.getParameters()).stream().anyMatch(parameter -> parameter.isAnnotationPresent(OutParam.class)))
+                        ) {
+
+                    isSeveralOutParams = true;
+                    cursorRowMappers = new HashMap<>();
+
+                    // check if there is a field in the class with the annotation @OutParam
+                    // проверяем есть ли поле в классе с аннотацией @OutParam
+                    mappingOutParamToField = new HashMap<>();
+                    Field[] fiels = clazzOutParameters.getDeclaredFields();
+                    for (int i = 0; i < fiels.length; i++) {
+
+                        if (fiels[i].isAnnotationPresent(OutParam.class)) {
+                            mappingOutParamToField.put(fiels[i].getAnnotation(OutParam.class).name().toUpperCase(), fiels[i]);
+                        }
+                    }
+
+
+                    // check if there is a method in the class with @OutParam annotated parameters
+                    // проверяем есть ли метод в классе с аннотированными @OutParam параметрами
+                    Method[] methods = clazzOutParameters.getDeclaredMethods();
+                    mappingOutParamToMethod = new HashMap<>();
+                    for (int i = 0; i < methods.length; i++) {
+
+                        Parameter[] parameters = methods[i].getParameters();
+                        if (Arrays.asList(parameters).stream()
+                                .allMatch(parameter -> parameter.isAnnotationPresent(OutParam.class))) {
+                            for (int j = 0; j < parameters.length; j++) {
+                                mappingOutParamToMethod.put(parameters[j].getAnnotation(OutParam.class).name().toUpperCase(),
+                                        methods[i]);
+                            }
+
+                        } else if (Arrays.asList(parameters).stream()
+                                .anyMatch(parameter -> parameter.isAnnotationPresent(OutParam.class))) {
+                            throw new Exception(
+                                    "Either mark all parameters with the @OutParam annotation, or don't use this method at all "
+                                            + methods[i].getName() + " as receiving data from output parameters");
+                        }
+
+                    }
+
+                    // accessors are created once and reused on every call
+                    // доступы создаются один раз и используются при каждом вызове
+                    try {
+                        outParamsInstantiator = Accessors.instantiator(clazzOutParameters, null);
+                    } catch (NoSuchMethodException e) {
+                        // without a default constructor the call reports that the class has no constructors
+                        // без конструктора по умолчанию вызов сообщает, что у класса нет конструкторов
+                    }
+                    outParamFieldWriters = new HashMap<>();
+                    for (Map.Entry<String, Field> entry : mappingOutParamToField.entrySet()) {
+                        outParamFieldWriters.put(entry.getKey(), Accessors.fieldWriter(entry.getValue()));
+                    }
+                    outParamMethodAccessors = new HashMap<>();
+                    for (Method method : new HashSet<>(mappingOutParamToMethod.values())) {
+                        outParamMethodAccessors.put(method, new MethodAccessor(method, OutParam.class));
+                    }
+
+                    // check if there is a class in a class with @OutParam annotated parameters
+                    // проверяем есть ли класс в классе с аннотированными @OutParam параметрами
+                    boolean isExistInternalClazzes = false;
+                    Class<?>[] internalClazzes = clazzOutParameters.getDeclaredClasses();
+                    for (int i = 0; i < internalClazzes.length; i++) {
+                        if (internalClazzes[i].isAnnotationPresent(OutParam.class)) {
+                            // take the value of the @OutParam annotation above the class
+                            //берем значение аннотации @OutParam над классом
+                            String paramName = internalClazzes[i].getAnnotation(OutParam.class).name();
+
+                            Map<String, Field> mappingToField = new HashMap<>();
+                            Map<String, Method> mappingToMethod = new HashMap<>();
+
+                            Field[] fielsInternalClazzes = internalClazzes[i].getDeclaredFields();
+                            for (int j = 0; j < fielsInternalClazzes.length; j++) {
+
+                                if (fielsInternalClazzes[j].isAnnotationPresent(Column.class)) {
+                                    mappingToField.put(fielsInternalClazzes[j].getAnnotation(Column.class).name().toUpperCase(),
+                                            fielsInternalClazzes[j]);
+                                }
+                            }
+
+                            Method[] methodsInternalClazzes = internalClazzes[i].getDeclaredMethods();
+                            for (int j = 0; j < methodsInternalClazzes.length; j++) {
+
+                                Parameter[] parametersMethodsInternalClazzes = methodsInternalClazzes[j].getParameters();
+                                if (Arrays.asList(parametersMethodsInternalClazzes).stream()
+                                        .allMatch(parameter -> parameter.isAnnotationPresent(Column.class))) {
+                                    for (int k = 0; k < parametersMethodsInternalClazzes.length; k++) {
+                                        mappingToMethod.put(parametersMethodsInternalClazzes[k].getAnnotation(Column.class)
+                                                .name().toUpperCase(), methodsInternalClazzes[j]);
+                                    }
+
+                                } else if (Arrays.asList(parametersMethodsInternalClazzes).stream()
+                                        .anyMatch(parameter -> parameter.isAnnotationPresent(Column.class))) {
+                                    throw new Exception(
+                                            "Either mark all parameters with the @Column annotation or don't use this "
+                                                    + methodsInternalClazzes[j].getName()
+                                                    + " method at all as receiving data from output parameters");
+                                }
+
+                            }
+                            cursorRowMappers.put(
+                                    paramName.equals("") ? DEFAULT_NAME_RETURN_PARAM_IN_FUNCTION.toUpperCase()
+                                            : paramName.toUpperCase(),
+                                    getHandlerOneRecordByCursor(internalClazzes[i], clazzOutParameters, mappingToField,
+                                            mappingToMethod));
+
+                            isExistInternalClazzes = true;
+                        }
+                    }
+
+                    if (mappingOutParamToField.isEmpty() && mappingOutParamToMethod.isEmpty() && isExistInternalClazzes) {
+                        throw new Exception("No fields, method parameters or classes annotated with @OutParam");
+                    }
+
+                // только один курсор
+                } else if (Arrays.asList(clazzOutParameters.getDeclaredFields()).stream()
+                        .anyMatch(field -> field.isAnnotationPresent(Column.class))
+                        ||
+                        Arrays.asList(clazzOutParameters.getDeclaredMethods()).stream().anyMatch(method -> Arrays.asList(method.getParameters()).stream().anyMatch(parameter -> parameter.isAnnotationPresent(Column.class)))
+                        ) {
+
+                    if (clazzOutParameters.isAnnotationPresent(OutParam.class)) {
+                        outParamAnnotation = clazzOutParameters.getAnnotation(OutParam.class);
+                    }
+
+                    // to store cursor column name mapping in class field
+                    // для хранения отображение имени столбца курсора в поле класса
+                    Map<String, Field> mappingColumnCursorToField = new HashMap<>();
+                    // to store the mapping of the cursor column name to class method parameters
+                    // для хранения отображения имени столбца курсора в параметры метода класса
+                    Map<String, Method> mappingColumnCursorToMethod = new HashMap<>();
+
+                    // check if there is a field in the class with the @Column annotation
+                    // проверяем есть ли поле в классе с аннотацией @Column
+                    Field[] fiels = clazzOutParameters.getDeclaredFields();
+                    for (int i = 0; i < fiels.length; i++) {
+
+                        if (fiels[i].isAnnotationPresent(Column.class)) {
+                            mappingColumnCursorToField.put(fiels[i].getAnnotation(Column.class).name().toUpperCase(), fiels[i]);
+                        }
+                    }
+
+                    // check if there is a method in the class with @Column annotated parameters
+                    // проверяем есть ли метод в классе с аннотированными @Column параметрами
+                    Method[] methods = clazzOutParameters.getDeclaredMethods();
+                    for (int i = 0; i < methods.length; i++) {
+
+                        Parameter[] parameters = methods[i].getParameters();
+                        if (Arrays.asList(parameters).stream()
+                                .allMatch(parameter -> parameter.isAnnotationPresent(Column.class))) {
+                            for (int j = 0; j < parameters.length; j++) {
+                                mappingColumnCursorToMethod.put(parameters[j].getAnnotation(Column.class).name().toUpperCase(),
+                                        methods[i]);
+                            }
+
+                        } else if (Arrays.asList(parameters).stream()
+                                .anyMatch(parameter -> parameter.isAnnotationPresent(Column.class))) {
+                            throw new Exception(
+                                    "Either mark all parameters with the @Column annotation or don't use this "
+                                            + methods[i].getName() + " method at all as receiving data from the cursor");
+                        }
+
+                    }
+
+                    if (mappingColumnCursorToField.isEmpty() && mappingColumnCursorToMethod.isEmpty()) {
+                        throw new Exception("No fields or method parameters annotated with @Column");
+                    }
+
+                    cursorRowMapper = getHandlerOneRecordByCursor(clazzOutParameters, null, mappingColumnCursorToField,
+                            mappingColumnCursorToMethod);
+
+                } else {
+                    throw new Exception("It is not clear how to handle output parameters");
+                }
+            } catch (Exception e) {
+                error = e;
+            }
+
+            this.isNonCursor = isNonCursor;
+            this.contractMapper = contractMapper;
+            this.isSeveralOutParams = isSeveralOutParams;
+            this.mappingOutParamToField = mappingOutParamToField == null ? null
+                    : Collections.unmodifiableMap(mappingOutParamToField);
+            this.mappingOutParamToMethod = mappingOutParamToMethod == null ? null
+                    : Collections.unmodifiableMap(mappingOutParamToMethod);
+            this.outParamsInstantiator = outParamsInstantiator;
+            this.outParamFieldWriters = outParamFieldWriters == null ? null
+                    : Collections.unmodifiableMap(outParamFieldWriters);
+            this.outParamMethodAccessors = outParamMethodAccessors == null ? null
+                    : Collections.unmodifiableMap(outParamMethodAccessors);
+            this.cursorRowMappers = cursorRowMappers == null ? null : Collections.unmodifiableMap(cursorRowMappers);
+            this.outParamAnnotation = outParamAnnotation;
+            this.cursorRowMapper = cursorRowMapper;
+            this.error = error;
+        }
+
+    }
+
+    /**
+     * 
+     * {@link RowMapper} of one cursor. Everything that does not depend on the row (constructors, access to fields and methods,
+     * parameter types) is resolved once when the mapper is created, and the mapping of cursor columns to fields and method
+     * parameters ({@link MappingPlan}) is resolved by the metadata of the first row of each cursor and is kept by the mapper
+     * of this cursor ({@link #forCursor()}). The shared mapper keeps no state of a cursor.
+     * Only reads by column index and assignments are left for each row.
+     * ({@link RowMapper} одного курсора. Всё, что не зависит от строки (конструкторы, доступ к полям и методам, типы параметров),
+     * вычисляется один раз при создании, а отображение колонок курсора в поля и параметры методов ({@link MappingPlan})
+     * вычисляется по метаданным первой строки каждого курсора и хранится отображением этого курсора ({@link #forCursor()}).
+     * Разделяемое отображение не хранит состояния курсора.
+     * На каждую строку остаются только чтения по индексу колонки и присваивания.)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see java.sql.ResultSet
      */
-    private RowMapper<?> getHandlerOneRecordByCursor(Class<?> classCursorDefinition, Class<?> mainClassDefinition,
-            Map<String, Field> mappingColumnCursorToField, Map<String, Method> mappingColumnCursorToMethod) {
+    private static class CursorRowMapper implements PerCursorRowMapper<Object> {
+
+        // creates an object of the class (with the main class if the class is nested). Null if there is no default constructor
+        // создает объект класса (вместе с главным классом, если класс вложенный). Null, если нет конструктора по умолчанию
+        private final MethodHandle instantiator;
 
-        return (ResultSet rs, int rowNumber) -> {
-            // copies the mapping into a function for convenience
-            // копирует отображение в функцию для удобства
-            Map<String, Method> mapMethod = new HashMap<>(mappingColumnCursorToMethod);
+        // column name (upper case) -> field writer and reader of the column into the field type
+        // имя колонки (в верхнем регистре) -> запись в поле и чтение колонки в тип поля
+        private final Map<String, MethodHandle> fieldWriters = new HashMap<>();
+        private final Map<String, ColumnReader> fieldReaders = new HashMap<>();
+
+        private final Map<String, Method> mappingColumnCursorToMethod;
+        private final Map<Method, MethodAccessor> methodAccessors = new HashMap<>();
+
+        CursorRowMapper(Class<?> classCursorDefinition, Class<?> mainClassDefinition,
+                Map<String, Field> mappingColumnCursorToField, Map<String, Method> mappingColumnCursorToMethod)
+                throws IllegalAccessException {
+
+            this.mappingColumnCursorToMethod = mappingColumnCursorToMethod;
+
+            // calling the constructor without parameters is checked on the first row
+            // вызов конструктора без параметров проверяется на первой строке
+            MethodHandle defaultConstructor = null;
+            try {
+                defaultConstructor = Accessors.instantiator(classCursorDefinition, mainClassDefinition);
+            } catch (NoSuchMethodException e) {
+                // without a default constructor the first row fails with DEFAULT_CONSTRUCTOR_NOT_FOUND
+                // без конструктора по умолчанию первая строка падает с DEFAULT_CONSTRUCTOR_NOT_FOUND
+            }
+            this.instantiator = defaultConstructor;
+
+            for (Map.Entry<String, Field> entry : mappingColumnCursorToField.entrySet()) {
+                fieldWriters.put(entry.getKey(), Accessors.fieldWriter(entry.getValue()));
+                fieldReaders.put(entry.getKey(), ColumnReaders.forType(entry.getValue().getType()));
+            }
+
+            for (Method method : new HashSet<>(mappingColumnCursorToMethod.values())) {
+                methodAccessors.put(method, new MethodAccessor(method, Column.class));
+            }
+        }
+
+        /**
+         * 
+         * The function maps one record by the plan built for it. The cursors are read by {@link #forCursor()}, which builds
+         * the plan once per cursor
+         * (Функция отображает одну запись по плану, построенному для нее. Курсоры читаются через {@link #forCursor()},
+         * которое строит план один раз на курсор)
+         */
+        @Override
+        public Object mapRow(ResultSet rs, int rowNumber) throws SQLException {
+            return map(createPlan(rs), rs);
+        }
+
+        @Override
+        public RowMapper<Object> forCursor() {
+            return new RowMapper<Object>() {
+
+                // the plan is built on the first row of the cursor
+                // план строится на первой строке курсора
+                private MappingPlan plan;
+
+                @Override
+                public Object mapRow(ResultSet rs, int rowNumber) throws SQLException {
+                    if (plan == null) {
+                        plan = createPlan(rs);
+                    }
+                    return map(plan, rs);
+                }
+            };
+        }
+
+        private Object map(MappingPlan plan, ResultSet rs) throws SQLException {
+            CallTimer timer = CallTimer.current();
+            if (timer == null) {
+                return populate(plan, plan.read(rs));
+            }
+            long start = System.nanoTime();
+            try {
+                Object[] values = plan.read(rs);
+                timer.addBytes(values);
+                return populate(plan, values);
+            } finally {
+                timer.addMapping(System.nanoTime() - start, 1);
+            }
+        }
+
+        /**
+         * 
+         * The function creates the object of the class and writes the values of the columns read by the plan to its fields and
+         * methods. Does not access the cursor, so it can be called in any thread.
+         * (Функция создает объект класса и записывает значения колонок, прочитанные по плану, в его поля и методы.
+         * Не обращается к курсору, поэтому может вызываться в любом потоке.)
+         * 
+         * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+         * @since 8
+         * 
+         * @param plan mapping plan of the cursor (план отображения курсора)
+         * @param values values of the columns of one record (значения колонок одной записи)
+         * @return object of the class (объект класса)
+         * @throws ProgramUnitMappingException error of the constructor, field or method (ошибка конструктора, поля или метода)
+         */
+        Object populate(MappingPlan plan, Object[] values) throws ProgramUnitMappingException {
 
             // calling the constructor without parameters
             // вызываем конструктор без параметров
             Object oneRecordObj = null;
             try {
-                
-                if (mainClassDefinition == null) {
-                    Constructor<?> defaultConstructor = classCursorDefinition.getDeclaredConstructor();
-                    oneRecordObj = defaultConstructor.newInstance();
-                } else {
-                // nested class
-                // класс вложенный
-                    Constructor<?> defaultConstructorInnerClass = classCursorDefinition
-                            .getDeclaredConstructor(mainClassDefinition);
-                    Constructor<?> defaultConstructorOuterClass = mainClassDefinition.getDeclaredConstructor();
-                    oneRecordObj = defaultConstructorInnerClass.newInstance(defaultConstructorOuterClass.newInstance());
+                oneRecordObj = (Object) instantiator.invokeExact();
+            } catch (Throwable e) {
+                throw new ProgramUnitMappingException(Reason.DEFAULT_CONSTRUCTOR_NOT_FOUND, e);
+            }
+
+            int v = 0;
+            for (int i = 0; i < plan.fieldWriters.length; i++) {
+                try {
+                    plan.fieldWriters[i].invokeExact(oneRecordObj, values[v++]);
+                } catch (Throwable e) {
+                    throw new ProgramUnitMappingException(Reason.FIELD_NOT_FOUND, e);
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
-                this.flagDefaultConstructorNotFound = true;
-                return new Object();
+            }
+
+            for (int i = 0; i < plan.methodInvokers.length; i++) {
+                Object[] paramsForInvoke = Arrays.copyOfRange(values, v, v + plan.methodReaders[i].length);
+                v += paramsForInvoke.length;
+                try {
+                    plan.methodInvokers[i].invokeExact(oneRecordObj, paramsForInvoke);
+                } catch (Throwable ex) {
+                    throw new ProgramUnitMappingException(Reason.METHOD_INCCORECT, ex);
+                }
+            }
+
+            return oneRecordObj;
+        }
+
+        /**
+         * 
+         * The function builds the mapping plan of the cursor by its metadata
+         * (Функция строит план отображения курсора по его метаданным)
+         * 
+         * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+         * @since 8
+         * 
+         * @param rs cursor (курсор)
+         * @return mapping plan (план отображения)
+         * @throws ProgramUnitMappingException the cursor cannot be mapped into the class (курсор нельзя отобразить в класс)
+         */
+        private MappingPlan createPlan(ResultSet rs) throws ProgramUnitMappingException {
+
+            if (instantiator == null) {
+                throw new ProgramUnitMappingException(Reason.DEFAULT_CONSTRUCTOR_NOT_FOUND, null);
             }
 
             // get column names
@@ -809,9 +2478,7 @@ public class ProgramUnitDB<T> {
             try {
                 resultSetMetaData = rs.getMetaData();
             } catch (SQLException e1) {
-                e1.printStackTrace();
-                this.flagMetaDataNotFound = true;
-                return new Object();
+                throw new ProgramUnitMappingException(Reason.METADATA_NOT_FOUND, e1);
             }
 
             // get the number of records
@@ -820,83 +2487,350 @@ public class ProgramUnitDB<T> {
             try {
                 columnCount = resultSetMetaData.getColumnCount();
             } catch (SQLException e1) {
-                e1.printStackTrace();
-                this.flagAmountColumnDontGet = true;
-                return new Object();
+                throw new ProgramUnitMappingException(Reason.AMOUNT_COLUMN_DONT_GET, e1);
             }
 
-            // iterate over all columns
-            // перебираем все колонки
+            // column name (upper case) -> column index
+            // имя колонки (в верхнем регистре) -> индекс колонки
+            Map<String, Integer> columnIndexes = new HashMap<>();
             for (int i = 1; i <= columnCount; i++) {
-                String columnName;
                 try {
-                    columnName = resultSetMetaData.getColumnName(i).toUpperCase();
+                    columnIndexes.putIfAbsent(resultSetMetaData.getColumnName(i).toUpperCase(), i);
                 } catch (SQLException e1) {
-                    e1.printStackTrace();
-                    this.flagColumnNotFound = true;
-                    return new Object();
+                    throw new ProgramUnitMappingException(Reason.COLUMN_NOT_FOUND, e1);
                 }
+            }
 
-                // if this field
-                // если это поле
-                if (mappingColumnCursorToField.containsKey(columnName)) {
-                    Field fieldClass = mappingColumnCursorToField.get(columnName);
-
-                    // gives access even if the field is private
-                    // дает доступ даже если поле private
-                    fieldClass.setAccessible(true);
+            // fields whose columns are in the cursor
+            // поля, колонки которых есть в курсоре
+            List<String> fieldColumnNames = new ArrayList<>();
+            for (String columnName : fieldWriters.keySet()) {
+                if (columnIndexes.containsKey(columnName)) {
+                    fieldColumnNames.add(columnName);
+                }
+            }
+            MethodHandle[] planFieldWriters = new MethodHandle[fieldColumnNames.size()];
+            ColumnReader[] planFieldReaders = new ColumnReader[fieldColumnNames.size()];
+            int[] planFieldColumns = new int[fieldColumnNames.size()];
+            for (int i = 0; i < fieldColumnNames.size(); i++) {
+                planFieldWriters[i] = fieldWriters.get(fieldColumnNames.get(i));
+                planFieldReaders[i] = fieldReaders.get(fieldColumnNames.get(i));
+                planFieldColumns[i] = columnIndexes.get(fieldColumnNames.get(i));
+            }
 
-                    // get the value from the column and convert it to the field type
-                    // получаем значение со столбца и преобразуем его к типу поля
-                    try {
-                        fieldClass.set(oneRecordObj, castFromDBToJava(fieldClass.getType(), rs, columnName));
-                    } catch (Exception e) {
-                        this.flagFieldNotFound = true;
+            // methods for which at least one column is in the cursor and is not taken by the field
+            // методы, для которых хотя бы одна колонка есть в курсоре и не занята полем
+            List<Method> methods = new ArrayList<>();
+            for (Map.Entry<String, Method> entry : mappingColumnCursorToMethod.entrySet()) {
+                if (columnIndexes.containsKey(entry.getKey())
+                        && !fieldWriters.containsKey(entry.getKey())
+                        && !methods.contains(entry.getValue())) {
+                    methods.add(entry.getValue());
+                }
+            }
+            MethodHandle[] planMethodInvokers = new MethodHandle[methods.size()];
+            ColumnReader[][] planMethodReaders = new ColumnReader[methods.size()][];
+            int[][] planMethodColumns = new int[methods.size()][];
+            for (int i = 0; i < methods.size(); i++) {
+                MethodAccessor methodAccessor = methodAccessors.get(methods.get(i));
+                String[] columnNames = methodAccessor.parameterNames;
+                planMethodInvokers[i] = methodAccessor.invoker;
+                planMethodReaders[i] = new ColumnReader[columnNames.length];
+                planMethodColumns[i] = new int[columnNames.length];
+                for (int j = 0; j < columnNames.length; j++) {
+                    planMethodReaders[i][j] = ColumnReaders.forType(methodAccessor.parameterTypes[j]);
+                    Integer columnIndex = columnIndexes.get(columnNames[j]);
+                    if (columnIndex == null) {
+                        // the method parameter has no column in the selection
+                        // для параметра метода нет колонки в выборке
+                        throw new ProgramUnitMappingException(Reason.CAST_FROM_DB_TO_JAVA_WITH_ERROR,
+                                new SQLException("Column " + columnNames[j] + " not found"));
                     }
-
+                    planMethodColumns[i][j] = columnIndex;
                 }
-                // if these are method parameters
-                // если это параметры метода
-                else if (mapMethod.containsKey(columnName)) {
-                    Method methodClass = mapMethod.get(columnName);
-
-                    // gives access even if the method is private
-                    // дает доступ даже если метод private
-                    methodClass.setAccessible(true);
-
-                    Parameter[] parameters = methodClass.getParameters();
-                    List<Object> paramsForInvoke = new ArrayList<>();
-                    for (int j = 0; j < parameters.length; j++) {
-
-                        // get annotation value
-                        // берем значение аннотации
-                        String columnAndParamName = parameters[j].getAnnotation(Column.class).name().toUpperCase();
-
-                        // we take the value from the row from the database, convert it to the type of the parameter
-                        // берем значение из строки с БД, преобразует к типу параметра
-                        try {
-                            paramsForInvoke.add(j, castFromDBToJava(parameters[j].getType(), rs, columnAndParamName));
-                        } catch (SQLException e) {
-                            e.printStackTrace();
-                            this.flagCastFromDBToJavaWithError = true;
-                            return new Object();
-                        }
+            }
 
-                        // remove the parameter from the display
-                        // удаляем параметр из отображения
-                        mapMethod.remove(columnAndParamName, methodClass);
+            return new MappingPlan(planFieldWriters, planFieldReaders, planFieldColumns,
+                    planMethodInvokers, planMethodReaders, planMethodColumns);
+        }
+    }
 
+    /**
+     * 
+     * Cached invoker of the class method with the types and names (upper case) of its annotated parameters
+     * (Кэшированный вызов метода класса с типами и именами (в верхнем регистре) его аннотированных параметров)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     */
+    private static final class MethodAccessor {
+
+        private final MethodHandle invoker;
+        private final Class<?>[] parameterTypes;
+        private final String[] parameterNames;
+
+        MethodAccessor(Method method, Class<? extends Annotation> annotation) throws IllegalAccessException {
+            this.invoker = Accessors.methodInvoker(method);
+
+            Parameter[] parameters = method.getParameters();
+            this.parameterTypes = new Class<?>[parameters.length];
+            this.parameterNames = new String[parameters.length];
+            for (int j = 0; j < parameters.length; j++) {
+                parameterTypes[j] = parameters[j].getType();
+                // get annotation value
+                // берем значение аннотации
+                Annotation parameterAnnotation = parameters[j].getAnnotation(annotation);
+                parameterNames[j] = (parameterAnnotation instanceof Column ? ((Column) parameterAnnotation).name()
+                        : ((OutParam) parameterAnnotation).name()).toUpperCase();
+            }
+        }
+    }
+
+    /**
+     * 
+     * Immutable mapping plan of one cursor: cursor column index -> class field or method parameter
+     * (Неизменяемый план отображения одного курсора: индекс колонки курсора -> поле класса или параметр метода)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     */
+    private static final class MappingPlan {
+
+        private final MethodHandle[] fieldWriters;
+        private final ColumnReader[] fieldReaders;
+        private final int[] fieldColumns;
+
+        private final MethodHandle[] methodInvokers;
+        private final ColumnReader[][] methodReaders;
+        private final int[][] methodColumns;
+
+        // number of values read from one record
+        // количество значений, читаемых из одной записи
+        private final int valueCount;
+
+        MappingPlan(MethodHandle[] fieldWriters, ColumnReader[] fieldReaders, int[] fieldColumns,
+                MethodHandle[] methodInvokers, ColumnReader[][] methodReaders, int[][] methodColumns) {
+            this.fieldWriters = fieldWriters;
+            this.fieldReaders = fieldReaders;
+            this.fieldColumns = fieldColumns;
+            this.methodInvokers = methodInvokers;
+            this.methodReaders = methodReaders;
+            this.methodColumns = methodColumns;
+            int valueCount = fieldReaders.length;
+            for (ColumnReader[] readers : methodReaders) {
+                valueCount += readers.length;
+            }
+            this.valueCount = valueCount;
+        }
+
+        /**
+         * 
+         * The function reads the values of the columns of the current record in the order: fields, then parameters of each method
+         * (Функция читает значения колонок текущей записи в порядке: поля, затем параметры каждого метода)
+         * 
+         * @param rs cursor on the current record (курсор на текущей записи)
+         * @return values of the columns (значения колонок)
+         * @throws ProgramUnitMappingException error when converting from JDBC type to JAVA type (ошибка преобразования из JDBC типа в JAVA тип)
+         */
+        Object[] read(ResultSet rs) throws ProgramUnitMappingException {
+            Object[] values = new Object[valueCount];
+            int v = 0;
+            // get the value from the column and convert it to the field type
+            // получаем значение со столбца и преобразуем его к типу поля
+            for (int i = 0; i < fieldReaders.length; i++) {
+                try {
+                    values[v++] = fieldReaders[i].read(rs, fieldColumns[i]);
+                } catch (SQLException e) {
+                    throw new ProgramUnitMappingException(Reason.FIELD_NOT_FOUND, e);
+                }
+            }
+            // we take the values from the row from the database, convert them to the types of the parameters
+            // берем значения из строки с БД, преобразуем к типам параметров
+            try {
+                for (int i = 0; i < methodReaders.length; i++) {
+                    for (int j = 0; j < methodReaders[i].length; j++) {
+                        values[v++] = methodReaders[i][j].read(rs, methodColumns[i][j]);
                     }
-                    try {
-                        methodClass.invoke(oneRecordObj, paramsForInvoke.toArray());
-                    } catch (Exception ex) {
-                        this.flagMethodInccorect = true;
-                    }
+                }
+            } catch (SQLException e) {
+                throw new ProgramUnitMappingException(Reason.CAST_FROM_DB_TO_JAVA_WITH_ERROR, e);
+            }
+            return values;
+        }
+    }
+
+    /**
+     * 
+     * {@link RowMapper} of the parallel mapping: only reads the values of the columns of the record by the plan of the cursor.
+     * Used by one reading thread.
+     * (Отображение строки параллельного отображения: только читает значения колонок записи по плану курсора.
+     * Используется одним читающим потоком.)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see CursorRowMapper#populate(MappingPlan, Object[])
+     */
+    private static final class ValuesRowMapper implements RowMapper<Object[]> {
+
+        private final CursorRowMapper rowMapper;
+        // plan of the read cursor, built on its first row. The mapper reads only one cursor
+        // план читаемого курсора, построенный на его первой строке. Отображение читает только один курсор
+        private MappingPlan plan;
+
+        ValuesRowMapper(CursorRowMapper rowMapper) {
+            this.rowMapper = rowMapper;
+        }
+
+        @Override
+        public Object[] mapRow(ResultSet rs, int rowNumber) throws SQLException {
+            if (plan == null) {
+                plan = rowMapper.createPlan(rs);
+            }
+            Object[] values = plan.read(rs);
+            CallTimer timer = CallTimer.current();
+            if (timer != null) {
+                timer.addBytes(values);
+            }
+            return values;
+        }
+    }
 
+    /**
+     * 
+     * Immutable plan of reading the output parameters of the compiled call: index in the call string -> class field or method
+     * parameter. The values are read in the order: fields, then parameters of each method.
+     * (Неизменяемый план чтения выходных параметров скомпилированного вызова: индекс в строке вызова -> поле класса
+     * или параметр метода. Значения читаются в порядке: поля, затем параметры каждого метода.)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     */
+    private static final class OutParamsPlan {
+
+        private final MethodHandle[] fieldWriters;
+        private final OutParamReader[] fieldReaders;
+        private final int[] fieldIndexes;
+
+        private final MethodHandle[] methodInvokers;
+        private final OutParamReader[][] methodReaders;
+        // 0 - the output parameter is not in the call
+        // 0 - выходного параметра нет в вызове
+        private final int[][] methodIndexes;
+
+        // number of values read
+        // количество читаемых значений
+        private final int valueCount;
+
+        OutParamsPlan(MethodHandle[] fieldWriters, OutParamReader[] fieldReaders, int[] fieldIndexes,
+                MethodHandle[] methodInvokers, OutParamReader[][] methodReaders, int[][] methodIndexes) {
+            this.fieldWriters = fieldWriters;
+            this.fieldReaders = fieldReaders;
+            this.fieldIndexes = fieldIndexes;
+            this.methodInvokers = methodInvokers;
+            this.methodReaders = methodReaders;
+            this.methodIndexes = methodIndexes;
+            int valueCount = fieldReaders.length;
+            for (OutParamReader[] readers : methodReaders) {
+                valueCount += readers.length;
+            }
+            this.valueCount = valueCount;
+        }
+
+        /**
+         * 
+         * The function reads the output parameters from the executed call statement
+         * (Функция читает выходные параметры из выполненного выражения вызова)
+         * 
+         * @param statement executed call statement (выполненное выражение вызова)
+         * @return values of the output parameters (значения выходных параметров)
+         * @throws SQLException reading error (ошибка чтения)
+         */
+        Object[] read(CallableStatement statement) throws SQLException {
+            Object[] values = new Object[valueCount];
+            int v = 0;
+            for (int i = 0; i < fieldReaders.length; i++) {
+                values[v++] = fieldReaders[i].read(statement, fieldIndexes[i]);
+            }
+            for (int i = 0; i < methodReaders.length; i++) {
+                for (int j = 0; j < methodReaders[i].length; j++) {
+                    int index = methodIndexes[i][j];
+                    values[v++] = index == 0 ? null : methodReaders[i][j].read(statement, index);
                 }
             }
-            return oneRecordObj;
-        };
+            return values;
+        }
+
+        /**
+         * 
+         * The function creates the object of the contract class and writes the values to its fields and methods
+         * (Функция создает объект класса-контракта и записывает значения в его поля и методы)
+         * 
+         * @param instantiator default constructor (конструктор по умолчанию)
+         * @param values values of the output parameters (значения выходных параметров)
+         * @return object of the contract class (объект класса-контракта)
+         * @throws Exception error of the constructor, field or method (ошибка конструктора, поля или метода)
+         */
+        Object populate(MethodHandle instantiator, Object[] values) throws Exception {
+            try {
+                Object objOutParams = (Object) instantiator.invokeExact();
+                int v = 0;
+                for (int i = 0; i < fieldWriters.length; i++) {
+                    fieldWriters[i].invokeExact(objOutParams, values[v++]);
+                }
+                for (int i = 0; i < methodInvokers.length; i++) {
+                    Object[] paramsForInvoke = Arrays.copyOfRange(values, v, v + methodReaders[i].length);
+                    v += paramsForInvoke.length;
+                    methodInvokers[i].invokeExact(objOutParams, paramsForInvoke);
+                }
+                return objOutParams;
+            } catch (Exception e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new Exception(e);
+            }
+        }
+    }
+
+    /**
+     * 
+     * Immutable plan of reading the output parameters of the compiled call for the generated {@link OutParamsContractMapper}:
+     * index in the call string of each value of {@link OutParamsContractMapper#getOutParamNames()}.
+     * (Неизменяемый план чтения выходных параметров скомпилированного вызова для сгенерированного {@link OutParamsContractMapper}:
+     * индекс в строке вызова каждого значения {@link OutParamsContractMapper#getOutParamNames()}.)
+     * 
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     */
+    private static final class ContractOutParamsPlan {
+
+        private final OutParamReader[] readers;
+        // 0 - the output parameter is not in the call
+        // 0 - выходного параметра нет в вызове
+        private final int[] indexes;
+        private final boolean[] isInCall;
+
+        ContractOutParamsPlan(OutParamReader[] readers, int[] indexes, boolean[] isInCall) {
+            this.readers = readers;
+            this.indexes = indexes;
+            this.isInCall = isInCall;
+        }
+
+        /**
+         * 
+         * The function reads the output parameters from the executed call statement
+         * (Функция читает выходные параметры из выполненного выражения вызова)
+         * 
+         * @param statement executed call statement (выполненное выражение вызова)
+         * @return values of the output parameters (значения выходных параметров)
+         * @throws SQLException reading error (ошибка чтения)
+         */
+        Object[] read(CallableStatement statement) throws SQLException {
+            Object[] values = new Object[readers.length];
+            for (int i = 0; i < readers.length; i++) {
+                values[i] = indexes[i] == 0 ? null : readers[i].read(statement, indexes[i]);
+            }
+            return values;
+        }
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.github.chistousov.lib.programunitdb;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * <p>
+ * Java Flight Recorder event of one call of a program unit that goes to the database. The duration of the event is the
+ * duration of the call, and it is split into the phases of {@link MetricsRegistry}. The event is configured by the
+ * standard JFR settings of {@code com.github.chistousov.lib.programunitdb.Call}: enabled, threshold (20 ms by default)
+ * and stackTrace. Without a recording that enables it, the call is not measured.
+ * (Событие Java Flight Recorder одного вызова программного юнита, который идет в БД. Длительность события - длительность
+ * вызова, и она разделена на фазы {@link MetricsRegistry}. Событие настраивается стандартными настройками JFR
+ * {@code com.github.chistousov.lib.programunitdb.Call}: enabled, threshold (по умолчанию 20 ms) и stackTrace. Без записи,
+ * которая его включает, вызов не измеряется.)
+ * </p>
+ *
+ * <p>
+ * The class is loaded only through {@link ProgramUnitEvents}, so the library works on Java 8 runtimes without JFR.
+ * (Класс загружается только через {@link ProgramUnitEvents}, поэтому библиотека работает на средах Java 8 без JFR.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see <a href="https://docs.oracle.com/en/java/javase/17/jfapi/">JDK Flight Recorder API</a>
+ */
+@Name("com.github.chistousov.lib.programunitdb.Call")
+@Label("Program Unit Call")
+@Category({ "Database", "Program Unit DB" })
+@Description("Call of a stored procedure or stored function through ProgramUnitDB")
+@Threshold("20 ms")
+final class ProgramUnitEvent extends Event {
+
+    @Label("Program Unit")
+    @Description("schema.catalog.name of the stored procedure or function")
+    String programUnit;
+
+    @Label("Operation")
+    @Description("Execute method of ProgramUnitDB")
+    String operation;
+
+    @Label("Rows")
+    @Description("Number of mapped cursor records")
+    long rows;
+
+    @Label("Estimated Size")
+    @Description("Estimated size of the data of the values read from the database")
+    @DataAmount
+    long estimatedBytes;
+
+    @Label("Connection Acquire Time")
+    @Timespan
+    long acquireDuration;
+
+    @Label("Database Time")
+    @Description("Execution in the database and reading of the results by the driver")
+    @Timespan
+    long databaseDuration;
+
+    @Label("Mapping Time")
+    @Description("Mapping of the results into the contract class")
+    @Timespan
+    long mappingDuration;
+
+    @Label("Outcome")
+    @Description("SUCCESS or the class of the exception")
+    String outcome;
+
+    /**
+     *
+     * @return started event or null if no recording enables it (начатое событие или null, если ни одна запись его не включает)
+     */
+    static ProgramUnitEvent start() {
+        ProgramUnitEvent event = new ProgramUnitEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     *
+     * @param programUnit name of the program unit (имя программного юнита)
+     * @param operation execute method (метод выполнения)
+     * @param timer stopped timer of the call (остановленный таймер вызова)
+     * @param error exception of the call or null (исключение вызова или null)
+     */
+    void finish(String programUnit, String operation, CallTimer timer, Throwable error) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.programUnit = programUnit;
+        this.operation = operation;
+        this.rows = timer.getRows();
+        this.estimatedBytes = timer.getBytes();
+        this.acquireDuration = timer.getAcquireNanos();
+        this.databaseDuration = timer.getExecuteNanos();
+        this.mappingDuration = timer.getMappingNanos();
+        this.outcome = error == null ? "SUCCESS" : error.getClass().getName();
+        commit();
+    }
+
+}
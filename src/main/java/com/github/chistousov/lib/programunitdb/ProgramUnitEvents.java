@@ -0,0 +1,51 @@
+package com.github.chistousov.lib.programunitdb;
+
+/**
+ * <p>
+ * Access to {@link ProgramUnitEvent} that does not load JFR classes when the runtime has no JFR (Java 8 before 8u262 or
+ * an image without the jdk.jfr module). The events are passed as Object for the same reason.
+ * (Доступ к {@link ProgramUnitEvent}, который не загружает классы JFR, когда в среде нет JFR (Java 8 до 8u262 или образ
+ * без модуля jdk.jfr). События передаются как Object по той же причине.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ */
+final class ProgramUnitEvents {
+
+    private static final boolean IS_SUPPORTED = isSupported();
+
+    private ProgramUnitEvents() {
+    }
+
+    private static boolean isSupported() {
+        try {
+            Class.forName("jdk.jfr.Event", false, ProgramUnitEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     *
+     * @return started event or null if JFR is not supported or no recording enables the event
+     *         (начатое событие или null, если JFR не поддерживается или ни одна запись не включает событие)
+     */
+    static Object start() {
+        return IS_SUPPORTED ? ProgramUnitEvent.start() : null;
+    }
+
+    /**
+     *
+     * @param event event returned by {@link #start()} (событие, возвращенное {@link #start()})
+     * @param programUnit name of the program unit (имя программного юнита)
+     * @param operation execute method (метод выполнения)
+     * @param timer stopped timer of the call (остановленный таймер вызова)
+     * @param error exception of the call or null (исключение вызова или null)
+     */
+    static void finish(Object event, String programUnit, String operation, CallTimer timer, Throwable error) {
+        ((ProgramUnitEvent) event).finish(programUnit, operation, timer, error);
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * Executors on which {@link ProgramUnitDB} performs blocking database work off the calling thread.
+ * (Исполнители, на которых {@link ProgramUnitDB} выполняет блокирующую работу с БД вне вызывающего потока.)
+ * </p>
+ *
+ * <p>
+ * On Java 21 and later, the executor of virtual threads can be used: each call then occupies a virtual thread instead of a
+ * platform one. The library is compiled for Java 8, so virtual threads are created through reflection.
+ * (На Java 21 и выше можно использовать исполнитель виртуальных потоков: тогда каждый вызов занимает виртуальный поток
+ * вместо платформенного. Библиотека компилируется под Java 8, поэтому виртуальные потоки создаются через рефлексию.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see ProgramUnitDB#setExecutor(Executor)
+ */
+public final class ProgramUnitExecutors {
+
+    private ProgramUnitExecutors() {
+    }
+
+    /**
+     *
+     * The function returns the default executor: a shared fixed pool of daemon threads by the number of processors
+     * (Функция возвращает исполнитель по умолчанию: общий фиксированный пул демон-потоков по количеству процессоров)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @return default executor (исполнитель по умолчанию)
+     */
+    public static Executor defaultExecutor() {
+        return DefaultExecutorHolder.EXECUTOR;
+    }
+
+    /**
+     *
+     * @return true if the JVM supports virtual threads (true, если JVM поддерживает виртуальные потоки)
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return VirtualThreadsHolder.NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     *
+     * The function creates an executor that starts a new virtual thread for each task
+     * (Функция создает исполнитель, который запускает новый виртуальный поток для каждой задачи)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     * @see <a href="https://openjdk.org/jeps/444">JEP 444: Virtual Threads</a>
+     *
+     * @return executor of virtual threads (исполнитель виртуальных потоков)
+     * @throws UnsupportedOperationException the JVM does not support virtual threads (JVM не поддерживает виртуальные потоки)
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (!isVirtualThreadsSupported()) {
+            throw new UnsupportedOperationException(
+                    "Virtual threads are not supported by Java " + System.getProperty("java.version"));
+        }
+        try {
+            return (ExecutorService) VirtualThreadsHolder.NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads are not available", e);
+        }
+    }
+
+    private static final class DefaultExecutorHolder {
+
+        private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(), runnable -> {
+                    Thread thread = new Thread(runnable, "program-unit-db-" + THREAD_NUMBER.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+    }
+
+    private static final class VirtualThreadsHolder {
+
+        // Executors.newVirtualThreadPerTaskExecutor() or null before Java 21
+        // Executors.newVirtualThreadPerTaskExecutor() или null до Java 21
+        private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findMethod();
+
+        private static Method findMethod() {
+            try {
+                return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+
+    }
+
+}
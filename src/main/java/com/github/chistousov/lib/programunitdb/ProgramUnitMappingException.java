@@ -0,0 +1,63 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.sql.SQLException;
+
+/**
+ * <p>
+ * Error of mapping the output parameters of one call of a program unit into the contract class.
+ * The error belongs only to the call in which it occurred and does not affect other calls of the same {@link ProgramUnitDB}.
+ * (Ошибка отображения выходных параметров одного вызова программного юнита в класс-контракт.
+ * Ошибка относится только к вызову, в котором возникла, и не влияет на другие вызовы того же {@link ProgramUnitDB}.)
+ * </p>
+ * 
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ */
+public class ProgramUnitMappingException extends SQLException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Mapping error type (Тип ошибки отображения)
+     */
+    public enum Reason {
+        DEFAULT_CONSTRUCTOR_NOT_FOUND("No default constructor"),
+        FIELD_NOT_FOUND("Called field is missing"),
+        METHOD_INCCORECT("Called method is missing"),
+        METADATA_NOT_FOUND("Metadata not found"),
+        AMOUNT_COLUMN_DONT_GET("No entries in cursor"),
+        COLUMN_NOT_FOUND("Column not found in selection"),
+        CAST_FROM_DB_TO_JAVA_WITH_ERROR("Error when converting type from column type to Java type");
+
+        private final String message;
+
+        Reason(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private final Reason reason;
+
+    /**
+     * 
+     * @param reason error type (тип ошибки)
+     * @param cause cause of the error. May be null (причина ошибки. Может быть null)
+     */
+    public ProgramUnitMappingException(Reason reason, Throwable cause) {
+        super(reason.getMessage(), cause);
+        this.reason = reason;
+    }
+
+    /**
+     * 
+     * @return error type (тип ошибки)
+     */
+    public Reason getReason() {
+        return reason;
+    }
+
+}
@@ -0,0 +1,647 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlInOutParameter;
+import org.springframework.jdbc.core.SqlOutParameter;
+import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * <p>
+ * Pipeline of calls of several program units in one round trip to the database. The calls are added by the methods named
+ * after the call methods of {@link ProgramUnitDB} and are performed together by {@link #execute()}; the output parameters
+ * are mapped into the contract class of each program unit with its {@code @OutParam}/{@code @Column} mappings.
+ * (Конвейер вызовов нескольких программных юнитов за один обмен с БД. Вызовы добавляются методами, названными по методам
+ * вызова {@link ProgramUnitDB}, и выполняются вместе методом {@link #execute()}; выходные параметры отображаются
+ * в класс-контракт каждого программного юнита по его отображениям {@code @OutParam}/{@code @Column}.)
+ * </p>
+ *
+ * <p>
+ * Oracle: the calls are one anonymous block {@code BEGIN ? := schema.f(?); schema.p(?, ?); END;}. PostgreSQL: the calls are
+ * the statements {@code SELECT * FROM schema.f(?); CALL schema.p(?, NULL)} of one query, which the driver sends with one
+ * synchronization (an anonymous {@code DO} block cannot return values); the refcursors of all calls are then read by one
+ * more query {@code FETCH ALL FROM "cursor"}. Other databases and program units returning result sets are called one by one
+ * by the call methods of {@link ProgramUnitDB}.
+ * (Oracle: вызовы - один анонимный блок {@code BEGIN ? := schema.f(?); schema.p(?, ?); END;}. PostgreSQL: вызовы -
+ * выражения {@code SELECT * FROM schema.f(?); CALL schema.p(?, NULL)} одного запроса, который драйвер отправляет с одной
+ * синхронизацией (анонимный блок {@code DO} не может возвращать значения); refcursor всех вызовов затем читаются еще одним
+ * запросом {@code FETCH ALL FROM "cursor"}. Другие БД и программные юниты, возвращающие наборы строк, вызываются по одному
+ * методами вызова {@link ProgramUnitDB}.)
+ * </p>
+ *
+ * <p>
+ * The pipeline is not thread-safe. The calls are performed on one connection, in a transaction of Spring if there is one.
+ * The cache of results, coalescing, metrics and JFR events of {@link ProgramUnitDB} apply only to the calls one by one.
+ * (Конвейер не потокобезопасен. Вызовы выполняются на одном подключении, в транзакции Spring, если она есть.
+ * Кэш результатов, объединение вызовов, метрики и события JFR {@link ProgramUnitDB} применяются только к вызовам по одному.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see <a href="https://www.postgresql.org/docs/current/protocol-flow.html#PROTOCOL-FLOW-PIPELINING">PostgreSQL pipelining</a>
+ * @see <a href="https://docs.oracle.com/en/database/oracle/oracle-database/19/lnpls/block.html">PL/SQL block</a>
+ */
+public final class ProgramUnitPipeline {
+
+    private static final String ORACLE_PRODUCT_NAME = "Oracle";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final List<PipelinedCall<?>> calls = new ArrayList<>();
+
+    /**
+     *
+     * @param dataSource data source of the program units (источник данных программных юнитов)
+     */
+    public ProgramUnitPipeline(DataSource dataSource) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     *
+     * @param programUnitDB stored procedure with no output parameters (хранимая процедура без выходных параметров)
+     * @param params input parameters (входные параметры)
+     * @return call, whose result is available after {@link #execute()} (вызов, результат которого доступен после {@link #execute()})
+     * @throws Exception the call method is not defined for the program unit (метод вызова не определен для программного юнита)
+     * @see ProgramUnitDB#executeWithoutOutParameters(Object...)
+     */
+    public PipelinedCall<Void> addWithoutOutParameters(ProgramUnitDB<?> programUnitDB, Object... params)
+            throws Exception {
+        return add(programUnitDB, "executeWithoutOutParameters", params, () -> {
+            programUnitDB.executeWithoutOutParameters(params);
+            return null;
+        });
+    }
+
+    /**
+     *
+     * @param <T> type of the value (тип значения)
+     * @param programUnitDB program unit with one non-cursor output (программный юнит с одним некурсорным выходом)
+     * @param params input parameters (входные параметры)
+     * @return call, whose result is available after {@link #execute()} (вызов, результат которого доступен после {@link #execute()})
+     * @throws Exception the call method is not defined for the program unit (метод вызова не определен для программного юнита)
+     * @see ProgramUnitDB#executeReturnedOnlyOneNonCursor(Object...)
+     */
+    public <T> PipelinedCall<T> addReturnedOnlyOneNonCursor(ProgramUnitDB<T> programUnitDB, Object... params)
+            throws Exception {
+        return add(programUnitDB, "executeReturnedOnlyOneNonCursor", params,
+                () -> programUnitDB.executeReturnedOnlyOneNonCursor(params));
+    }
+
+    /**
+     *
+     * @param <T> type of the record (тип записи)
+     * @param programUnitDB program unit with one output cursor (программный юнит с одним выходным курсором)
+     * @param params input parameters (входные параметры)
+     * @return call, whose result is available after {@link #execute()} (вызов, результат которого доступен после {@link #execute()})
+     * @throws Exception the call method is not defined for the program unit (метод вызова не определен для программного юнита)
+     * @see ProgramUnitDB#executeReturnedOnlyOneCursor(Object...)
+     */
+    public <T> PipelinedCall<List<T>> addReturnedOnlyOneCursor(ProgramUnitDB<T> programUnitDB, Object... params)
+            throws Exception {
+        return add(programUnitDB, "executeReturnedOnlyOneCursor", params,
+                () -> programUnitDB.executeReturnedOnlyOneCursor(params));
+    }
+
+    /**
+     *
+     * @param <T> contract class (класс-контракт)
+     * @param programUnitDB program unit with several output parameters (программный юнит с несколькими выходными параметрами)
+     * @param params input parameters (входные параметры)
+     * @return call, whose result is available after {@link #execute()} (вызов, результат которого доступен после {@link #execute()})
+     * @throws Exception the call method is not defined for the program unit (метод вызова не определен для программного юнита)
+     * @see ProgramUnitDB#executeReturnedSeveralOutParams(Object...)
+     */
+    public <T> PipelinedCall<T> addReturnedSeveralOutParams(ProgramUnitDB<T> programUnitDB, Object... params)
+            throws Exception {
+        return add(programUnitDB, "executeReturnedSeveralOutParams", params,
+                () -> programUnitDB.executeReturnedSeveralOutParams(params));
+    }
+
+    private <R> PipelinedCall<R> add(ProgramUnitDB<?> programUnitDB, String operation, Object[] params,
+            Callable<R> call) throws Exception {
+        Objects.requireNonNull(programUnitDB, "programUnitDB");
+        programUnitDB.checkOperation(operation);
+
+        PipelinedCall<R> pipelinedCall = new PipelinedCall<>(programUnitDB, operation, params, call);
+        this.calls.add(pipelinedCall);
+        return pipelinedCall;
+    }
+
+    /**
+     *
+     * @return number of added calls that are not executed yet (количество добавленных и еще не выполненных вызовов)
+     */
+    public int size() {
+        return this.calls.size();
+    }
+
+    /**
+     *
+     * The function performs all added calls and empties the pipeline. Each call ends either done with its result or
+     * failed with the error of its call: in one round trip the error fails all the calls, one by one the calls before the
+     * error keep their results and the failed call and the calls after it are failed with the error. The first error is
+     * thrown.
+     * (Функция выполняет все добавленные вызовы и опустошает конвейер. Каждый вызов завершается либо выполненным
+     * с результатом, либо ошибочным с ошибкой своего вызова: за один обмен ошибка делает ошибочными все вызовы,
+     * по одному вызовы до ошибки сохраняют свои результаты, а ошибочный вызов и вызовы после него получают ошибку.
+     * Выбрасывается первая ошибка.)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @throws Exception runtime error
+     */
+    public void execute() throws Exception {
+        List<PipelinedCall<?>> pipelinedCalls = new ArrayList<>(this.calls);
+        this.calls.clear();
+        if (pipelinedCalls.isEmpty()) {
+            return;
+        }
+
+        // the result sets returned by the call (H2, MySQL) are not output parameters, so such calls are not pipelined
+        // наборы строк, возвращаемые вызовом (H2, MySQL), не являются выходными параметрами, поэтому такие вызовы не объединяются
+        boolean isPipelined;
+        try {
+            boolean isPipelineSupported = true;
+            for (PipelinedCall<?> pipelinedCall : pipelinedCalls) {
+                pipelinedCall.programUnit = pipelinedCall.programUnitDB.getCompiledCall();
+                isPipelineSupported &= pipelinedCall.programUnit.isDirectCallSupported();
+            }
+            isPipelined = isPipelineSupported && executePipelined(pipelinedCalls);
+        } catch (Exception e) {
+            // one round trip has no result of a separate call
+            // у одного обмена нет результата отдельного вызова
+            fail(pipelinedCalls, e);
+            throw e;
+        }
+
+        if (!isPipelined) {
+            for (int i = 0; i < pipelinedCalls.size(); i++) {
+                PipelinedCall<?> pipelinedCall = pipelinedCalls.get(i);
+                try {
+                    pipelinedCall.complete(pipelinedCall.call.call());
+                } catch (Exception e) {
+                    // the calls after the error are not performed
+                    // вызовы после ошибки не выполняются
+                    fail(pipelinedCalls.subList(i, pipelinedCalls.size()), e);
+                    throw e;
+                }
+            }
+            return;
+        }
+
+        // the output parameters of each call are mapped separately, so an error of mapping fails only its call
+        // выходные параметры каждого вызова отображаются отдельно, поэтому ошибка отображения делает ошибочным только свой вызов
+        Exception error = null;
+        for (PipelinedCall<?> pipelinedCall : pipelinedCalls) {
+            try {
+                pipelinedCall.complete(
+                        pipelinedCall.programUnitDB.mapPipelined(pipelinedCall.operation, pipelinedCall.outParams));
+            } catch (Exception e) {
+                pipelinedCall.fail(e);
+                if (error == null) {
+                    error = e;
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private static void fail(List<PipelinedCall<?>> pipelinedCalls, Exception error) {
+        for (PipelinedCall<?> pipelinedCall : pipelinedCalls) {
+            pipelinedCall.fail(error);
+        }
+    }
+
+    /**
+     *
+     * @param pipelinedCalls calls (вызовы)
+     * @return false if the database does not support the pipeline (false, если БД не поддерживает конвейер)
+     * @throws Exception runtime error
+     */
+    private boolean executePipelined(List<PipelinedCall<?>> pipelinedCalls) throws Exception {
+        Connection connection = DataSourceUtils.getConnection(this.dataSource);
+        try {
+            if (PostgresRefCursor.isPostgreSQL(connection)) {
+                executePostgreSQL(connection, pipelinedCalls);
+                return true;
+            }
+            String productName = connection.getMetaData().getDatabaseProductName();
+            if (productName != null && productName.startsWith(ORACLE_PRODUCT_NAME)) {
+                executeOracle(connection, pipelinedCalls);
+                return true;
+            }
+            return false;
+        } catch (ProgramUnitMappingException e) {
+            throw e;
+        } catch (SQLException e) {
+            DataAccessException translated = this.jdbcTemplate.getExceptionTranslator()
+                    .translate("ProgramUnitPipeline", null, e);
+            throw translated != null ? translated : new UncategorizedSQLException("ProgramUnitPipeline", null, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, this.dataSource);
+        }
+    }
+
+    //------------------------------------------------------------------------
+    //  Oracle block
+    //  блок Oracle
+    //------------------------------------------------------------------------
+    /**
+     *
+     * The function performs the calls as one anonymous block and reads the output parameters by index
+     * (Функция выполняет вызовы одним анонимным блоком и читает выходные параметры по индексу)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param connection connection (подключение)
+     * @param pipelinedCalls calls (вызовы)
+     * @throws SQLException runtime error
+     */
+    private static void executeOracle(Connection connection, List<PipelinedCall<?>> pipelinedCalls)
+            throws SQLException {
+
+        StringBuilder block = new StringBuilder("BEGIN");
+        for (PipelinedCall<?> pipelinedCall : pipelinedCalls) {
+            ProgramUnitCall programUnit = pipelinedCall.programUnit;
+            block.append(' ');
+            StringBuilder args = new StringBuilder();
+            boolean isReturnValue = programUnit.isFunction();
+            for (SqlParameter parameter : programUnit.getCompiledParameters()) {
+                // the return value of a stored function is always the first
+                // возвращаемое значение хранимой функции всегда первое
+                if (isReturnValue && parameter instanceof SqlOutParameter) {
+                    block.append("? := ");
+                    isReturnValue = false;
+                    continue;
+                }
+                args.append(args.length() == 0 ? "?" : ", ?");
+            }
+            block.append(programUnit.getProgramUnitName()).append('(').append(args).append(");");
+        }
+        block.append(" END;");
+
+        try (CallableStatement statement = connection.prepareCall(block.toString())) {
+            int sqlIndex = 1;
+            for (PipelinedCall<?> pipelinedCall : pipelinedCalls) {
+                int argIndex = 0;
+                for (SqlParameter parameter : pipelinedCall.programUnit.getCompiledParameters()) {
+                    if (parameter instanceof SqlOutParameter) {
+                        if (parameter.getTypeName() != null) {
+                            statement.registerOutParameter(sqlIndex, parameter.getSqlType(), parameter.getTypeName());
+                        } else if (parameter.getScale() != null) {
+                            statement.registerOutParameter(sqlIndex, parameter.getSqlType(), parameter.getScale());
+                        } else {
+                            statement.registerOutParameter(sqlIndex, parameter.getSqlType());
+                        }
+                        pipelinedCall.addOutParameter((SqlOutParameter) parameter, sqlIndex);
+                    }
+                    if (parameter.isInputValueProvided()) {
+                        StatementCreatorUtils.setParameterValue(statement, sqlIndex, parameter,
+                                ProgramUnitCall.nextArg(pipelinedCall.params, argIndex++));
+                    }
+                    sqlIndex++;
+                }
+            }
+
+            statement.execute();
+
+            for (PipelinedCall<?> pipelinedCall : pipelinedCalls) {
+                for (int i = 0; i < pipelinedCall.outParameters.size(); i++) {
+                    SqlOutParameter parameter = pipelinedCall.outParameters.get(i);
+                    int index = pipelinedCall.outIndexes.get(i);
+                    if (parameter.isResultSetSupported()) {
+                        List<Object> rows = new ArrayList<>();
+                        try (ResultSet cursor = (ResultSet) statement.getObject(index)) {
+                            readRows(cursor, parameter, rows);
+                        }
+                        pipelinedCall.outParams.put(outParamName(parameter), rows);
+                    } else {
+                        pipelinedCall.outParams.put(outParamName(parameter), statement.getObject(index));
+                    }
+                }
+            }
+        }
+    }
+
+    //------------------------------------------------------------------------
+    //  PostgreSQL block
+    //  блок PostgreSQL
+    //------------------------------------------------------------------------
+    /**
+     *
+     * The function performs the calls as the statements of one query: each statement returns one row of its output parameters,
+     * a refcursor is returned by name and is read afterwards together with the other refcursors
+     * (Функция выполняет вызовы выражениями одного запроса: каждое выражение возвращает одну строку своих выходных параметров,
+     * refcursor возвращается по имени и читается затем вместе с остальными refcursor)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param connection connection (подключение)
+     * @param pipelinedCalls calls (вызовы)
+     * @throws SQLException runtime error
+     */
+    private void executePostgreSQL(Connection connection, List<PipelinedCall<?>> pipelinedCalls) throws SQLException {
+
+        StringBuilder sql = new StringBuilder();
+        List<SqlParameter> inParameters = new ArrayList<>();
+        List<Object> inValues = new ArrayList<>();
+        boolean hasCursors = false;
+        for (PipelinedCall<?> pipelinedCall : pipelinedCalls) {
+            ProgramUnitCall programUnit = pipelinedCall.programUnit;
+            boolean isFunction = programUnit.isFunction();
+            sql.append(sql.length() == 0 ? "" : "; ").append(isFunction ? "SELECT * FROM " : "CALL ")
+                    .append(programUnit.getProgramUnitName()).append('(');
+            boolean isReturnValue = isFunction;
+            boolean isFirst = true;
+            int argIndex = 0;
+            for (SqlParameter parameter : programUnit.getCompiledParameters()) {
+                boolean isOut = parameter instanceof SqlOutParameter;
+                if (isOut) {
+                    pipelinedCall.addOutParameter((SqlOutParameter) parameter, pipelinedCall.outParameters.size() + 1);
+                    hasCursors |= ((SqlOutParameter) parameter).isResultSetSupported();
+                }
+                // the return value of the stored function is the result of the query, output parameters are not passed to a function
+                // возвращаемое значение хранимой функции - результат запроса, выходные параметры не передаются в функцию
+                if (isOut && (isReturnValue || isFunction && !(parameter instanceof SqlInOutParameter))) {
+                    isReturnValue = false;
+                    continue;
+                }
+                sql.append(isFirst ? "" : ", ");
+                isFirst = false;
+                if (isOut && !parameter.isInputValueProvided()) {
+                    sql.append("NULL");
+                } else {
+                    sql.append('?');
+                    inParameters.add(parameter);
+                    inValues.add(ProgramUnitCall.nextArg(pipelinedCall.params, argIndex++));
+                }
+            }
+            sql.append(')');
+        }
+
+        // outside of a transaction the refcursors are closed at the end of the query
+        // вне транзакции refcursor закрываются в конце запроса
+        boolean restoreAutoCommit = false;
+        if (hasCursors && !DataSourceUtils.isConnectionTransactional(connection, this.dataSource)
+                && connection.getAutoCommit()) {
+            connection.setAutoCommit(false);
+            restoreAutoCommit = true;
+        }
+        try {
+            List<PendingCursor> cursors = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+                for (int i = 0; i < inParameters.size(); i++) {
+                    StatementCreatorUtils.setParameterValue(statement, i + 1, inParameters.get(i), inValues.get(i));
+                }
+                statement.execute();
+                for (int i = 0; i < pipelinedCalls.size(); i++) {
+                    if (i > 0) {
+                        statement.getMoreResults();
+                    }
+                    try (ResultSet row = statement.getResultSet()) {
+                        readPostgreSQLRow(pipelinedCalls.get(i), row, cursors);
+                    }
+                }
+            }
+            if (!cursors.isEmpty()) {
+                fetchPostgreSQLCursors(connection, cursors);
+            }
+            if (restoreAutoCommit) {
+                connection.commit();
+            }
+        } catch (SQLException | RuntimeException e) {
+            if (restoreAutoCommit) {
+                connection.rollback();
+            }
+            throw e;
+        } finally {
+            if (restoreAutoCommit) {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static void readPostgreSQLRow(PipelinedCall<?> pipelinedCall, ResultSet row, List<PendingCursor> cursors)
+            throws SQLException {
+        boolean hasRow = row != null && row.next();
+        int columnCount = hasRow ? row.getMetaData().getColumnCount() : 0;
+        for (int i = 0; i < pipelinedCall.outParameters.size(); i++) {
+            SqlOutParameter parameter = pipelinedCall.outParameters.get(i);
+            int index = pipelinedCall.outIndexes.get(i);
+            Object value = index <= columnCount ? row.getObject(index) : null;
+            if (parameter.isResultSetSupported()) {
+                List<Object> rows = new ArrayList<>();
+                if (value != null) {
+                    cursors.add(new PendingCursor(value.toString(), parameter, rows));
+                }
+                value = rows;
+            }
+            pipelinedCall.outParams.put(outParamName(parameter), value);
+        }
+    }
+
+    /**
+     *
+     * The function reads all refcursors by one query {@code FETCH ALL FROM "a"; CLOSE "a"; FETCH ALL FROM "b"; CLOSE "b"}
+     * (Функция читает все refcursor одним запросом {@code FETCH ALL FROM "a"; CLOSE "a"; FETCH ALL FROM "b"; CLOSE "b"})
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param connection connection (подключение)
+     * @param cursors refcursors by name (refcursor по имени)
+     * @throws SQLException runtime error
+     */
+    private static void fetchPostgreSQLCursors(Connection connection, List<PendingCursor> cursors)
+            throws SQLException {
+        StringBuilder sql = new StringBuilder();
+        for (PendingCursor cursor : cursors) {
+            String quotedName = '"' + cursor.portalName.replace("\"", "\"\"") + '"';
+            sql.append(sql.length() == 0 ? "" : "; ").append("FETCH ALL FROM ").append(quotedName).append("; CLOSE ")
+                    .append(quotedName);
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql.toString());
+            for (int i = 0; i < cursors.size(); i++) {
+                if (i > 0) {
+                    // the result of CLOSE
+                    // результат CLOSE
+                    statement.getMoreResults();
+                    statement.getMoreResults();
+                }
+                PendingCursor cursor = cursors.get(i);
+                try (ResultSet rows = statement.getResultSet()) {
+                    readRows(rows, cursor.parameter, cursor.rows);
+                }
+            }
+        }
+    }
+
+    private static void readRows(ResultSet resultSet, SqlOutParameter parameter, List<Object> rows) throws SQLException {
+        if (resultSet == null) {
+            return;
+        }
+        if (parameter.getResultSetExtractor() != null) {
+            // the cursor is read as by Spring JDBC, for example with the mapping prepared for this cursor
+            // курсор читается так же, как Spring JDBC, например с отображением, подготовленным для этого курсора
+            Object data = parameter.getResultSetExtractor().extractData(resultSet);
+            if (data instanceof List) {
+                rows.addAll((List<?>) data);
+            } else {
+                rows.add(data);
+            }
+            return;
+        }
+        RowMapper<?> rowMapper = PerCursorRowMapper.forCursor(parameter.getRowMapper());
+        int rowNumber = 0;
+        while (resultSet.next()) {
+            rows.add(rowMapper != null ? rowMapper.mapRow(resultSet, rowNumber++)
+                    : JdbcUtils.getResultSetValue(resultSet, 1));
+        }
+    }
+
+    private static String outParamName(SqlParameter parameter) {
+        return parameter.getName() == null ? "" : parameter.getName().toUpperCase();
+    }
+
+    /**
+     * Refcursor of PostgreSQL returned by name (Refcursor PostgreSQL, возвращенный по имени)
+     */
+    private static final class PendingCursor {
+
+        private final String portalName;
+        private final SqlOutParameter parameter;
+        private final List<Object> rows;
+
+        PendingCursor(String portalName, SqlOutParameter parameter, List<Object> rows) {
+            this.portalName = portalName;
+            this.parameter = parameter;
+            this.rows = rows;
+        }
+
+    }
+
+    /**
+     * <p>
+     * Call of a program unit added to the pipeline (Вызов программного юнита, добавленный в конвейер)
+     * </p>
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param <R> result type (тип результата)
+     */
+    public static final class PipelinedCall<R> {
+
+        private final ProgramUnitDB<?> programUnitDB;
+        private final String operation;
+        private final Object[] params;
+        // the call one by one
+        // вызов по одному
+        private final Callable<R> call;
+
+        private ProgramUnitCall programUnit;
+        // output parameters and their indexes in the call statement or in the row of the query
+        // выходные параметры и их индексы в выражении вызова или в строке запроса
+        private final List<SqlOutParameter> outParameters = new ArrayList<>();
+        private final List<Integer> outIndexes = new ArrayList<>();
+        private final Map<String, Object> outParams = new LinkedHashMap<>();
+
+        private R result;
+        private boolean isDone;
+        private Exception error;
+
+        private PipelinedCall(ProgramUnitDB<?> programUnitDB, String operation, Object[] params, Callable<R> call) {
+            this.programUnitDB = programUnitDB;
+            this.operation = operation;
+            this.params = params;
+            this.call = call;
+        }
+
+        private void addOutParameter(SqlOutParameter parameter, int index) {
+            this.outParameters.add(parameter);
+            this.outIndexes.add(index);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void complete(Object result) {
+            this.result = (R) result;
+            this.isDone = true;
+        }
+
+        private void fail(Exception error) {
+            this.error = error;
+        }
+
+        /**
+         *
+         * @return true if the pipeline has performed the call (true, если конвейер выполнил вызов)
+         */
+        public boolean isDone() {
+            return this.isDone;
+        }
+
+        /**
+         *
+         * @return true if the call has failed or is not performed because of the error of an earlier call
+         *         (true, если вызов завершился ошибкой или не выполнен из-за ошибки предыдущего вызова)
+         */
+        public boolean isFailed() {
+            return this.error != null;
+        }
+
+        /**
+         *
+         * @return error of the call or null (ошибка вызова или null)
+         */
+        public Exception getError() {
+            return this.error;
+        }
+
+        /**
+         *
+         * @return result of the call (результат вызова)
+         * @throws IllegalStateException the pipeline has not performed the call, the error of the call is the cause
+         *                               (конвейер не выполнил вызов, ошибка вызова - причина)
+         */
+        public R get() {
+            if (this.error != null) {
+                throw new IllegalStateException("The call is failed by the pipeline", this.error);
+            }
+            if (!this.isDone) {
+                throw new IllegalStateException("The call is not executed by the pipeline");
+            }
+            return this.result;
+        }
+
+    }
+
+}
@@ -0,0 +1,289 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * Registry of program units. All program units are registered at application startup and then created, compiled
+ * ({@link ProgramUnitDB#compile()}) and, if required, warmed up by a test call in parallel on a bounded pool. So the first
+ * user call does not pay for the analysis of the contract class, reading the metadata and opening connections.
+ * (Реестр программных юнитов. Все программные юниты регистрируются при старте приложения, а затем параллельно
+ * на ограниченном пуле создаются, компилируются ({@link ProgramUnitDB#compile()}) и, если нужно, прогреваются тестовым
+ * вызовом. Так первый пользовательский вызов не платит за анализ класса-контракта, чтение метаданных и открытие подключений.)
+ * </p>
+ *
+ * <pre>
+ * ProgramUnitRegistry registry = new ProgramUnitRegistry();
+ * registry.register("getNameUserById",
+ *         () -&gt; new ProgramUnitDB&lt;&gt;(dataSource, "test_program_unit", null, "get_name_user_by_id", inParameters, String.class, true),
+ *         unit -&gt; unit.executeReturnedOnlyOneNonCursor(1L));
+ * ProgramUnitRegistry.Report report = registry.initialize(4);
+ * ProgramUnitDB&lt;String&gt; getNameUserById = registry.get("getNameUserById");
+ * </pre>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see ProgramUnitDB#compile()
+ */
+public class ProgramUnitRegistry {
+
+    /**
+     * Warm-up call of the program unit (Прогревающий вызов программного юнита)
+     *
+     * @param <T> type of output parameters (тип выходных параметров)
+     */
+    @FunctionalInterface
+    public interface WarmUp<T> {
+
+        /**
+         *
+         * @param programUnit program unit (программный юнит)
+         * @throws Exception call error (ошибка вызова)
+         */
+        void call(ProgramUnitDB<T> programUnit) throws Exception;
+    }
+
+    // name -> registration of the program unit
+    // имя -> регистрация программного юнита
+    private final Map<String, Registration<?>> registrations = new ConcurrentHashMap<>();
+    // name -> created program unit
+    // имя -> созданный программный юнит
+    private final Map<String, ProgramUnitDB<?>> programUnits = new ConcurrentHashMap<>();
+    // name -> error of creation, compilation or warm-up
+    // имя -> ошибка создания, компиляции или прогрева
+    private final Map<String, Exception> failures = new ConcurrentHashMap<>();
+
+    /**
+     *
+     * Registers the program unit without warm-up (Регистрирует программный юнит без прогрева)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param <T> type of output parameters (тип выходных параметров)
+     * @param name name of the program unit in the registry (имя программного юнита в реестре)
+     * @param factory creates the program unit (создает программный юнит)
+     * @return this registry (этот реестр)
+     */
+    public <T> ProgramUnitRegistry register(String name, Callable<ProgramUnitDB<T>> factory) {
+        return register(name, factory, null);
+    }
+
+    /**
+     *
+     * Registers the program unit (Регистрирует программный юнит)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param <T> type of output parameters (тип выходных параметров)
+     * @param name name of the program unit in the registry (имя программного юнита в реестре)
+     * @param factory creates the program unit (создает программный юнит)
+     * @param warmUp warm-up call performed after compilation. May be null (прогревающий вызов, выполняемый после компиляции. Может быть null)
+     * @return this registry (этот реестр)
+     */
+    public <T> ProgramUnitRegistry register(String name, Callable<ProgramUnitDB<T>> factory, WarmUp<T> warmUp) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(factory, "factory");
+        if (registrations.putIfAbsent(name, new Registration<>(factory, warmUp)) != null) {
+            throw new IllegalArgumentException("Program unit " + name + " is already registered");
+        }
+        return this;
+    }
+
+    /**
+     *
+     * Creates, compiles and warms up all registered program units in parallel on a pool of the given size. Errors of individual
+     * program units do not stop the others and are collected in the report.
+     * (Параллельно на пуле заданного размера создает, компилирует и прогревает все зарегистрированные программные юниты.
+     * Ошибки отдельных программных юнитов не останавливают остальные и собираются в отчет.)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param parallelism number of threads (количество потоков)
+     * @return initialization report (отчет инициализации)
+     * @throws InterruptedException the thread was interrupted (поток прерван)
+     */
+    public Report initialize(int parallelism) throws InterruptedException {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism <= 0");
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "program-unit-registry-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.nanoTime();
+        Map<String, Future<Duration>> initializations = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Registration<?>> registration : registrations.entrySet()) {
+                initializations.put(registration.getKey(),
+                        executor.submit(() -> initialize(registration.getKey(), registration.getValue())));
+            }
+
+            Map<String, Duration> initialized = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<Duration>> initialization : initializations.entrySet()) {
+                try {
+                    initialized.put(initialization.getKey(), initialization.getValue().get());
+                } catch (ExecutionException e) {
+                    // the error is already saved in failures
+                    // ошибка уже сохранена в failures
+                }
+            }
+
+            return new Report(Duration.ofNanos(System.nanoTime() - start), initialized, new LinkedHashMap<>(failures));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     *
+     * The function returns the program unit. If the program unit is not yet initialized, it is created and compiled on the
+     * calling thread.
+     * (Функция возвращает программный юнит. Если программный юнит еще не инициализирован, он создается и компилируется
+     * на вызывающем потоке.)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param <T> type of output parameters (тип выходных параметров)
+     * @param name name of the program unit in the registry (имя программного юнита в реестре)
+     * @return program unit (программный юнит)
+     * @throws Exception the program unit is not registered or failed initialization, the error of the initialization is the cause
+     *                   (программный юнит не зарегистрирован или не прошел инициализацию, ошибка инициализации - причина)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ProgramUnitDB<T> get(String name) throws Exception {
+        ProgramUnitDB<?> programUnit = programUnits.get(name);
+        if (programUnit != null) {
+            return (ProgramUnitDB<T>) programUnit;
+        }
+        Exception failure = failures.get(name);
+        if (failure != null) {
+            // the saved error is shared by all the callers, so each of them gets its own exception with its own stack trace
+            // сохраненная ошибка общая для всех вызывающих, поэтому каждый получает свое исключение со своим стеком
+            throw new Exception("Program unit " + name + " failed initialization", failure);
+        }
+        Registration<?> registration = registrations.get(name);
+        if (registration == null) {
+            throw new IllegalArgumentException("Program unit " + name + " is not registered");
+        }
+        ProgramUnitDB<?> created = registration.factory.call();
+        created.compile();
+        programUnit = programUnits.putIfAbsent(name, created);
+        return (ProgramUnitDB<T>) (programUnit == null ? created : programUnit);
+    }
+
+    private <T> Duration initialize(String name, Registration<T> registration) throws Exception {
+        long start = System.nanoTime();
+        try {
+            ProgramUnitDB<T> programUnit = registration.factory.call();
+            programUnit.compile();
+            if (registration.warmUp != null) {
+                registration.warmUp.call(programUnit);
+            }
+            programUnits.putIfAbsent(name, programUnit);
+            // the error of the previous initialization is no longer relevant
+            // ошибка предыдущей инициализации больше не актуальна
+            failures.remove(name);
+        } catch (Exception e) {
+            failures.put(name, e);
+            throw e;
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    private static final class Registration<T> {
+
+        private final Callable<ProgramUnitDB<T>> factory;
+        private final WarmUp<T> warmUp;
+
+        Registration(Callable<ProgramUnitDB<T>> factory, WarmUp<T> warmUp) {
+            this.factory = factory;
+            this.warmUp = warmUp;
+        }
+
+    }
+
+    /**
+     * <p>
+     * Initialization report: total time, time of each program unit and program units that failed initialization
+     * (Отчет инициализации: общее время, время каждого программного юнита и программные юниты, не прошедшие инициализацию)
+     * </p>
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     */
+    public static final class Report {
+
+        private final Duration totalTime;
+        private final Map<String, Duration> initialized;
+        private final Map<String, Exception> failed;
+
+        Report(Duration totalTime, Map<String, Duration> initialized, Map<String, Exception> failed) {
+            this.totalTime = totalTime;
+            this.initialized = Collections.unmodifiableMap(initialized);
+            this.failed = Collections.unmodifiableMap(failed);
+        }
+
+        /**
+         *
+         * @return total initialization time (общее время инициализации)
+         */
+        public Duration getTotalTime() {
+            return totalTime;
+        }
+
+        /**
+         *
+         * @return name -> initialization time of successfully initialized program units (имя -> время инициализации успешно инициализированных программных юнитов)
+         */
+        public Map<String, Duration> getInitialized() {
+            return initialized;
+        }
+
+        /**
+         *
+         * @return name -> error of program units that failed initialization (имя -> ошибка программных юнитов, не прошедших инициализацию)
+         */
+        public Map<String, Exception> getFailed() {
+            return failed;
+        }
+
+        /**
+         *
+         * @return true if all program units are initialized (true, если все программные юниты инициализированы)
+         */
+        public boolean isSuccessful() {
+            return failed.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            List<String> failedDescriptions = new ArrayList<>();
+            failed.forEach((name, e) -> failedDescriptions.add(name + ": " + e));
+            return "Program units initialized: " + initialized.size() + ", failed: " + failed.size() + ", total time: "
+                    + totalTime.toMillis() + " ms" + (failedDescriptions.isEmpty() ? "" : ", " + failedDescriptions);
+        }
+
+    }
+
+}
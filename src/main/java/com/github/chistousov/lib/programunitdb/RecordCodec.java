@@ -0,0 +1,40 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * <p>
+ * Binary format of one cursor record, in which records are written to disk by {@link SpillingList}. By default, the fields of
+ * the contract class are written one after another ({@link FieldRecordCodec}); a more compact format can be set by
+ * {@link ProgramUnitDB#setRecordCodec(RecordCodec)}.
+ * (Двоичный формат одной записи курсора, в котором записи пишутся на диск {@link SpillingList}. По умолчанию поля
+ * класса-контракта пишутся одно за другим ({@link FieldRecordCodec}); более компактный формат можно задать через
+ * {@link ProgramUnitDB#setRecordCodec(RecordCodec)}.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see SpillingList
+ *
+ * @param <T> record type (тип записи)
+ */
+public interface RecordCodec<T> {
+
+    /**
+     *
+     * @param record record (запись)
+     * @param out output (вывод)
+     * @throws IOException write error (ошибка записи)
+     */
+    void write(T record, DataOutput out) throws IOException;
+
+    /**
+     *
+     * @param in input (ввод)
+     * @return record (запись)
+     * @throws IOException read error (ошибка чтения)
+     */
+    T read(DataInput in) throws IOException;
+}
@@ -0,0 +1,227 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>
+ * Cache of the results of a program unit by the values of its input parameters. Intended for idempotent stored functions
+ * (lookups by key). Records live no longer than the TTL, and when the number of records or their estimated size in bytes is
+ * exceeded, the least recently used records are evicted (LRU).
+ * (Кэш результатов программного юнита по значениям его входных параметров. Предназначен для идемпотентных хранимых функций
+ * (поиск по ключу). Записи живут не дольше TTL, а при превышении количества записей или их оценочного размера в байтах
+ * вытесняются давно не использованные записи (LRU).)
+ * </p>
+ *
+ * <p>
+ * The cache is safe for concurrent use. The program unit is called outside the lock, so a slow call does not block readers
+ * of other keys. One cache is used by one {@link ProgramUnitDB}.
+ * (Кэш безопасен для конкурентного использования. Программный юнит вызывается вне блокировки, поэтому медленный вызов
+ * не блокирует читателей других ключей. Один кэш используется одним {@link ProgramUnitDB}.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see ProgramUnitDB#setResultCache(ResultCache)
+ */
+public final class ResultCache {
+
+    // cached null
+    // закэшированный null
+    private static final Object NULL = new Object();
+
+    private final long ttlNanos;
+    private final int maximumSize;
+    private final long maximumBytes;
+    private final ToLongFunction<Object> byteEstimator;
+
+    // records in the order of access: the first is the least recently used
+    // записи в порядке обращения: первая - давно не использованная
+    private final LinkedHashMap<CallKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long bytes;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     *
+     * @param ttl lifetime of the record (время жизни записи)
+     * @param maximumSize maximum number of records (максимальное количество записей)
+     */
+    public ResultCache(Duration ttl, int maximumSize) {
+        this(ttl, maximumSize, Long.MAX_VALUE, null);
+    }
+
+    /**
+     *
+     * @param ttl lifetime of the record (время жизни записи)
+     * @param maximumSize maximum number of records (максимальное количество записей)
+     * @param maximumBytes maximum estimated size of all records in bytes (максимальный оценочный размер всех записей в байтах)
+     * @param byteEstimator estimates the size of the result in bytes. May be null if maximumBytes is not limited (оценивает размер результата в байтах. Может быть null, если maximumBytes не ограничен)
+     */
+    public ResultCache(Duration ttl, int maximumSize, long maximumBytes, ToLongFunction<Object> byteEstimator) {
+        Objects.requireNonNull(ttl, "ttl");
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl <= 0");
+        }
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize <= 0");
+        }
+        if (maximumBytes <= 0) {
+            throw new IllegalArgumentException("maximumBytes <= 0");
+        }
+        if (maximumBytes != Long.MAX_VALUE) {
+            Objects.requireNonNull(byteEstimator, "byteEstimator");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.maximumSize = maximumSize;
+        this.maximumBytes = maximumBytes;
+        this.byteEstimator = byteEstimator;
+    }
+
+    /**
+     *
+     * The function returns the cached result or calls the program unit and caches its result
+     * (Функция возвращает закэшированный результат или вызывает программный юнит и кэширует его результат)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param <R> result type (тип результата)
+     * @param key call key (ключ вызова)
+     * @param call call of the program unit (вызов программного юнита)
+     * @return result (результат)
+     * @throws Exception call error, errors are not cached (ошибка вызова, ошибки не кэшируются)
+     */
+    @SuppressWarnings("unchecked")
+    <R> R get(CallKey key, Callable<R> call) throws Exception {
+        long now = System.nanoTime();
+
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (now - entry.createdNanos < ttlNanos) {
+                    hitCount.increment();
+                    return entry.value == NULL ? null : (R) entry.value;
+                }
+                remove(key, entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+        missCount.increment();
+
+        R value = call.call();
+
+        long valueBytes = byteEstimator == null ? 0 : byteEstimator.applyAsLong(value);
+        lock.lock();
+        try {
+            Entry previous = entries.put(key, new Entry(value == null ? NULL : value, now, valueBytes));
+            if (previous != null) {
+                bytes -= previous.bytes;
+            }
+            bytes += valueBytes;
+            evict();
+        } finally {
+            lock.unlock();
+        }
+        return value;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<CallKey, Entry>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > maximumSize || bytes > maximumBytes) && iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            iterator.remove();
+            bytes -= entry.bytes;
+            evictionCount.increment();
+        }
+    }
+
+    private void remove(CallKey key, Entry entry) {
+        entries.remove(key);
+        bytes -= entry.bytes;
+        evictionCount.increment();
+    }
+
+    /**
+     * Removes all records (Удаляет все записи)
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            bytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *
+     * @return number of records (количество записей)
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *
+     * @return number of calls answered from the cache (количество вызовов, на которые ответил кэш)
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     *
+     * @return number of calls that went to the database (количество вызовов, ушедших в БД)
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     *
+     * @return number of records evicted by size or expired (количество записей, вытесненных по размеру или устаревших)
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ResultCache[hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount()
+                + ", size=" + size() + "]";
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long createdNanos;
+        private final long bytes;
+
+        Entry(Object value, long createdNanos, long bytes) {
+            this.value = value;
+            this.createdNanos = createdNanos;
+            this.bytes = bytes;
+        }
+
+    }
+
+}
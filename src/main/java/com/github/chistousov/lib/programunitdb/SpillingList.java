@@ -0,0 +1,279 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * <p>
+ * Read-only list of cursor records written to a temporary file in the binary format of {@link RecordCodec}. The file is
+ * mapped into memory ({@link MappedByteBuffer}) and each record is decoded only on {@link #get(int)}, so the heap does not
+ * depend on the size of the cursor: the offsets of the records are also kept in a mapped file.
+ * (Список записей курсора только для чтения, записанных во временный файл в двоичном формате {@link RecordCodec}. Файл
+ * отображается в память ({@link MappedByteBuffer}), и каждая запись декодируется только при {@link #get(int)}, поэтому куча
+ * не зависит от размера курсора: смещения записей также хранятся в отображенном файле.)
+ * </p>
+ *
+ * <p>
+ * The list must be closed by {@link #close()}: the files are deleted. {@link #get(int)} is safe for concurrent readers.
+ * (Список нужно закрыть через {@link #close()}: файлы удаляются. {@link #get(int)} безопасен для конкурентных читателей.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see ProgramUnitDB#setSpillThreshold(int)
+ *
+ * @param <T> record type (тип записи)
+ */
+public final class SpillingList<T> extends AbstractList<T> implements RandomAccess, AutoCloseable {
+
+    // maximum size of one mapped region of the file
+    // максимальный размер одной отображенной области файла
+    private static final int SEGMENT_SIZE = 1 << 30;
+    private static final int OFFSETS_PER_SEGMENT = SEGMENT_SIZE / Long.BYTES;
+
+    private final RecordCodec<T> codec;
+    private final Path dataFile;
+    private final Path indexFile;
+    private final int size;
+    // regions of the data file: records do not cross their boundaries
+    // области файла данных: записи не пересекают их границы
+    private final long[] segmentStarts;
+    private volatile MappedByteBuffer[] dataSegments;
+    private volatile MappedByteBuffer[] indexSegments;
+    private final long dataLength;
+
+    private SpillingList(RecordCodec<T> codec, Path dataFile, Path indexFile, int size, long[] segmentStarts,
+            long dataLength) throws IOException {
+        this.codec = codec;
+        this.dataFile = dataFile;
+        this.indexFile = indexFile;
+        this.size = size;
+        this.segmentStarts = segmentStarts;
+        this.dataLength = dataLength;
+
+        try (FileChannel data = FileChannel.open(dataFile, StandardOpenOption.READ);
+                FileChannel index = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            MappedByteBuffer[] dataSegments = new MappedByteBuffer[segmentStarts.length];
+            for (int i = 0; i < segmentStarts.length; i++) {
+                long end = i + 1 < segmentStarts.length ? segmentStarts[i + 1] : dataLength;
+                dataSegments[i] = data.map(FileChannel.MapMode.READ_ONLY, segmentStarts[i], end - segmentStarts[i]);
+            }
+            long indexLength = (long) size * Long.BYTES;
+            MappedByteBuffer[] indexSegments = new MappedByteBuffer[(int) ((indexLength + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < indexSegments.length; i++) {
+                long start = (long) i * SEGMENT_SIZE;
+                indexSegments[i] = index.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(SEGMENT_SIZE, indexLength - start));
+            }
+            this.dataSegments = dataSegments;
+            this.indexSegments = indexSegments;
+        }
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        MappedByteBuffer[] dataSegments = this.dataSegments;
+        MappedByteBuffer[] indexSegments = this.indexSegments;
+        if (dataSegments == null) {
+            throw new IllegalStateException("The list is closed");
+        }
+
+        long start = offset(indexSegments, index);
+        long end = index + 1 < size ? offset(indexSegments, index + 1) : dataLength;
+
+        int segment = Arrays.binarySearch(segmentStarts, start);
+        if (segment < 0) {
+            segment = -segment - 2;
+        }
+        // the next record may start a new region
+        // следующая запись может начинать новую область
+        ByteBuffer record = dataSegments[segment].duplicate();
+        record.position((int) (start - segmentStarts[segment]));
+        record.limit((int) (Math.min(end, segment + 1 < segmentStarts.length ? segmentStarts[segment + 1] : dataLength)
+                - segmentStarts[segment]));
+        try {
+            return codec.read(new DataInputStream(new ByteBufferInputStream(record)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long offset(MappedByteBuffer[] indexSegments, int index) {
+        return indexSegments[index / OFFSETS_PER_SEGMENT].getLong((index % OFFSETS_PER_SEGMENT) * Long.BYTES);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Releases the mapped regions and deletes the files (Освобождает отображенные области и удаляет файлы)
+     */
+    @Override
+    public void close() {
+        dataSegments = null;
+        indexSegments = null;
+        try {
+            Files.deleteIfExists(dataFile);
+            Files.deleteIfExists(indexFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * <p>
+     * Writes records to the files of a {@link SpillingList}
+     * (Пишет записи в файлы {@link SpillingList})
+     * </p>
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param <T> record type (тип записи)
+     */
+    static final class Writer<T> implements AutoCloseable {
+
+        private final RecordCodec<T> codec;
+        private final Path dataFile;
+        private final Path indexFile;
+        private final DataOutputStream data;
+        private final DataOutputStream index;
+
+        // the record is encoded into the buffer first to know its size
+        // запись сначала кодируется в буфер, чтобы знать ее размер
+        private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        private final DataOutputStream record = new DataOutputStream(recordBytes);
+
+        private final List<Long> segmentStarts = new ArrayList<>();
+        private long position;
+        private int size;
+        private boolean isFinished;
+
+        /**
+         *
+         * @param codec binary format of a record (двоичный формат записи)
+         * @param directory directory of the temporary files (каталог временных файлов)
+         * @throws IOException the files cannot be created (файлы нельзя создать)
+         */
+        Writer(RecordCodec<T> codec, Path directory) throws IOException {
+            this.codec = codec;
+            this.dataFile = Files.createTempFile(directory, "program-unit-db-", ".data");
+            this.indexFile = Files.createTempFile(directory, "program-unit-db-", ".index");
+            this.data = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dataFile), 1 << 16));
+            this.index = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile), 1 << 16));
+            this.segmentStarts.add(0L);
+        }
+
+        /**
+         *
+         * @param value record (запись)
+         * @throws IOException write error (ошибка записи)
+         */
+        void add(T value) throws IOException {
+            recordBytes.reset();
+            codec.write(value, record);
+            record.flush();
+            int length = recordBytes.size();
+            if (length > SEGMENT_SIZE) {
+                throw new IOException("The record is larger than " + SEGMENT_SIZE + " bytes");
+            }
+            if (position - segmentStarts.get(segmentStarts.size() - 1) + length > SEGMENT_SIZE) {
+                segmentStarts.add(position);
+            }
+            if (size == Integer.MAX_VALUE) {
+                throw new IOException("Too many records");
+            }
+            index.writeLong(position);
+            recordBytes.writeTo(data);
+            position += length;
+            size++;
+        }
+
+        /**
+         *
+         * @return list of the written records (список записанных записей)
+         * @throws IOException write error (ошибка записи)
+         */
+        SpillingList<T> finish() throws IOException {
+            data.close();
+            index.close();
+            isFinished = true;
+            long[] starts = new long[segmentStarts.size()];
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = segmentStarts.get(i);
+            }
+            return new SpillingList<>(codec, dataFile, indexFile, size, starts, position);
+        }
+
+        /**
+         * Deletes the files if the list was not created (Удаляет файлы, если список не был создан)
+         */
+        @Override
+        public void close() {
+            if (isFinished) {
+                return;
+            }
+            try {
+                data.close();
+                index.close();
+            } catch (IOException e) {
+                // the files are deleted in any case
+                // файлы удаляются в любом случае
+            }
+            try {
+                Files.deleteIfExists(dataFile);
+                Files.deleteIfExists(indexFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+    }
+
+}
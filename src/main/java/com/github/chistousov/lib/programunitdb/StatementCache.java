@@ -0,0 +1,430 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+/**
+ * <p>
+ * Cache of prepared {@link CallableStatement} by connection and call string. A call of a program unit takes the statement
+ * prepared by the previous call on the same physical connection instead of preparing {@code {call schema.name(?, ?)}} again,
+ * so the database does not parse the call again (soft parse in Oracle). For each connection at most maximumSize statements
+ * are kept, the least recently used statements are evicted (LRU) and closed.
+ * (Кэш подготовленных {@link CallableStatement} по подключению и строке вызова. Вызов программного юнита берет выражение,
+ * подготовленное предыдущим вызовом на том же физическом подключении, вместо повторной подготовки
+ * {@code {call schema.name(?, ?)}}, поэтому БД не разбирает вызов заново (soft parse в Oracle). Для каждого подключения
+ * хранится не больше maximumSize выражений, давно не использованные выражения вытесняются (LRU) и закрываются.)
+ * </p>
+ *
+ * <p>
+ * The statements are prepared on the physical connection ({@link Connection#unwrap(Class)}), so they outlive the return of
+ * the connection to the pool. A statement is prepared outside the locks of the cache. A statement is closed when it is
+ * evicted, when a call on it fails, when its connection is closed (checked by each call that prepares a statement and once
+ * a second by the other calls) and by {@link #clear()}. Connections of Spring transactions are not wrapped.
+ * One cache can be shared by several {@link ProgramUnitDB} of one data source.
+ * (Выражения подготавливаются на физическом подключении ({@link Connection#unwrap(Class)}), поэтому переживают возврат
+ * подключения в пул. Выражение подготавливается вне блокировок кэша. Выражение закрывается при вытеснении, при ошибке
+ * вызова на нем, при закрытии его подключения (проверяется каждым вызовом, который подготавливает выражение, и раз
+ * в секунду остальными вызовами) и методом {@link #clear()}. Подключения транзакций Spring не оборачиваются.
+ * Один кэш может разделяться несколькими {@link ProgramUnitDB} одного источника данных.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see ProgramUnitDB#setStatementCache(StatementCache)
+ */
+public final class StatementCache {
+
+    // how often the calls that take a prepared statement look for closed connections
+    // как часто вызовы, берущие подготовленное выражение, ищут закрытые подключения
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int maximumSize;
+
+    // statements of each physical connection
+    // выражения каждого физического подключения
+    private final Map<Connection, ConnectionStatements> connections = new IdentityHashMap<>();
+    private final ReentrantLock connectionsLock = new ReentrantLock();
+    private volatile long nextSweepNanos = System.nanoTime();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     *
+     * @param maximumSize maximum number of statements of one connection (максимальное количество выражений одного подключения)
+     */
+    public StatementCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize <= 0");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     *
+     * @param connection connection of the data source (подключение источника данных)
+     * @return connection whose {@link Connection#prepareCall(String)} takes the statements from the cache
+     *         (подключение, у которого {@link Connection#prepareCall(String)} берет выражения из кэша)
+     */
+    Connection wrap(Connection connection) {
+        Connection physicalConnection;
+        try {
+            physicalConnection = connection.unwrap(Connection.class);
+        } catch (SQLException e) {
+            physicalConnection = null;
+        }
+        Connection target = physicalConnection != null ? physicalConnection : connection;
+
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "prepareCall":
+                    if (args.length == 1) {
+                        return prepareCall(target, (String) args[0]);
+                    }
+                    break;
+                case "getTargetConnection":
+                    return connection;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "StatementCache[" + connection + "]";
+                default:
+                    break;
+            }
+            return invoke(connection, method, args);
+        };
+        return (Connection) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+                new Class<?>[] { ConnectionProxy.class }, handler);
+    }
+
+    private CallableStatement prepareCall(Connection connection, String sql) throws SQLException {
+        long now = System.nanoTime();
+        if (now - nextSweepNanos >= 0) {
+            // the pool may close connections without opening new ones
+            // пул может закрывать подключения, не открывая новых
+            nextSweepNanos = now + SWEEP_INTERVAL_NANOS;
+            removeClosedConnections(connection);
+        }
+        ConnectionStatements statements = statementsOf(connection);
+        statements.lock.lock();
+        try {
+            CachedStatement cached = statements.statements.get(sql);
+            if (cached != null && !cached.isInUse && !cached.statement.isClosed()) {
+                cached.isInUse = true;
+                hitCount.increment();
+                return cached.proxy;
+            }
+        } finally {
+            statements.lock.unlock();
+        }
+
+        missCount.increment();
+        removeClosedConnections(connection);
+        // the database parses the call without holding the other calls of the connection
+        // БД разбирает вызов, не задерживая другие вызовы подключения
+        CallableStatement statement = connection.prepareCall(sql);
+
+        List<CallableStatement> evicted = new ArrayList<>();
+        statements.lock.lock();
+        try {
+            CachedStatement cached = statements.statements.get(sql);
+            // the cached statement is used by an enclosing call, for example by an open cursor
+            // закэшированное выражение использует объемлющий вызов, например открытый курсор
+            if (cached != null && cached.isInUse) {
+                return statement;
+            }
+            if (cached != null) {
+                // closed by the connection or prepared by a concurrent call
+                // закрыто подключением или подготовлено конкурентным вызовом
+                statements.statements.remove(sql);
+                evicted.add(cached.statement);
+            }
+            cached = new CachedStatement(statements, sql, statement);
+            cached.isInUse = true;
+            statements.statements.put(sql, cached);
+            evict(statements, evicted);
+            return cached.proxy;
+        } finally {
+            statements.lock.unlock();
+            evicted.forEach(StatementCache::closeQuietly);
+        }
+    }
+
+    // the least recently used statements that are not in use are removed, they are closed outside the lock
+    // удаляются давно не использованные выражения, которые не используются, они закрываются вне блокировки
+    private void evict(ConnectionStatements statements, List<CallableStatement> evicted) {
+        Iterator<CachedStatement> iterator = statements.statements.values().iterator();
+        while (statements.statements.size() > maximumSize && iterator.hasNext()) {
+            CachedStatement cached = iterator.next();
+            if (!cached.isInUse) {
+                iterator.remove();
+                evicted.add(cached.statement);
+                evictionCount.increment();
+            }
+        }
+    }
+
+    private ConnectionStatements statementsOf(Connection connection) {
+        connectionsLock.lock();
+        try {
+            return connections.computeIfAbsent(connection, key -> new ConnectionStatements());
+        } finally {
+            connectionsLock.unlock();
+        }
+    }
+
+    // the statements of closed connections are removed by the calls of the cache; the call does not wait while the map is
+    // busy
+    // выражения закрытых подключений удаляют вызовы кэша; вызов не ждет, пока карта занята
+    private void removeClosedConnections(Connection current) {
+        if (!connectionsLock.tryLock()) {
+            return;
+        }
+        List<ConnectionStatements> closed = new ArrayList<>();
+        try {
+            Iterator<Map.Entry<Connection, ConnectionStatements>> iterator = connections.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Connection, ConnectionStatements> entry = iterator.next();
+                if (entry.getKey() != current && isClosed(entry.getKey())) {
+                    // the entry of IdentityHashMap is not valid after its removal
+                    // запись IdentityHashMap недействительна после ее удаления
+                    closed.add(entry.getValue());
+                    iterator.remove();
+                }
+            }
+        } finally {
+            connectionsLock.unlock();
+        }
+        closed.forEach(ConnectionStatements::close);
+    }
+
+    private static boolean isClosed(Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Closes all statements that are not in use (Закрывает все выражения, которые не используются)
+     */
+    public void clear() {
+        List<ConnectionStatements> statements;
+        connectionsLock.lock();
+        try {
+            statements = new ArrayList<>(connections.values());
+        } finally {
+            connectionsLock.unlock();
+        }
+        statements.forEach(ConnectionStatements::close);
+    }
+
+    /**
+     *
+     * @return number of cached statements of all connections (количество закэшированных выражений всех подключений)
+     */
+    public int size() {
+        List<ConnectionStatements> statements;
+        connectionsLock.lock();
+        try {
+            statements = new ArrayList<>(connections.values());
+        } finally {
+            connectionsLock.unlock();
+        }
+        int size = 0;
+        for (ConnectionStatements connectionStatements : statements) {
+            connectionStatements.lock.lock();
+            try {
+                size += connectionStatements.statements.size();
+            } finally {
+                connectionStatements.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     *
+     * @return number of calls that took a prepared statement (количество вызовов, взявших подготовленное выражение)
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     *
+     * @return number of calls that prepared a statement (количество вызовов, подготовивших выражение)
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     *
+     * @return number of statements evicted by size (количество выражений, вытесненных по размеру)
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     *
+     * @return share of the calls that took a prepared statement, 0 if there were no calls
+     *         (доля вызовов, взявших подготовленное выражение, 0, если вызовов не было)
+     */
+    public double getHitRatio() {
+        long hits = getHitCount();
+        long calls = hits + getMissCount();
+        return calls == 0 ? 0 : (double) hits / calls;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementCache[hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions="
+                + getEvictionCount() + ", size=" + size() + "]";
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void closeQuietly(CallableStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // the statement of a closed connection
+            // выражение закрытого подключения
+        }
+    }
+
+    /**
+     * Statements of one connection in the order of use (Выражения одного подключения в порядке использования)
+     */
+    private static final class ConnectionStatements {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // guarded by lock
+        // защищено lock
+        private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+        void close() {
+            List<CallableStatement> closed = new ArrayList<>();
+            lock.lock();
+            try {
+                Iterator<CachedStatement> iterator = statements.values().iterator();
+                while (iterator.hasNext()) {
+                    CachedStatement cached = iterator.next();
+                    if (!cached.isInUse) {
+                        iterator.remove();
+                        closed.add(cached.statement);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            closed.forEach(StatementCache::closeQuietly);
+        }
+
+    }
+
+    /**
+     * <p>
+     * Cached statement. Closing the proxy returns the statement to the cache; a statement whose call failed is closed.
+     * (Закэшированное выражение. Закрытие прокси возвращает выражение в кэш; выражение, вызов на котором завершился ошибкой,
+     * закрывается.)
+     * </p>
+     */
+    private static final class CachedStatement implements InvocationHandler {
+
+        private final ConnectionStatements owner;
+        private final String sql;
+        private final CallableStatement statement;
+        private final CallableStatement proxy;
+        // guarded by owner.lock
+        // защищено owner.lock
+        private boolean isInUse;
+        private volatile boolean isBroken;
+
+        CachedStatement(ConnectionStatements owner, String sql, CallableStatement statement) {
+            this.owner = owner;
+            this.sql = sql;
+            this.statement = statement;
+            this.proxy = (CallableStatement) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+                    new Class<?>[] { CallableStatement.class }, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    release();
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            try {
+                return StatementCache.invoke(statement, method, args);
+            } catch (SQLException e) {
+                isBroken = true;
+                throw e;
+            }
+        }
+
+        private void release() {
+            boolean isReusable = !isBroken;
+            if (isReusable) {
+                try {
+                    statement.clearParameters();
+                    statement.clearWarnings();
+                } catch (SQLException e) {
+                    isReusable = false;
+                }
+            }
+            owner.lock.lock();
+            try {
+                if (!isInUse) {
+                    return;
+                }
+                isInUse = false;
+                if (isReusable && owner.statements.get(sql) == this) {
+                    return;
+                }
+                owner.statements.remove(sql, this);
+            } finally {
+                owner.lock.unlock();
+            }
+            closeQuietly(statement);
+        }
+
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * <p>
+ * Table of conversions of database values into Java types shared by {@link ColumnReaders} and {@link OutParamReaders}.
+ * {@link java.sql.ResultSet} and {@link java.sql.CallableStatement} have the same typed getters, but no common interface, so
+ * each of them is described by {@link Getters}, and the table of readers is built once from it for both of them.
+ * (Таблица преобразований значений из БД в Java типы, общая для {@link ColumnReaders} и {@link OutParamReaders}.
+ * У {@link java.sql.ResultSet} и {@link java.sql.CallableStatement} одинаковые типизированные геттеры, но нет общего
+ * интерфейса, поэтому каждый из них описывается {@link Getters}, и таблица чтения строится по нему одна для обоих.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see ColumnReaders
+ * @see OutParamReaders
+ */
+final class ValueReaders {
+
+    /**
+     * Typed getters of a source of values by index (Типизированные геттеры источника значений по индексу)
+     *
+     * @param <S> {@link java.sql.ResultSet} or {@link java.sql.CallableStatement}
+     */
+    interface Getters<S> {
+
+        boolean getBoolean(S source, int index) throws SQLException;
+
+        byte getByte(S source, int index) throws SQLException;
+
+        short getShort(S source, int index) throws SQLException;
+
+        int getInt(S source, int index) throws SQLException;
+
+        long getLong(S source, int index) throws SQLException;
+
+        float getFloat(S source, int index) throws SQLException;
+
+        double getDouble(S source, int index) throws SQLException;
+
+        boolean wasNull(S source) throws SQLException;
+
+        String getString(S source, int index) throws SQLException;
+
+        BigDecimal getBigDecimal(S source, int index) throws SQLException;
+
+        byte[] getBytes(S source, int index) throws SQLException;
+
+        Date getDate(S source, int index) throws SQLException;
+
+        Time getTime(S source, int index) throws SQLException;
+
+        Timestamp getTimestamp(S source, int index) throws SQLException;
+
+        Object getObject(S source, int index) throws SQLException;
+
+        <V> V getObject(S source, int index, Class<V> type) throws SQLException;
+    }
+
+    /**
+     * Reading of one value of the source (Чтение одного значения источника)
+     *
+     * @param <S> {@link java.sql.ResultSet} or {@link java.sql.CallableStatement}
+     */
+    @FunctionalInterface
+    interface Reader<S> {
+
+        /**
+         *
+         * @param source source of values (источник значений)
+         * @param index index of the value, starting from 1 (индекс значения, начиная с 1)
+         * @return value (значение)
+         * @throws SQLException error when converting from JDBC type to JAVA type
+         */
+        Object read(S source, int index) throws SQLException;
+    }
+
+    private ValueReaders() {
+    }
+
+    /**
+     *
+     * The function builds the table of readers by the Java type: wrapper types get null for NULL, primitive types get the
+     * default value, temporal types are read by JDBC 4.2 getObject(index, type) and by the getter of the java.sql type if
+     * the driver does not support it
+     * (Функция строит таблицу чтения по Java типу: типы-обертки получают null для NULL, примитивные типы - значение по
+     * умолчанию, типы даты и времени читаются JDBC 4.2 getObject(index, type), а геттером java.sql типа, если драйвер
+     * его не поддерживает)
+     *
+     * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+     * @since 8
+     *
+     * @param <S> {@link java.sql.ResultSet} or {@link java.sql.CallableStatement}
+     * @param g getters of the source (геттеры источника)
+     * @return type -&gt; reader (тип -&gt; чтение)
+     */
+    static <S> Map<Class<?>, Reader<S>> readers(Getters<S> g) {
+        Map<Class<?>, Reader<S>> readers = new HashMap<>();
+
+        readers.put(boolean.class, g::getBoolean);
+        readers.put(byte.class, g::getByte);
+        readers.put(short.class, g::getShort);
+        readers.put(int.class, g::getInt);
+        readers.put(long.class, g::getLong);
+        readers.put(float.class, g::getFloat);
+        readers.put(double.class, g::getDouble);
+
+        readers.put(Boolean.class, (s, i) -> ContractMapperSupport.orNull(g.getBoolean(s, i), g.wasNull(s)));
+        readers.put(Byte.class, (s, i) -> ContractMapperSupport.orNull(g.getByte(s, i), g.wasNull(s)));
+        readers.put(Short.class, (s, i) -> ContractMapperSupport.orNull(g.getShort(s, i), g.wasNull(s)));
+        readers.put(Integer.class, (s, i) -> ContractMapperSupport.orNull(g.getInt(s, i), g.wasNull(s)));
+        readers.put(Long.class, (s, i) -> ContractMapperSupport.orNull(g.getLong(s, i), g.wasNull(s)));
+        readers.put(Float.class, (s, i) -> ContractMapperSupport.orNull(g.getFloat(s, i), g.wasNull(s)));
+        readers.put(Double.class, (s, i) -> ContractMapperSupport.orNull(g.getDouble(s, i), g.wasNull(s)));
+        readers.put(Character.class, (s, i) -> ContractMapperSupport.toCharacter(g.getString(s, i)));
+
+        readers.put(String.class, g::getString);
+        readers.put(BigDecimal.class, g::getBigDecimal);
+        readers.put(byte[].class, g::getBytes);
+        readers.put(UUID.class, (s, i) -> ContractMapperSupport.toUUID(g.getObject(s, i)));
+
+        readers.put(LocalDate.class, (s, i) -> ContractMapperSupport.readTemporal(() -> g.getObject(s, i, LocalDate.class),
+                () -> ContractMapperSupport.toLocalDate(g.getDate(s, i))));
+        readers.put(LocalTime.class, (s, i) -> ContractMapperSupport.readTemporal(() -> g.getObject(s, i, LocalTime.class),
+                () -> ContractMapperSupport.toLocalTime(g.getTime(s, i))));
+        readers.put(LocalDateTime.class, (s, i) -> ContractMapperSupport.readTemporal(
+                () -> g.getObject(s, i, LocalDateTime.class), () -> ContractMapperSupport.toLocalDateTime(g.getTimestamp(s, i))));
+        readers.put(OffsetDateTime.class, (s, i) -> g.getObject(s, i, OffsetDateTime.class));
+        // a moment of time is read with its offset, so it does not depend on the time zone of the JVM
+        // момент времени читается со своим смещением, поэтому не зависит от часового пояса JVM
+        readers.put(Instant.class, (s, i) -> ContractMapperSupport.readTemporal(
+                () -> ContractMapperSupport.toInstant(g.getObject(s, i, OffsetDateTime.class)),
+                () -> ContractMapperSupport.toInstant(g.getTimestamp(s, i))));
+
+        return readers;
+    }
+
+}
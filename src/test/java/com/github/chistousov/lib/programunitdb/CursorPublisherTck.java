@@ -0,0 +1,53 @@
+package com.github.chistousov.lib.programunitdb;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.tck.PublisherVerification;
+import org.reactivestreams.tck.TestEnvironment;
+
+/**
+ * <p>
+ * Reactive Streams TCK of {@link CursorPublisher}: the publisher reads the cursor of a program unit on in-memory JDBC
+ * objects. The TCK is written on TestNG.
+ * (Reactive Streams TCK {@link CursorPublisher}: издатель читает курсор программного юнита на JDBC объектах в памяти.
+ * TCK написан на TestNG.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see <a href="https://github.com/reactive-streams/reactive-streams-jvm/tree/master/tck">Reactive Streams TCK</a>
+ */
+public class CursorPublisherTck extends PublisherVerification<Get2FirstUser> {
+
+    public CursorPublisherTck() {
+        super(new TestEnvironment());
+    }
+
+    @Override
+    public Publisher<Get2FirstUser> createPublisher(long elements) {
+        Object[][] rows = new Object[(int) elements][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Object[] { (long) i, "user " + i };
+        }
+        try {
+            return ProgramUnitDBInMemory.get2FirstUser(new String[] { "id", "name" }, rows)
+                    .executeCursorAsPublisher((Object) null);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Publisher<Get2FirstUser> createFailedPublisher() {
+        // the cursor is opened only on demand, so the error of the call is signaled after request
+        // курсор открывается только по запросу, поэтому ошибка вызова сигнализируется после request
+        return null;
+    }
+
+    @Override
+    public long maxElementsFromPublisher() {
+        // the rows of the cursor are held in memory
+        // строки курсора хранятся в памяти
+        return 1024;
+    }
+
+}
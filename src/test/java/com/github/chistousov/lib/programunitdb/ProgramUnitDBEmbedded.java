@@ -0,0 +1,109 @@
+package com.github.chistousov.lib.programunitdb;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.SqlParameter;
+
+/**
+ * <p>
+ * Tests of the library on the embedded H2 database ({@link EmbeddedDatabase}), which returns a cursor as the result set of
+ * the call, not as an output parameter.
+ * (Тесты библиотеки на встроенной БД H2 ({@link EmbeddedDatabase}), которая возвращает курсор как набор строк вызова,
+ * а не как выходной параметр.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ */
+public class ProgramUnitDBEmbedded {
+
+    private static final Timestamp CREATE_DATE_MORE = Timestamp.valueOf("2019-01-01 00:00:00");
+
+    private JdbcConnectionPool dataSource;
+
+    private ProgramUnitDB<Get2FirstUser> programUnitDB;
+
+    private List<Get2FirstUser> expected;
+
+    @BeforeEach
+    public void createDatabase() throws Exception {
+        dataSource = EmbeddedDatabase.create(2, 4);
+
+        List<SqlParameter> parameters = new ArrayList<>();
+        parameters.add(new SqlParameter("create_date_more", Types.TIMESTAMP));
+        programUnitDB = new ProgramUnitDB<>(dataSource, EmbeddedDatabase.SCHEMA, null, "get_2_first_user", parameters,
+                Get2FirstUser.class, false);
+
+        expected = new ArrayList<>();
+        expected.add(ProgramUnitDBInMemory.user(1L, "Nikita Konstantinovich Chistousov"));
+        expected.add(ProgramUnitDBInMemory.user(2L, "Vasily Nikolaevich Shalashov"));
+        expected.add(ProgramUnitDBInMemory.user(3L, "Sergey Olegovich Mozgovoy"));
+    }
+
+    @AfterEach
+    public void disposeDatabase() throws SQLException {
+        dataSource.dispose();
+    }
+
+    @Test
+    @DisplayName("The cursor returned as a result set is read into memory")
+    public void theCursorReturnedAsAResultSetIsReadIntoMemory() throws Exception {
+
+        // when
+        List<Get2FirstUser> actual = programUnitDB.executeReturnedOnlyOneCursor(CREATE_DATE_MORE);
+
+        // then
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("The cursor returned as a result set is written to disk after the threshold")
+    public void theCursorReturnedAsAResultSetIsWrittenToDiskAfterTheThreshold(@TempDir Path spillDirectory)
+            throws Exception {
+
+        // given
+        programUnitDB.setSpillThreshold(1);
+        programUnitDB.setSpillDirectory(spillDirectory);
+
+        // when
+        List<Get2FirstUser> actual = programUnitDB.executeReturnedOnlyOneCursor(CREATE_DATE_MORE);
+
+        // then
+        try (SpillingList<Get2FirstUser> spilled = (SpillingList<Get2FirstUser>) actual) {
+            assertThat(spilled).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("The records of the cursor returned as a result set are mapped in parallel")
+    public void theRecordsOfTheCursorReturnedAsAResultSetAreMappedInParallel() throws Exception {
+
+        // given
+        programUnitDB.setMappingParallelism(2);
+        programUnitDB.setMappingChunkSize(1);
+
+        // when
+        List<Get2FirstUser> actual = programUnitDB.executeReturnedOnlyOneCursor(CREATE_DATE_MORE);
+        programUnitDB.setMappingParallelism(1);
+
+        // then
+        assertAll(
+                () -> assertThat(actual).isEqualTo(expected),
+                () -> assertThat(programUnitDB.getMappingParallelism()).isEqualTo(1));
+    }
+
+}
@@ -0,0 +1,1003 @@
+package com.github.chistousov.lib.programunitdb;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import com.github.chistousov.lib.programunitdb.ProgramUnitMappingException.Reason;
+import com.github.chistousov.lib.programunitdb.annotations.OutParam;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.SqlOutParameter;
+import org.springframework.jdbc.core.SqlParameter;
+
+/**
+ * <p>
+ * Tests of the library on in-memory JDBC objects ({@link StubJdbc}): the paths measured by the benchmarks and the
+ * behavior that does not depend on the database. The call metadata is taken only from the declared parameters.
+ * (Тесты библиотеки на JDBC объектах в памяти ({@link StubJdbc}): пути, измеряемые бенчмарками, и поведение,
+ * которое не зависит от БД. Метаданные вызова берутся только из объявленных параметров.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ */
+public class ProgramUnitDBInMemory {
+
+    private static final LocalDateTime CREATE_DATE = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @Test
+    @DisplayName("Cursor rows are mapped into the contract class")
+    public void cursorRowsAreMappedIntoTheContractClass() throws Exception {
+
+        // given
+        ProgramUnitDB<Get2FirstUser> programUnitDB = get2FirstUser(new String[] { "id", "name" },
+                new Object[][] { { 1L, "user 1" }, { 2L, "user 2" } });
+
+        // when
+        List<Get2FirstUser> actual = new ArrayList<>();
+        try (CursorIterator<Get2FirstUser> iterator = programUnitDB.executeCursorAsIterator((Object) null)) {
+            iterator.forEachRemaining(actual::add);
+        }
+
+        // then
+        List<Get2FirstUser> expected = new ArrayList<>();
+        expected.add(user(1L, "user 1"));
+        expected.add(user(2L, "user 2"));
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Several output cursors are assembled into the contract class")
+    public void severalOutputCursorsAreAssembledIntoTheContractClass() throws Exception {
+
+        // given
+        Object[][] rows = { { "user 1", "comment 1", CREATE_DATE }, { "user 2", null, null } };
+        List<SqlParameter> parameters = new ArrayList<>();
+        parameters.add(new SqlOutParameter("admins", Types.REF_CURSOR));
+        parameters.add(new SqlOutParameter("users", Types.REF_CURSOR));
+        ProgramUnitDB<GetSomeUser> programUnitDB = new ProgramUnitDB<>(
+                StubJdbc.dataSource(index -> StubJdbc.resultSet(new String[] { "name", "comment", "createdate" }, rows)),
+                "test_program_unit", null, "get_some_user", parameters, GetSomeUser.class, false);
+        programUnitDB.setMetaDataMode(CallMetaDataCache.Mode.DECLARED_ONLY);
+
+        // when
+        GetSomeUser actual = programUnitDB.executeReturnedSeveralOutParams();
+
+        // then
+        GetSomeUser expected = new GetSomeUser();
+        List<GetSomeUser.Admin> admins = new ArrayList<>();
+        List<GetSomeUser.User> users = new ArrayList<>();
+        for (Object[] row : rows) {
+            GetSomeUser.Admin admin = expected.new Admin();
+            admin.setName((String) row[0]);
+            admin.setComment((String) row[1]);
+            admin.setCreatedate((LocalDateTime) row[2]);
+            admins.add(admin);
+            GetSomeUser.User user = expected.new User();
+            user.setName((String) row[0]);
+            user.setComment((String) row[1]);
+            user.setCreatedate((LocalDateTime) row[2]);
+            users.add(user);
+        }
+        expected.setAdmins(admins);
+        expected.setUsers(users);
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("The generated mapper skips a column missing from the cursor and reports a column that cannot be read")
+    public void theGeneratedMapperSkipsAColumnMissingFromTheCursorAndReportsAColumnThatCannotBeRead() throws Exception {
+
+        // given
+        // the cursor has no comment column; the calls after the first one read a name that cannot be read
+        // в курсоре нет колонки comment; вызовы после первого читают имя, которое нельзя прочитать
+        AtomicInteger calls = new AtomicInteger();
+        List<SqlParameter> parameters = new ArrayList<>();
+        parameters.add(new SqlOutParameter("users", Types.REF_CURSOR));
+        ProgramUnitDB<GetUsers> programUnitDB = new ProgramUnitDB<>(StubJdbc.dataSource(index -> StubJdbc.resultSet(
+                new String[] { "createdate", "name" }, calls.getAndIncrement() == 0
+                        ? new Object[][] { { CREATE_DATE, "user 1" } }
+                        : new Object[][] { { CREATE_DATE, new SQLException("broken value") } })),
+                "test_program_unit", null, "get_users", parameters, GetUsers.class, false);
+        programUnitDB.setMetaDataMode(CallMetaDataCache.Mode.DECLARED_ONLY);
+
+        // when
+        GetUsers actual = programUnitDB.executeReturnedSeveralOutParams();
+        ProgramUnitMappingException error = assertThrows(ProgramUnitMappingException.class,
+                () -> programUnitDB.executeReturnedSeveralOutParams());
+
+        // then
+        assertAll(
+                () -> assertThat(Class.forName(GetUsers.class.getName() + ContractMapper.GENERATED_CLASS_SUFFIX))
+                        .isNotNull(),
+                () -> assertThat(actual.getUsers().size()).isEqualTo(1),
+                () -> assertThat(actual.getUsers().get(0).getName()).isEqualTo("user 1"),
+                () -> assertThat(actual.getUsers().get(0).getComment()).isNull(),
+                () -> assertThat(actual.getUsers().get(0).getCreatedate()).isEqualTo(CREATE_DATE),
+                () -> assertThat(error.getReason()).isEqualTo(Reason.CAST_FROM_DB_TO_JAVA_WITH_ERROR));
+    }
+
+    @Test
+    @DisplayName("Output parameters of a generated and of a reflection contract are read directly from the call statement")
+    public void outputParametersOfAGeneratedAndOfAReflectionContractAreReadDirectlyFromTheCallStatement()
+            throws Exception {
+
+        // given
+        Object[][] rows = { { "user 1", "comment 1", CREATE_DATE } };
+        List<SqlParameter> cursors = new ArrayList<>();
+        cursors.add(new SqlOutParameter("admins", Types.REF_CURSOR));
+        cursors.add(new SqlOutParameter("users", Types.REF_CURSOR));
+        ProgramUnitDB<GetSomeUser> generated = new ProgramUnitDB<>(
+                StubJdbc.dataSource(index -> StubJdbc.resultSet(new String[] { "name", "comment", "createdate" }, rows)),
+                "test_program_unit", null, "get_some_user", cursors, GetSomeUser.class, false);
+        generated.setMetaDataMode(CallMetaDataCache.Mode.DECLARED_ONLY);
+
+        List<SqlParameter> parameters = new ArrayList<>();
+        parameters.add(new SqlOutParameter("id", Types.BIGINT));
+        parameters.add(new SqlOutParameter("name", Types.VARCHAR));
+        ProgramUnitDB<UserOutParams> reflection = new ProgramUnitDB<>(
+                StubJdbc.dataSource(index -> index == 1 ? (Object) 1L : "user 1"),
+                "test_program_unit", null, "get_user", parameters, UserOutParams.class, false);
+        reflection.setMetaDataMode(CallMetaDataCache.Mode.DECLARED_ONLY);
+
+        Field contractOutParamsPlan = ProgramUnitDB.class.getDeclaredField("contractOutParamsPlan");
+        contractOutParamsPlan.setAccessible(true);
+        Field outParamsPlan = ProgramUnitDB.class.getDeclaredField("outParamsPlan");
+        outParamsPlan.setAccessible(true);
+
+        // when
+        GetSomeUser generatedActual = generated.executeReturnedSeveralOutParams();
+        UserOutParams reflectionActual = reflection.executeReturnedSeveralOutParams();
+
+        // then
+        assertAll(
+                () -> assertThrows(ClassNotFoundException.class,
+                        () -> Class.forName(UserOutParams.class.getName() + ContractMapper.GENERATED_CLASS_SUFFIX)),
+                () -> assertThat(contractOutParamsPlan.get(generated)).isNotNull(),
+                () -> assertThat(generatedActual.getAdmins().get(0).getName()).isEqualTo("user 1"),
+                () -> assertThat(generatedActual.getUsers().get(0).getCreatedate()).isEqualTo(CREATE_DATE),
+                () -> assertThat(outParamsPlan.get(reflection)).isNotNull(),
+                () -> assertThat(reflectionActual.id).isEqualTo(1L),
+                () -> assertThat(reflectionActual.name).isEqualTo("user 1"));
+    }
+
+    @Test
+    @DisplayName("Column and output parameter readers read the values of their type")
+    public void columnAndOutputParameterReadersReadTheValuesOfTheirType() throws Exception {
+
+        // given
+        ResultSet row = StubJdbc.resultSet(new String[] { "id", "name", "createdate" },
+                new Object[][] { { 1L, "user", CREATE_DATE } });
+        row.next();
+        Object[] outParams = { null, 1L, "user", CREATE_DATE };
+        CallableStatement statement = StubJdbc.callableStatement(index -> outParams[index]);
+
+        // when, then
+        assertAll(
+                () -> assertThat(ColumnReaders.forType(Long.class).read(row, 1)).isEqualTo(1L),
+                () -> assertThat(ColumnReaders.forType(String.class).read(row, 2)).isEqualTo("user"),
+                () -> assertThat(ColumnReaders.forType(LocalDateTime.class).read(row, 3)).isEqualTo(CREATE_DATE),
+                () -> assertThat(OutParamReaders.forType(Long.class).read(statement, 1)).isEqualTo(1L),
+                () -> assertThat(OutParamReaders.forType(String.class).read(statement, 2)).isEqualTo("user"),
+                () -> assertThat(OutParamReaders.forType(LocalDateTime.class).read(statement, 3)).isEqualTo(CREATE_DATE));
+    }
+
+    @Test
+    @DisplayName("Wrapper types get null for NULL and primitive types get 0, while 0 stays 0")
+    public void wrapperTypesGetNullForNullAndPrimitiveTypesGet0WhileZeroStaysZero() throws Exception {
+
+        // given
+        ResultSet row = StubJdbc.resultSet(new String[] { "null_value", "zero" }, new Object[][] { { null, 0L } });
+        row.next();
+        Object[] outParams = { null, null, 0L };
+        CallableStatement statement = StubJdbc.callableStatement(index -> outParams[index]);
+
+        // when, then
+        assertAll(
+                () -> assertThat(ColumnReaders.forType(Long.class).read(row, 1)).isNull(),
+                () -> assertThat(ColumnReaders.forType(Integer.class).read(row, 1)).isNull(),
+                () -> assertThat(ColumnReaders.forType(Short.class).read(row, 1)).isNull(),
+                () -> assertThat(ColumnReaders.forType(Byte.class).read(row, 1)).isNull(),
+                () -> assertThat(ColumnReaders.forType(Double.class).read(row, 1)).isNull(),
+                () -> assertThat(ColumnReaders.forType(Float.class).read(row, 1)).isNull(),
+                () -> assertThat(ColumnReaders.forType(Boolean.class).read(row, 1)).isNull(),
+                () -> assertThat(ColumnReaders.forType(Character.class).read(row, 1)).isNull(),
+                () -> assertThat(ColumnReaders.forType(long.class).read(row, 1)).isEqualTo(0L),
+                () -> assertThat(ColumnReaders.forType(int.class).read(row, 1)).isEqualTo(0),
+                () -> assertThat(ColumnReaders.forType(double.class).read(row, 1)).isEqualTo(0d),
+                () -> assertThat(ColumnReaders.forType(boolean.class).read(row, 1)).isEqualTo(false),
+                () -> assertThat(ColumnReaders.forType(Long.class).read(row, 2)).isEqualTo(0L),
+                () -> assertThat(ColumnReaders.forType(Integer.class).read(row, 2)).isEqualTo(0),
+                () -> assertThat(ColumnReaders.forType(Double.class).read(row, 2)).isEqualTo(0d),
+                () -> assertThat(OutParamReaders.forType(Long.class).read(statement, 1)).isNull(),
+                () -> assertThat(OutParamReaders.forType(Integer.class).read(statement, 1)).isNull(),
+                () -> assertThat(OutParamReaders.forType(Short.class).read(statement, 1)).isNull(),
+                () -> assertThat(OutParamReaders.forType(Byte.class).read(statement, 1)).isNull(),
+                () -> assertThat(OutParamReaders.forType(Double.class).read(statement, 1)).isNull(),
+                () -> assertThat(OutParamReaders.forType(Float.class).read(statement, 1)).isNull(),
+                () -> assertThat(OutParamReaders.forType(Boolean.class).read(statement, 1)).isNull(),
+                () -> assertThat(OutParamReaders.forType(Character.class).read(statement, 1)).isNull(),
+                () -> assertThat(OutParamReaders.forType(long.class).read(statement, 1)).isEqualTo(0L),
+                () -> assertThat(OutParamReaders.forType(int.class).read(statement, 1)).isEqualTo(0),
+                () -> assertThat(OutParamReaders.forType(double.class).read(statement, 1)).isEqualTo(0d),
+                () -> assertThat(OutParamReaders.forType(boolean.class).read(statement, 1)).isEqualTo(false),
+                () -> assertThat(OutParamReaders.forType(Long.class).read(statement, 2)).isEqualTo(0L),
+                () -> assertThat(OutParamReaders.forType(Integer.class).read(statement, 2)).isEqualTo(0),
+                () -> assertThat(OutParamReaders.forType(Double.class).read(statement, 2)).isEqualTo(0d));
+    }
+
+    @Test
+    @DisplayName("Column and output parameter readers read BigDecimal, UUID, byte[], Instant and OffsetDateTime")
+    public void columnAndOutputParameterReadersReadBigDecimalUuidBytesInstantAndOffsetDateTime() throws Exception {
+
+        // given
+        BigDecimal amount = new BigDecimal("12.50");
+        UUID uuid = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        byte[] uuidBytes = ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits()).array();
+        byte[] bytes = { 1, 2, 3 };
+        Instant instant = Instant.parse("2020-01-01T10:15:30.000000001Z");
+        OffsetDateTime offsetDateTime = OffsetDateTime.of(CREATE_DATE, ZoneOffset.ofHours(3));
+        // the moment of time is read with its offset, a timestamp without the time zone is read by getTimestamp
+        // момент времени читается со своим смещением, timestamp без часового пояса читается getTimestamp
+        Object[] values = { amount, uuid, uuidBytes, uuid.toString(), bytes, Timestamp.from(instant), offsetDateTime,
+                "user", OffsetDateTime.ofInstant(instant, ZoneOffset.ofHours(3)) };
+        ResultSet row = StubJdbc.resultSet(new String[] { "amount", "uuid", "uuid_bytes", "uuid_string", "bytes",
+                "instant", "offset_date_time", "name", "instant_with_offset" }, new Object[][] { values });
+        row.next();
+        Object[] outParams = new Object[values.length + 1];
+        System.arraycopy(values, 0, outParams, 1, values.length);
+        CallableStatement statement = StubJdbc.callableStatement(index -> outParams[index]);
+
+        // when, then
+        assertAll(
+                () -> assertThat(ColumnReaders.forType(BigDecimal.class).read(row, 1)).isEqualTo(amount),
+                () -> assertThat(ColumnReaders.forType(UUID.class).read(row, 2)).isEqualTo(uuid),
+                () -> assertThat(ColumnReaders.forType(UUID.class).read(row, 3)).isEqualTo(uuid),
+                () -> assertThat(ColumnReaders.forType(UUID.class).read(row, 4)).isEqualTo(uuid),
+                () -> assertThat(ColumnReaders.forType(byte[].class).read(row, 5)).isEqualTo(bytes),
+                () -> assertThat(ColumnReaders.forType(Instant.class).read(row, 6)).isEqualTo(instant),
+                () -> assertThat(ColumnReaders.forType(OffsetDateTime.class).read(row, 7)).isEqualTo(offsetDateTime),
+                () -> assertThat(ColumnReaders.forType(Character.class).read(row, 8)).isEqualTo('u'),
+                () -> assertThat(ColumnReaders.forType(Instant.class).read(row, 9)).isEqualTo(instant),
+                () -> assertThat(OutParamReaders.forType(BigDecimal.class).read(statement, 1)).isEqualTo(amount),
+                () -> assertThat(OutParamReaders.forType(UUID.class).read(statement, 2)).isEqualTo(uuid),
+                () -> assertThat(OutParamReaders.forType(UUID.class).read(statement, 3)).isEqualTo(uuid),
+                () -> assertThat(OutParamReaders.forType(UUID.class).read(statement, 4)).isEqualTo(uuid),
+                () -> assertThat(OutParamReaders.forType(byte[].class).read(statement, 5)).isEqualTo(bytes),
+                () -> assertThat(OutParamReaders.forType(Instant.class).read(statement, 6)).isEqualTo(instant),
+                () -> assertThat(OutParamReaders.forType(OffsetDateTime.class).read(statement, 7))
+                        .isEqualTo(offsetDateTime),
+                () -> assertThat(OutParamReaders.forType(Character.class).read(statement, 8)).isEqualTo('u'),
+                () -> assertThat(OutParamReaders.forType(Instant.class).read(statement, 9)).isEqualTo(instant));
+    }
+
+    @Test
+    @DisplayName("Output parameters are converted to every numeric type")
+    public void outputParametersAreConvertedToEveryNumericType() {
+
+        // when, then
+        assertAll(
+                () -> assertThat(ContractMapperSupport.castOutParam(Float.class, new BigDecimal("1.5"))).isEqualTo(1.5f),
+                () -> assertThat(ContractMapperSupport.castOutParam(float.class, 2)).isEqualTo(2f),
+                () -> assertThat(ContractMapperSupport.castOutParam(Byte.class, 7)).isEqualTo((byte) 7),
+                () -> assertThat(ContractMapperSupport.castOutParam(byte.class, "8")).isEqualTo((byte) 8),
+                () -> assertThat(ContractMapperSupport.castOutParam(Short.class, 3L)).isEqualTo((short) 3),
+                () -> assertThat(ContractMapperSupport.castOutParam(int.class, new BigDecimal("4"))).isEqualTo(4),
+                () -> assertThat(ContractMapperSupport.castOutParam(Long.class, 5)).isEqualTo(5L),
+                () -> assertThat(ContractMapperSupport.castOutParam(long.class, "6")).isEqualTo(6L),
+                () -> assertThat(ContractMapperSupport.castOutParam(Double.class, 1.25f)).isEqualTo(1.25d),
+                () -> assertThat(ContractMapperSupport.castOutParam(BigDecimal.class, 9L))
+                        .isEqualTo(new BigDecimal("9")),
+                () -> assertThat(ContractMapperSupport.castOutParam(Character.class, "yes")).isEqualTo('y'),
+                () -> assertThat(ContractMapperSupport.castOutParam(Float.class, null)).isNull());
+    }
+
+    @Test
+    @DisplayName("A number that does not fit the numeric type is an error, not a truncated value")
+    public void aNumberThatDoesNotFitTheNumericTypeIsAnErrorNotATruncatedValue() {
+
+        // when, then
+        assertAll(
+                () -> assertThrows(ArithmeticException.class,
+                        () -> ContractMapperSupport.castOutParam(int.class, new BigDecimal("1.5"))),
+                () -> assertThrows(ArithmeticException.class,
+                        () -> ContractMapperSupport.castOutParam(Integer.class, 3_000_000_000L)),
+                () -> assertThrows(ArithmeticException.class,
+                        () -> ContractMapperSupport.castOutParam(Byte.class, 200)),
+                () -> assertThrows(ArithmeticException.class,
+                        () -> ContractMapperSupport.castOutParam(Short.class, 2.5d)),
+                () -> assertThrows(ArithmeticException.class,
+                        () -> ContractMapperSupport.castOutParam(long.class, new BigInteger("9223372036854775808"))),
+                () -> assertThrows(ArithmeticException.class,
+                        () -> ContractMapperSupport.castOutParam(Float.class, 1e300d)),
+                () -> assertThat(ContractMapperSupport.castOutParam(int.class, new BigDecimal("4.00"))).isEqualTo(4),
+                () -> assertThat(ContractMapperSupport.castOutParam(Byte.class, -128L)).isEqualTo((byte) -128),
+                () -> assertThat(ContractMapperSupport.castOutParam(Long.class, 6.0d)).isEqualTo(6L),
+                () -> assertThat(ContractMapperSupport.castOutParam(Float.class, Double.POSITIVE_INFINITY))
+                        .isEqualTo(Float.POSITIVE_INFINITY));
+    }
+
+    @Test
+    @DisplayName("A cursor written to disk is neither cached nor coalesced: each caller receives its own list")
+    public void aCursorWrittenToDiskIsNeitherCachedNorCoalesced(@TempDir Path spillDirectory) throws Exception {
+
+        // given
+        AtomicInteger databaseCalls = new AtomicInteger();
+        ProgramUnitDB<Get2FirstUser> programUnitDB = get2FirstUser(StubJdbc.dataSource(index -> {
+            databaseCalls.incrementAndGet();
+            return StubJdbc.resultSet(new String[] { "id", "name" },
+                    new Object[][] { { 1L, "user 1" }, { 2L, "user 2" } });
+        }));
+        programUnitDB.setSpillThreshold(1);
+        programUnitDB.setSpillDirectory(spillDirectory);
+        programUnitDB.setResultCache(new ResultCache(Duration.ofMinutes(1), 10));
+        programUnitDB.setCoalescing(true);
+
+        List<Get2FirstUser> expected = new ArrayList<>();
+        expected.add(user(1L, "user 1"));
+        expected.add(user(2L, "user 2"));
+
+        // when
+        List<Get2FirstUser> first = programUnitDB.executeReturnedOnlyOneCursor((Object) null);
+        List<Get2FirstUser> second = programUnitDB.executeReturnedOnlyOneCursor((Object) null);
+
+        // then
+        try (SpillingList<Get2FirstUser> firstSpilled = (SpillingList<Get2FirstUser>) first;
+                SpillingList<Get2FirstUser> secondSpilled = (SpillingList<Get2FirstUser>) second) {
+            assertAll(
+                    () -> assertThat(firstSpilled).isNotSameAs(secondSpilled),
+                    () -> assertThat(firstSpilled).isEqualTo(expected),
+                    () -> assertThat(secondSpilled).isEqualTo(expected),
+                    () -> assertThat(databaseCalls.get()).isEqualTo(2),
+                    () -> assertThat(programUnitDB.getResultCache().size()).isEqualTo(0),
+                    () -> assertThat(programUnitDB.getCollapsedCallCount()).isEqualTo(0L));
+        }
+    }
+
+    @Test
+    @DisplayName("Changing the mapping parallelism shuts down the previous pool, and a call on it maps the records itself")
+    public void changingTheMappingParallelismShutsDownThePreviousPool() throws Exception {
+
+        // given
+        ProgramUnitDB<Get2FirstUser> programUnitDB = get2FirstUser(new String[] { "id", "name" },
+                new Object[][] { { 1L, "user 1" }, { 2L, "user 2" }, { 3L, "user 3" } });
+        programUnitDB.setMappingChunkSize(2);
+        Field mappingPool = ProgramUnitDB.class.getDeclaredField("mappingPool");
+        mappingPool.setAccessible(true);
+
+        List<Get2FirstUser> expected = new ArrayList<>();
+        expected.add(user(1L, "user 1"));
+        expected.add(user(2L, "user 2"));
+        expected.add(user(3L, "user 3"));
+
+        // when
+        programUnitDB.setMappingParallelism(2);
+        ForkJoinPool previous = (ForkJoinPool) mappingPool.get(programUnitDB);
+        programUnitDB.setMappingParallelism(3);
+        ForkJoinPool current = (ForkJoinPool) mappingPool.get(programUnitDB);
+        // a call that took the pool before it was replaced
+        // вызов, который взял пул до его замены
+        mappingPool.set(programUnitDB, previous);
+        List<Get2FirstUser> onThePreviousPool = programUnitDB.executeReturnedOnlyOneCursor((Object) null);
+        mappingPool.set(programUnitDB, current);
+        programUnitDB.setMappingParallelism(1);
+
+        // then
+        assertAll(
+                () -> assertThat(previous.isShutdown()).isTrue(),
+                () -> assertThat(current.isShutdown()).isTrue(),
+                () -> assertThat(current.getParallelism()).isEqualTo(3),
+                () -> assertThat(programUnitDB.getMappingParallelism()).isEqualTo(1),
+                () -> assertThat(onThePreviousPool).isEqualTo(expected));
+    }
+
+    @Test
+    @DisplayName("The statement cache counts hits and misses, evicts the least recently used statement and drops a failed one")
+    public void theStatementCacheCountsHitsAndMissesEvictsAndDropsAFailedStatement() throws Exception {
+
+        // given
+        StatementCache statementCache = new StatementCache(2);
+        Map<String, AtomicInteger> prepared = new HashMap<>();
+        List<CallableStatement> statements = new ArrayList<>();
+        boolean[] isClosed = { false };
+        Connection connection = statementCache.wrap(connection(prepared, statements, isClosed));
+
+        // when
+        call(connection, "{call a()}");
+        call(connection, "{call a()}");
+        call(connection, "{call b()}");
+        call(connection, "{call a()}");
+        // b is the least recently used statement
+        // b - давно не использованное выражение
+        call(connection, "{call c()}");
+        call(connection, "{call a()}");
+        call(connection, "{call b()}");
+        // a is evicted by broken, which is not kept after its failure
+        // a вытесняется broken, которое не хранится после своей ошибки
+        assertThrows(SQLException.class, () -> call(connection, "{call broken()}"));
+        assertThrows(SQLException.class, () -> call(connection, "{call broken()}"));
+        long hitCount = statementCache.getHitCount();
+        long missCount = statementCache.getMissCount();
+        long evictionCount = statementCache.getEvictionCount();
+        int size = statementCache.size();
+
+        // the pool closes the connection, the next call on another connection sweeps it
+        // пул закрывает подключение, следующий вызов на другом подключении удаляет его
+        isClosed[0] = true;
+        call(statementCache.wrap(connection(prepared, new ArrayList<>(), new boolean[] { false })), "{call a()}");
+
+        // then
+        assertAll(
+                () -> assertThat(hitCount).isEqualTo(3L),
+                () -> assertThat(missCount).isEqualTo(6L),
+                () -> assertThat(evictionCount).isEqualTo(3L),
+                () -> assertThat(size).isEqualTo(1),
+                () -> assertThat(prepared.get("{call a()}").get()).isEqualTo(2),
+                () -> assertThat(prepared.get("{call b()}").get()).isEqualTo(2),
+                () -> assertThat(prepared.get("{call c()}").get()).isEqualTo(1),
+                () -> assertThat(prepared.get("{call broken()}").get()).isEqualTo(2),
+                // b, c, a, two broken and b of the closed connection
+                // b, c, a, два broken и b закрытого подключения
+                () -> assertThat(statements.stream().filter(this::isClosed).count()).isEqualTo(6L),
+                () -> assertThat(statementCache.size()).isEqualTo(1));
+    }
+
+    @Test
+    @DisplayName("Cursors with different column orders are mapped through the same contract")
+    public void cursorsWithDifferentColumnOrdersAreMappedThroughTheSameContract() throws Exception {
+
+        // given
+        // the cursors of odd calls have the columns (id, name), of even calls - (name, id)
+        // курсоры нечетных вызовов имеют колонки (id, name), четных - (name, id)
+        AtomicInteger calls = new AtomicInteger();
+        List<SqlParameter> parameters = new ArrayList<>();
+        parameters.add(new SqlParameter("create_date_more", Types.TIMESTAMP));
+        parameters.add(new SqlOutParameter("ref_cursor", Types.REF_CURSOR));
+        ProgramUnitDB<Get2FirstUser> programUnitDB = new ProgramUnitDB<>(StubJdbc.dataSource(index -> {
+            if (calls.getAndIncrement() % 2 == 0) {
+                return StubJdbc.resultSet(new String[] { "id", "name" },
+                        new Object[][] { { 1L, "user 1" }, { 2L, "user 2" } });
+            }
+            return StubJdbc.resultSet(new String[] { "name", "id" },
+                    new Object[][] { { "user 1", 1L }, { "user 2", 2L } });
+        }), "test_program_unit", null, "get_2_first_user", parameters, Get2FirstUser.class, false);
+        programUnitDB.setMetaDataMode(CallMetaDataCache.Mode.DECLARED_ONLY);
+
+        List<Get2FirstUser> expected = new ArrayList<>();
+        expected.add(user(1L, "user 1"));
+        expected.add(user(2L, "user 2"));
+
+        // when
+        List<Get2FirstUser> idFirst = programUnitDB.executeReturnedOnlyOneCursor((Object) null);
+        List<Get2FirstUser> nameFirst = programUnitDB.executeReturnedOnlyOneCursor((Object) null);
+
+        // the rows of two open cursors are read in turn in one thread
+        // строки двух открытых курсоров читаются по очереди в одном потоке
+        List<Get2FirstUser> idFirstIterated = new ArrayList<>();
+        List<Get2FirstUser> nameFirstIterated = new ArrayList<>();
+        try (CursorIterator<Get2FirstUser> idFirstIterator = programUnitDB.executeCursorAsIterator((Object) null);
+                CursorIterator<Get2FirstUser> nameFirstIterator = programUnitDB.executeCursorAsIterator((Object) null)) {
+            while (idFirstIterator.hasNext() && nameFirstIterator.hasNext()) {
+                idFirstIterated.add(idFirstIterator.next());
+                nameFirstIterated.add(nameFirstIterator.next());
+            }
+        }
+
+        // then
+        assertAll(
+                () -> assertThat(idFirst).isEqualTo(expected),
+                () -> assertThat(nameFirst).isEqualTo(expected),
+                () -> assertThat(idFirstIterated).isEqualTo(expected),
+                () -> assertThat(nameFirstIterated).isEqualTo(expected));
+    }
+
+    @Test
+    @DisplayName("Accessors write and read private fields, invoke methods and create nested classes")
+    public void accessorsWriteAndReadPrivateFieldsInvokeMethodsAndCreateNestedClasses() throws Throwable {
+
+        // given
+        MethodHandle idWriter = Accessors.fieldWriter(Get2FirstUser.class.getDeclaredField("id"));
+        MethodHandle idReader = Accessors.fieldReader(Get2FirstUser.class.getDeclaredField("id"));
+        MethodHandle nameSetter = Accessors.methodInvoker(Get2FirstUser.class.getMethod("setName", String.class));
+        MethodHandle userInstantiator = Accessors.instantiator(Get2FirstUser.class, null);
+        MethodHandle adminInstantiator = Accessors.instantiator(GetSomeUser.Admin.class, GetSomeUser.class);
+        MethodHandle finalWriter = Accessors.fieldWriter(FinalField.class.getDeclaredField("value"));
+
+        // when
+        Get2FirstUser user = (Get2FirstUser) (Object) userInstantiator.invokeExact();
+        idWriter.invokeExact((Object) user, (Object) 1L);
+        nameSetter.invokeExact((Object) user, new Object[] { "user 1" });
+        Object id = (Object) idReader.invokeExact((Object) user);
+        Object admin = (Object) adminInstantiator.invokeExact();
+        FinalField finalField = new FinalField();
+        finalWriter.invokeExact((Object) finalField, (Object) "written");
+
+        // then
+        assertAll(
+                () -> assertThat(user).isEqualTo(user(1L, "user 1")),
+                () -> assertThat(id).isEqualTo(1L),
+                () -> assertThat(admin).isInstanceOf(GetSomeUser.Admin.class),
+                () -> assertThat(finalField.value).isEqualTo("written"),
+                () -> assertThat(Accessors.methodInvoker(Get2FirstUser.class.getMethod("setName", String.class)).type())
+                        .isEqualTo(Accessors.INVOKER_TYPE),
+                () -> assertThrows(NoSuchMethodException.class,
+                        () -> Accessors.instantiator(WithoutDefaultConstructor.class, null)));
+    }
+
+    @Test
+    @DisplayName("A mapping error belongs only to the call in which it occurred")
+    public void aMappingErrorBelongsOnlyToTheCallInWhichItOccurred() throws Exception {
+
+        // given
+        // the threads named "broken" read a cursor whose column cannot be read
+        // потоки с именем "broken" читают курсор, колонку которого нельзя прочитать
+        Object[][] rows = { { 1L, "user 1" }, { 2L, "user 2" } };
+        Object[][] brokenRows = { { new SQLException("broken value"), "user 1" } };
+        List<SqlParameter> parameters = new ArrayList<>();
+        parameters.add(new SqlParameter("create_date_more", Types.TIMESTAMP));
+        parameters.add(new SqlOutParameter("ref_cursor", Types.REF_CURSOR));
+        ProgramUnitDB<Get2FirstUser> programUnitDB = new ProgramUnitDB<>(
+                StubJdbc.dataSource(index -> StubJdbc.resultSet(new String[] { "id", "name" },
+                        Thread.currentThread().getName().startsWith("broken") ? brokenRows : rows)),
+                "test_program_unit", null, "get_2_first_user", parameters, Get2FirstUser.class, false);
+        programUnitDB.setMetaDataMode(CallMetaDataCache.Mode.DECLARED_ONLY);
+
+        List<Get2FirstUser> expected = new ArrayList<>();
+        expected.add(user(1L, "user 1"));
+        expected.add(user(2L, "user 2"));
+
+        // when
+        int calls = 200;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Throwable> brokenErrors = new CopyOnWriteArrayList<>();
+        List<Object> results = new CopyOnWriteArrayList<>();
+        Thread broken = new Thread(() -> {
+            awaitQuietly(start);
+            for (int i = 0; i < calls; i++) {
+                try {
+                    programUnitDB.executeReturnedOnlyOneCursor((Object) null);
+                } catch (Exception e) {
+                    brokenErrors.add(e);
+                }
+            }
+        }, "broken");
+        Thread correct = new Thread(() -> {
+            awaitQuietly(start);
+            for (int i = 0; i < calls; i++) {
+                try {
+                    results.add(programUnitDB.executeReturnedOnlyOneCursor((Object) null));
+                } catch (Exception e) {
+                    results.add(e);
+                }
+            }
+        }, "correct");
+        broken.start();
+        correct.start();
+        start.countDown();
+        broken.join();
+        correct.join();
+        List<Get2FirstUser> afterErrors = programUnitDB.executeReturnedOnlyOneCursor((Object) null);
+
+        // then
+        assertAll(
+                () -> assertThat(brokenErrors.size()).isEqualTo(calls),
+                () -> assertThat(brokenErrors.stream().allMatch(e -> e instanceof ProgramUnitMappingException
+                        && ((ProgramUnitMappingException) e).getReason() == Reason.FIELD_NOT_FOUND))
+                                .isTrue(),
+                () -> assertThat(results.size()).isEqualTo(calls),
+                () -> assertThat(results.stream().allMatch(expected::equals)).isTrue(),
+                () -> assertThat(afterErrors).isEqualTo(expected));
+    }
+
+    @Test
+    @DisplayName("A call failed in the middle of the pipeline keeps the results before it and fails the calls after it")
+    public void aCallFailedInTheMiddleOfThePipelineKeepsTheResultsBeforeItAndFailsTheCallsAfterIt() throws Exception {
+
+        // given
+        // the stub database does not support the pipeline, so the calls are performed one by one
+        // заглушка БД не поддерживает конвейер, поэтому вызовы выполняются по одному
+        ProgramUnitDB<Get2FirstUser> programUnitDB = get2FirstUser(new String[] { "id", "name" },
+                new Object[][] { { 1L, "user 1" } });
+        ProgramUnitDB<Get2FirstUser> brokenProgramUnitDB = get2FirstUser(new String[] { "id", "name" },
+                new Object[][] { { new SQLException("broken value"), "user 1" } });
+        ProgramUnitPipeline pipeline = new ProgramUnitPipeline(StubJdbc.dataSource(index -> null));
+        ProgramUnitPipeline.PipelinedCall<List<Get2FirstUser>> first = pipeline.addReturnedOnlyOneCursor(programUnitDB,
+                (Object) null);
+        ProgramUnitPipeline.PipelinedCall<List<Get2FirstUser>> broken = pipeline
+                .addReturnedOnlyOneCursor(brokenProgramUnitDB, (Object) null);
+        ProgramUnitPipeline.PipelinedCall<List<Get2FirstUser>> last = pipeline.addReturnedOnlyOneCursor(programUnitDB,
+                (Object) null);
+
+        // when
+        Exception error = assertThrows(Exception.class, pipeline::execute);
+
+        // then
+        assertAll(
+                () -> assertThat(error).isInstanceOf(ProgramUnitMappingException.class),
+                () -> assertThat(first.isDone()).isTrue(),
+                () -> assertThat(first.isFailed()).isFalse(),
+                () -> assertThat(first.get()).isEqualTo(Collections.singletonList(user(1L, "user 1"))),
+                () -> assertThat(broken.isDone()).isFalse(),
+                () -> assertThat(broken.getError()).isSameAs(error),
+                () -> assertThat(assertThrows(IllegalStateException.class, broken::get).getCause()).isSameAs(error),
+                () -> assertThat(last.isDone()).isFalse(),
+                () -> assertThat(last.isFailed()).isTrue(),
+                () -> assertThat(last.getError()).isSameAs(error),
+                () -> assertThat(pipeline.size()).isEqualTo(0));
+    }
+
+    @Test
+    @DisplayName("The transaction of the iterator is committed when the reading is stopped and autocommit is restored")
+    public void theTransactionOfTheIteratorIsCommittedWhenTheReadingIsStoppedAndAutocommitIsRestored() throws Exception {
+
+        // given
+        Object[][] rows = { { 1L, "user 1" }, { 2L, "user 2" }, { 3L, "user 3" } };
+        List<String> transaction = new ArrayList<>();
+        DataSource dataSource = StubJdbc.dataSource(index -> StubJdbc.resultSet(new String[] { "id", "name" }, rows),
+                transaction);
+        ProgramUnitDB<Get2FirstUser> programUnitDB = get2FirstUser(dataSource);
+
+        // when
+        List<Get2FirstUser> read = new ArrayList<>();
+        boolean autoCommitWhileReading;
+        try (CursorIterator<Get2FirstUser> iterator = programUnitDB.executeCursorAsIterator((Object) null)) {
+            autoCommitWhileReading = dataSource.getConnection().getAutoCommit();
+            while (iterator.hasNext()) {
+                read.add(iterator.next());
+                if (read.size() == 1) {
+                    break;
+                }
+            }
+        }
+
+        // then
+        assertAll(
+                () -> assertThat(read).isEqualTo(Collections.singletonList(user(1L, "user 1"))),
+                () -> assertThat(autoCommitWhileReading).isFalse(),
+                () -> assertThat(dataSource.getConnection().getAutoCommit()).isTrue(),
+                () -> assertThat(transaction).isEqualTo(Collections.singletonList("commit")));
+    }
+
+    @Test
+    @DisplayName("The transaction of the iterator is rolled back after an error and autocommit is restored")
+    public void theTransactionOfTheIteratorIsRolledBackAfterAnErrorAndAutocommitIsRestored() throws Exception {
+
+        // given
+        Object[][] rows = { { 1L, "user 1" }, { new SQLException("broken value"), "user 2" }, { 3L, "user 3" } };
+        List<String> transaction = new ArrayList<>();
+        DataSource dataSource = StubJdbc.dataSource(index -> StubJdbc.resultSet(new String[] { "id", "name" }, rows),
+                transaction);
+        ProgramUnitDB<Get2FirstUser> programUnitDB = get2FirstUser(dataSource);
+
+        // when
+        List<Get2FirstUser> read = new ArrayList<>();
+        DataAccessException error;
+        try (CursorIterator<Get2FirstUser> iterator = programUnitDB.executeCursorAsIterator((Object) null)) {
+            read.add(iterator.next());
+            error = assertThrows(DataAccessException.class, iterator::next);
+        }
+
+        // then
+        assertAll(
+                () -> assertThat(read).isEqualTo(Collections.singletonList(user(1L, "user 1"))),
+                () -> assertThat(error.getCause()).isInstanceOf(ProgramUnitMappingException.class),
+                () -> assertThat(dataSource.getConnection().getAutoCommit()).isTrue(),
+                () -> assertThat(transaction).isEqualTo(Collections.singletonList("rollback")));
+    }
+
+    @Test
+    @DisplayName("The transaction of the iterator is rolled back after a runtime error of the row mapper")
+    public void theTransactionOfTheIteratorIsRolledBackAfterARuntimeErrorOfTheRowMapper() throws Exception {
+
+        // given
+        Object[][] rows = { { 1L, "user 1" }, { 2L, "user 2" } };
+        List<String> transaction = new ArrayList<>();
+        DataSource dataSource = StubJdbc.dataSource(index -> null, transaction);
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        IllegalStateException cause = new IllegalStateException("broken mapper");
+
+        // when
+        CursorIterator<Long> iterator = new CursorIterator<>(connection, dataSource, true, null,
+                StubJdbc.resultSet(new String[] { "id", "name" }, rows), null, (resultSet, rowNum) -> {
+                    if (rowNum == 1) {
+                        throw cause;
+                    }
+                    return resultSet.getLong(1);
+                }, null, "{call get_users()}");
+        Long first = iterator.next();
+        IllegalStateException error = assertThrows(IllegalStateException.class, iterator::next);
+
+        // then
+        assertAll(
+                () -> assertThat(first).isEqualTo(1L),
+                () -> assertThat(error).isSameAs(cause),
+                () -> assertThat(iterator.hasNext()).isFalse(),
+                () -> assertThat(connection.getAutoCommit()).isTrue(),
+                () -> assertThat(transaction).isEqualTo(Collections.singletonList("rollback")));
+    }
+
+    @Test
+    @DisplayName("A contract class is analyzed once and shared by the objects of different program units")
+    public void aContractClassIsAnalyzedOnceAndSharedByTheObjectsOfDifferentProgramUnits() throws Exception {
+
+        // given
+        Object[][] rows = { { 1L, "user 1" } };
+        List<SqlParameter> parameters = new ArrayList<>();
+        parameters.add(new SqlParameter("create_date_more", Types.TIMESTAMP));
+        parameters.add(new SqlOutParameter("ref_cursor", Types.REF_CURSOR));
+        Field cursorRowMapper = ProgramUnitDB.class.getDeclaredField("cursorRowMapper");
+        cursorRowMapper.setAccessible(true);
+
+        // when
+        ProgramUnitDB<Get2FirstUser> first = get2FirstUser(new String[] { "id", "name" }, rows);
+        Object[][] otherRows = { { "user 2", 2L } };
+        ProgramUnitDB<Get2FirstUser> second = new ProgramUnitDB<>(
+                StubJdbc.dataSource(index -> StubJdbc.resultSet(new String[] { "name", "id" }, otherRows)),
+                "other_schema", null, "get_other_users", parameters, Get2FirstUser.class, false);
+        second.setMetaDataMode(CallMetaDataCache.Mode.DECLARED_ONLY);
+
+        // then
+        assertAll(
+                () -> assertThat(cursorRowMapper.get(second)).isSameAs(cursorRowMapper.get(first)),
+                () -> assertThat(first.executeReturnedOnlyOneCursor((Object) null))
+                        .isEqualTo(Collections.singletonList(user(1L, "user 1"))),
+                () -> assertThat(second.executeReturnedOnlyOneCursor((Object) null))
+                        .isEqualTo(Collections.singletonList(user(2L, "user 2"))));
+    }
+
+    @Test
+    @DisplayName("The error of a contract class is thrown on every construction")
+    public void theErrorOfAContractClassIsThrownOnEveryConstruction() throws Exception {
+
+        // given
+        DataSource dataSource = StubJdbc.dataSource(index -> null);
+
+        // when
+        Exception first = assertThrows(Exception.class, () -> new ProgramUnitDB<>(dataSource, "test_program_unit", null,
+                "get_2_first_user", null, NotAContract.class, false));
+        Exception second = assertThrows(Exception.class, () -> new ProgramUnitDB<>(dataSource, "other_schema", null,
+                "get_other_users", null, NotAContract.class, true));
+
+        // then
+        assertAll(
+                () -> assertThat(first.getMessage()).isEqualTo("It is not clear how to handle output parameters"),
+                () -> assertThat(second.getMessage()).isEqualTo(first.getMessage()),
+                () -> assertThat(second).isNotSameAs(first),
+                () -> assertThat(second.getCause()).isSameAs(first.getCause()));
+    }
+
+    @Test
+    @DisplayName("A program unit that failed initialization is available after a successful one")
+    public void aProgramUnitThatFailedInitializationIsAvailableAfterASuccessfulOne() throws Exception {
+
+        // given
+        // the first warm-up fails, the next ones succeed
+        // первый прогрев падает, следующие проходят
+        AtomicInteger warmUps = new AtomicInteger();
+        SQLException cause = new SQLException("not ready");
+        ProgramUnitRegistry registry = new ProgramUnitRegistry().register("get2FirstUser",
+                () -> get2FirstUser(new String[] { "id", "name" }, new Object[][] { { 1L, "user 1" } }), unit -> {
+                    if (warmUps.getAndIncrement() == 0) {
+                        throw cause;
+                    }
+                });
+
+        // when
+        ProgramUnitRegistry.Report failed = registry.initialize(1);
+        Exception first = assertThrows(Exception.class, () -> registry.get("get2FirstUser"));
+        Exception second = assertThrows(Exception.class, () -> registry.get("get2FirstUser"));
+        ProgramUnitRegistry.Report initialized = registry.initialize(1);
+        ProgramUnitDB<Get2FirstUser> programUnitDB = registry.get("get2FirstUser");
+
+        // then
+        assertAll(
+                () -> assertThat(failed.getFailed().get("get2FirstUser")).isSameAs(cause),
+                () -> assertThat(first.getCause()).isSameAs(cause),
+                () -> assertThat(second.getCause()).isSameAs(cause),
+                () -> assertThat(second).isNotSameAs(first),
+                () -> assertThat(initialized.isSuccessful()).isEqualTo(true),
+                () -> assertThat(programUnitDB.executeReturnedOnlyOneCursor((Object) null))
+                        .isEqualTo(Collections.singletonList(user(1L, "user 1"))));
+    }
+
+    @Test
+    @DisplayName("Concurrent equal calls are coalesced into one database call")
+    public void concurrentEqualCallsAreCoalescedIntoOneDatabaseCall() throws Exception {
+
+        // given
+        // the call that goes to the database waits for its cursor until the other calls join it
+        // вызов, который идет в БД, ждет свой курсор, пока к нему не присоединятся остальные вызовы
+        int callCount = 8;
+        Object[][] rows = { { 1L, "user 1" } };
+        AtomicInteger databaseCalls = new AtomicInteger();
+        CountDownLatch othersJoined = new CountDownLatch(1);
+        ProgramUnitDB<Get2FirstUser> programUnitDB = get2FirstUser(StubJdbc.dataSource(index -> {
+            databaseCalls.incrementAndGet();
+            awaitQuietly(othersJoined);
+            return StubJdbc.resultSet(new String[] { "id", "name" }, rows);
+        }));
+        programUnitDB.setCoalescing(true);
+        ExecutorService callers = Executors.newFixedThreadPool(callCount);
+        programUnitDB.setExecutor(callers);
+
+        // when
+        List<CompletableFuture<List<Get2FirstUser>>> calls = new ArrayList<>();
+        for (int i = 0; i < callCount; i++) {
+            calls.add(programUnitDB.executeReturnedOnlyOneCursorAsync((Object) null));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (programUnitDB.getCollapsedCallCount() < callCount - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        othersJoined.countDown();
+        List<List<Get2FirstUser>> results = new ArrayList<>();
+        for (CompletableFuture<List<Get2FirstUser>> call : calls) {
+            results.add(call.get(30, TimeUnit.SECONDS));
+        }
+        callers.shutdown();
+
+        // then
+        assertAll(
+                () -> assertThat(programUnitDB.getCollapsedCallCount()).isEqualTo(callCount - 1L),
+                () -> assertThat(databaseCalls.get()).isEqualTo(1),
+                () -> assertThat(results.stream().allMatch(result -> result == results.get(0))).isTrue(),
+                () -> assertThat(results.get(0)).isEqualTo(Collections.singletonList(user(1L, "user 1"))));
+    }
+
+    static ProgramUnitDB<Get2FirstUser> get2FirstUser(String[] columnNames, Object[][] rows) throws Exception {
+        return get2FirstUser(StubJdbc.dataSource(index -> StubJdbc.resultSet(columnNames, rows)));
+    }
+
+    static ProgramUnitDB<Get2FirstUser> get2FirstUser(DataSource dataSource) throws Exception {
+        List<SqlParameter> parameters = new ArrayList<>();
+        parameters.add(new SqlParameter("create_date_more", Types.TIMESTAMP));
+        parameters.add(new SqlOutParameter("ref_cursor", Types.REF_CURSOR));
+        ProgramUnitDB<Get2FirstUser> programUnitDB = new ProgramUnitDB<>(dataSource, "test_program_unit", null,
+                "get_2_first_user", parameters, Get2FirstUser.class, false);
+        programUnitDB.setMetaDataMode(CallMetaDataCache.Mode.DECLARED_ONLY);
+        return programUnitDB;
+    }
+
+    // the call of the program unit on the statement of the cache
+    // вызов программного юнита на выражении кэша
+    private static void call(Connection connection, String sql) throws SQLException {
+        try (CallableStatement statement = connection.prepareCall(sql)) {
+            statement.execute();
+        }
+    }
+
+    private boolean isClosed(CallableStatement statement) {
+        try {
+            return statement.isClosed();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // the physical connection: each prepareCall prepares a new statement, the calls of "broken" fail
+    // физическое подключение: каждый prepareCall подготавливает новое выражение, вызовы "broken" завершаются ошибкой
+    private static Connection connection(Map<String, AtomicInteger> prepared, List<CallableStatement> statements,
+            boolean[] isClosed) {
+        return (Connection) Proxy.newProxyInstance(ProgramUnitDBInMemory.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (connectionProxy, connectionMethod, connectionArgs) -> {
+                    switch (connectionMethod.getName()) {
+                        case "unwrap":
+                            return connectionProxy;
+                        case "isClosed":
+                            return isClosed[0];
+                        case "prepareCall":
+                            String sql = (String) connectionArgs[0];
+                            prepared.computeIfAbsent(sql, key -> new AtomicInteger()).incrementAndGet();
+                            boolean[] isStatementClosed = { false };
+                            CallableStatement statement = (CallableStatement) Proxy.newProxyInstance(
+                                    ProgramUnitDBInMemory.class.getClassLoader(), new Class<?>[] { CallableStatement.class },
+                                    (proxy, method, args) -> {
+                                        switch (method.getName()) {
+                                            case "execute":
+                                                if (sql.contains("broken")) {
+                                                    throw new SQLException("The call of " + sql + " failed");
+                                                }
+                                                return true;
+                                            case "close":
+                                                isStatementClosed[0] = true;
+                                                return null;
+                                            case "isClosed":
+                                                return isStatementClosed[0];
+                                            default:
+                                                return null;
+                                        }
+                                    });
+                            statements.add(statement);
+                            return statement;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static Get2FirstUser user(Long id, String name) {
+        Get2FirstUser user = new Get2FirstUser();
+        user.setId(id);
+        user.setName(name);
+        return user;
+    }
+
+    // final fields are written through reflection
+    // final поля записываются через рефлексию
+    static class FinalField {
+        private final String value = String.valueOf("initial");
+    }
+
+    // neither output parameters nor columns are annotated
+    // не аннотированы ни выходные параметры, ни колонки
+    static class NotAContract {
+        Long id;
+    }
+
+    // the private field is not available to the generated mapper, so the class is mapped through reflection
+    // приватное поле недоступно сгенерированному отображению, поэтому класс отображается через рефлексию
+    static class UserOutParams {
+        @OutParam(name = "id")
+        private Long id;
+        private String name;
+
+        public void setName(@OutParam(name = "name") String name) {
+            this.name = name;
+        }
+    }
+
+    static class WithoutDefaultConstructor {
+        WithoutDefaultConstructor(String value) {
+        }
+    }
+
+}
@@ -4,11 +4,28 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -21,14 +38,21 @@ import org.junit.ClassRule;
 import org.junit.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.runner.RunWith;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlOutParameter;
 import org.springframework.jdbc.core.SqlParameter;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.utility.DockerImageName;
@@ -276,4 +300,632 @@ public class ProgramUnitDBPostgres {
 			()->assertTrue(actual.getUsers().size() == expected.getUsers().size() && actual.getUsers().containsAll(expected.getUsers()) && actual.getUsers().containsAll(expected.getUsers()))
 		);
 	}
+
+	@Test
+	@DisplayName("PostgreSQL stored procedure example with output cursor read as stream")
+	public void PostgreSQLStoredProcedureExampleWithOutputCursorReadAsStream() throws Exception {
+		
+		// given
+		String schemaName = "test_program_unit";
+		String catalogName = null;
+		String procedureOrFuctionName = "get_2_first_user";
+		
+        List<SqlParameter> inParameters = new ArrayList<>();
+        inParameters.add(new SqlParameter("create_date_more", java.sql.Types.TIMESTAMP));
+
+		Class<Get2FirstUser> clazzString = Get2FirstUser.class;
+		boolean isFunction = false;
+
+		ProgramUnitDB<Get2FirstUser> programUnitDB = new ProgramUnitDB<Get2FirstUser>(dataSourcePostgres, schemaName, catalogName, procedureOrFuctionName, inParameters, clazzString, isFunction);
+		programUnitDB.setFetchSize(1);
+		java.sql.Timestamp createDateMore = java.sql.Timestamp.valueOf( LocalDateTime.parse("2020-01-01T00:00:00", DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+
+		List<Get2FirstUser> expected = programUnitDB.executeReturnedOnlyOneCursor(createDateMore);
+
+		// when
+		List<Get2FirstUser> actual;
+		try (Stream<Get2FirstUser> stream = programUnitDB.executeCursorAsStream(createDateMore)) {
+			actual = stream.collect(Collectors.toList());
+		}
+
+		// then
+		assertThat(actual).isEqualTo(expected);
+	}
+
+	@Test
+	@DisplayName("PostgreSQL stored procedure example with output cursor read as publisher")
+	public void PostgreSQLStoredProcedureExampleWithOutputCursorReadAsPublisher() throws Exception {
+		
+		// given
+		String schemaName = "test_program_unit";
+		String catalogName = null;
+		String procedureOrFuctionName = "get_2_first_user";
+		
+        List<SqlParameter> inParameters = new ArrayList<>();
+        inParameters.add(new SqlParameter("create_date_more", java.sql.Types.TIMESTAMP));
+
+		Class<Get2FirstUser> clazzString = Get2FirstUser.class;
+		boolean isFunction = false;
+
+		ProgramUnitDB<Get2FirstUser> programUnitDB = new ProgramUnitDB<Get2FirstUser>(dataSourcePostgres, schemaName, catalogName, procedureOrFuctionName, inParameters, clazzString, isFunction);
+		java.sql.Timestamp createDateMore = java.sql.Timestamp.valueOf( LocalDateTime.parse("2020-01-01T00:00:00", DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+
+		List<Get2FirstUser> expected = programUnitDB.executeReturnedOnlyOneCursor(createDateMore);
+
+		// when
+		List<Get2FirstUser> actual = new CopyOnWriteArrayList<>();
+		CompletableFuture<Void> completed = new CompletableFuture<>();
+		programUnitDB.executeCursorAsPublisher(createDateMore).subscribe(new Subscriber<Get2FirstUser>() {
+
+			private Subscription subscription;
+
+			@Override
+			public void onSubscribe(Subscription subscription) {
+				this.subscription = subscription;
+				// one record at a time
+				// по одной записи
+				subscription.request(1);
+			}
+
+			@Override
+			public void onNext(Get2FirstUser record) {
+				actual.add(record);
+				subscription.request(1);
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				completed.completeExceptionally(throwable);
+			}
+
+			@Override
+			public void onComplete() {
+				completed.complete(null);
+			}
+		});
+		completed.get(30, TimeUnit.SECONDS);
+
+		// then
+		assertThat(actual).isEqualTo(expected);
+	}
+
+	@Test
+	@DisplayName("PostgreSQL stored procedure example with two input parameters called in batches")
+	public void PostgreSQLStoredProcedureExampleWithTwoInputParametersCalledInBatches() throws Exception {
+		
+		// given
+		String schemaName = "test_program_unit";
+		String catalogName = null;
+		String procedureOrFuctionName = "add_user";
+		
+        List<SqlParameter> inParameters = new ArrayList<>();
+        inParameters.add(new SqlParameter("name", java.sql.Types.VARCHAR));
+		inParameters.add(new SqlParameter("comment", java.sql.Types.VARCHAR));
+
+		Class<Void> clazzString = null;
+		boolean isFunction = false;
+
+		List<Object[]> paramRows = new ArrayList<>();
+		paramRows.add(new Object[] { "Foo Bar", "Comment 1" });
+		paramRows.add(new Object[] { "Bar Baz", "Comment 2" });
+		paramRows.add(new Object[] { "Baz Foo", "Comment 3" });
+
+		List<String> expected = Arrays.asList("Comment 1", "Comment 2", "Comment 3");
+
+		// when
+		ProgramUnitDB<Void> programUnitDB = new ProgramUnitDB<Void>(dataSourcePostgres, schemaName, catalogName, procedureOrFuctionName, inParameters, clazzString, isFunction);
+		int[][] actual = programUnitDB.executeBatch(paramRows.iterator(), 2);
+		List<String> added = new JdbcTemplate(dataSourcePostgres).queryForList(
+			"SELECT comment FROM test_program_unit.users WHERE name IN ('Foo Bar', 'Bar Baz', 'Baz Foo') ORDER BY comment", String.class);
+
+		// then
+		assertAll(
+			()->assertTrue(actual.length == 2),
+			()->assertTrue(actual[0].length == 2),
+			()->assertTrue(actual[1].length == 1),
+			// each call of the procedure is executed: a CALL reports no rows or no information
+			// каждый вызов процедуры выполнен: CALL сообщает об отсутствии строк или информации
+			()->assertTrue(Stream.of(actual).flatMapToInt(IntStream::of).allMatch(count -> count >= 0 || count == Statement.SUCCESS_NO_INFO)),
+			()->assertThat(added).isEqualTo(expected)
+		);
+	}
+
+	@Test
+	@Transactional(value = "jdbcTempleteTransactionManagerPostgres", propagation = Propagation.NOT_SUPPORTED)
+	@DisplayName("PostgreSQL stored procedure example called in batches is rolled back when a row fails")
+	public void PostgreSQLStoredProcedureExampleCalledInBatchesIsRolledBackWhenARowFails() throws Exception {
+		
+		// given
+		String schemaName = "test_program_unit";
+		String catalogName = null;
+		String procedureOrFuctionName = "add_user";
+		
+        List<SqlParameter> inParameters = new ArrayList<>();
+        inParameters.add(new SqlParameter("name", java.sql.Types.VARCHAR));
+		inParameters.add(new SqlParameter("comment", java.sql.Types.VARCHAR));
+
+		Class<Void> clazzString = null;
+		boolean isFunction = false;
+
+		// the first batch succeeds, the first row of the second batch violates NOT NULL of the name
+		// первый пакет успешен, первая строка второго пакета нарушает NOT NULL имени
+		List<Object[]> paramRows = new ArrayList<>();
+		paramRows.add(new Object[] { "Batch Foo", "Comment 1" });
+		paramRows.add(new Object[] { "Batch Bar", "Comment 2" });
+		paramRows.add(new Object[] { null, "Comment 3" });
+		paramRows.add(new Object[] { "Batch Baz", "Comment 4" });
+
+		// when
+		ProgramUnitDB<Void> programUnitDB = new ProgramUnitDB<Void>(dataSourcePostgres, schemaName, catalogName, procedureOrFuctionName, inParameters, clazzString, isFunction);
+		DataAccessException error = assertThrows(DataAccessException.class, () -> programUnitDB.executeBatch(paramRows.iterator(), 2));
+		BatchUpdateException batchError = Stream.concat(Stream.of(error.getCause()), Stream.of(error.getSuppressed()))
+			.filter(BatchUpdateException.class::isInstance).map(BatchUpdateException.class::cast).findFirst().orElse(null);
+		Integer left = new JdbcTemplate(dataSourcePostgres).queryForObject(
+			"SELECT count(*) FROM test_program_unit.users WHERE name LIKE 'Batch %'", Integer.class);
+
+		// then
+		assertAll(
+			()->assertThat(error).isInstanceOf(DataIntegrityViolationException.class),
+			()->assertThat(batchError).isNotNull(),
+			// the failed batch is partial: its failed row and the rows after it are not executed
+			// неудавшийся пакет частичный: его неудавшаяся строка и строки после нее не выполнены
+			()->assertTrue(batchError.getUpdateCounts().length < 2
+				|| IntStream.of(batchError.getUpdateCounts()).anyMatch(count -> count == Statement.EXECUTE_FAILED)),
+			// the rows of the first batch are rolled back too
+			// строки первого пакета тоже откатываются
+			()->assertThat(left).isEqualTo(0)
+		);
+	}
+
+	@Test
+	@DisplayName("PostgreSQL function example with integer input and string output called asynchronously")
+	public void PostgreSQLFunctionExampleWithIntegerInputAndStringOutputCalledAsynchronously() throws Exception {
+		
+		// given
+		String schemaName = "test_program_unit";
+		String catalogName = null;
+		String procedureOrFuctionName = "get_name_user_by_id";
+		
+        List<SqlParameter> inParameters = new ArrayList<>();
+        inParameters.add(new SqlParameter("user_id", java.sql.Types.BIGINT));
+
+		Class<String> clazzString = String.class;
+		boolean isFunction = true;
+
+		String expected = "Nikita Konstantinovich Chistousov";
+
+		// when
+		ProgramUnitDB<String> programUnitDB = new ProgramUnitDB<String>(dataSourcePostgres, schemaName, catalogName, procedureOrFuctionName, inParameters, clazzString, isFunction);
+		if (ProgramUnitExecutors.isVirtualThreadsSupported()) {
+			programUnitDB.setExecutor(ProgramUnitExecutors.newVirtualThreadPerTaskExecutor());
+		}
+		programUnitDB.compile();
+		String actual = programUnitDB.executeReturnedOnlyOneNonCursorAsync(1L).get(30, TimeUnit.SECONDS);
+
+		// then
+		assertThat(actual).isEqualTo(expected);
+	}
+
+	@Test
+	@DisplayName("PostgreSQL stored procedure example with output cursor called without metadata")
+	public void PostgreSQLStoredProcedureExampleWithOutputCursorCalledWithoutMetaData() throws Exception {
+		
+		// given
+		String schemaName = "test_program_unit";
+		String catalogName = null;
+		String procedureOrFuctionName = "get_2_first_user";
+		
+        List<SqlParameter> inParameters = new ArrayList<>();
+        inParameters.add(new SqlParameter("create_date_more", java.sql.Types.TIMESTAMP));
+        inParameters.add(new SqlOutParameter("ref_cursor", java.sql.Types.OTHER));
+
+		Class<Get2FirstUser> clazzString = Get2FirstUser.class;
+		boolean isFunction = false;
+
+		java.sql.Timestamp createDateMore = java.sql.Timestamp.valueOf( LocalDateTime.parse("2020-01-01T00:00:00", DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+		List<Get2FirstUser> expected = new ProgramUnitDB<Get2FirstUser>(dataSourcePostgres, schemaName, catalogName, procedureOrFuctionName, inParameters.subList(0, 1), clazzString, isFunction).executeReturnedOnlyOneCursor(createDateMore);
+
+		// when
+		ProgramUnitDB<Get2FirstUser> programUnitDB = new ProgramUnitDB<Get2FirstUser>(dataSourcePostgres, schemaName, catalogName, procedureOrFuctionName, inParameters, clazzString, isFunction);
+		programUnitDB.setMetaDataMode(CallMetaDataCache.Mode.DECLARED_ONLY);
+		List<Get2FirstUser> actual = programUnitDB.executeReturnedOnlyOneCursor(createDateMore);
+
+		// then
+		assertThat(actual).isEqualTo(expected);
+	}
+
+	@Test
+	@DisplayName("PostgreSQL program units registered, compiled and warmed up at startup")
+	public void PostgreSQLProgramUnitsRegisteredCompiledAndWarmedUp() throws Exception {
+		
+		// given
+		String schemaName = "test_program_unit";
+		String catalogName = null;
+
+        List<SqlParameter> getNameUserByIdParameters = new ArrayList<>();
+        getNameUserByIdParameters.add(new SqlParameter("user_id", java.sql.Types.BIGINT));
+
+        List<SqlParameter> get2FirstUserParameters = new ArrayList<>();
+        get2FirstUserParameters.add(new SqlParameter("create_date_more", java.sql.Types.TIMESTAMP));
+
+		java.sql.Timestamp createDateMore = java.sql.Timestamp.valueOf( LocalDateTime.parse("2020-01-01T00:00:00", DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+
+		ProgramUnitRegistry registry = new ProgramUnitRegistry()
+			.register("getNameUserById", () -> new ProgramUnitDB<String>(dataSourcePostgres, schemaName, catalogName, "get_name_user_by_id", getNameUserByIdParameters, String.class, true),
+				unit -> unit.executeReturnedOnlyOneNonCursor(1L))
+			.register("get2FirstUser", () -> new ProgramUnitDB<Get2FirstUser>(dataSourcePostgres, schemaName, catalogName, "get_2_first_user", get2FirstUserParameters, Get2FirstUser.class, false),
+				unit -> unit.executeReturnedOnlyOneCursor(createDateMore))
+			.register("unknown", () -> new ProgramUnitDB<Object>(dataSourcePostgres, schemaName, catalogName, "get_name_user_by_id", getNameUserByIdParameters, Object.class, true));
+
+		// when
+		ProgramUnitRegistry.Report report = registry.initialize(2);
+		ProgramUnitDB<String> getNameUserById = registry.get("getNameUserById");
+
+		// then
+		assertAll(
+			()->assertTrue(report.getInitialized().keySet().containsAll(java.util.Arrays.asList("getNameUserById", "get2FirstUser"))),
+			()->assertTrue(report.getFailed().containsKey("unknown")),
+			()->assertThat(getNameUserById.executeReturnedOnlyOneNonCursor(1L)).isEqualTo("Nikita Konstantinovich Chistousov")
+		);
+	}
+
+	@Test
+	@DisplayName("PostgreSQL function example with integer input and string output cached by input parameters")
+	public void PostgreSQLFunctionExampleWithIntegerInputAndStringOutputCached() throws Exception {
+		
+		// given
+		String schemaName = "test_program_unit";
+		String catalogName = null;
+		String procedureOrFuctionName = "get_name_user_by_id";
+		
+        List<SqlParameter> inParameters = new ArrayList<>();
+        inParameters.add(new SqlParameter("user_id", java.sql.Types.BIGINT));
+
+		String expected = "Nikita Konstantinovich Chistousov";
+
+		ProgramUnitDB<String> programUnitDB = new ProgramUnitDB<String>(dataSourcePostgres, schemaName, catalogName, procedureOrFuctionName, inParameters, String.class, true);
+		ResultCache resultCache = new ResultCache(java.time.Duration.ofMinutes(1), 1);
+		programUnitDB.setResultCache(resultCache);
+
+		// when
+		String first = programUnitDB.executeReturnedOnlyOneNonCursor(1L);
+		String second = programUnitDB.executeReturnedOnlyOneNonCursor(1L);
+		programUnitDB.executeReturnedOnlyOneNonCursor(2L);
+
+		// then
+		assertAll(
+			()->assertThat(first).isEqualTo(expected),
+			()->assertThat(second).isEqualTo(expected),
+			()->assertThat(resultCache.getHitCount()).isEqualTo(1L),
+			()->assertThat(resultCache.getMissCount()).isEqualTo(2L),
+			()->assertThat(resultCache.getEvictionCount()).isEqualTo(1L)
+		);
+	}
+
+	@Test
+	@DisplayName("PostgreSQL function example with integer input and string output called concurrently with coalescing")
+	public void PostgreSQLFunctionExampleWithIntegerInputAndStringOutputCalledConcurrentlyWithCoalescing() throws Exception {
+		
+		// given
+		String schemaName = "test_program_unit";
+		String catalogName = null;
+		String procedureOrFuctionName = "get_name_user_by_id";
+		
+        List<SqlParameter> inParameters = new ArrayList<>();
+        inParameters.add(new SqlParameter("user_id", java.sql.Types.BIGINT));
+
+		String expected = "Nikita Konstantinovich Chistousov";
+
+		// after the compilation the call that goes to the database waits at the connection until the other calls join it
+		// после компиляции вызов, который идет в БД, ждет на подключении, пока к нему не присоединятся остальные вызовы
+		int callCount = 8;
+		AtomicBoolean isCompiled = new AtomicBoolean();
+		AtomicInteger databaseCalls = new AtomicInteger();
+		CountDownLatch othersJoined = new CountDownLatch(1);
+		DataSource dataSource = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DataSource.class },
+			(proxy, method, args) -> {
+				if (isCompiled.get() && method.getName().equals("getConnection")) {
+					databaseCalls.incrementAndGet();
+					othersJoined.await(30, TimeUnit.SECONDS);
+				}
+				try {
+					return method.invoke(dataSourcePostgres, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			});
+
+		ProgramUnitDB<String> programUnitDB = new ProgramUnitDB<String>(dataSource, schemaName, catalogName, procedureOrFuctionName, inParameters, String.class, true);
+		programUnitDB.setCoalescing(true);
+		programUnitDB.compile();
+		isCompiled.set(true);
+		ExecutorService callers = Executors.newFixedThreadPool(callCount);
+		programUnitDB.setExecutor(callers);
+
+		// when
+		List<CompletableFuture<String>> calls = new ArrayList<>();
+		for (int i = 0; i < callCount; i++) {
+			calls.add(programUnitDB.executeReturnedOnlyOneNonCursorAsync(1L));
+		}
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (programUnitDB.getCollapsedCallCount() < callCount - 1 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		othersJoined.countDown();
+		List<String> actual = new ArrayList<>();
+		for (CompletableFuture<String> call : calls) {
+			actual.add(call.get(30, TimeUnit.SECONDS));
+		}
+		callers.shutdown();
+
+		// then
+		assertAll(
+			()->assertTrue(actual.stream().allMatch(expected::equals)),
+			()->assertThat(programUnitDB.getCollapsedCallCount()).isEqualTo(callCount - 1L),
+			()->assertThat(databaseCalls.get()).isEqualTo(1)
+		);
+	}
+
+	@Test
+	@DisplayName("PostgreSQL stored procedure example with output cursor read into columns")
+	public void PostgreSQLStoredProcedureExampleWithOutputCursorReadIntoColumns() throws Exception {
+		
+		// given
+		String schemaName = "test_program_unit";
+		String catalogName = null;
+		String procedureOrFuctionName = "get_2_first_user";
+		
+        List<SqlParameter> inParameters = new ArrayList<>();
+        inParameters.add(new SqlParameter("create_date_more", java.sql.Types.TIMESTAMP));
+
+		java.sql.Timestamp createDateMore = java.sql.Timestamp.valueOf( LocalDateTime.parse("2020-01-01T00:00:00", DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+
+		// when
+		ProgramUnitDB<Get2FirstUser> programUnitDB = new ProgramUnitDB<Get2FirstUser>(dataSourcePostgres, schemaName, catalogName, procedureOrFuctionName, inParameters, Get2FirstUser.class, false);
+		ColumnarResult actual = programUnitDB.executeCursorColumnar(createDateMore);
+
+		// then
+		int id = actual.findColumn("id");
+		int name = actual.findColumn("name");
+		assertAll(
+			()->assertThat(actual.getRowCount()).isEqualTo(2),
+			()->assertThat(actual.getType(id)).isEqualTo(ColumnarResult.Type.LONG),
+			()->assertThat(actual.getLongs(id)[0] + actual.getLongs(id)[1]).isEqualTo(3L),
+			()->assertTrue(actual.getNulls(name).isEmpty()),
+			()->assertTrue(java.util.Arrays.asList(actual.getStrings(name)).contains("Vasily Nikolaevich Shalashov"))
+		);
+	}
+
+	@Test
+	@DisplayName("PostgreSQL stored procedure example with output cursor spilled to disk")
+	public void PostgreSQLStoredProcedureExampleWithOutputCursorSpilledToDisk() throws Exception {
+		
+		// given
+		String schemaName = "test_program_unit";
+		String catalogName = null;
+		String procedureOrFuctionName = "get_2_first_user";
+		
+        List<SqlParameter> inParameters = new ArrayList<>();
+        inParameters.add(new SqlParameter("create_date_more", java.sql.Types.TIMESTAMP));
+
+		java.sql.Timestamp createDateMore = java.sql.Timestamp.valueOf( LocalDateTime.parse("2020-01-01T00:00:00", DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+		List<Get2FirstUser> expected = new ProgramUnitDB<Get2FirstUser>(dataSourcePostgres, schemaName, catalogName, procedureOrFuctionName, inParameters, Get2FirstUser.class, false).executeReturnedOnlyOneCursor(createDateMore);
+
+		// when
+		ProgramUnitDB<Get2FirstUser> programUnitDB = new ProgramUnitDB<Get2FirstUser>(dataSourcePostgres, schemaName, catalogName, procedureOrFuctionName, inParameters, Get2FirstUser.class, false);
+		programUnitDB.setSpillThreshold(1);
+		List<Get2FirstUser> actual = programUnitDB.executeReturnedOnlyOneCursor(createDateMore);
+
+		// then
+		try (SpillingList<Get2FirstUser> spilled = (SpillingList<Get2FirstUser>) actual) {
+			assertThat(new ArrayList<>(spilled)).isEqualTo(expected);
+		}
+	}
+
+	@Test
+	@DisplayName("PostgreSQL stored procedure example with output cursor mapped in parallel")
+	public void PostgreSQLStoredProcedureExampleWithOutputCursorMappedInParallel() throws Exception {
+		
+		// given
+		String schemaName = "test_program_unit";
+		String catalogName = null;
+		String procedureOrFuctionName = "get_2_first_user";
+		
+        List<SqlParameter> inParameters = new ArrayList<>();
+        inParameters.add(new SqlParameter("create_date_more", java.sql.Types.TIMESTAMP));
+
+		java.sql.Timestamp createDateMore = java.sql.Timestamp.valueOf( LocalDateTime.parse("2020-01-01T00:00:00", DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+		List<Get2FirstUser> expected = new ProgramUnitDB<Get2FirstUser>(dataSourcePostgres, schemaName, catalogName, procedureOrFuctionName, inParameters, Get2FirstUser.class, false).executeReturnedOnlyOneCursor(createDateMore);
+
+		// when
+		ProgramUnitDB<Get2FirstUser> programUnitDB = new ProgramUnitDB<Get2FirstUser>(dataSourcePostgres, schemaName, catalogName, procedureOrFuctionName, inParameters, Get2FirstUser.class, false);
+		programUnitDB.setMappingParallelism(2);
+		programUnitDB.setMappingChunkSize(1);
+		List<Get2FirstUser> actual = programUnitDB.executeReturnedOnlyOneCursor(createDateMore);
+
+		// then
+		assertThat(actual).isEqualTo(expected);
+	}
+
+	@Test
+	@DisplayName("PostgreSQL stored procedure example with output refcursor fetched in chunks")
+	public void PostgreSQLStoredProcedureExampleWithOutputRefcursorFetchedInChunks() throws Exception {
+		
+		// given
+		String schemaName = "test_program_unit";
+		String catalogName = null;
+		String procedureOrFuctionName = "get_2_first_user";
+		
+        List<SqlParameter> inParameters = new ArrayList<>();
+        inParameters.add(new SqlParameter("create_date_more", java.sql.Types.TIMESTAMP));
+
+		java.sql.Timestamp createDateMore = java.sql.Timestamp.valueOf( LocalDateTime.parse("2020-01-01T00:00:00", DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+		List<Get2FirstUser> expected = new ProgramUnitDB<Get2FirstUser>(dataSourcePostgres, schemaName, catalogName, procedureOrFuctionName, inParameters, Get2FirstUser.class, false).executeReturnedOnlyOneCursor(createDateMore);
+
+		ProgramUnitDB<Get2FirstUser> programUnitDB = new ProgramUnitDB<Get2FirstUser>(dataSourcePostgres, schemaName, catalogName, procedureOrFuctionName, inParameters, Get2FirstUser.class, false);
+		programUnitDB.setFetchSize(1);
+
+		// when
+		List<Get2FirstUser> actual = new ArrayList<>();
+		try (CursorIterator<Get2FirstUser> iterator = programUnitDB.executeCursorAsIterator(createDateMore)) {
+			iterator.forEachRemaining(actual::add);
+		}
+
+		// then
+		assertAll(
+			() -> assertThat(actual.size()).isEqualTo(2),
+			() -> assertThat(actual).isEqualTo(expected)
+		);
+	}
+
+	@Test
+	@DisplayName("PostgreSQL stored procedure example with output cursor and metrics")
+	public void PostgreSQLStoredProcedureExampleWithOutputCursorAndMetrics() throws Exception {
+		
+		// given
+		String schemaName = "test_program_unit";
+		String catalogName = null;
+		String procedureOrFuctionName = "get_2_first_user";
+		
+        List<SqlParameter> inParameters = new ArrayList<>();
+        inParameters.add(new SqlParameter("create_date_more", java.sql.Types.TIMESTAMP));
+
+		java.sql.Timestamp createDateMore = java.sql.Timestamp.valueOf( LocalDateTime.parse("2020-01-01T00:00:00", DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+
+		ProgramUnitDB<Get2FirstUser> programUnitDB = new ProgramUnitDB<Get2FirstUser>(dataSourcePostgres, schemaName, catalogName, procedureOrFuctionName, inParameters, Get2FirstUser.class, false);
+		InMemoryMetricsRegistry metricsRegistry = new InMemoryMetricsRegistry();
+		programUnitDB.setMetricsRegistry(metricsRegistry);
+
+		// when
+		List<Get2FirstUser> actual = programUnitDB.executeReturnedOnlyOneCursor(createDateMore);
+		InMemoryMetricsRegistry.UnitMetrics unitMetrics = metricsRegistry.getUnitMetrics("test_program_unit.get_2_first_user");
+
+		// then
+		assertAll(
+			() -> assertThat(actual.size()).isEqualTo(2),
+			() -> assertThat(unitMetrics.getCallCount()).isEqualTo(1L),
+			() -> assertThat(unitMetrics.getErrorCount()).isEqualTo(0L),
+			() -> assertThat(unitMetrics.getInFlightCount()).isEqualTo(0L),
+			() -> assertThat(unitMetrics.getRows().getMax()).isEqualTo(2L),
+			() -> assertThat(unitMetrics.getExecuteNanos().getTotalCount()).isEqualTo(1L)
+		);
+	}
+
+	@Test
+	@DisplayName("PostgreSQL stored procedure example with output cursor and JFR event")
+	public void PostgreSQLStoredProcedureExampleWithOutputCursorAndJfrEvent() throws Exception {
+		
+		// given
+		String schemaName = "test_program_unit";
+		String catalogName = null;
+		String procedureOrFuctionName = "get_2_first_user";
+		
+        List<SqlParameter> inParameters = new ArrayList<>();
+        inParameters.add(new SqlParameter("create_date_more", java.sql.Types.TIMESTAMP));
+
+		java.sql.Timestamp createDateMore = java.sql.Timestamp.valueOf( LocalDateTime.parse("2020-01-01T00:00:00", DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+
+		ProgramUnitDB<Get2FirstUser> programUnitDB = new ProgramUnitDB<Get2FirstUser>(dataSourcePostgres, schemaName, catalogName, procedureOrFuctionName, inParameters, Get2FirstUser.class, false);
+		java.nio.file.Path recordingFile = java.nio.file.Files.createTempFile("program-unit", ".jfr");
+
+		// when
+		List<Get2FirstUser> actual;
+		try (jdk.jfr.Recording recording = new jdk.jfr.Recording()) {
+			recording.enable("com.github.chistousov.lib.programunitdb.Call").withThreshold(java.time.Duration.ZERO);
+			recording.start();
+			actual = programUnitDB.executeReturnedOnlyOneCursor(createDateMore);
+			recording.stop();
+			recording.dump(recordingFile);
+		}
+		List<jdk.jfr.consumer.RecordedEvent> events = jdk.jfr.consumer.RecordingFile.readAllEvents(recordingFile).stream()
+			.filter(event -> event.getEventType().getName().equals("com.github.chistousov.lib.programunitdb.Call"))
+			.collect(Collectors.toList());
+		java.nio.file.Files.delete(recordingFile);
+
+		// then
+		assertAll(
+			() -> assertThat(actual.size()).isEqualTo(2),
+			() -> assertThat(events.size()).isEqualTo(1),
+			() -> assertThat(events.get(0).getString("programUnit")).isEqualTo("test_program_unit.get_2_first_user"),
+			() -> assertThat(events.get(0).getString("operation")).isEqualTo("executeReturnedOnlyOneCursor"),
+			() -> assertThat(events.get(0).getString("outcome")).isEqualTo("SUCCESS"),
+			() -> assertThat(events.get(0).getLong("rows")).isEqualTo(2L),
+			() -> assertTrue(events.get(0).getLong("estimatedBytes") > 0)
+		);
+	}
+
+	@Test
+	@DisplayName("PostgreSQL function example with statement cache")
+	public void PostgreSQLFunctionExampleWithStatementCache() throws Exception {
+		
+		// given
+		String schemaName = "test_program_unit";
+		String catalogName = null;
+		String procedureOrFuctionName = "get_name_user_by_id";
+		
+        List<SqlParameter> inParameters = new ArrayList<>();
+        inParameters.add(new SqlParameter("user_id", java.sql.Types.BIGINT));
+
+		String expected = "Nikita Konstantinovich Chistousov";
+
+		ProgramUnitDB<String> programUnitDB = new ProgramUnitDB<String>(dataSourcePostgres, schemaName, catalogName, procedureOrFuctionName, inParameters, String.class, true);
+		StatementCache statementCache = new StatementCache(8);
+		programUnitDB.setStatementCache(statementCache);
+
+		// when
+		List<String> actual = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			actual.add(programUnitDB.executeReturnedOnlyOneNonCursor(1L));
+		}
+		statementCache.clear();
+
+		// then
+		assertAll(
+			() -> assertThat(actual.stream().allMatch(expected::equals)).isTrue(),
+			() -> assertThat(statementCache.getHitCount() + statementCache.getMissCount()).isEqualTo(3L),
+			() -> assertTrue(statementCache.getHitCount() >= 1),
+			() -> assertThat(statementCache.size()).isEqualTo(0)
+		);
+	}
+
+	@Test
+	@DisplayName("PostgreSQL program units called in one pipeline")
+	public void PostgreSQLProgramUnitsCalledInOnePipeline() throws Exception {
+		
+		// given
+		String schemaName = "test_program_unit";
+		String catalogName = null;
+		
+        List<SqlParameter> getNameUserByIdParameters = new ArrayList<>();
+        getNameUserByIdParameters.add(new SqlParameter("user_id", java.sql.Types.BIGINT));
+        List<SqlParameter> get2FirstUserParameters = new ArrayList<>();
+        get2FirstUserParameters.add(new SqlParameter("create_date_more", java.sql.Types.TIMESTAMP));
+
+		ProgramUnitDB<String> getNameUserById = new ProgramUnitDB<String>(dataSourcePostgres, schemaName, catalogName, "get_name_user_by_id", getNameUserByIdParameters, String.class, true);
+		ProgramUnitDB<Get2FirstUser> get2FirstUser = new ProgramUnitDB<Get2FirstUser>(dataSourcePostgres, schemaName, catalogName, "get_2_first_user", get2FirstUserParameters, Get2FirstUser.class, false);
+		ProgramUnitDB<GetSomeUser> getSomeUser = new ProgramUnitDB<GetSomeUser>(dataSourcePostgres, schemaName, catalogName, "get_some_user", new ArrayList<>(), GetSomeUser.class, false);
+		ProgramUnitDB<Void> insertAndDelete = new ProgramUnitDB<Void>(dataSourcePostgres, schemaName, catalogName, "insert_and_delete", null, null, false);
+
+		java.sql.Timestamp createDateMore = java.sql.Timestamp.valueOf(LocalDateTime.parse("2020-01-01T00:00:00", DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+		List<Get2FirstUser> expectedUsers = get2FirstUser.executeReturnedOnlyOneCursor(createDateMore);
+		GetSomeUser expectedSomeUser = getSomeUser.executeReturnedSeveralOutParams();
+
+		// when
+		ProgramUnitPipeline pipeline = new ProgramUnitPipeline(dataSourcePostgres);
+		ProgramUnitPipeline.PipelinedCall<String> name = pipeline.addReturnedOnlyOneNonCursor(getNameUserById, 1L);
+		ProgramUnitPipeline.PipelinedCall<List<Get2FirstUser>> users = pipeline.addReturnedOnlyOneCursor(get2FirstUser, createDateMore);
+		ProgramUnitPipeline.PipelinedCall<Void> inserted = pipeline.addWithoutOutParameters(insertAndDelete);
+		ProgramUnitPipeline.PipelinedCall<GetSomeUser> someUser = pipeline.addReturnedSeveralOutParams(getSomeUser);
+		pipeline.execute();
+
+		// then
+		assertAll(
+			() -> assertThat(name.get()).isEqualTo("Nikita Konstantinovich Chistousov"),
+			() -> assertThat(users.get()).isEqualTo(expectedUsers),
+			() -> assertTrue(inserted.isDone()),
+			() -> assertTrue(someUser.get().getAdmins().size() == expectedSomeUser.getAdmins().size() && someUser.get().getAdmins().containsAll(expectedSomeUser.getAdmins())),
+			() -> assertTrue(someUser.get().getUsers().size() == expectedSomeUser.getUsers().size() && someUser.get().getUsers().containsAll(expectedSomeUser.getUsers())),
+			() -> assertThat(pipeline.size()).isEqualTo(0)
+		);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,180 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.h2.tools.SimpleResultSet;
+
+/**
+ * <p>
+ * Embedded H2 database in PostgreSQL mode with the schema test_program_unit of postgres-init.sql. The program units are
+ * Java methods of this class ({@code CREATE ALIAS}). H2 has no refcursor, so the cursors are returned as the result set of
+ * the call, and get_some_user is replaced by get_users with one cursor.
+ * (Встроенная БД H2 в режиме PostgreSQL со схемой test_program_unit из postgres-init.sql. Программные юниты - Java методы
+ * этого класса ({@code CREATE ALIAS}). В H2 нет refcursor, поэтому курсоры возвращаются как набор строк вызова,
+ * а get_some_user заменена на get_users с одним курсором.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ * @see <a href="https://h2database.com/html/features.html#user_defined_functions">H2 user-defined functions</a>
+ */
+public final class EmbeddedDatabase {
+
+    static final String SCHEMA = "test_program_unit";
+
+    private static final String URL = "jdbc:h2:mem:loadtest;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    private static final String[][] USERS = {
+            { "Nikita Konstantinovich Chistousov", "Nikitos", "2021-07-08T00:00" },
+            { "Vasily Nikolaevich Shalashov", "Shalashov", "2021-07-08T00:00" },
+            { "Sergey Olegovich Mozgovoy", "Varangian", "2019-10-11T00:00" },
+            { "Vita Alekseevna Khodakov", "ATATA", "2018-07-08T00:00" } };
+
+    private EmbeddedDatabase() {
+    }
+
+    /**
+     *
+     * @param maxConnections size of the pool (размер пула)
+     * @param userCount number of users in the table, the first four are those of postgres-init.sql
+     *                  (количество пользователей в таблице, первые четыре - из postgres-init.sql)
+     * @return pool of connections to the created database (пул подключений к созданной БД)
+     * @throws SQLException error of creation (ошибка создания)
+     */
+    static JdbcConnectionPool create(int maxConnections, int userCount) throws SQLException {
+        JdbcConnectionPool pool = JdbcConnectionPool.create(URL, "sa", "");
+        pool.setMaxConnections(maxConnections);
+
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            statement.execute("CREATE TABLE " + SCHEMA + ".users (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "name VARCHAR NOT NULL, createdate TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, "
+                    + "comment VARCHAR NOT NULL)");
+
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO " + SCHEMA + ".users (name, comment, createdate) VALUES (?, ?, ?)")) {
+                for (int i = 0; i < userCount; i++) {
+                    String[] user = i < USERS.length ? USERS[i]
+                            : new String[] { "User " + (i + 1), "Generated", "2020-01-01T00:00" };
+                    insert.setString(1, user[0]);
+                    insert.setString(2, user[1]);
+                    insert.setTimestamp(3, Timestamp.valueOf(LocalDateTime.parse(user[2])));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+
+            createAlias(statement, "get_name_user_by_id", "getNameUserById");
+            createAlias(statement, "get_2_first_user", "get2FirstUser");
+            createAlias(statement, "get_users", "getUsers");
+            createAlias(statement, "insert_and_delete", "insertAndDelete");
+        } catch (SQLException e) {
+            pool.dispose();
+            throw e;
+        }
+        return pool;
+    }
+
+    private static void createAlias(Statement statement, String name, String methodName) throws SQLException {
+        statement.execute("CREATE ALIAS " + SCHEMA + "." + name + " FOR \"" + EmbeddedDatabase.class.getName() + "."
+                + methodName + "\"");
+    }
+
+    /**
+     * Function get_name_user_by_id (Функция get_name_user_by_id)
+     *
+     * @param connection connection of the call (подключение вызова)
+     * @param userId id of the user (id пользователя)
+     * @return name of the user or null (имя пользователя или null)
+     * @throws SQLException query error (ошибка запроса)
+     */
+    public static String getNameUserById(Connection connection, Long userId) throws SQLException {
+        try (PreparedStatement statement = connection
+                .prepareStatement("SELECT name FROM " + SCHEMA + ".users WHERE id = ? LIMIT 1")) {
+            statement.setObject(1, userId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Procedure get_2_first_user, the cursor is the result set (Процедура get_2_first_user, курсор - набор строк)
+     *
+     * @param connection connection of the call (подключение вызова)
+     * @param createDateMore lower bound of the creation date (нижняя граница даты создания)
+     * @return users created not before createDateMore (пользователи, созданные не раньше createDateMore)
+     * @throws SQLException query error (ошибка запроса)
+     */
+    public static ResultSet get2FirstUser(Connection connection, Timestamp createDateMore) throws SQLException {
+        return query(connection, "SELECT id, name FROM " + SCHEMA + ".users WHERE createdate >= ?", createDateMore);
+    }
+
+    /**
+     * Procedure get_users, the cursor is the result set (Процедура get_users, курсор - набор строк)
+     *
+     * @param connection connection of the call (подключение вызова)
+     * @return all users (все пользователи)
+     * @throws SQLException query error (ошибка запроса)
+     */
+    public static ResultSet getUsers(Connection connection) throws SQLException {
+        return query(connection, "SELECT name, comment, createdate FROM " + SCHEMA + ".users");
+    }
+
+    /**
+     * Procedure insert_and_delete without parameters (Процедура insert_and_delete без параметров)
+     *
+     * @param connection connection of the call (подключение вызова)
+     * @throws SQLException query error (ошибка запроса)
+     */
+    public static void insertAndDelete(Connection connection) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + SCHEMA + ".users (name, comment) VALUES ('Test Foo Bar', 'test')",
+                Statement.RETURN_GENERATED_KEYS)) {
+            insert.executeUpdate();
+            try (ResultSet keys = insert.getGeneratedKeys();
+                    PreparedStatement delete = connection
+                            .prepareStatement("DELETE FROM " + SCHEMA + ".users WHERE id = ?")) {
+                keys.next();
+                delete.setLong(1, keys.getLong(1));
+                delete.executeUpdate();
+            }
+        }
+    }
+
+    // the rows are copied, so the statement is closed before the result is returned to H2
+    // строки копируются, поэтому выражение закрывается до возврата результата в H2
+    private static ResultSet query(Connection connection, String sql, Object... params) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                SimpleResultSet result = new SimpleResultSet();
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    result.addColumn(metaData.getColumnLabel(i), metaData.getColumnType(i), metaData.getPrecision(i),
+                            metaData.getScale(i));
+                }
+                while (resultSet.next()) {
+                    Object[] row = new Object[metaData.getColumnCount()];
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = resultSet.getObject(i + 1);
+                    }
+                    result.addRow(row);
+                }
+                return result;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.github.chistousov.lib.programunitdb.annotations.Column;
+import com.github.chistousov.lib.programunitdb.annotations.OutParam;
+
+/**
+ * Contract of get_users: the users cursor of get_some_user as an output parameter of the contract. H2 returns one result
+ * set per call, so the contract has one cursor, but it is assembled in the same way as several output parameters
+ * (Контракт get_users: курсор users из get_some_user как выходной параметр контракта. H2 возвращает один набор строк
+ * на вызов, поэтому у контракта один курсор, но он собирается так же, как несколько выходных параметров)
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ */
+public class GetUsers {
+
+    @OutParam(name = "users")
+    public class User {
+        private String name;
+        private String comment;
+        private LocalDateTime createdate;
+
+        public String getName() {
+            return name;
+        }
+        public void setName(@Column(name = "name") String name) {
+            this.name = name;
+        }
+        public String getComment() {
+            return comment;
+        }
+        public void setComment(@Column(name = "comment") String comment) {
+            this.comment = comment;
+        }
+        public LocalDateTime getCreatedate() {
+            return createdate;
+        }
+        public void setCreatedate(@Column(name = "createdate") LocalDateTime createdate) {
+            this.createdate = createdate;
+        }
+    }
+
+    private List<User> users;
+
+    public List<User> getUsers() {
+        return users;
+    }
+    public void setUsers(@OutParam(name = "users") List<User> users) {
+        this.users = users;
+    }
+
+}
@@ -0,0 +1,280 @@
+package com.github.chistousov.lib.programunitdb;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import javax.sql.DataSource;
+
+/**
+ * <p>
+ * In-memory JDBC objects for the offline tests and the benchmarks: the data source returns one prepared {@link CallableStatement}, whose output
+ * parameters are given by a function, and cursors are arrays of rows. Nothing goes to the network, so the tests and the benchmarks
+ * need no database. The objects are {@link Proxy} instances: methods that are not used by the library return the default
+ * value of their type.
+ * (JDBC объекты в памяти для офлайн тестов и бенчмарков: источник данных возвращает одно подготовленное {@link CallableStatement}, выходные
+ * параметры которого задаются функцией, а курсоры - массивы строк. Ничего не идет в сеть, поэтому тестам и бенчмаркам
+ * не нужна БД. Объекты - экземпляры {@link Proxy}: методы, которые библиотека не использует, возвращают значение
+ * по умолчанию своего типа.)
+ * </p>
+ *
+ * @author Nikita Chistousov (chistousov.nik@yandex.ru)
+ * @since 8
+ */
+final class StubJdbc {
+
+    private StubJdbc() {
+    }
+
+    /**
+     *
+     * @param outParams value of the output parameter by index; a cursor is returned as a new {@link ResultSet} on each call
+     *                  (значение выходного параметра по индексу; курсор возвращается как новый {@link ResultSet} при каждом вызове)
+     * @return data source (источник данных)
+     */
+    static DataSource dataSource(IntFunction<Object> outParams) {
+        return dataSource(outParams, new ArrayList<>());
+    }
+
+    /**
+     *
+     * @param outParams value of the output parameter by index (значение выходного параметра по индексу)
+     * @param transaction the commits and the rollbacks of the connection are added to it: "commit", "rollback"
+     *                    (в него добавляются фиксации и откаты подключения: "commit", "rollback")
+     * @return data source, whose connection keeps the autocommit mode
+     *         (источник данных, подключение которого хранит режим автокоммита)
+     */
+    static DataSource dataSource(IntFunction<Object> outParams, List<String> transaction) {
+        CallableStatement statement = callableStatement(outParams);
+        DatabaseMetaData metaData = proxy(DatabaseMetaData.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getDatabaseProductName":
+                    return "StubDB";
+                case "getUserName":
+                    return "stub";
+                default:
+                    return null;
+            }
+        });
+        boolean[] autoCommit = { true };
+        Connection connection = proxy(Connection.class, (method, args) -> {
+            switch (method.getName()) {
+                case "prepareCall":
+                    return statement;
+                case "getMetaData":
+                    return metaData;
+                case "getAutoCommit":
+                    return autoCommit[0];
+                case "setAutoCommit":
+                    autoCommit[0] = (Boolean) args[0];
+                    return null;
+                case "commit":
+                case "rollback":
+                    transaction.add(method.getName());
+                    return null;
+                default:
+                    return null;
+            }
+        });
+        return proxy(DataSource.class, (method, args) -> "getConnection".equals(method.getName()) ? connection : null);
+    }
+
+    /**
+     *
+     * @param outParams value of the output parameter by index (значение выходного параметра по индексу)
+     * @return executed call statement (выполненное выражение вызова)
+     */
+    static CallableStatement callableStatement(IntFunction<Object> outParams) {
+        Object[] lastValue = new Object[1];
+        return proxy(CallableStatement.class, (method, args) -> {
+            switch (method.getName()) {
+                case "wasNull":
+                    return lastValue[0] == null;
+                case "getUpdateCount":
+                    return -1;
+                default:
+                    if (!isGetter(method, args)) {
+                        return null;
+                    }
+                    Object value = outParams.apply((Integer) args[0]);
+                    lastValue[0] = value;
+                    return convert(value, args.length == 2 ? (Class<?>) args[1] : method.getReturnType());
+            }
+        });
+    }
+
+    /**
+     *
+     * @param columnNames names of the columns (имена колонок)
+     * @param rows rows of the cursor; a value that is an {@link SQLException} is thrown by its getter
+     *             (строки курсора; значение, которое является {@link SQLException}, выбрасывается его геттером)
+     * @return cursor before the first row (курсор перед первой строкой)
+     */
+    static ResultSet resultSet(String[] columnNames, Object[][] rows) {
+        ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getColumnCount":
+                    return columnNames.length;
+                case "getColumnName":
+                case "getColumnLabel":
+                    return columnNames[(Integer) args[0] - 1];
+                default:
+                    return null;
+            }
+        });
+        int[] row = { -1 };
+        Object[] lastValue = new Object[1];
+        return proxy(ResultSet.class, (method, args) -> {
+            switch (method.getName()) {
+                case "next":
+                    return ++row[0] < rows.length;
+                case "getMetaData":
+                    return metaData;
+                case "findColumn":
+                    return findColumn(columnNames, (String) args[0]);
+                case "wasNull":
+                    return lastValue[0] == null;
+                default:
+                    if (!isGetter(method, args)) {
+                        return null;
+                    }
+                    // the column is given by index or by label
+                    // колонка задается индексом или меткой
+                    int column = args[0] instanceof String ? findColumn(columnNames, (String) args[0]) : (Integer) args[0];
+                    Object value = rows[row[0]][column - 1];
+                    if (value instanceof SQLException) {
+                        // error of reading the column
+                        // ошибка чтения колонки
+                        throw (SQLException) value;
+                    }
+                    lastValue[0] = value;
+                    return convert(value, args.length == 2 ? (Class<?>) args[1] : method.getReturnType());
+            }
+        });
+    }
+
+    // getter of a value by index or label: getLong(int), getObject(String, Class) and so on
+    // геттер значения по индексу или метке: getLong(int), getObject(String, Class) и так далее
+    private static boolean isGetter(Method method, Object[] args) {
+        return method.getName().startsWith("get") && args != null && (args.length == 1 || args.length == 2
+                && args[1] instanceof Class) && (args[0] instanceof Integer || args[0] instanceof String);
+    }
+
+    private static int findColumn(String[] columnNames, String label) throws SQLException {
+        for (int i = 0; i < columnNames.length; i++) {
+            if (columnNames[i].equalsIgnoreCase(label)) {
+                return i + 1;
+            }
+        }
+        throw new SQLException("The column " + label + " is not found");
+    }
+
+    private static Object convert(Object value, Class<?> type) throws SQLException {
+        if (value == null) {
+            return type.isPrimitive() ? defaultValue(type) : null;
+        }
+        // a timestamp without the time zone is not read as OffsetDateTime, as a driver without JDBC 4.2 does
+        // timestamp без часового пояса не читается как OffsetDateTime, как это делает драйвер без JDBC 4.2
+        if (type == OffsetDateTime.class && value instanceof Timestamp) {
+            throw new SQLFeatureNotSupportedException("getObject(int, OffsetDateTime.class)");
+        }
+        if (type == String.class) {
+            return value.toString();
+        }
+        if (type == Timestamp.class && value instanceof LocalDateTime) {
+            return Timestamp.valueOf((LocalDateTime) value);
+        }
+        if (type == Date.class && value instanceof LocalDate) {
+            return Date.valueOf((LocalDate) value);
+        }
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            if (type == long.class) {
+                return number.longValue();
+            }
+            if (type == int.class) {
+                return number.intValue();
+            }
+            if (type == short.class) {
+                return number.shortValue();
+            }
+            if (type == byte.class) {
+                return number.byteValue();
+            }
+            if (type == double.class) {
+                return number.doubleValue();
+            }
+            if (type == float.class) {
+                return number.floatValue();
+            }
+        }
+        return value;
+    }
+
+    @FunctionalInterface
+    private interface Answer {
+        Object answer(Method method, Object[] args) throws Throwable;
+    }
+
+    private static <T> T proxy(Class<T> type, Answer answer) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return type.getSimpleName() + "Stub";
+                }
+            }
+            Object value = answer.answer(method, args);
+            return value == null && method.getReturnType().isPrimitive() ? defaultValue(method.getReturnType()) : value;
+        };
+        return type.cast(Proxy.newProxyInstance(StubJdbc.class.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == void.class) {
+            return null;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == double.class) {
+            return 0d;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+
+}